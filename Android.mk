@@ -27,6 +27,14 @@ ifeq (,$(TARGET_BUILD_APPS))
 
   LOCAL_SRC_FILES := $(call all-java-files-under, src)
 
+  # Generate the preference controller manifest from the preference screen XML.
+  controller_manifest := $(call local-generated-sources-dir)/com/android/car/settings/common/PreferenceControllerManifest.java
+  $(controller_manifest): PRIVATE_PATH := $(LOCAL_PATH)
+  $(controller_manifest): PRIVATE_CUSTOM_TOOL = python $(PRIVATE_PATH)/tools/gen_preference_controller_manifest.py $(PRIVATE_PATH)/res/xml $(PRIVATE_PATH)/src $@
+  $(controller_manifest): $(LOCAL_PATH)/tools/gen_preference_controller_manifest.py $(wildcard $(LOCAL_PATH)/res/xml/*.xml)
+	$(transform-generated-source)
+  LOCAL_GENERATED_SOURCES += $(controller_manifest)
+
   LOCAL_USE_AAPT2 := true
 
   LOCAL_JAVA_LIBRARIES := \
@@ -87,6 +95,14 @@ ifeq (,$(TARGET_BUILD_APPS))
 
   LOCAL_SRC_FILES := $(call all-java-files-under, src)
 
+  # Generate the preference controller manifest from the preference screen XML.
+  controller_manifest := $(call local-generated-sources-dir)/com/android/car/settings/common/PreferenceControllerManifest.java
+  $(controller_manifest): PRIVATE_PATH := $(LOCAL_PATH)
+  $(controller_manifest): PRIVATE_CUSTOM_TOOL = python $(PRIVATE_PATH)/tools/gen_preference_controller_manifest.py $(PRIVATE_PATH)/res/xml $(PRIVATE_PATH)/src $@
+  $(controller_manifest): $(LOCAL_PATH)/tools/gen_preference_controller_manifest.py $(wildcard $(LOCAL_PATH)/res/xml/*.xml)
+	$(transform-generated-source)
+  LOCAL_GENERATED_SOURCES += $(controller_manifest)
+
   LOCAL_USE_AAPT2 := true
 
   LOCAL_JAVA_LIBRARIES := \
@@ -23,6 +23,7 @@ import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.pm.UserInfo;
 import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
 import android.os.UserHandle;
 
 import androidx.collection.ArrayMap;
@@ -35,16 +36,17 @@ import com.android.car.settings.common.PreferenceController;
 import com.android.settingslib.accounts.AuthenticatorHelper;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Controller for listing accounts.
  *
+ * <p>Accounts are enumerated on a background thread with a shared {@link AuthenticatorHelper} from
+ * {@link AuthenticatorHelperCache}, and each load is applied to the existing preferences as a
+ * single update.
+ *
  * <p>Largely derived from {@link com.android.settings.accounts.AccountPreferenceController}
  */
 public class AccountListPreferenceController extends
@@ -55,17 +57,17 @@ public class AccountListPreferenceController extends
 
     private final UserInfo mUserInfo;
     private final CarUserManagerHelper mCarUserManagerHelper;
+    private final AuthenticatorHelperCache mAuthenticatorHelperCache;
     private final ArrayMap<String, Preference> mPreferences = new ArrayMap<>();
-    private AuthenticatorHelper mAuthenticatorHelper;
     private String[] mAuthorities;
+    private LoadAccountsTask mLoadAccountsTask;
 
     public AccountListPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
         mCarUserManagerHelper = new CarUserManagerHelper(context);
         mUserInfo = mCarUserManagerHelper.getCurrentProcessUserInfo();
-        mAuthenticatorHelper = new AuthenticatorHelper(context,
-                mUserInfo.getUserHandle(), /* listener= */ this);
+        mAuthenticatorHelperCache = AuthenticatorHelperCache.getInstance(context);
     }
 
     /** Sets the account authorities that are available. */
@@ -94,7 +96,7 @@ public class AccountListPreferenceController extends
      */
     @Override
     protected void onStartInternal() {
-        mAuthenticatorHelper.listenToAccountUpdates();
+        mAuthenticatorHelperCache.addListener(this);
         mCarUserManagerHelper.registerOnUsersUpdateListener(this);
     }
 
@@ -103,10 +105,18 @@ public class AccountListPreferenceController extends
      */
     @Override
     protected void onStopInternal() {
-        mAuthenticatorHelper.stopListeningToAccountUpdates();
+        mAuthenticatorHelperCache.removeListener(this);
         mCarUserManagerHelper.unregisterOnUsersUpdateListener(this);
     }
 
+    @Override
+    protected void onDestroyInternal() {
+        if (mLoadAccountsTask != null) {
+            mLoadAccountsTask.cancel(/* mayInterruptIfRunning= */ false);
+            mLoadAccountsTask = null;
+        }
+    }
+
     @Override
     public void onAccountsUpdate(UserHandle userHandle) {
         if (userHandle.equals(mUserInfo.getUserHandle())) {
@@ -126,89 +136,105 @@ public class AccountListPreferenceController extends
         return true;
     }
 
-    /** Forces a refresh of the account preferences. */
+    /**
+     * Forces a refresh of the account preferences. The accounts are loaded in the background and
+     * a load which is still running is replaced, so bursts of updates are applied once.
+     */
     private void forceUpdateAccountsCategory() {
         // Set the category title and include the user's name
         getPreference().setTitle(
                 getContext().getString(R.string.account_list_title, mUserInfo.name));
 
-        // Recreate the authentication helper to refresh the list of enabled accounts
-        mAuthenticatorHelper = new AuthenticatorHelper(getContext(), mUserInfo.getUserHandle(),
-                this);
+        if (mLoadAccountsTask != null) {
+            mLoadAccountsTask.cancel(/* mayInterruptIfRunning= */ false);
+        }
+        mLoadAccountsTask = new LoadAccountsTask();
+        mLoadAccountsTask.execute();
+    }
 
-        Set<String> preferencesToRemove = new HashSet<>(mPreferences.keySet());
-        List<? extends Preference> preferences = getAccountPreferences(preferencesToRemove);
-        // Add all preferences that aren't already shown. Manually set the order so that existing
-        // preferences are reordered correctly.
-        for (int i = 0; i < preferences.size(); i++) {
-            Preference pref = preferences.get(i);
-            pref.setOrder(i);
-            mPreferences.put(pref.getKey(), pref);
-            getPreference().addPreference(pref);
+    /**
+     * Shows a preference for each loaded account, or the "no account added" preference if there
+     * are none. Existing preferences are reused and reordered, and preferences of accounts which
+     * are gone are removed.
+     */
+    private void updateAccountPreferences(List<AccountInfo> accountInfos) {
+        ArrayMap<String, Preference> previous = new ArrayMap<>(mPreferences);
+        mPreferences.clear();
+        List<Preference> preferences = new ArrayList<>(accountInfos.size());
+        for (AccountInfo accountInfo : accountInfos) {
+            String key = AccountPreference.buildKey(accountInfo.mAccount);
+            Preference preference = previous.remove(key);
+            if (preference == null) {
+                preference = new AccountPreference(getContext(), accountInfo.mAccount,
+                        accountInfo.mLabel, accountInfo.mIcon);
+                preference.setOnPreferenceClickListener(
+                        (Preference pref) -> onAccountPreferenceClicked((AccountPreference) pref));
+            }
+            preferences.add(preference);
+        }
+        // If there are no accounts, show the "no account added" preference.
+        if (preferences.isEmpty()) {
+            Preference preference = previous.remove(NO_ACCOUNT_PREF_KEY);
+            preferences.add(preference != null ? preference : createNoAccountsAddedPreference());
         }
 
-        for (String key : preferencesToRemove) {
-            getPreference().removePreference(mPreferences.get(key));
-            mPreferences.remove(key);
+        // Manually set the order so that existing preferences are reordered correctly.
+        for (int i = 0; i < preferences.size(); i++) {
+            Preference preference = preferences.get(i);
+            String key = preference.getKey();
+            mPreferences.put(key, preference);
+            if (preference.getOrder() == i && getPreference().findPreference(key) != null) {
+                continue;
+            }
+            getPreference().removePreference(preference);
+            preference.setOrder(i);
+            getPreference().addPreference(preference);
+        }
+        for (Preference preference : previous.values()) {
+            getPreference().removePreference(preference);
         }
     }
 
     /**
-     * Returns a list of preferences corresponding to the accounts for the current user.
+     * Returns the accounts of the current user, sorted by account type label and account name.
+     * Blocks on the account service.
      *
      * <p> Derived from
      * {@link com.android.settings.accounts.AccountPreferenceController#getAccountTypePreferences}
-     *
-     * @param preferencesToRemove the current preferences shown; only preferences to be removed will
-     *                            remain after method execution
      */
-    private List<? extends Preference> getAccountPreferences(
-            Set<String> preferencesToRemove) {
-        String[] accountTypes = mAuthenticatorHelper.getEnabledAccountTypes();
-        ArrayList<AccountPreference> accountPreferences =
-                new ArrayList<>(accountTypes.length);
+    private List<AccountInfo> loadAccounts(AuthenticatorHelper authenticatorHelper) {
+        String[] accountTypes = authenticatorHelper.getEnabledAccountTypes();
+        List<AccountInfo> accountInfos = new ArrayList<>(accountTypes.length);
 
         for (int i = 0; i < accountTypes.length; i++) {
             String accountType = accountTypes[i];
             // Skip showing any account that does not have any of the requested authorities
-            if (!accountTypeHasAnyRequestedAuthorities(accountType)) {
+            if (!accountTypeHasAnyRequestedAuthorities(authenticatorHelper, accountType)) {
                 continue;
             }
-            CharSequence label = mAuthenticatorHelper.getLabelForType(getContext(), accountType);
+            CharSequence label = authenticatorHelper.getLabelForType(getContext(), accountType);
             if (label == null) {
                 continue;
             }
 
             Account[] accounts = AccountManager.get(getContext())
                     .getAccountsByTypeAsUser(accountType, mUserInfo.getUserHandle());
-            Drawable icon = mAuthenticatorHelper.getDrawableForType(getContext(), accountType);
+            if (accounts.length == 0) {
+                continue;
+            }
+            Drawable icon = authenticatorHelper.getDrawableForType(getContext(), accountType);
 
             // Add a preference row for each individual account
             for (Account account : accounts) {
-                String key = AccountPreference.buildKey(account);
-                AccountPreference preference = (AccountPreference) mPreferences.getOrDefault(key,
-                        new AccountPreference(getContext(), account, label, icon));
-                preference.setOnPreferenceClickListener(
-                        (Preference pref) -> onAccountPreferenceClicked((AccountPreference) pref));
-
-                accountPreferences.add(preference);
-                preferencesToRemove.remove(key);
+                accountInfos.add(new AccountInfo(account, label, icon));
             }
-            mAuthenticatorHelper.preloadDrawableForType(getContext(), accountType);
-        }
-
-        // If there are no accounts, return the "no account added" preference.
-        if (accountPreferences.isEmpty()) {
-            preferencesToRemove.remove(NO_ACCOUNT_PREF_KEY);
-            return Arrays.asList(mPreferences.getOrDefault(NO_ACCOUNT_PREF_KEY,
-                    createNoAccountsAddedPreference()));
         }
 
-        Collections.sort(accountPreferences, Comparator.comparing(
-                (AccountPreference a) -> a.getSummary().toString())
-                .thenComparing((AccountPreference a) -> a.getTitle().toString()));
+        Collections.sort(accountInfos, Comparator.comparing(
+                (AccountInfo a) -> a.mLabel.toString())
+                .thenComparing((AccountInfo a) -> a.mAccount.name));
 
-        return accountPreferences;
+        return accountInfos;
     }
 
     private Preference createNoAccountsAddedPreference() {
@@ -225,13 +251,14 @@ public class AccountListPreferenceController extends
      *
      * <p> Derived from {@link AccountPreferenceController#accountTypeHasAnyRequestedAuthorities}
      */
-    private boolean accountTypeHasAnyRequestedAuthorities(String accountType) {
+    private boolean accountTypeHasAnyRequestedAuthorities(AuthenticatorHelper authenticatorHelper,
+            String accountType) {
         if (mAuthorities == null || mAuthorities.length == 0) {
             // No authorities required
             return true;
         }
         ArrayList<String> authoritiesForType =
-                mAuthenticatorHelper.getAuthoritiesForAccountType(accountType);
+                authenticatorHelper.getAuthoritiesForAccountType(accountType);
         if (authoritiesForType == null) {
             return false;
         }
@@ -243,6 +270,37 @@ public class AccountListPreferenceController extends
         return false;
     }
 
+    /** An account along with the label and icon of its type. */
+    private static class AccountInfo {
+        private final Account mAccount;
+        private final CharSequence mLabel;
+        private final Drawable mIcon;
+
+        AccountInfo(Account account, CharSequence label, Drawable icon) {
+            mAccount = account;
+            mLabel = label;
+            mIcon = icon;
+        }
+    }
+
+    /** Loads the accounts in the background and updates the preferences on the main thread. */
+    private class LoadAccountsTask extends AsyncTask<Void, Void, List<AccountInfo>> {
+
+        @Override
+        protected List<AccountInfo> doInBackground(Void... voids) {
+            return loadAccounts(mAuthenticatorHelperCache.getAuthenticatorHelper(
+                    mUserInfo.getUserHandle()));
+        }
+
+        @Override
+        protected void onPostExecute(List<AccountInfo> accountInfos) {
+            if (mLoadAccountsTask == this) {
+                mLoadAccountsTask = null;
+            }
+            updateAccountPreferences(accountInfos);
+        }
+    }
+
     private static class AccountPreference extends Preference {
         /** Account that this Preference represents. */
         private final Account mAccount;
@@ -29,11 +29,14 @@ import android.content.SyncInfo;
 import android.content.SyncStatusInfo;
 import android.content.SyncStatusObserver;
 import android.content.pm.PackageManager;
+import android.os.AsyncTask;
 import android.os.UserHandle;
+import android.text.TextUtils;
 import android.text.format.DateFormat;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.collection.ArrayMap;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
@@ -52,11 +55,18 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Controller that presents all visible sync adapters for an account.
  *
+ * <p>The sync state of the adapters is loaded on a background thread. The visible adapters and
+ * their titles are cached until the sync settings, accounts, or packages change, so the frequent
+ * sync status updates only query the status of each adapter. Only preferences whose state changed
+ * are updated.
+ *
  * <p>Largely derived from {@link com.android.settings.accounts.AccountSyncSettings}.
  */
 public class AccountSyncDetailsPreferenceController extends
@@ -68,23 +78,34 @@ public class AccountSyncDetailsPreferenceController extends
      * sync.
      */
     private final Map<String, SyncPreference> mSyncPreferences = new ArrayMap<>();
+    /** The state last applied to each preference, keyed by authority. */
+    private final Map<String, SyncAdapterState> mSyncStates = new ArrayMap<>();
+    /** Observer types received since the last update was posted to the main thread. */
+    private final AtomicInteger mPendingObserverTypes = new AtomicInteger();
+    private final AuthenticatorHelperCache mAuthenticatorHelperCache;
     private boolean mIsStarted = false;
     private Account mAccount;
     private UserHandle mUserHandle;
-    private AuthenticatorHelper mAuthenticatorHelper;
     private Object mStatusChangeListenerHandle;
-    private SyncStatusObserver mSyncStatusObserver =
-            which -> ThreadUtils.postOnMainThread(() -> {
-                // The observer call may occur even if the fragment hasn't been started, so
-                // only force an update if the fragment hasn't been stopped.
-                if (mIsStarted) {
-                    forceUpdateSyncCategory();
-                }
-            });
+    /** The visible sync adapters of the account, or {@code null} if they need to be loaded. */
+    @Nullable
+    private List<SyncAdapterInfo> mSyncAdapterInfos;
+    /** Incremented whenever the visible sync adapters are invalidated. */
+    private int mSyncAdapterInfosVersion;
+    private LoadSyncStatesTask mLoadSyncStatesTask;
+    private boolean mReloadRequested;
+    private SyncStatusObserver mSyncStatusObserver = which -> {
+        // Status changes arrive in bursts while adapters sync, so only post an update if none is
+        // pending and let it handle all changes received until it runs.
+        if (mPendingObserverTypes.getAndUpdate(types -> types | which) == 0) {
+            ThreadUtils.postOnMainThread(this::onSyncStatusChanged);
+        }
+    };
 
     public AccountSyncDetailsPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
+        mAuthenticatorHelperCache = AuthenticatorHelperCache.getInstance(context);
     }
 
     /** Sets the account that the sync preferences are being shown for. */
@@ -123,22 +144,13 @@ public class AccountSyncDetailsPreferenceController extends
         }
     }
 
-    /**
-     * Initializes the authenticator helper.
-     */
-    @Override
-    protected void onCreateInternal() {
-        mAuthenticatorHelper = new AuthenticatorHelper(getContext(), mUserHandle, /* listener= */
-                this);
-    }
-
     /**
      * Registers the account update and sync status change callbacks.
      */
     @Override
     protected void onStartInternal() {
         mIsStarted = true;
-        mAuthenticatorHelper.listenToAccountUpdates();
+        mAuthenticatorHelperCache.addListener(this);
 
         mStatusChangeListenerHandle = ContentResolver.addStatusChangeListener(
                 ContentResolver.SYNC_OBSERVER_TYPE_ACTIVE
@@ -152,16 +164,28 @@ public class AccountSyncDetailsPreferenceController extends
     @Override
     protected void onStopInternal() {
         mIsStarted = false;
-        mAuthenticatorHelper.stopListeningToAccountUpdates();
+        mAuthenticatorHelperCache.removeListener(this);
         if (mStatusChangeListenerHandle != null) {
             ContentResolver.removeStatusChangeListener(mStatusChangeListenerHandle);
         }
+        // Sync settings changes are not observed while stopped.
+        invalidateSyncAdapters();
+    }
+
+    @Override
+    protected void onDestroyInternal() {
+        if (mLoadSyncStatesTask != null) {
+            mLoadSyncStatesTask.cancel(/* mayInterruptIfRunning= */ false);
+            mLoadSyncStatesTask = null;
+        }
+        mReloadRequested = false;
     }
 
     @Override
     public void onAccountsUpdate(UserHandle userHandle) {
         // Only force a refresh if accounts have changed for the current user.
         if (userHandle.equals(mUserHandle)) {
+            invalidateSyncAdapters();
             forceUpdateSyncCategory();
         }
     }
@@ -180,6 +204,9 @@ public class AccountSyncDetailsPreferenceController extends
      */
     private boolean onSyncPreferenceClicked(SyncPreference preference) {
         String authority = preference.getKey();
+        // The click toggles the switch even if the sync settings end up unchanged, so make sure
+        // the next load binds the preference again.
+        mSyncStates.remove(authority);
         String packageName = preference.getPackageName();
         int uid = preference.getUid();
         if (preference.isOneTimeSyncMode()) {
@@ -265,52 +292,100 @@ public class AccountSyncDetailsPreferenceController extends
         }
     }
 
-    /** Forces a refresh of the sync adapter preferences. */
+    private void onSyncStatusChanged() {
+        int which = mPendingObserverTypes.getAndSet(0);
+        // Whether an adapter is syncable is a sync setting.
+        if ((which & ContentResolver.SYNC_OBSERVER_TYPE_SETTINGS) != 0) {
+            invalidateSyncAdapters();
+        }
+        // The observer call may occur even if the fragment hasn't been started, so only force an
+        // update if the fragment hasn't been stopped.
+        if (mIsStarted) {
+            forceUpdateSyncCategory();
+        }
+    }
+
+    private void invalidateSyncAdapters() {
+        mSyncAdapterInfos = null;
+        mSyncAdapterInfosVersion++;
+    }
+
+    /**
+     * Forces a refresh of the sync adapter preferences. The sync states are loaded in the
+     * background. If a load is already running, a single reload is started once it finishes, so
+     * bursts of updates are applied at most twice.
+     */
     private void forceUpdateSyncCategory() {
+        if (mLoadSyncStatesTask != null) {
+            mReloadRequested = true;
+            return;
+        }
+        mLoadSyncStatesTask = new LoadSyncStatesTask(mSyncAdapterInfos, mSyncAdapterInfosVersion);
+        mLoadSyncStatesTask.execute();
+    }
+
+    /**
+     * Shows a preference for each loaded sync adapter state. Existing preferences are reused and
+     * reordered, only preferences whose state changed are updated, and preferences of sync
+     * adapters which are gone are removed.
+     */
+    private void updateSyncPreferences(List<SyncAdapterState> syncStates) {
         Set<String> preferencesToRemove = new HashSet<>(mSyncPreferences.keySet());
-        List<SyncPreference> preferences = getSyncPreferences(preferencesToRemove);
 
-        // Sort the preferences, add the ones that need to be added, and remove the ones that need
-        // to be removed. Manually set the order so that existing preferences are reordered
-        // correctly.
-        Collections.sort(preferences, Comparator.comparing(
-                (SyncPreference a) -> a.getTitle().toString())
-                .thenComparing((SyncPreference a) -> a.getSummary().toString()));
+        // Manually set the order so that existing preferences are reordered correctly.
+        for (int i = 0; i < syncStates.size(); i++) {
+            SyncAdapterState state = syncStates.get(i);
+            String authority = state.mInfo.mAuthority;
+            preferencesToRemove.remove(authority);
 
-        for (int i = 0; i < preferences.size(); i++) {
-            SyncPreference pref = preferences.get(i);
+            SyncPreference pref = mSyncPreferences.get(authority);
+            if (pref == null) {
+                pref = new SyncPreference(getContext(), authority);
+                pref.setOnPreferenceClickListener(
+                        (Preference p) -> onSyncPreferenceClicked((SyncPreference) p));
+                mSyncPreferences.put(authority, pref);
+            }
+            if (!state.equals(mSyncStates.get(authority))) {
+                bindSyncPreference(pref, state);
+                mSyncStates.put(authority, state);
+            }
+            if (pref.getOrder() == i && getPreference().findPreference(authority) != null) {
+                continue;
+            }
+            getPreference().removePreference(pref);
             pref.setOrder(i);
-            mSyncPreferences.put(pref.getKey(), pref);
             getPreference().addPreference(pref);
         }
 
         for (String key : preferencesToRemove) {
-            getPreference().removePreference(mSyncPreferences.get(key));
-            mSyncPreferences.remove(key);
+            getPreference().removePreference(mSyncPreferences.remove(key));
+            mSyncStates.remove(key);
         }
     }
 
+    private void bindSyncPreference(SyncPreference pref, SyncAdapterState state) {
+        pref.setUid(state.mInfo.mUid);
+        pref.setPackageName(state.mInfo.mPackageName);
+        pref.setTitle(state.mInfo.mTitle);
+        pref.setChecked(state.mChecked);
+        pref.setSummary(state.mSummary);
+        // Update the sync state so the icon is updated
+        pref.setSyncState(state.mSyncState);
+        pref.setOneTimeSyncMode(state.mOneTimeSyncMode);
+    }
+
     /**
-     * Returns a list of preferences corresponding to the visible sync adapters for the current
-     * user.
+     * Returns the visible sync adapters for the current user.
      *
-     * <p> Derived from {@link com.android.settings.accounts.AccountSyncSettings#setFeedsState}
-     * and {@link com.android.settings.accounts.AccountSyncSettings#updateAccountSwitches}.
-     *
-     * @param preferencesToRemove the keys for the preferences currently being shown; only the keys
-     *                            for preferences to be removed will remain after method execution
+     * <p> Derived from {@link com.android.settings.accounts.AccountSyncSettings#setFeedsState}.
      */
-    private List<SyncPreference> getSyncPreferences(Set<String> preferencesToRemove) {
+    @WorkerThread
+    private List<SyncAdapterInfo> loadSyncAdapterInfos() {
         int userId = mUserHandle.getIdentifier();
         PackageManager packageManager = getContext().getPackageManager();
-        List<SyncInfo> currentSyncs = ContentResolver.getCurrentSyncsAsUser(userId);
-        // Whether one time sync is enabled rather than automtic sync
-        boolean oneTimeSyncMode = !ContentResolver.getMasterSyncAutomaticallyAsUser(userId);
-
-        List<SyncPreference> syncPreferences = new ArrayList<>();
-
         Set<SyncAdapterType> syncAdapters = AccountSyncHelper.getVisibleSyncAdaptersForAccount(
                 getContext(), mAccount, mUserHandle);
+        List<SyncAdapterInfo> syncAdapterInfos = new ArrayList<>(syncAdapters.size());
         for (SyncAdapterType syncAdapter : syncAdapters) {
             String authority = syncAdapter.authority;
 
@@ -323,23 +398,29 @@ public class AccountSyncDetailsPreferenceController extends
                 continue;
             }
 
-            // If we've reached this point, the sync adapter should be shown. If a preference for
-            // the sync adapter already exists, update its state. Otherwise, create a new
-            // preference.
-            SyncPreference pref = mSyncPreferences.getOrDefault(authority,
-                    new SyncPreference(getContext(), authority));
-            pref.setUid(uid);
-            pref.setPackageName(syncAdapter.getPackageName());
-            pref.setOnPreferenceClickListener(
-                    (Preference p) -> onSyncPreferenceClicked((SyncPreference) p));
-
             CharSequence title = AccountSyncHelper.getTitle(getContext(), authority, mUserHandle);
-            pref.setTitle(title);
+            syncAdapterInfos.add(new SyncAdapterInfo(authority, syncAdapter.getPackageName(), uid,
+                    title));
+        }
+        return syncAdapterInfos;
+    }
 
-            // Keep track of preferences that need to be added and removed
-            syncPreferences.add(pref);
-            preferencesToRemove.remove(authority);
+    /**
+     * Returns the sync state of each of the given sync adapters, sorted by title and summary.
+     *
+     * <p> Derived from
+     * {@link com.android.settings.accounts.AccountSyncSettings#updateAccountSwitches}.
+     */
+    @WorkerThread
+    private List<SyncAdapterState> loadSyncStates(List<SyncAdapterInfo> syncAdapterInfos) {
+        int userId = mUserHandle.getIdentifier();
+        List<SyncInfo> currentSyncs = ContentResolver.getCurrentSyncsAsUser(userId);
+        // Whether one time sync is enabled rather than automtic sync
+        boolean oneTimeSyncMode = !ContentResolver.getMasterSyncAutomaticallyAsUser(userId);
 
+        List<SyncAdapterState> syncStates = new ArrayList<>(syncAdapterInfos.size());
+        for (SyncAdapterInfo info : syncAdapterInfos) {
+            String authority = info.mAuthority;
             SyncStatusInfo status = ContentResolver.getSyncStatusAsUser(mAccount, authority,
                     userId);
             boolean syncEnabled = ContentResolver.getSyncAutomaticallyAsUser(mAccount, authority,
@@ -349,19 +430,17 @@ public class AccountSyncDetailsPreferenceController extends
 
             // The preference should be checked if one one-time sync or regular sync is enabled
             boolean checked = oneTimeSyncMode || syncEnabled;
-            pref.setChecked(checked);
-
             String summary = getSummary(status, syncEnabled, activelySyncing);
-            pref.setSummary(summary);
-
-            // Update the sync state so the icon is updated
             AccountSyncHelper.SyncState syncState = AccountSyncHelper.getSyncState(status,
                     syncEnabled, activelySyncing);
-            pref.setSyncState(syncState);
-            pref.setOneTimeSyncMode(oneTimeSyncMode);
+            syncStates.add(new SyncAdapterState(info, checked, summary, syncState,
+                    oneTimeSyncMode));
         }
 
-        return syncPreferences;
+        Collections.sort(syncStates, Comparator.comparing(
+                (SyncAdapterState a) -> a.mInfo.mTitle.toString())
+                .thenComparing((SyncAdapterState a) -> a.mSummary));
+        return syncStates;
     }
 
     private String getSummary(SyncStatusInfo status, boolean syncEnabled, boolean activelySyncing) {
@@ -385,4 +464,117 @@ public class AccountSyncDetailsPreferenceController extends
         return DateFormat.getDateFormat(getContext()).format(date) + " " + DateFormat.getTimeFormat(
                 getContext()).format(date);
     }
+
+    /** A visible sync adapter of the account. */
+    private static final class SyncAdapterInfo {
+        private final String mAuthority;
+        private final String mPackageName;
+        private final int mUid;
+        private final CharSequence mTitle;
+
+        SyncAdapterInfo(String authority, String packageName, int uid, CharSequence title) {
+            mAuthority = authority;
+            mPackageName = packageName;
+            mUid = uid;
+            mTitle = title;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SyncAdapterInfo)) {
+                return false;
+            }
+            SyncAdapterInfo that = (SyncAdapterInfo) o;
+            return mUid == that.mUid
+                    && Objects.equals(mAuthority, that.mAuthority)
+                    && Objects.equals(mPackageName, that.mPackageName)
+                    && TextUtils.equals(mTitle, that.mTitle);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mAuthority, mPackageName, mUid);
+        }
+    }
+
+    /** The state shown by the preference of a sync adapter. */
+    private static final class SyncAdapterState {
+        private final SyncAdapterInfo mInfo;
+        private final boolean mChecked;
+        private final String mSummary;
+        private final AccountSyncHelper.SyncState mSyncState;
+        private final boolean mOneTimeSyncMode;
+
+        SyncAdapterState(SyncAdapterInfo info, boolean checked, String summary,
+                AccountSyncHelper.SyncState syncState, boolean oneTimeSyncMode) {
+            mInfo = info;
+            mChecked = checked;
+            mSummary = summary;
+            mSyncState = syncState;
+            mOneTimeSyncMode = oneTimeSyncMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SyncAdapterState)) {
+                return false;
+            }
+            SyncAdapterState that = (SyncAdapterState) o;
+            return mChecked == that.mChecked
+                    && mOneTimeSyncMode == that.mOneTimeSyncMode
+                    && mSyncState == that.mSyncState
+                    && mInfo.equals(that.mInfo)
+                    && mSummary.equals(that.mSummary);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mInfo, mChecked, mSummary, mSyncState, mOneTimeSyncMode);
+        }
+    }
+
+    /**
+     * Loads the sync states in the background, loading the visible sync adapters first if they
+     * are not cached, and updates the preferences on the main thread.
+     */
+    private class LoadSyncStatesTask extends AsyncTask<Void, Void, List<SyncAdapterState>> {
+        private final int mVersion;
+        private List<SyncAdapterInfo> mInfos;
+
+        LoadSyncStatesTask(@Nullable List<SyncAdapterInfo> infos, int version) {
+            mInfos = infos;
+            mVersion = version;
+        }
+
+        @Override
+        protected List<SyncAdapterState> doInBackground(Void... voids) {
+            if (mInfos == null) {
+                mInfos = loadSyncAdapterInfos();
+            }
+            return loadSyncStates(mInfos);
+        }
+
+        @Override
+        protected void onPostExecute(List<SyncAdapterState> syncStates) {
+            if (mLoadSyncStatesTask != this) {
+                return;
+            }
+            mLoadSyncStatesTask = null;
+            // Only cache the sync adapters if they were not invalidated during the load.
+            if (mVersion == mSyncAdapterInfosVersion) {
+                mSyncAdapterInfos = mInfos;
+            }
+            updateSyncPreferences(syncStates);
+            if (mReloadRequested) {
+                mReloadRequested = false;
+                forceUpdateSyncCategory();
+            }
+        }
+    }
 }
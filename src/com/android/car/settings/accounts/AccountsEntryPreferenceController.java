@@ -17,13 +17,13 @@
 package com.android.car.settings.accounts;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 
 import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which determines if the top level entry into Account settings should be displayed
@@ -31,12 +31,12 @@ import com.android.car.settings.common.PreferenceController;
  */
 public class AccountsEntryPreferenceController extends PreferenceController<Preference> {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public AccountsEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -44,9 +44,14 @@ public class AccountsEntryPreferenceController extends PreferenceController<Pref
         return Preference.class;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     public int getAvailabilityStatus() {
-        return mCarUserManagerHelper.canCurrentProcessModifyAccounts() ? AVAILABLE
+        return mUserStateCache.canCurrentProcessModifyAccounts() ? AVAILABLE
                 : DISABLED_FOR_USER;
     }
 }
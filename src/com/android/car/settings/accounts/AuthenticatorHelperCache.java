@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.accounts;
+
+import android.accounts.AccountManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Process;
+import android.os.UserHandle;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+
+import androidx.annotation.WorkerThread;
+
+import com.android.car.settings.common.Logger;
+import com.android.settingslib.accounts.AuthenticatorHelper;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process wide cache of {@link AuthenticatorHelper} instances, keyed by user. Building a helper
+ * queries the account service for the authenticator descriptions and the enabled account types,
+ * so helpers are shared between screens and only rebuilt after accounts or packages change.
+ * Registered listeners are notified of such changes after the cached helpers were dropped.
+ *
+ * <p>Listeners must be added and removed on the main thread.
+ */
+final class AuthenticatorHelperCache {
+
+    private static final Logger LOG = new Logger(AuthenticatorHelperCache.class);
+
+    private static AuthenticatorHelperCache sInstance;
+
+    private final Context mContext;
+    private final Map<UserHandle, AuthenticatorHelper> mHelpers = new ArrayMap<>();
+    private final Set<AuthenticatorHelper.OnAccountsUpdateListener> mListeners = new ArraySet<>();
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            LOG.d("Invalidating on " + intent.getAction());
+            invalidate();
+            // Broadcasts are only received for the process user or all users.
+            UserHandle userHandle = Process.myUserHandle();
+            for (AuthenticatorHelper.OnAccountsUpdateListener listener :
+                    new ArrayList<>(mListeners)) {
+                listener.onAccountsUpdate(userHandle);
+            }
+        }
+    };
+
+    /** Returns the cache of the application of {@code context}. */
+    static synchronized AuthenticatorHelperCache getInstance(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (sInstance == null || sInstance.mContext != appContext) {
+            sInstance = new AuthenticatorHelperCache(appContext);
+        }
+        return sInstance;
+    }
+
+    private AuthenticatorHelperCache(Context context) {
+        mContext = context;
+        IntentFilter accountsFilter = new IntentFilter();
+        accountsFilter.addAction(AccountManager.LOGIN_ACCOUNTS_CHANGED_ACTION);
+        accountsFilter.addAction(Intent.ACTION_DEVICE_STORAGE_OK);
+        mContext.registerReceiver(mReceiver, accountsFilter);
+        IntentFilter packagesFilter = new IntentFilter();
+        packagesFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packagesFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packagesFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packagesFilter.addDataScheme("package");
+        mContext.registerReceiver(mReceiver, packagesFilter);
+    }
+
+    /**
+     * Returns the helper for {@code userHandle}. Building a helper which is not cached blocks on
+     * the account service.
+     */
+    @WorkerThread
+    synchronized AuthenticatorHelper getAuthenticatorHelper(UserHandle userHandle) {
+        AuthenticatorHelper helper = mHelpers.get(userHandle);
+        if (helper == null) {
+            helper = new AuthenticatorHelper(mContext, userHandle, /* listener= */ null);
+            mHelpers.put(userHandle, helper);
+        }
+        return helper;
+    }
+
+    /** Drops all cached helpers. */
+    synchronized void invalidate() {
+        mHelpers.clear();
+    }
+
+    /** Notifies {@code listener} when accounts or account authenticators change. */
+    void addListener(AuthenticatorHelper.OnAccountsUpdateListener listener) {
+        mListeners.add(listener);
+    }
+
+    /** Stops notifying {@code listener}. */
+    void removeListener(AuthenticatorHelper.OnAccountsUpdateListener listener) {
+        mListeners.remove(listener);
+    }
+}
@@ -47,7 +47,7 @@ public class BluetoothBondedDevicesPreferenceController extends
     @Override
     protected BluetoothDevicePreference createDevicePreference(CachedBluetoothDevice cachedDevice) {
         BluetoothDevicePreference pref = super.createDevicePreference(cachedDevice);
-        if (!getCarUserManagerHelper().isCurrentProcessUserHasRestriction(
+        if (!getUserStateCache().isCurrentProcessUserHasRestriction(
                 DISALLOW_CONFIG_BLUETOOTH)) {
             pref.setWidgetLayoutResource(R.layout.details_preference_widget);
             pref.setOnButtonClickListener(preference -> getFragmentController().launchFragment(
@@ -70,6 +70,6 @@ public class BluetoothBondedDevicesPreferenceController extends
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
-        refreshUi();
+        requestDeviceRefresh(cachedDevice);
     }
 }
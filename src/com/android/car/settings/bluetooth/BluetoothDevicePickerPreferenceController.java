@@ -103,7 +103,7 @@ public class BluetoothDevicePickerPreferenceController extends
         } else {
             BluetoothUtils.showError(getContext(), cachedDevice.getName(),
                     R.string.bluetooth_pairing_error_message);
-            refreshUi();
+            refreshAllDevices();
         }
     }
 
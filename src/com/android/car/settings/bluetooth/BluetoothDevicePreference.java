@@ -36,6 +36,10 @@ import com.android.settingslib.bluetooth.CachedBluetoothDevice;
  * underlying cached device {@link CachedBluetoothDevice#equals(Object)} and {@link
  * CachedBluetoothDevice#compareTo(CachedBluetoothDevice)}. If two devices are considered equal, the
  * default preference sort ordering is used (see {@link #compareTo(Preference)}.
+ *
+ * <p>Device callbacks may change the sort order. By default the whole hierarchy is notified so
+ * that it is sorted again. Owners that batch updates can set an {@link UpdateListener} to decide
+ * when a re-sort is actually required.
  */
 public class BluetoothDevicePreference extends ButtonPreference {
     private static final String BLUETOOTH_SHOW_DEVICES_WITHOUT_NAMES_PROPERTY =
@@ -44,6 +48,16 @@ public class BluetoothDevicePreference extends ButtonPreference {
     private final CachedBluetoothDevice mCachedDevice;
     private final boolean mShowDevicesWithoutNames;
     private final CachedBluetoothDevice.Callback mDeviceCallback = this::refreshUi;
+    private UpdateListener mUpdateListener;
+
+    /** Listener notified when the state of the represented device has been applied. */
+    interface UpdateListener {
+        /**
+         * Called after {@code preference} reflects the latest state of its device. The order of
+         * the preference within its group may have changed.
+         */
+        void onDevicePreferenceUpdated(BluetoothDevicePreference preference);
+    }
 
     public BluetoothDevicePreference(Context context, CachedBluetoothDevice cachedDevice) {
         super(context);
@@ -61,6 +75,19 @@ public class BluetoothDevicePreference extends ButtonPreference {
         return mCachedDevice;
     }
 
+    /**
+     * Sets the {@link UpdateListener} which takes over notifying order changes. When {@code
+     * null}, every device update notifies the hierarchy.
+     */
+    void setUpdateListener(UpdateListener listener) {
+        mUpdateListener = listener;
+    }
+
+    /** Notifies the hierarchy that the preferences need to be sorted again. */
+    void notifyOrderChanged() {
+        notifyHierarchyChanged();
+    }
+
     @Override
     public void onAttached() {
         super.onAttached();
@@ -88,8 +115,12 @@ public class BluetoothDevicePreference extends ButtonPreference {
         setEnabled(!mCachedDevice.isBusy());
         setVisible(mShowDevicesWithoutNames || mCachedDevice.hasHumanReadableName());
 
-        // Notify since the ordering may have changed.
-        notifyHierarchyChanged();
+        if (mUpdateListener != null) {
+            mUpdateListener.onDevicePreferenceUpdated(this);
+        } else {
+            // Notify since the ordering may have changed.
+            notifyHierarchyChanged();
+        }
     }
 
     @Override
@@ -75,7 +75,7 @@ public abstract class BluetoothDevicePreferenceController<V extends Preference>
     protected int getAvailabilityStatus() {
         int availabilityStatus = super.getAvailabilityStatus();
         if (availabilityStatus == AVAILABLE) {
-            return getCarUserManagerHelper().isCurrentProcessUserHasRestriction(
+            return getUserStateCache().isCurrentProcessUserHasRestriction(
                     DISALLOW_CONFIG_BLUETOOTH) ? DISABLED_FOR_USER : AVAILABLE;
         }
         return availabilityStatus;
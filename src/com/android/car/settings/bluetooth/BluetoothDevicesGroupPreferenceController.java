@@ -20,7 +20,9 @@ import android.annotation.CallSuper;
 import android.bluetooth.BluetoothAdapter;
 import android.car.drivingstate.CarUxRestrictions;
 import android.content.Context;
+import android.util.ArraySet;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
 
@@ -29,9 +31,10 @@ import com.android.settingslib.bluetooth.BluetoothCallback;
 import com.android.settingslib.bluetooth.BluetoothDeviceFilter;
 import com.android.settingslib.bluetooth.CachedBluetoothDevice;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,22 +43,41 @@ import java.util.Set;
  * defined filter and removing preferences for devices that no longer pass. Subclasses are
  * dispatched click events on individual preferences to customize the behavior.
  *
- * <p>Note: {@link #refreshUi()} is called whenever a device is added or removed with {@link
- * #onDeviceAdded(CachedBluetoothDevice)} or {@link #onDeviceDeleted(CachedBluetoothDevice)}.
- * Subclasses should listen to state changes (and possibly override additional {@link
- * BluetoothCallback} methods) and call {@link #refreshUi()} for changes which affect their
- * implementation of {@link #getDeviceFilter()}.
+ * <p>Note: {@link #requestRefreshUi()} is called whenever a device is added or removed with
+ * {@link #onDeviceAdded(CachedBluetoothDevice)} or {@link
+ * #onDeviceDeleted(CachedBluetoothDevice)}. Subclasses should listen to state changes (and
+ * possibly override additional {@link BluetoothCallback} methods) and call {@link
+ * #requestRefreshUi()} for changes which affect their implementation of {@link
+ * #getDeviceFilter()}. When such a change concerns a single device, {@link
+ * #requestDeviceRefresh(CachedBluetoothDevice)} should be used instead.
+ *
+ * <p>Device events are batched: added, deleted, and refreshed devices are recorded and only those
+ * devices are re-evaluated on the next refresh. The full cached device list is only reconciled for
+ * refreshes without pending device events. New preferences are inserted in sorted position and
+ * the group is only sorted again when an updated device is out of order with its neighbors.
  */
 public abstract class BluetoothDevicesGroupPreferenceController extends
         BluetoothPreferenceController<PreferenceGroup> {
 
     private final Map<CachedBluetoothDevice, BluetoothDevicePreference> mPreferenceMap =
             new HashMap<>();
+    private final Set<CachedBluetoothDevice> mPendingDevices = new ArraySet<>();
+    private final Set<CachedBluetoothDevice> mPendingRemovals = new ArraySet<>();
+    private final Set<BluetoothDevicePreference> mPendingOrderChecks = new ArraySet<>();
+    private final BluetoothDevicePreference.UpdateListener mDevicePreferenceUpdateListener =
+            preference -> {
+                if (mPendingOrderChecks.add(preference) && !mIsUpdating) {
+                    requestRefreshUi();
+                }
+            };
     private final Preference.OnPreferenceClickListener mDevicePreferenceClickListener =
             preference -> {
                 onDeviceClicked(((BluetoothDevicePreference) preference).getCachedDevice());
                 return true;
             };
+    private boolean mIsUpdating;
+    private boolean mFullRefreshRequested = true;
+    private int mSortCount;
 
     public BluetoothDevicesGroupPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
@@ -98,54 +120,185 @@ public abstract class BluetoothDevicesGroupPreferenceController extends
         return mPreferenceMap;
     }
 
+    /**
+     * Requests a refresh of the group for a change to {@code cachedDevice} which may affect
+     * whether it passes {@link #getDeviceFilter()}. Only the given device is re-evaluated instead
+     * of the full cached device list.
+     */
+    protected final void requestDeviceRefresh(CachedBluetoothDevice cachedDevice) {
+        mPendingRemovals.remove(cachedDevice);
+        mPendingDevices.add(cachedDevice);
+        requestRefreshUi();
+    }
+
+    /**
+     * Refreshes the group, re-evaluating {@link #getDeviceFilter()} for all cached devices.
+     * Subclasses should call this instead of {@link #refreshUi()} when the filter itself may have
+     * changed, since pending device events otherwise limit the refresh to the changed devices.
+     */
+    protected final void refreshAllDevices() {
+        mFullRefreshRequested = true;
+        refreshUi();
+    }
+
     @Override
     @CallSuper
     protected void updateState(PreferenceGroup preferenceGroup) {
+        mIsUpdating = true;
+        // Refreshes caused by device events are limited to the pending devices, so an attribute
+        // update which only needs an order check does not re-filter the cached devices. A refresh
+        // without any pending event was requested explicitly and reconciles all devices.
+        if (mFullRefreshRequested || (mPendingDevices.isEmpty() && mPendingRemovals.isEmpty()
+                && mPendingOrderChecks.isEmpty())) {
+            mFullRefreshRequested = false;
+            updateAllDevices();
+        } else {
+            updatePendingDevices();
+        }
+        mIsUpdating = false;
+        sortIfOutOfOrder(preferenceGroup);
+
+        preferenceGroup.setVisible(preferenceGroup.getPreferenceCount() > 0);
+    }
+
+    private void updateAllDevices() {
         Collection<CachedBluetoothDevice> cachedDevices =
                 getBluetoothManager().getCachedDeviceManager().getCachedDevicesCopy();
 
-        Set<CachedBluetoothDevice> devicesToRemove = new HashSet<>(mPreferenceMap.keySet());
-        devicesToRemove.removeAll(cachedDevices);
-        for (CachedBluetoothDevice deviceToRemove : devicesToRemove) {
+        Set<CachedBluetoothDevice> currentDevices = new ArraySet<>(cachedDevices.size());
+        for (CachedBluetoothDevice cachedDevice : cachedDevices) {
+            currentDevices.add(cachedDevice);
+            updateDevice(cachedDevice);
+        }
+
+        if (mPreferenceMap.size() > currentDevices.size()
+                || !currentDevices.containsAll(mPreferenceMap.keySet())) {
+            List<CachedBluetoothDevice> devicesToRemove = new ArrayList<>();
+            for (CachedBluetoothDevice cachedDevice : mPreferenceMap.keySet()) {
+                if (!currentDevices.contains(cachedDevice)) {
+                    devicesToRemove.add(cachedDevice);
+                }
+            }
+            for (CachedBluetoothDevice deviceToRemove : devicesToRemove) {
+                removePreference(deviceToRemove);
+            }
+        }
+        // All devices were evaluated, so pending device events are covered.
+        mPendingDevices.clear();
+        mPendingRemovals.clear();
+    }
+
+    private void updatePendingDevices() {
+        for (CachedBluetoothDevice deviceToRemove : mPendingRemovals) {
             removePreference(deviceToRemove);
         }
+        mPendingRemovals.clear();
 
-        for (CachedBluetoothDevice cachedDevice : cachedDevices) {
-            if (getDeviceFilter().matches(cachedDevice.getDevice())) {
-                addPreference(cachedDevice);
-            } else {
-                removePreference(cachedDevice);
+        // Copy since adding a preference may report an update for it.
+        List<CachedBluetoothDevice> pendingDevices = new ArrayList<>(mPendingDevices);
+        mPendingDevices.clear();
+        for (CachedBluetoothDevice cachedDevice : pendingDevices) {
+            updateDevice(cachedDevice);
+        }
+    }
+
+    private void updateDevice(CachedBluetoothDevice cachedDevice) {
+        if (getDeviceFilter().matches(cachedDevice.getDevice())) {
+            addPreference(cachedDevice);
+        } else {
+            removePreference(cachedDevice);
+        }
+    }
+
+    /**
+     * Sorts the group if any updated preference is no longer in order with its neighbors. New
+     * preferences are inserted in sorted position by the group, so only updated devices can break
+     * the order.
+     */
+    private void sortIfOutOfOrder(PreferenceGroup preferenceGroup) {
+        if (mPendingOrderChecks.isEmpty()) {
+            return;
+        }
+        BluetoothDevicePreference outOfOrderPreference = null;
+        for (BluetoothDevicePreference preference : mPendingOrderChecks) {
+            if (mPreferenceMap.get(preference.getCachedDevice()) == preference
+                    && !isInOrder(preferenceGroup, preference)) {
+                outOfOrderPreference = preference;
+                break;
+            }
+        }
+        mPendingOrderChecks.clear();
+        if (outOfOrderPreference != null) {
+            mSortCount++;
+            outOfOrderPreference.notifyOrderChanged();
+        }
+    }
+
+    private boolean isInOrder(PreferenceGroup preferenceGroup, Preference preference) {
+        int count = preferenceGroup.getPreferenceCount();
+        for (int i = 0; i < count; i++) {
+            if (preferenceGroup.getPreference(i) != preference) {
+                continue;
             }
+            if (i > 0 && preferenceGroup.getPreference(i - 1).compareTo(preference) > 0) {
+                return false;
+            }
+            return i == count - 1
+                    || preference.compareTo(preferenceGroup.getPreference(i + 1)) <= 0;
         }
+        return true;
+    }
 
-        preferenceGroup.setVisible(preferenceGroup.getPreferenceCount() > 0);
+    /** Returns the number of times the group was asked to sort its preferences again. */
+    @VisibleForTesting
+    int getSortCount() {
+        return mSortCount;
+    }
+
+    @Override
+    @CallSuper
+    protected void onStopInternal() {
+        super.onStopInternal();
+        // Device events are not received while stopped, so the next refresh reconciles all devices.
+        mPendingDevices.clear();
+        mPendingRemovals.clear();
+        mPendingOrderChecks.clear();
+        mFullRefreshRequested = true;
     }
 
     @Override
     public final void onBluetoothStateChanged(int bluetoothState) {
+        // The adapter state may change which devices are reported, so reconcile all of them.
+        mFullRefreshRequested = true;
         super.onBluetoothStateChanged(bluetoothState);
         if (bluetoothState == BluetoothAdapter.STATE_TURNING_OFF) {
             // Cleanup the UI so that we don't have stale representations when the adapter turns
             // on again. This can happen if Bluetooth crashes and restarts.
             getPreference().removeAll();
             mPreferenceMap.clear();
+            mPendingDevices.clear();
+            mPendingRemovals.clear();
+            mPendingOrderChecks.clear();
         }
     }
 
     @Override
     public final void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
-        refreshUi();
+        requestDeviceRefresh(cachedDevice);
     }
 
     @Override
     public final void onDeviceDeleted(CachedBluetoothDevice cachedDevice) {
-        refreshUi();
+        mPendingDevices.remove(cachedDevice);
+        mPendingRemovals.add(cachedDevice);
+        requestRefreshUi();
     }
 
     private void addPreference(CachedBluetoothDevice cachedDevice) {
         if (!mPreferenceMap.containsKey(cachedDevice)) {
             BluetoothDevicePreference devicePreference = createDevicePreference(cachedDevice);
             devicePreference.setOnPreferenceClickListener(mDevicePreferenceClickListener);
+            devicePreference.setUpdateListener(mDevicePreferenceUpdateListener);
             mPreferenceMap.put(cachedDevice, devicePreference);
             getPreference().addPreference(devicePreference);
         }
@@ -153,8 +306,10 @@ public abstract class BluetoothDevicesGroupPreferenceController extends
 
     private void removePreference(CachedBluetoothDevice cachedDevice) {
         if (mPreferenceMap.containsKey(cachedDevice)) {
-            getPreference().removePreference(mPreferenceMap.get(cachedDevice));
-            mPreferenceMap.remove(cachedDevice);
+            BluetoothDevicePreference devicePreference = mPreferenceMap.remove(cachedDevice);
+            devicePreference.setUpdateListener(null);
+            getPreference().removePreference(devicePreference);
+            mPendingOrderChecks.remove(devicePreference);
         }
     }
 }
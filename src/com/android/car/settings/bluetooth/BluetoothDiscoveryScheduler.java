@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.bluetooth;
+
+import android.bluetooth.BluetoothAdapter;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.ArraySet;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.car.settings.common.Logger;
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Duty-cycles Bluetooth discovery while scanning is enabled. The first {@link
+ * #BURST_INQUIRY_COUNT} inquiries run back to back. After that, an inquiry which finds new devices
+ * is followed immediately by another, while an inquiry which finds nothing new backs off
+ * exponentially from {@link #INITIAL_BACKOFF_MS} up to {@link #MAX_BACKOFF_MS}.
+ *
+ * <p>Discovery time and device yield are tracked for the current session and logged when the
+ * scheduler is stopped. Must be used on the main thread.
+ */
+final class BluetoothDiscoveryScheduler {
+
+    private static final Logger LOG = new Logger(BluetoothDiscoveryScheduler.class);
+
+    @VisibleForTesting
+    static final int BURST_INQUIRY_COUNT = 3;
+    @VisibleForTesting
+    static final long INITIAL_BACKOFF_MS = 10_000;
+    @VisibleForTesting
+    static final long MAX_BACKOFF_MS = 60_000;
+
+    private final BluetoothAdapter mBluetoothAdapter;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mStartInquiry = this::startInquiry;
+    private final Set<CachedBluetoothDevice> mSeenDevices = new ArraySet<>();
+
+    private boolean mIsStarted;
+    private boolean mIsInquiryRunning;
+    private long mInquiryStartTimeMs;
+    private long mBackoffMs;
+    private int mInquiryNewDeviceCount;
+
+    private long mSessionStartTimeMs;
+    private long mDiscoveryTimeMs;
+    private int mInquiryCount;
+    private int mNewDeviceCount;
+
+    BluetoothDiscoveryScheduler(BluetoothAdapter bluetoothAdapter) {
+        mBluetoothAdapter = bluetoothAdapter;
+    }
+
+    /**
+     * Starts discovery if the scheduler is not already running. Calls are idempotent, so an
+     * inquiry which is backed off is not restarted early.
+     *
+     * @param knownDevices devices which are already shown and do not count as found.
+     */
+    void start(Collection<CachedBluetoothDevice> knownDevices) {
+        if (mIsStarted) {
+            return;
+        }
+        mIsStarted = true;
+        mSessionStartTimeMs = SystemClock.elapsedRealtime();
+        mDiscoveryTimeMs = 0;
+        mInquiryCount = 0;
+        mNewDeviceCount = 0;
+        mBackoffMs = 0;
+        mSeenDevices.clear();
+        mSeenDevices.addAll(knownDevices);
+        startInquiry();
+    }
+
+    /** Stops discovery and cancels any scheduled inquiry. Calls are idempotent. */
+    void stop() {
+        if (!mIsStarted) {
+            return;
+        }
+        mIsStarted = false;
+        mHandler.removeCallbacks(mStartInquiry);
+        finishInquiry();
+        if (mBluetoothAdapter.isDiscovering()) {
+            mBluetoothAdapter.cancelDiscovery();
+        }
+        LOG.d("Discovery stopped. inquiries: " + mInquiryCount + " discoveryTimeMs: "
+                + mDiscoveryTimeMs + " sessionTimeMs: "
+                + (SystemClock.elapsedRealtime() - mSessionStartTimeMs) + " newDevices: "
+                + mNewDeviceCount);
+    }
+
+    /**
+     * Records the devices currently shown so that newly found ones count towards the yield of the
+     * running inquiry.
+     */
+    void onDevicesSeen(Collection<CachedBluetoothDevice> devices) {
+        for (CachedBluetoothDevice device : devices) {
+            if (mSeenDevices.add(device) && mIsInquiryRunning) {
+                mInquiryNewDeviceCount++;
+                mNewDeviceCount++;
+            }
+        }
+    }
+
+    /**
+     * Called when the adapter reports that discovery finished. Schedules the next inquiry based
+     * on the yield of the one which just finished.
+     */
+    void onDiscoveryFinished() {
+        if (!mIsStarted) {
+            return;
+        }
+        boolean foundNewDevices = mInquiryNewDeviceCount > 0;
+        finishInquiry();
+        if (mInquiryCount < BURST_INQUIRY_COUNT || foundNewDevices) {
+            mBackoffMs = 0;
+        } else if (mBackoffMs == 0) {
+            mBackoffMs = INITIAL_BACKOFF_MS;
+        } else {
+            mBackoffMs = Math.min(mBackoffMs * 2, MAX_BACKOFF_MS);
+        }
+        if (mBackoffMs == 0) {
+            startInquiry();
+        } else {
+            LOG.d("No new devices found, next inquiry in " + mBackoffMs + "ms");
+            mHandler.postDelayed(mStartInquiry, mBackoffMs);
+        }
+    }
+
+    private void startInquiry() {
+        if (!mIsStarted) {
+            return;
+        }
+        if (!mBluetoothAdapter.isDiscovering()) {
+            mBluetoothAdapter.startDiscovery();
+        }
+        mIsInquiryRunning = true;
+        mInquiryStartTimeMs = SystemClock.elapsedRealtime();
+        mInquiryNewDeviceCount = 0;
+        mInquiryCount++;
+    }
+
+    private void finishInquiry() {
+        if (!mIsInquiryRunning) {
+            return;
+        }
+        mIsInquiryRunning = false;
+        mDiscoveryTimeMs += SystemClock.elapsedRealtime() - mInquiryStartTimeMs;
+    }
+
+    /** Returns {@code true} if the scheduler is running, even if an inquiry is backed off. */
+    boolean isStarted() {
+        return mIsStarted;
+    }
+
+    /** Returns the number of inquiries started in the current session. */
+    int getInquiryCount() {
+        return mInquiryCount;
+    }
+
+    /** Returns the time spent discovering in the current session, in milliseconds. */
+    long getDiscoveryTimeMs() {
+        return mIsInquiryRunning
+                ? mDiscoveryTimeMs + SystemClock.elapsedRealtime() - mInquiryStartTimeMs
+                : mDiscoveryTimeMs;
+    }
+
+    /** Returns the number of devices found by discovery in the current session. */
+    int getNewDeviceCount() {
+        return mNewDeviceCount;
+    }
+}
@@ -20,13 +20,13 @@ import static android.content.pm.PackageManager.FEATURE_BLUETOOTH;
 import static android.os.UserManager.DISALLOW_BLUETOOTH;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 
 import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which determines if the top level entry into Bluetooth settings should be displayed
@@ -34,12 +34,12 @@ import com.android.car.settings.common.PreferenceController;
  */
 public class BluetoothEntryPreferenceController extends PreferenceController<Preference> {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public BluetoothEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -47,12 +47,17 @@ public class BluetoothEntryPreferenceController extends PreferenceController<Pre
         return Preference.class;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     public int getAvailabilityStatus() {
         if (!getContext().getPackageManager().hasSystemFeature(FEATURE_BLUETOOTH)) {
             return UNSUPPORTED_ON_DEVICE;
         }
-        return mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)
+        return mUserStateCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)
                 ? DISABLED_FOR_USER : AVAILABLE;
     }
 }
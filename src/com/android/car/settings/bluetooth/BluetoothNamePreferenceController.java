@@ -69,7 +69,7 @@ public class BluetoothNamePreferenceController extends BluetoothPreferenceContro
 
     @Override
     protected void updateState(Preference preference) {
-        preference.setSelectable(!getCarUserManagerHelper().isCurrentProcessUserHasRestriction(
+        preference.setSelectable(!getUserStateCache().isCurrentProcessUserHasRestriction(
                 DISALLOW_CONFIG_BLUETOOTH));
         preference.setSummary(BluetoothAdapter.getDefaultAdapter().getName());
     }
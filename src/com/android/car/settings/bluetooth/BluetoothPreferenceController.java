@@ -20,7 +20,6 @@ import static android.os.UserManager.DISALLOW_BLUETOOTH;
 
 import android.bluetooth.BluetoothAdapter;
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.pm.PackageManager;
 
@@ -29,6 +28,7 @@ import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 import com.android.settingslib.bluetooth.BluetoothCallback;
 import com.android.settingslib.bluetooth.CachedBluetoothDevice;
 import com.android.settingslib.bluetooth.LocalBluetoothManager;
@@ -46,19 +46,19 @@ import com.android.settingslib.bluetooth.LocalBluetoothManager;
 public abstract class BluetoothPreferenceController<V extends Preference> extends
         PreferenceController<V> implements BluetoothCallback {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
     private final LocalBluetoothManager mBluetoothManager;
 
     public BluetoothPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
         mBluetoothManager = BluetoothUtils.getLocalBtManager(context);
     }
 
-    /** Returns a {@link CarUserManagerHelper} constructed from the controller context. */
-    protected final CarUserManagerHelper getCarUserManagerHelper() {
-        return mCarUserManagerHelper;
+    /** Returns the process wide {@link UserStateCache}. */
+    protected final UserStateCache getUserStateCache() {
+        return mUserStateCache;
     }
 
     /**
@@ -75,7 +75,7 @@ public abstract class BluetoothPreferenceController<V extends Preference> extend
         if (!getContext().getPackageManager().hasSystemFeature(PackageManager.FEATURE_BLUETOOTH)) {
             return UNSUPPORTED_ON_DEVICE;
         }
-        if (mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)) {
+        if (mUserStateCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)) {
             return DISABLED_FOR_USER;
         }
         return BluetoothAdapter.getDefaultAdapter().isEnabled() ? AVAILABLE
@@ -97,7 +97,7 @@ public abstract class BluetoothPreferenceController<V extends Preference> extend
     @Override
     @CallSuper
     public void onBluetoothStateChanged(int bluetoothState) {
-        refreshUi();
+        requestRefreshUi();
     }
 
     @Override
@@ -25,7 +25,9 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.os.SystemClock;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.PreferenceGroup;
 
 import com.android.car.settings.common.FragmentController;
@@ -38,6 +40,11 @@ import com.android.settingslib.bluetooth.CachedBluetoothDevice;
  * and scanning are halted while any device is pairing. Users with the {@link
  * DISALLOW_CONFIG_BLUETOOTH} restriction cannot scan for devices, so only cached devices will be
  * shown.
+ *
+ * <p>Discovery is duty-cycled by a {@link BluetoothDiscoveryScheduler}. Devices found by
+ * discovery are kept when the group is stopped and only cleared if it is not started again within
+ * {@link #NON_BONDED_DEVICES_CACHE_TIMEOUT_MS}, so that returning to the screen shows them
+ * immediately.
  */
 public abstract class BluetoothScanningDevicesGroupPreferenceController extends
         BluetoothDevicesGroupPreferenceController {
@@ -45,14 +52,23 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
     private static final Logger LOG = new Logger(
             BluetoothScanningDevicesGroupPreferenceController.class);
 
+    @VisibleForTesting
+    static final long NON_BONDED_DEVICES_CACHE_TIMEOUT_MS = 30_000;
+
+    /** Time at which a scanning group was last stopped, shared since the device cache is. */
+    private static long sLastStopTimeMs;
+
     private final BluetoothAdapter mBluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
     private final AlwaysDiscoverable mAlwaysDiscoverable;
+    private final BluetoothDiscoveryScheduler mDiscoveryScheduler;
     private boolean mIsScanningEnabled;
+    private boolean mIsStarted;
 
     public BluetoothScanningDevicesGroupPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
         mAlwaysDiscoverable = new AlwaysDiscoverable(context, mBluetoothAdapter);
+        mDiscoveryScheduler = new BluetoothDiscoveryScheduler(mBluetoothAdapter);
     }
 
     @Override
@@ -69,25 +85,52 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
      */
     protected abstract void onDeviceClickedInternal(CachedBluetoothDevice cachedDevice);
 
+    @Override
+    protected void onStartInternal() {
+        if (sLastStopTimeMs != 0 && SystemClock.elapsedRealtime() - sLastStopTimeMs
+                > NON_BONDED_DEVICES_CACHE_TIMEOUT_MS) {
+            LOG.d("Clearing non-bonded devices, last scanned "
+                    + (SystemClock.elapsedRealtime() - sLastStopTimeMs) + "ms ago");
+            getBluetoothManager().getCachedDeviceManager().clearNonBondedDevices();
+            getPreferenceMap().clear();
+            getPreference().removeAll();
+        }
+        mIsStarted = true;
+        super.onStartInternal();
+    }
+
     @Override
     protected void onStopInternal() {
         super.onStopInternal();
+        mIsStarted = false;
         disableScanning();
-        getBluetoothManager().getCachedDeviceManager().clearNonBondedDevices();
-        getPreferenceMap().clear();
-        getPreference().removeAll();
+        sLastStopTimeMs = SystemClock.elapsedRealtime();
     }
 
     @Override
     protected void updateState(PreferenceGroup preferenceGroup) {
         super.updateState(preferenceGroup);
-        if (shouldEnableScanning()) {
+        // Device preferences stay attached while stopped and may still request refreshes, which
+        // must not restart discovery in the background.
+        if (mIsStarted && shouldEnableScanning()) {
             enableScanning();
+            mDiscoveryScheduler.onDevicesSeen(getPreferenceMap().keySet());
         } else {
             disableScanning();
         }
     }
 
+    /** Returns the scheduler which duty-cycles discovery for this group. */
+    @VisibleForTesting
+    BluetoothDiscoveryScheduler getDiscoveryScheduler() {
+        return mDiscoveryScheduler;
+    }
+
+    @VisibleForTesting
+    static void resetNonBondedDevicesCache() {
+        sLastStopTimeMs = 0;
+    }
+
     private boolean shouldEnableScanning() {
         for (CachedBluetoothDevice device : getPreferenceMap().keySet()) {
             if (device.getBondState() == BluetoothDevice.BOND_BONDING) {
@@ -95,7 +138,7 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
             }
         }
         // Users who cannot configure Bluetooth cannot scan.
-        return !getCarUserManagerHelper().isCurrentProcessUserHasRestriction(
+        return !getUserStateCache().isCurrentProcessUserHasRestriction(
                 DISALLOW_CONFIG_BLUETOOTH);
     }
 
@@ -105,9 +148,7 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
      */
     private void enableScanning() {
         mIsScanningEnabled = true;
-        if (!mBluetoothAdapter.isDiscovering()) {
-            mBluetoothAdapter.startDiscovery();
-        }
+        mDiscoveryScheduler.start(getPreferenceMap().keySet());
         mAlwaysDiscoverable.start();
         getPreference().setEnabled(true);
     }
@@ -117,9 +158,7 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
         mIsScanningEnabled = false;
         getPreference().setEnabled(false);
         mAlwaysDiscoverable.stop();
-        if (mBluetoothAdapter.isDiscovering()) {
-            mBluetoothAdapter.cancelDiscovery();
-        }
+        mDiscoveryScheduler.stop();
     }
 
     @Override
@@ -127,14 +166,14 @@ public abstract class BluetoothScanningDevicesGroupPreferenceController extends
         LOG.d("onScanningStateChanged started: " + started + " mIsScanningEnabled: "
                 + mIsScanningEnabled);
         if (!started && mIsScanningEnabled) {
-            enableScanning();
+            mDiscoveryScheduler.onDiscoveryFinished();
         }
     }
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
         LOG.d("onDeviceBondStateChanged device: " + cachedDevice + " state: " + bondState);
-        refreshUi();
+        requestDeviceRefresh(cachedDevice);
     }
 
     /**
@@ -62,7 +62,7 @@ public class BluetoothUnbondedDevicesPreferenceController extends
         } else {
             BluetoothUtils.showError(getContext(), cachedDevice.getName(),
                     R.string.bluetooth_pairing_error_message);
-            refreshUi();
+            refreshAllDevices();
         }
     }
 
@@ -70,7 +70,7 @@ public class BluetoothUnbondedDevicesPreferenceController extends
     protected int getAvailabilityStatus() {
         int availabilityStatus = super.getAvailabilityStatus();
         if (availabilityStatus == AVAILABLE
-                && getCarUserManagerHelper().isCurrentProcessUserHasRestriction(
+                && getUserStateCache().isCurrentProcessUserHasRestriction(
                 DISALLOW_CONFIG_BLUETOOTH)) {
             return DISABLED_FOR_USER;
         }
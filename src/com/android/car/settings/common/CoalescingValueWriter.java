@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.android.car.settings.R;
+
+/**
+ * Writes the latest of a stream of values, such as the progress of a seek bar being dragged, at a
+ * bounded rate. {@link #set(int)} writes immediately if no value was written within {@code
+ * config_coalescing_writer_min_interval_ms}, otherwise it keeps only the latest value and writes it
+ * once the interval has elapsed. {@link #commit(int)} writes right away and should be used for the
+ * final value of a gesture. Must be used on the main thread.
+ */
+public final class CoalescingValueWriter {
+
+    /** Performs the actual write, e.g. persisting a setting or calling a service. */
+    public interface Writer {
+        /** Writes {@code value}. */
+        void write(int value);
+    }
+
+    private final Writer mWriter;
+    private final long mMinIntervalMs;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mWritePending = this::writePending;
+
+    private boolean mHasWritten;
+    private long mLastWriteUptimeMs;
+    private boolean mHasPendingValue;
+    private int mPendingValue;
+
+    private int mIssuedWriteCount;
+    private int mCoalescedWriteCount;
+
+    public CoalescingValueWriter(Context context, Writer writer) {
+        mWriter = writer;
+        mMinIntervalMs = context.getResources().getInteger(
+                R.integer.config_coalescing_writer_min_interval_ms);
+    }
+
+    /** Requests that {@code value} be written, possibly coalesced with later values. */
+    public void set(int value) {
+        long nextWriteUptimeMs = mLastWriteUptimeMs + mMinIntervalMs;
+        if (!mHasPendingValue
+                && (!mHasWritten || SystemClock.uptimeMillis() >= nextWriteUptimeMs)) {
+            write(value);
+            return;
+        }
+        if (mHasPendingValue) {
+            // The previously pending value is replaced without ever being written.
+            mCoalescedWriteCount++;
+        } else {
+            mHandler.postAtTime(mWritePending, nextWriteUptimeMs);
+        }
+        mHasPendingValue = true;
+        mPendingValue = value;
+    }
+
+    /** Writes {@code value} immediately, replacing any pending value. */
+    public void commit(int value) {
+        if (mHasPendingValue) {
+            mCoalescedWriteCount++;
+            clearPending();
+        }
+        write(value);
+    }
+
+    /** Writes the pending value, if any, immediately. */
+    public void flush() {
+        if (mHasPendingValue) {
+            writePending();
+        }
+    }
+
+    /** Drops the pending value, if any, without writing it. */
+    public void cancel() {
+        if (mHasPendingValue) {
+            mCoalescedWriteCount++;
+            clearPending();
+        }
+    }
+
+    /** Returns the number of values passed on to the {@link Writer}. */
+    public int getIssuedWriteCount() {
+        return mIssuedWriteCount;
+    }
+
+    /** Returns the number of values which were replaced by a later value before being written. */
+    public int getCoalescedWriteCount() {
+        return mCoalescedWriteCount;
+    }
+
+    private void writePending() {
+        int value = mPendingValue;
+        clearPending();
+        write(value);
+    }
+
+    private void clearPending() {
+        mHandler.removeCallbacks(mWritePending);
+        mHasPendingValue = false;
+    }
+
+    private void write(int value) {
+        mHasWritten = true;
+        mLastWriteUptimeMs = SystemClock.uptimeMillis();
+        mIssuedWriteCount++;
+        mWriter.write(value);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Scroll listener which runs a callback whenever the list is scrolled to within a screen of its
+ * end. Screens which add their rows a page at a time use it to add the next page before it is
+ * needed.
+ */
+public class NearEndScrollListener extends RecyclerView.OnScrollListener {
+
+    private final Runnable mOnNearEnd;
+
+    public NearEndScrollListener(Runnable onNearEnd) {
+        mOnNearEnd = onNearEnd;
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        int extent = recyclerView.computeVerticalScrollExtent();
+        int remaining = recyclerView.computeVerticalScrollRange()
+                - recyclerView.computeVerticalScrollOffset() - extent;
+        if (remaining < extent) {
+            mOnNearEnd.run();
+        }
+    }
+}
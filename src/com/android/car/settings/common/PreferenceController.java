@@ -26,12 +26,8 @@ import androidx.lifecycle.DefaultLifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.preference.Preference;
 
-import com.android.car.settings.R;
-
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -119,25 +115,24 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     public static final int DISABLED_FOR_USER = 3;
 
-    /**
-     * Indicates whether all Preferences are configured to ignore UX Restrictions Event.
-     */
-    private final boolean mAlwaysIgnoreUxRestrictions;
-
-    /**
-     * Set of the keys of Preferences that ignore UX Restrictions. When mAlwaysIgnoreUxRestrictions
-     * is configured to be false, then only the Preferences whose keys are contained in this Set
-     * ignore UX Restrictions.
-     */
-    private final Set<String> mPreferencesIgnoringUxRestrictions;
-
     private final Context mContext;
     private final String mPreferenceKey;
     private final FragmentController mFragmentController;
+    private final Runnable mUserStateInvalidationListener = () -> {
+        invalidateAvailabilityStatus();
+        requestRefreshUi();
+    };
 
     private CarUxRestrictions mUxRestrictions;
     private V mPreference;
     private boolean mIsCreated;
+    private PreferenceRefreshScheduler mRefreshScheduler;
+
+    @AvailabilityStatus
+    private int mAvailabilityStatus;
+    private boolean mIsAvailabilityStatusValid;
+    private int mAvailabilityStatusEvaluationCount;
+    private boolean mIsObservingUserState;
 
     /**
      * Controllers should be instantiated from XML. To pass additional arguments see
@@ -149,10 +144,6 @@ public abstract class PreferenceController<V extends Preference> implements
         mPreferenceKey = preferenceKey;
         mFragmentController = fragmentController;
         mUxRestrictions = uxRestrictions;
-        mPreferencesIgnoringUxRestrictions = new HashSet<String>(Arrays.asList(
-                mContext.getResources().getStringArray(R.array.config_ignore_ux_restrictions)));
-        mAlwaysIgnoreUxRestrictions =
-                mContext.getResources().getBoolean(R.bool.config_always_ignore_ux_restrictions);
     }
 
     /**
@@ -214,16 +205,58 @@ public abstract class PreferenceController<V extends Preference> implements
     }
 
     /**
-     * Called by {@link SettingsFragment} to notify that the applied ux restrictions have changed.
-     * The controller will refresh its UI accordingly unless it is not yet created. In that case,
-     * the UI will refresh once created.
+     * Notifies that the applied ux restrictions have changed. The controller will refresh its UI
+     * accordingly unless it is not yet created. In that case, the UI will refresh once created.
      */
     @Override
     public final void onUxRestrictionsChanged(CarUxRestrictions uxRestrictions) {
         mUxRestrictions = uxRestrictions;
+        invalidateAvailabilityStatus();
         refreshUi();
     }
 
+    /**
+     * Called by {@link SettingsFragment} to notify all controllers of a screen that the applied ux
+     * restrictions have changed. Unlike {@link #onUxRestrictionsChanged(CarUxRestrictions)}, a
+     * refresh is only requested (see {@link #requestRefreshUi()}) if {@link
+     * #isUxRestrictionsChangeRelevant(CarUxRestrictions, CarUxRestrictions)} reports that the
+     * presentation may change.
+     *
+     * @return {@code true} if a refresh was requested.
+     */
+    final boolean onScreenUxRestrictionsChanged(CarUxRestrictions uxRestrictions) {
+        CarUxRestrictions previousUxRestrictions = mUxRestrictions;
+        mUxRestrictions = uxRestrictions;
+        invalidateAvailabilityStatus();
+        if (previousUxRestrictions != null
+                && !isUxRestrictionsChangeRelevant(previousUxRestrictions, uxRestrictions)) {
+            return false;
+        }
+        requestRefreshUi();
+        return true;
+    }
+
+    /**
+     * Called by {@link SettingsFragment} to set the scheduler used by {@link #requestRefreshUi()}.
+     */
+    final void setRefreshScheduler(PreferenceRefreshScheduler refreshScheduler) {
+        mRefreshScheduler = refreshScheduler;
+    }
+
+    /**
+     * Requests a {@link #refreshUi()}. When the controller is hosted by a {@link SettingsFragment},
+     * requests from all controllers of the screen are coalesced and executed at most once per
+     * controller on the next frame. Otherwise, the UI is refreshed immediately. Prefer this over
+     * {@link #refreshUi()} in listener callbacks which may fire in bursts.
+     */
+    protected final void requestRefreshUi() {
+        if (mRefreshScheduler == null) {
+            refreshUi();
+            return;
+        }
+        mRefreshScheduler.requestRefresh(this);
+    }
+
     /**
      * Updates the preference presentation based on its {@link #getAvailabilityStatus()} status. If
      * the controller is available, the associated preference is shown and a call to {@link
@@ -236,7 +269,14 @@ public abstract class PreferenceController<V extends Preference> implements
         if (!mIsCreated) {
             return;
         }
-        if (getAvailabilityStatus() == AVAILABLE) {
+        if (!isAvailabilityStatusCacheable()) {
+            invalidateAvailabilityStatus();
+        }
+        refreshUiInternal();
+    }
+
+    private void refreshUiInternal() {
+        if (getCachedAvailabilityStatus() == AVAILABLE) {
             mPreference.setVisible(true);
             mPreference.setEnabled(true);
             updateState(mPreference);
@@ -246,6 +286,37 @@ public abstract class PreferenceController<V extends Preference> implements
         }
     }
 
+    /**
+     * Discards the availability status computed for the current lifecycle so that the next
+     * refresh evaluates {@link #getAvailabilityStatus()} again. Controllers which return {@code
+     * true} from {@link #isAvailabilityStatusCacheable()} should call this when they observe a
+     * signal which may change their availability (e.g. a broadcast from a manager they query)
+     * before calling {@link #refreshUi()}. Changes to {@link CarUxRestrictions} and to the user
+     * state served by {@link UserStateCache} (user switches and restriction changes) invalidate
+     * the status automatically.
+     */
+    protected final void invalidateAvailabilityStatus() {
+        mIsAvailabilityStatusValid = false;
+    }
+
+    /**
+     * Returns the number of times {@link #getAvailabilityStatus()} has been evaluated by the
+     * controller lifecycle and refreshes.
+     */
+    final int getAvailabilityStatusEvaluationCount() {
+        return mAvailabilityStatusEvaluationCount;
+    }
+
+    @AvailabilityStatus
+    private int getCachedAvailabilityStatus() {
+        if (!mIsAvailabilityStatusValid) {
+            mAvailabilityStatus = getAvailabilityStatus();
+            mAvailabilityStatusEvaluationCount++;
+            mIsAvailabilityStatusValid = true;
+        }
+        return mAvailabilityStatus;
+    }
+
     // Controller lifecycle ========================================================================
 
     /**
@@ -255,13 +326,14 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onCreate(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        invalidateAvailabilityStatus();
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             mPreference.setVisible(false);
             return;
         }
         onCreateInternal();
         mIsCreated = true;
-        refreshUi();
+        refreshUiInternal();
     }
 
     /**
@@ -271,11 +343,19 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onStart(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        invalidateAvailabilityStatus();
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             return;
         }
+        if (isAvailabilityStatusCacheable()) {
+            UserStateCache.getInstance(mContext).addInvalidationListener(
+                    mUserStateInvalidationListener);
+            mIsObservingUserState = true;
+        }
         onStartInternal();
-        refreshUi();
+        if (mIsCreated) {
+            refreshUiInternal();
+        }
     }
 
     /**
@@ -284,7 +364,7 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onResume(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             return;
         }
         onResumeInternal();
@@ -296,7 +376,7 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onPause(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             return;
         }
         onPauseInternal();
@@ -308,7 +388,12 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onStop(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        if (mIsObservingUserState) {
+            UserStateCache.getInstance(mContext).removeInvalidationListener(
+                    mUserStateInvalidationListener);
+            mIsObservingUserState = false;
+        }
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             return;
         }
         onStopInternal();
@@ -321,7 +406,7 @@ public abstract class PreferenceController<V extends Preference> implements
      */
     @Override
     public final void onDestroy(@NonNull LifecycleOwner owner) {
-        if (getAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
+        if (getCachedAvailabilityStatus() == UNSUPPORTED_ON_DEVICE) {
             return;
         }
         mIsCreated = false;
@@ -347,13 +432,32 @@ public abstract class PreferenceController<V extends Preference> implements
     /**
      * Returns the {@link AvailabilityStatus} for the setting. This status is used to determine
      * if the setting should be shown or hidden. Defaults to {@link #AVAILABLE}. This will be
-     * called before the controller lifecycle begins and on refresh events.
+     * called when the controller is created and started and on refresh events. The result is
+     * reused by the remaining lifecycle events.
      */
     @AvailabilityStatus
     protected int getAvailabilityStatus() {
         return AVAILABLE;
     }
 
+    /**
+     * Subclasses may override this method to return {@code true} if {@link
+     * #getAvailabilityStatus()} only changes in response to signals the controller reports via
+     * {@link #invalidateAvailabilityStatus()}. The status is then computed once per lifecycle start
+     * and reused by {@link #refreshUi()}. Defaults to {@code false}, which evaluates the status on
+     * every refresh.
+     *
+     * <p>A status which only depends on capabilities that are fixed for the device, such as system
+     * features, never needs to be invalidated. While started, cacheable controllers are
+     * invalidated and refreshed whenever {@link UserStateCache} is invalidated, so a status which
+     * reads the current user or its restrictions from the cache is cacheable as well. A status
+     * which depends on other changing state, such as subscriptions or settings, is only cacheable
+     * if the controller observes that state and invalidates the status when it changes.
+     */
+    protected boolean isAvailabilityStatusCacheable() {
+        return false;
+    }
+
     /**
      * Subclasses may override this method to complete any operations needed at creation time e.g.
      * loading static configuration.
@@ -434,13 +538,28 @@ public abstract class PreferenceController<V extends Preference> implements
      * additional driving restrictions.
      */
     protected void onApplyUxRestrictions(CarUxRestrictions uxRestrictions) {
-        if (!isUxRestrictionsIgnored(mAlwaysIgnoreUxRestrictions,
-                mPreferencesIgnoringUxRestrictions)
-                && CarUxRestrictionsHelper.isNoSetup(uxRestrictions)) {
+        if (!isUxRestrictionsIgnored() && CarUxRestrictionsHelper.isNoSetup(uxRestrictions)) {
             mPreference.setEnabled(false);
         }
     }
 
+    /**
+     * Returns whether a change from {@code previousUxRestrictions} to {@code uxRestrictions} may
+     * change the presentation of the preference. This is used by {@link SettingsFragment} to skip
+     * refreshing controllers which are unaffected by a driving state change. By default, only a
+     * change to {@link CarUxRestrictions#UX_RESTRICTIONS_NO_SETUP} is relevant, and only for
+     * preferences which do not ignore restrictions.
+     *
+     * <p>Subclasses which consult other restrictions in {@link #updateState(Preference)} or {@link
+     * #onApplyUxRestrictions(CarUxRestrictions)} must override this method.
+     */
+    protected boolean isUxRestrictionsChangeRelevant(CarUxRestrictions previousUxRestrictions,
+            CarUxRestrictions uxRestrictions) {
+        return !isUxRestrictionsIgnored()
+                && CarUxRestrictionsHelper.isNoSetup(previousUxRestrictions)
+                != CarUxRestrictionsHelper.isNoSetup(uxRestrictions);
+    }
+
     /**
      * Called when the associated preference is changed by the user. This is called before the state
      * of the preference is updated and before the state is persisted.
@@ -469,4 +588,10 @@ public abstract class PreferenceController<V extends Preference> implements
     protected boolean isUxRestrictionsIgnored(boolean allIgnores, Set prefsThatIgnore) {
         return allIgnores || prefsThatIgnore.contains(mPreferenceKey);
     }
+
+    private boolean isUxRestrictionsIgnored() {
+        UxRestrictionPolicy policy = UxRestrictionPolicy.getInstance(mContext);
+        return isUxRestrictionsIgnored(policy.isAlwaysIgnoringUxRestrictions(),
+                policy.getPreferencesIgnoringUxRestrictions());
+    }
 }
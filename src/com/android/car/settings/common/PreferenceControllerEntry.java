@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.annotation.StringRes;
+import android.car.drivingstate.CarUxRestrictions;
+import android.content.Context;
+
+/**
+ * A single controller declaration of a preference screen as recorded by the generated {@link
+ * PreferenceControllerManifest}. Holds the preference key and a direct reference to the
+ * controller constructor so that controllers can be created without parsing the screen XML or
+ * using reflection.
+ */
+final class PreferenceControllerEntry {
+
+    /**
+     * Creates a {@link PreferenceController} with the standard controller constructor arguments.
+     */
+    @FunctionalInterface
+    interface Factory {
+        PreferenceController create(Context context, String preferenceKey,
+                FragmentController fragmentController, CarUxRestrictions uxRestrictions);
+    }
+
+    @StringRes
+    private final int mKeyResId;
+    private final String mKey;
+    private final String mControllerName;
+    private final Factory mFactory;
+
+    private PreferenceControllerEntry(@StringRes int keyResId, String key, String controllerName,
+            Factory factory) {
+        mKeyResId = keyResId;
+        mKey = key;
+        mControllerName = controllerName;
+        mFactory = factory;
+    }
+
+    /** Returns an entry for a preference whose key is a string resource. */
+    static PreferenceControllerEntry forKeyRes(@StringRes int keyResId, String controllerName,
+            Factory factory) {
+        return new PreferenceControllerEntry(keyResId, /* key= */ null, controllerName, factory);
+    }
+
+    /** Returns an entry for a preference whose key is declared inline in the XML. */
+    static PreferenceControllerEntry forKey(String key, String controllerName, Factory factory) {
+        return new PreferenceControllerEntry(/* keyResId= */ 0, key, controllerName, factory);
+    }
+
+    /** Returns the preference key, resolving it against the given {@code context} if needed. */
+    String getKey(Context context) {
+        return mKeyResId != 0 ? context.getString(mKeyResId) : mKey;
+    }
+
+    /** Returns the fully qualified class name of the controller. */
+    String getControllerName() {
+        return mControllerName;
+    }
+
+    /** Creates a new controller instance for this entry. */
+    PreferenceController createController(Context context, FragmentController fragmentController,
+            CarUxRestrictions uxRestrictions) {
+        return mFactory.create(context, getKey(context), fragmentController, uxRestrictions);
+    }
+}
@@ -16,16 +16,16 @@
 
 package com.android.car.settings.common;
 
-import static com.android.car.settings.common.PreferenceXmlParser.METADATA_CONTROLLER;
-import static com.android.car.settings.common.PreferenceXmlParser.METADATA_KEY;
-
 import android.annotation.NonNull;
 import android.annotation.XmlRes;
 import android.car.drivingstate.CarUxRestrictions;
 import android.content.Context;
-import android.os.Bundle;
 import android.text.TextUtils;
 
+import androidx.annotation.VisibleForTesting;
+
+import com.android.car.settings.R;
+
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
@@ -37,6 +37,13 @@ import java.util.List;
 /**
  * Helper to load {@link PreferenceController} instances from XML. Based on com.android
  * .settings.core.PreferenceControllerListHelper.
+ *
+ * <p>Screens which are part of the build time generated {@link PreferenceControllerManifest} are
+ * created directly from the manifest. The XML is only parsed and the controllers are only
+ * instantiated reflectively for screens which are unknown at build time (or when the manifest is
+ * disabled via {@code config_use_preference_controller_manifest}, e.g. because the screens are
+ * customized through resource overlays). The parsed metadata of those screens is kept in the
+ * {@link PreferenceScreenMetadataCache}.
  */
 class PreferenceControllerListHelper {
     private PreferenceControllerListHelper() {
@@ -59,23 +66,31 @@ class PreferenceControllerListHelper {
     static List<PreferenceController> getPreferenceControllersFromXml(Context context,
             @XmlRes int xmlResId, FragmentController fragmentController,
             CarUxRestrictions uxRestrictions) {
+        if (context.getResources().getBoolean(R.bool.config_use_preference_controller_manifest)) {
+            List<PreferenceControllerEntry> entries = PreferenceControllerManifest.getEntries(
+                    xmlResId);
+            if (entries != null) {
+                return getPreferenceControllersFromManifest(context, entries, fragmentController,
+                        uxRestrictions);
+            }
+        }
+
         List<PreferenceController> controllers = new ArrayList<>();
-        List<Bundle> preferenceMetadata;
+        PreferenceScreenMetadata preferenceMetadata;
         try {
-            preferenceMetadata = PreferenceXmlParser.extractMetadata(context, xmlResId,
-                    PreferenceXmlParser.MetadataFlag.FLAG_NEED_KEY
-                            | PreferenceXmlParser.MetadataFlag.FLAG_NEED_PREF_CONTROLLER);
+            preferenceMetadata = PreferenceScreenMetadataCache.getInstance().getMetadata(context,
+                    xmlResId);
         } catch (IOException | XmlPullParserException e) {
             throw new IllegalArgumentException(
                     "Failed to parse preference XML for getting controllers", e);
         }
 
-        for (Bundle metadata : preferenceMetadata) {
-            String controllerName = metadata.getString(METADATA_CONTROLLER);
+        for (int i = 0; i < preferenceMetadata.size(); i++) {
+            String controllerName = preferenceMetadata.getControllerName(i);
             if (TextUtils.isEmpty(controllerName)) {
                 continue; // Preference does not require a controller.
             }
-            String key = metadata.getString(METADATA_KEY);
+            String key = preferenceMetadata.getKey(i);
             if (TextUtils.isEmpty(key)) {
                 throw new IllegalArgumentException("Missing key for controller: " + controllerName);
             }
@@ -86,6 +101,18 @@ class PreferenceControllerListHelper {
         return controllers;
     }
 
+    @VisibleForTesting
+    @NonNull
+    static List<PreferenceController> getPreferenceControllersFromManifest(Context context,
+            List<PreferenceControllerEntry> entries, FragmentController fragmentController,
+            CarUxRestrictions uxRestrictions) {
+        List<PreferenceController> controllers = new ArrayList<>(entries.size());
+        for (PreferenceControllerEntry entry : entries) {
+            controllers.add(entry.createController(context, fragmentController, uxRestrictions));
+        }
+        return controllers;
+    }
+
     private static PreferenceController createInstance(String controllerName,
             Context context, String key, FragmentController fragmentController,
             CarUxRestrictions restrictionInfo) {
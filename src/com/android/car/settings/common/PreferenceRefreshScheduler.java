@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces {@link PreferenceController#requestRefreshUi()} calls of the controllers on a screen.
+ * Controllers are marked dirty and refreshed at most once on the next {@link Choreographer} frame,
+ * so bursty sources (scan results, device callbacks) cost one {@link
+ * PreferenceController#refreshUi()} per controller per frame. Must be used on the main thread.
+ */
+final class PreferenceRefreshScheduler implements Choreographer.FrameCallback {
+
+    private final Choreographer mChoreographer;
+    private final Set<PreferenceController> mDirtyControllers = new LinkedHashSet<>();
+    private boolean mIsFrameScheduled;
+    private int mRequestedRefreshCount;
+    private int mExecutedRefreshCount;
+
+    PreferenceRefreshScheduler(Choreographer choreographer) {
+        mChoreographer = choreographer;
+    }
+
+    /** Marks {@code controller} as needing a refresh on the next frame. */
+    void requestRefresh(PreferenceController controller) {
+        mRequestedRefreshCount++;
+        if (mDirtyControllers.add(controller) && !mIsFrameScheduled) {
+            mChoreographer.postFrameCallback(this);
+            mIsFrameScheduled = true;
+        }
+    }
+
+    /** Drops all pending refreshes. */
+    void cancel() {
+        if (mIsFrameScheduled) {
+            mChoreographer.removeFrameCallback(this);
+            mIsFrameScheduled = false;
+        }
+        mDirtyControllers.clear();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mIsFrameScheduled = false;
+        // Copy so that controllers may request another refresh while being refreshed.
+        List<PreferenceController> controllers = new ArrayList<>(mDirtyControllers);
+        mDirtyControllers.clear();
+        for (PreferenceController controller : controllers) {
+            mExecutedRefreshCount++;
+            controller.refreshUi();
+        }
+    }
+
+    /** Returns the number of refreshes requested by controllers. */
+    int getRequestedRefreshCount() {
+        return mRequestedRefreshCount;
+    }
+
+    /** Returns the number of refreshes actually executed after coalescing. */
+    int getExecutedRefreshCount() {
+        return mExecutedRefreshCount;
+    }
+}
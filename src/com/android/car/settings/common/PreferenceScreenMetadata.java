@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.android.car.settings.common.PreferenceXmlParser.METADATA_CONTROLLER;
+import static com.android.car.settings.common.PreferenceXmlParser.METADATA_KEY;
+
+import android.os.Bundle;
+
+import java.util.List;
+
+/**
+ * Immutable key and controller metadata of the preferences declared by a preference screen XML
+ * resource. Entries are in document order. Either value may be {@code null} if the preference
+ * does not declare it.
+ */
+final class PreferenceScreenMetadata {
+
+    private final String[] mKeys;
+    private final String[] mControllerNames;
+
+    private PreferenceScreenMetadata(String[] keys, String[] controllerNames) {
+        mKeys = keys;
+        mControllerNames = controllerNames;
+    }
+
+    /**
+     * Creates an instance from the bundles returned by {@link
+     * PreferenceXmlParser#extractMetadata}.
+     */
+    static PreferenceScreenMetadata fromBundles(List<Bundle> metadata) {
+        int size = metadata.size();
+        String[] keys = new String[size];
+        String[] controllerNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            Bundle bundle = metadata.get(i);
+            keys[i] = bundle.getString(METADATA_KEY);
+            controllerNames[i] = bundle.getString(METADATA_CONTROLLER);
+        }
+        return new PreferenceScreenMetadata(keys, controllerNames);
+    }
+
+    /** Returns the number of preferences declared by the screen. */
+    int size() {
+        return mKeys.length;
+    }
+
+    /** Returns the key of the preference at {@code index}. */
+    String getKey(int index) {
+        return mKeys[index];
+    }
+
+    /** Returns the controller class name of the preference at {@code index}. */
+    String getControllerName(int index) {
+        return mControllerNames[index];
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.annotation.NonNull;
+import android.annotation.XmlRes;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.SparseArray;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+/**
+ * Process wide cache of {@link PreferenceScreenMetadata} keyed by preference screen XML resource.
+ * Navigating back into a screen reuses the metadata instead of walking the XML again. The cache is
+ * cleared whenever the resource {@link Configuration} differs from the one the cached entries were
+ * parsed with (e.g. locale, ui mode, or overlay changes).
+ */
+final class PreferenceScreenMetadataCache {
+
+    private static final Logger LOG = new Logger(PreferenceScreenMetadataCache.class);
+
+    private static PreferenceScreenMetadataCache sInstance;
+
+    private final SparseArray<PreferenceScreenMetadata> mMetadata = new SparseArray<>();
+    private Configuration mConfiguration;
+
+    /** Returns the process wide instance. */
+    static synchronized PreferenceScreenMetadataCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new PreferenceScreenMetadataCache();
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    PreferenceScreenMetadataCache() {
+    }
+
+    /**
+     * Returns the key and controller metadata of {@code xmlResId}, parsing the XML only if it is
+     * not already cached for the current configuration of {@code context}.
+     */
+    @NonNull
+    synchronized PreferenceScreenMetadata getMetadata(Context context, @XmlRes int xmlResId)
+            throws IOException, XmlPullParserException {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (mConfiguration == null || mConfiguration.diff(configuration) != 0) {
+            if (mMetadata.size() > 0) {
+                LOG.d("Configuration changed. Clearing " + mMetadata.size() + " screens.");
+            }
+            mMetadata.clear();
+            mConfiguration = new Configuration(configuration);
+        }
+        PreferenceScreenMetadata metadata = mMetadata.get(xmlResId);
+        if (metadata == null) {
+            metadata = PreferenceScreenMetadata.fromBundles(
+                    PreferenceXmlParser.extractMetadata(context, xmlResId,
+                            PreferenceXmlParser.MetadataFlag.FLAG_NEED_KEY
+                                    | PreferenceXmlParser.MetadataFlag.FLAG_NEED_PREF_CONTROLLER));
+            mMetadata.put(xmlResId, metadata);
+        }
+        return metadata;
+    }
+
+    /** Drops all cached metadata. */
+    synchronized void clear() {
+        mMetadata.clear();
+        mConfiguration = null;
+    }
+}
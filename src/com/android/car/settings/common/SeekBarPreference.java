@@ -47,6 +47,8 @@ public class SeekBarPreference extends Preference {
     private int mMax;
     private int mSeekBarIncrement;
     private boolean mTrackingTouch;
+    // whether a continuous update reported a value which was not final since tracking started
+    private boolean mHasUnfinishedUpdate;
     private SeekBar mSeekBar;
     private TextView mSeekBarValueTextView;
     private boolean mAdjustable; // whether the seekbar should respond to the left/right keys
@@ -77,7 +79,12 @@ public class SeekBarPreference extends Preference {
                     mTrackingTouch = false;
                     if (seekBar.getProgress() + mMin != mSeekBarValue) {
                         syncValueInternal(seekBar);
+                    } else if (mHasUnfinishedUpdate) {
+                        // The value was already reported while tracking. Report it again so that
+                        // listeners can tell it is final from isTrackingTouch().
+                        callChangeListener(mSeekBarValue);
                     }
+                    mHasUnfinishedUpdate = false;
                 }
             };
 
@@ -259,6 +266,11 @@ public class SeekBarPreference extends Preference {
         return mAdjustable;
     }
 
+    /** Returns whether the user is currently dragging the seek bar. */
+    public boolean isTrackingTouch() {
+        return mTrackingTouch;
+    }
+
     /** Setter for the functionality which allows for continuous triggering of listener code. */
     public void setContinuousUpdate(boolean continuousUpdate) {
         mContinuousUpdate = continuousUpdate;
@@ -308,6 +320,7 @@ public class SeekBarPreference extends Preference {
         if (seekBarValue != mSeekBarValue) {
             if (callChangeListener(seekBarValue)) {
                 setValueInternal(seekBarValue, false);
+                mHasUnfinishedUpdate = mTrackingTouch;
             } else {
                 seekBar.setProgress(mSeekBarValue - mMin);
             }
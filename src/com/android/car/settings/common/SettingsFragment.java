@@ -25,6 +25,7 @@ import android.os.Bundle;
 import android.util.ArrayMap;
 import android.util.SparseArray;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.ContextThemeWrapper;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
@@ -49,6 +50,8 @@ import androidx.preference.PreferenceScreen;
 
 import com.android.car.settings.R;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +76,8 @@ public abstract class SettingsFragment extends PreferenceFragmentCompat implemen
     static final String DIALOG_FRAGMENT_TAG =
             "com.android.car.settings.common.SettingsFragment.DIALOG";
 
+    private static final Logger LOG = new Logger(SettingsFragment.class);
+
     private static final int MAX_NUM_PENDING_ACTIVITY_RESULT_CALLBACKS = 0xff - 1;
 
     private final Map<Class, List<PreferenceController>> mPreferenceControllersLookup =
@@ -82,6 +87,7 @@ public abstract class SettingsFragment extends PreferenceFragmentCompat implemen
             new SparseArray<>();
 
     private CarUxRestrictions mUxRestrictions;
+    private PreferenceRefreshScheduler mRefreshScheduler;
     private int mCurrentRequestIndex = 0;
 
     /**
@@ -158,8 +164,10 @@ public abstract class SettingsFragment extends PreferenceFragmentCompat implemen
                         getPreferenceScreenResId(), /* fragmentController= */ this,
                         mUxRestrictions));
 
+        mRefreshScheduler = new PreferenceRefreshScheduler(Choreographer.getInstance());
         Lifecycle lifecycle = getLifecycle();
         mPreferenceControllers.forEach(controller -> {
+            controller.setRefreshScheduler(mRefreshScheduler);
             lifecycle.addObserver(controller);
             mPreferenceControllersLookup.computeIfAbsent(controller.getClass(),
                     k -> new ArrayList<>(/* initialCapacity= */ 1)).add(controller);
@@ -218,9 +226,60 @@ public abstract class SettingsFragment extends PreferenceFragmentCompat implemen
         }
     }
 
+    @Override
+    public void onStop() {
+        super.onStop();
+        // Controllers are refreshed when started again.
+        mRefreshScheduler.cancel();
+        LOG.d(getClass().getSimpleName() + " availability status evaluations: "
+                + getAvailabilityStatusEvaluationCount() + ", refreshes requested: "
+                + mRefreshScheduler.getRequestedRefreshCount() + ", refreshes executed: "
+                + mRefreshScheduler.getExecutedRefreshCount());
+    }
+
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix);
+        writer.println("Availability status evaluations: "
+                + getAvailabilityStatusEvaluationCount());
+        if (mRefreshScheduler != null) {
+            writer.print(prefix);
+            writer.println("Refreshes requested: " + mRefreshScheduler.getRequestedRefreshCount()
+                    + ", executed: " + mRefreshScheduler.getExecutedRefreshCount());
+        }
+        for (PreferenceController controller : mPreferenceControllers) {
+            writer.print(prefix);
+            writer.print("  ");
+            writer.println(controller.getClass().getSimpleName() + "("
+                    + controller.getPreferenceKey() + "): "
+                    + controller.getAvailabilityStatusEvaluationCount());
+        }
+    }
+
+    /**
+     * Returns the total number of availability status evaluations performed by the controllers
+     * of this screen.
+     */
+    @VisibleForTesting
+    int getAvailabilityStatusEvaluationCount() {
+        int count = 0;
+        for (PreferenceController controller : mPreferenceControllers) {
+            count += controller.getAvailabilityStatusEvaluationCount();
+        }
+        return count;
+    }
+
+    /** Returns the scheduler which coalesces the refresh requests of the controllers. */
+    @VisibleForTesting
+    PreferenceRefreshScheduler getRefreshScheduler() {
+        return mRefreshScheduler;
+    }
+
     @Override
     public void onDetach() {
         super.onDetach();
+        mRefreshScheduler.cancel();
         Lifecycle lifecycle = getLifecycle();
         mPreferenceControllers.forEach(lifecycle::removeObserver);
         mActivityResultCallbackMap.clear();
@@ -228,14 +287,20 @@ public abstract class SettingsFragment extends PreferenceFragmentCompat implemen
 
     /**
      * Notifies {@link PreferenceController} instances of changes to {@link CarUxRestrictions}.
+     * Only controllers whose presentation is affected by the change are refreshed.
      */
     @Override
     public void onUxRestrictionsChanged(CarUxRestrictions uxRestrictions) {
         if (!uxRestrictions.isSameRestrictions(mUxRestrictions)) {
             mUxRestrictions = uxRestrictions;
+            int refreshed = 0;
             for (PreferenceController controller : mPreferenceControllers) {
-                controller.onUxRestrictionsChanged(uxRestrictions);
+                if (controller.onScreenUxRestrictionsChanged(uxRestrictions)) {
+                    refreshed++;
+                }
             }
+            LOG.d("Ux restrictions changed. Requested refresh of " + refreshed + " of "
+                    + mPreferenceControllers.size() + " controllers");
         }
     }
 
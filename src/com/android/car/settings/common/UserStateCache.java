@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.car.userlib.CarUserManagerHelper;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.UserInfo;
+import android.os.UserManager;
+import android.util.ArrayMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Process wide cache of the user state queried by most screens, such as the current process user
+ * and its restrictions. Values are read from a shared {@link CarUserManagerHelper} the first time
+ * they are requested and served from the cache afterwards. The cache is dropped whenever a user is
+ * added, removed, changed, or switched, or the restrictions of the current user change.
+ *
+ * <p>Returned lists are immutable. Code which changes a user should call {@link #invalidate()}
+ * so that it does not read its own stale state before the corresponding broadcast arrives.
+ * Listeners added with {@link #addInvalidationListener(Runnable)} are run on every invalidation,
+ * which allows callers to drop state they derived from the cached values.
+ */
+public final class UserStateCache {
+
+    private static final Logger LOG = new Logger(UserStateCache.class);
+
+    private static UserStateCache sInstance;
+
+    private final Context mContext;
+    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            LOG.d("Invalidating on " + intent.getAction());
+            invalidate();
+        }
+    };
+
+    private final List<Runnable> mInvalidationListeners = new ArrayList<>();
+
+    private Map<String, Object> mValues = new ArrayMap<>();
+    private int mHitCount;
+    private int mMissCount;
+
+    /** Returns the cache of the application of {@code context}. */
+    public static synchronized UserStateCache getInstance(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (sInstance == null || sInstance.mContext != appContext) {
+            sInstance = new UserStateCache(appContext);
+        }
+        return sInstance;
+    }
+
+    private UserStateCache(Context context) {
+        mContext = context;
+        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_USER_ADDED);
+        filter.addAction(Intent.ACTION_USER_REMOVED);
+        filter.addAction(Intent.ACTION_USER_INFO_CHANGED);
+        filter.addAction(Intent.ACTION_USER_SWITCHED);
+        filter.addAction(UserManager.ACTION_USER_RESTRICTIONS_CHANGED);
+        mContext.registerReceiver(mReceiver, filter);
+    }
+
+    /** See {@link CarUserManagerHelper#getCurrentProcessUserId()}. */
+    public int getCurrentProcessUserId() {
+        return get("currentProcessUserId", mCarUserManagerHelper::getCurrentProcessUserId);
+    }
+
+    /** See {@link CarUserManagerHelper#getCurrentProcessUserInfo()}. */
+    public UserInfo getCurrentProcessUserInfo() {
+        return get("currentProcessUserInfo", mCarUserManagerHelper::getCurrentProcessUserInfo);
+    }
+
+    /** See {@link CarUserManagerHelper#isCurrentProcessAdminUser()}. */
+    public boolean isCurrentProcessAdminUser() {
+        return get("isCurrentProcessAdminUser", mCarUserManagerHelper::isCurrentProcessAdminUser);
+    }
+
+    /** See {@link CarUserManagerHelper#isCurrentProcessGuestUser()}. */
+    public boolean isCurrentProcessGuestUser() {
+        return get("isCurrentProcessGuestUser", mCarUserManagerHelper::isCurrentProcessGuestUser);
+    }
+
+    /** See {@link CarUserManagerHelper#isCurrentProcessDemoUser()}. */
+    public boolean isCurrentProcessDemoUser() {
+        return get("isCurrentProcessDemoUser", mCarUserManagerHelper::isCurrentProcessDemoUser);
+    }
+
+    /** See {@link CarUserManagerHelper#canCurrentProcessModifyAccounts()}. */
+    public boolean canCurrentProcessModifyAccounts() {
+        return get("canCurrentProcessModifyAccounts",
+                mCarUserManagerHelper::canCurrentProcessModifyAccounts);
+    }
+
+    /** See {@link CarUserManagerHelper#isCurrentProcessUserHasRestriction(String)}. */
+    public boolean isCurrentProcessUserHasRestriction(String restriction) {
+        return get("restriction:" + restriction,
+                () -> mCarUserManagerHelper.isCurrentProcessUserHasRestriction(restriction));
+    }
+
+    /** See {@link CarUserManagerHelper#getAllUsers()}. */
+    public List<UserInfo> getAllUsers() {
+        return get("allUsers", () -> immutableCopy(mCarUserManagerHelper.getAllUsers()));
+    }
+
+    /** See {@link CarUserManagerHelper#getAllSwitchableUsers()}. */
+    public List<UserInfo> getAllSwitchableUsers() {
+        return get("allSwitchableUsers",
+                () -> immutableCopy(mCarUserManagerHelper.getAllSwitchableUsers()));
+    }
+
+    /**
+     * Drops all cached values, so that the next query reads the current state, and runs the
+     * invalidation listeners. Must be called on the main thread.
+     */
+    public void invalidate() {
+        List<Runnable> listeners;
+        synchronized (this) {
+            mValues = new ArrayMap<>();
+            listeners = new ArrayList<>(mInvalidationListeners);
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registers a listener which is run on the main thread after every {@link #invalidate()}.
+     * Listeners must be removed with {@link #removeInvalidationListener(Runnable)} once they are
+     * no longer interested, as the cache lives as long as the application.
+     */
+    public synchronized void addInvalidationListener(Runnable listener) {
+        if (!mInvalidationListeners.contains(listener)) {
+            mInvalidationListeners.add(listener);
+        }
+    }
+
+    /** Unregisters a listener added with {@link #addInvalidationListener(Runnable)}. */
+    public synchronized void removeInvalidationListener(Runnable listener) {
+        mInvalidationListeners.remove(listener);
+    }
+
+    /** Returns the number of queries served from the cache. */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /** Returns the number of queries which had to read the user state. */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> T get(String key, Supplier<T> loader) {
+        if (mValues.containsKey(key)) {
+            mHitCount++;
+            return (T) mValues.get(key);
+        }
+        mMissCount++;
+        T value = loader.get();
+        mValues.put(key, value);
+        return value;
+    }
+
+    private static List<UserInfo> immutableCopy(List<UserInfo> users) {
+        return Collections.unmodifiableList(new ArrayList<>(users));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.ArraySet;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.car.settings.R;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Process wide view of which preferences ignore {@link
+ * android.car.drivingstate.CarUxRestrictions}, as configured by {@code
+ * config_always_ignore_ux_restrictions} and {@code config_ignore_ux_restrictions}. The
+ * configuration is read once and only read again when the resource {@link Configuration}
+ * changes.
+ */
+public final class UxRestrictionPolicy {
+
+    private static UxRestrictionPolicy sInstance;
+
+    private final boolean mAlwaysIgnoreUxRestrictions;
+    private final Set<String> mPreferencesIgnoringUxRestrictions;
+    private final Configuration mConfiguration;
+
+    /**
+     * Returns the policy for the current configuration of {@code context}.
+     */
+    public static synchronized UxRestrictionPolicy getInstance(Context context) {
+        Resources resources = context.getResources();
+        if (sInstance == null
+                || sInstance.mConfiguration.diff(resources.getConfiguration()) != 0) {
+            sInstance = new UxRestrictionPolicy(resources);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UxRestrictionPolicy(Resources resources) {
+        mAlwaysIgnoreUxRestrictions = resources.getBoolean(
+                R.bool.config_always_ignore_ux_restrictions);
+        mPreferencesIgnoringUxRestrictions = Collections.unmodifiableSet(new ArraySet<>(
+                Arrays.asList(resources.getStringArray(R.array.config_ignore_ux_restrictions))));
+        mConfiguration = new Configuration(resources.getConfiguration());
+    }
+
+    /**
+     * Returns {@code true} if all preferences are configured to ignore UX restrictions.
+     */
+    public boolean isAlwaysIgnoringUxRestrictions() {
+        return mAlwaysIgnoreUxRestrictions;
+    }
+
+    /**
+     * Returns the unmodifiable set of preference keys which ignore UX restrictions.
+     */
+    public Set<String> getPreferencesIgnoringUxRestrictions() {
+        return mPreferencesIgnoringUxRestrictions;
+    }
+
+    /**
+     * Returns {@code true} if the preference with the given {@code preferenceKey} ignores UX
+     * restrictions.
+     */
+    public boolean isIgnoringUxRestrictions(String preferenceKey) {
+        return mAlwaysIgnoreUxRestrictions
+                || mPreferencesIgnoringUxRestrictions.contains(preferenceKey);
+    }
+
+    /**
+     * Returns {@code true} if any preference ignores UX restrictions.
+     */
+    public boolean hasPreferenceIgnoringUxRestrictions() {
+        return mAlwaysIgnoreUxRestrictions || !mPreferencesIgnoringUxRestrictions.isEmpty();
+    }
+}
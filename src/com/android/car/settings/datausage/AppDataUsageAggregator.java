@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datausage;
+
+import static android.net.TrafficStats.UID_REMOVED;
+import static android.net.TrafficStats.UID_TETHERING;
+
+import android.content.pm.UserInfo;
+import android.net.NetworkStats;
+import android.os.UserHandle;
+import android.util.SparseArray;
+import android.util.SparseLongArray;
+
+import com.android.settingslib.AppItem;
+import com.android.settingslib.net.UidDetailProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collapses the entries of a {@link NetworkStats} into {@link AppItem} instances in a single pass.
+ * Usage of the current user is attributed to each app, usage of other known users is attributed
+ * both to the app and to the user, and usage of removed users is attributed to {@link
+ * android.net.TrafficStats#UID_REMOVED}.
+ *
+ * <p>The set of users is captured once at construction, so aggregation does not depend on any
+ * state owned by the main thread and can run in the background.
+ */
+final class AppDataUsageAggregator {
+
+    private final int[] mSortedUserIds;
+    private final int mCurrentUserId;
+
+    AppDataUsageAggregator(List<UserInfo> users, int currentUserId) {
+        mSortedUserIds = new int[users.size()];
+        for (int i = 0; i < mSortedUserIds.length; i++) {
+            mSortedUserIds[i] = users.get(i).id;
+        }
+        Arrays.sort(mSortedUserIds);
+        mCurrentUserId = currentUserId;
+    }
+
+    /**
+     * Aggregates {@code stats} and marks the items of {@code restrictedUids} as restricted.
+     * Restricted uids without usage get an item with a negative total.
+     */
+    Result aggregate(@Nullable NetworkStats stats, @Nullable int[] restrictedUids) {
+        SparseLongArray bytesByKey = new SparseLongArray();
+        SparseArray<AppItem> knownItems = new SparseArray<>();
+        List<AppItem> items = new ArrayList<>();
+
+        if (stats != null) {
+            NetworkStats.Entry entry = null;
+            for (int i = 0, size = stats.size(); i < size; i++) {
+                entry = stats.getValues(i, entry);
+                aggregateEntry(entry, bytesByKey, knownItems, items);
+            }
+        }
+
+        long largest = 0;
+        for (int i = 0, size = items.size(); i < size; i++) {
+            AppItem item = items.get(i);
+            item.total = bytesByKey.get(item.key);
+            largest = Math.max(largest, item.total);
+        }
+
+        if (restrictedUids != null) {
+            for (int uid : restrictedUids) {
+                // Only splice in restricted state for current user or managed users.
+                if (!isKnownUser(uid)) {
+                    continue;
+                }
+                AppItem item = knownItems.get(uid);
+                if (item == null) {
+                    item = new AppItem(uid);
+                    item.total = -1;
+                    items.add(item);
+                    knownItems.put(item.key, item);
+                }
+                item.restricted = true;
+            }
+        }
+
+        Collections.sort(items);
+        int[] percents = new int[items.size()];
+        for (int i = 0; i < percents.length; i++) {
+            percents[i] = largest != 0 ? (int) (items.get(i).total * 100 / largest) : 0;
+        }
+        return new Result(items, percents);
+    }
+
+    private void aggregateEntry(NetworkStats.Entry entry, SparseLongArray bytesByKey,
+            SparseArray<AppItem> knownItems, List<AppItem> items) {
+        int uid = entry.uid;
+        long bytes = entry.rxBytes + entry.txBytes;
+
+        if (!UserHandle.isApp(uid)) {
+            // Removed applications and tethering traffic keep their own item, all other
+            // non-application uids are collapsed into the system item.
+            int collapseKey = (uid == UID_REMOVED || uid == UID_TETHERING)
+                    ? uid : android.os.Process.SYSTEM_UID;
+            accumulate(collapseKey, AppItem.CATEGORY_APP, uid, bytes, bytesByKey, knownItems,
+                    items);
+            return;
+        }
+
+        int userId = UserHandle.getUserId(uid);
+        if (!isKnownUser(userId)) {
+            accumulate(UID_REMOVED, AppItem.CATEGORY_APP, uid, bytes, bytesByKey, knownItems,
+                    items);
+            return;
+        }
+        if (userId != mCurrentUserId) {
+            accumulate(UidDetailProvider.buildKeyForUser(userId), AppItem.CATEGORY_USER, uid,
+                    bytes, bytesByKey, knownItems, items);
+        }
+        accumulate(uid, AppItem.CATEGORY_APP, uid, bytes, bytesByKey, knownItems, items);
+    }
+
+    private boolean isKnownUser(int userId) {
+        return Arrays.binarySearch(mSortedUserIds, userId) >= 0;
+    }
+
+    /**
+     * Accumulates {@code bytes} used by {@code uid} for the item mapped by {@code collapseKey},
+     * creating the item with {@code category} if needed.
+     */
+    private static void accumulate(int collapseKey, int category, int uid, long bytes,
+            SparseLongArray bytesByKey, SparseArray<AppItem> knownItems, List<AppItem> items) {
+        AppItem item = knownItems.get(collapseKey);
+        if (item == null) {
+            item = new AppItem(collapseKey);
+            item.category = category;
+            items.add(item);
+            knownItems.put(item.key, item);
+        }
+        item.addUid(uid);
+        bytesByKey.put(collapseKey, bytesByKey.get(collapseKey) + bytes);
+    }
+
+    /** Items sorted for display along with their usage relative to the largest item. */
+    static final class Result {
+        private final List<AppItem> mItems;
+        private final int[] mPercents;
+
+        Result(List<AppItem> items, int[] percents) {
+            mItems = Collections.unmodifiableList(items);
+            mPercents = percents;
+        }
+
+        /** Returns the items sorted by category and usage. */
+        List<AppItem> getItems() {
+            return mItems;
+        }
+
+        /** Returns the usage of the item at {@code index} in percent of the largest item. */
+        int getPercent(int index) {
+            return mPercents[index];
+        }
+    }
+}
@@ -16,32 +16,25 @@
 
 package com.android.car.settings.datausage;
 
-import static android.net.TrafficStats.UID_REMOVED;
-import static android.net.TrafficStats.UID_TETHERING;
-
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
-import android.content.pm.UserInfo;
 import android.net.NetworkStats;
-import android.os.UserHandle;
+import android.os.AsyncTask;
 import android.util.SparseArray;
 
 import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceViewHolder;
 
 import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
 import com.android.car.settings.common.ProgressBarPreference;
+import com.android.car.settings.common.UserStateCache;
 import com.android.settingslib.AppItem;
 import com.android.settingslib.net.UidDetail;
 import com.android.settingslib.net.UidDetailProvider;
-import com.android.settingslib.utils.ThreadUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import javax.annotation.Nullable;
 
@@ -49,18 +42,25 @@ import javax.annotation.Nullable;
  * Controller that adds all the applications using the data sorted by the amount of data used. The
  * first application that used most amount of data will be at the top with progress 100 percentage.
  * All other progress are calculated relatively.
+ *
+ * <p>The loaded stats are aggregated per app by {@link AppDataUsageAggregator} off the main thread.
  */
 public class AppDataUsagePreferenceController extends
-        PreferenceController<PreferenceGroup> implements AppsNetworkStatsManager.Callback {
+        PreferenceController<PreferenceGroup> implements AppsNetworkStatsManager.Callback,
+        UidDetailResolver.Callback {
 
-    private final UidDetailProvider mUidDetailProvider;
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UidDetailResolver mUidDetailResolver;
+    private final UserStateCache mUserStateCache;
+
+    private AggregateTask mAggregateTask;
+    private SparseArray<AppDataUsagePreference> mPreferencesByKey = new SparseArray<>();
 
     public AppDataUsagePreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mUidDetailProvider = new UidDetailProvider(getContext());
-        mCarUserManagerHelper = new CarUserManagerHelper(getContext());
+        mUidDetailResolver = new UidDetailResolver(new UidDetailProvider(getContext()),
+                UidDetailCache.getInstance(getContext()), /* callback= */ this);
+        mUserStateCache = UserStateCache.getInstance(getContext());
     }
 
     @Override
@@ -70,178 +70,147 @@ public class AppDataUsagePreferenceController extends
 
     @Override
     public void onDataLoaded(@Nullable NetworkStats stats, @Nullable int[] restrictedUids) {
-        List<AppItem> items = new ArrayList<>();
-        long largest = 0;
-
-        List<UserInfo> profiles = mCarUserManagerHelper.getAllUsers();
-        SparseArray<AppItem> knownItems = new SparseArray<AppItem>();
-
-        NetworkStats.Entry entry = null;
-        if (stats != null) {
-            for (int i = 0; i < stats.size(); i++) {
-                entry = stats.getValues(i, entry);
-                long size = aggregateDataUsage(knownItems, items, entry, profiles);
-                largest = Math.max(size, largest);
-            }
+        if (mAggregateTask != null) {
+            mAggregateTask.cancel(/* mayInterruptIfRunning= */ false);
         }
-
-        updateRestrictedState(restrictedUids, knownItems, items, profiles);
-        sortAndAddPreferences(items, largest);
+        AppDataUsageAggregator aggregator = new AppDataUsageAggregator(
+                mUserStateCache.getAllUsers(),
+                mUserStateCache.getCurrentProcessUserId());
+        mAggregateTask = new AggregateTask(aggregator, stats, restrictedUids);
+        mAggregateTask.execute();
     }
 
-    private long aggregateDataUsage(SparseArray<AppItem> knownItems, List<AppItem> items,
-            NetworkStats.Entry entry, List<UserInfo> profiles) {
-        int currentUserId = mCarUserManagerHelper.getCurrentProcessUserId();
-
-        // Decide how to collapse items together.
-        int uid = entry.uid;
-
-        int collapseKey;
-        int category;
-        int userId = UserHandle.getUserId(uid);
-
-        if (isUidValid(uid)) {
-            collapseKey = uid;
-            category = AppItem.CATEGORY_APP;
-            return accumulate(collapseKey, knownItems, entry, category, items);
-        }
-
-        if (!UserHandle.isApp(uid)) {
-            collapseKey = android.os.Process.SYSTEM_UID;
-            category = AppItem.CATEGORY_APP;
-            return accumulate(collapseKey, knownItems, entry, category, items);
-        }
-
-        if (profileContainsUserId(profiles, userId) && userId == currentUserId) {
-            // Add to app item.
-            collapseKey = uid;
-            category = AppItem.CATEGORY_APP;
-            return accumulate(collapseKey, knownItems, entry, category, items);
-        }
-
-        if (profileContainsUserId(profiles, userId) && userId != currentUserId) {
-            // Add to a managed user item.
-            int managedKey = UidDetailProvider.buildKeyForUser(userId);
-            long usersLargest = accumulate(managedKey, knownItems, entry, AppItem.CATEGORY_USER,
-                    items);
-            collapseKey = uid;
-            category = AppItem.CATEGORY_APP;
-            long appLargest = accumulate(collapseKey, knownItems, entry, category, items);
-            return Math.max(usersLargest, appLargest);
+    @Override
+    protected void onDestroyInternal() {
+        if (mAggregateTask != null) {
+            mAggregateTask.cancel(/* mayInterruptIfRunning= */ false);
+            mAggregateTask = null;
         }
+        mUidDetailResolver.cancel();
+    }
 
-        // If it is a removed user add it to the removed users' key.
-        Optional<UserInfo> info = profiles.stream().filter(
-                userInfo -> userInfo.id == userId).findFirst();
-        if (!info.isPresent()) {
-            collapseKey = UID_REMOVED;
-            category = AppItem.CATEGORY_APP;
-        } else {
-            // Add to other user item.
-            collapseKey = UidDetailProvider.buildKeyForUser(userId);
-            category = AppItem.CATEGORY_USER;
+    @Override
+    public void onUidDetailsResolved(SparseArray<UidDetail> details) {
+        for (int i = 0; i < details.size(); i++) {
+            AppDataUsagePreference preference = mPreferencesByKey.get(details.keyAt(i));
+            if (preference != null) {
+                preference.setDetail(details.valueAt(i));
+            }
         }
-
-        return accumulate(collapseKey, knownItems, entry, category, items);
     }
 
     /**
-     * UID does not belong to a regular app and maybe belongs to a removed application or
-     * application using for tethering traffic.
+     * Updates the preferences to match {@code result}, keyed by {@link AppItem#key}. Preferences of
+     * items which are still present are updated in place and keep their resolved {@link
+     * UidDetail}, only the preferences of new items are created and only those of items which are
+     * gone are removed.
      */
-    private boolean isUidValid(int uid) {
-        return !UserHandle.isApp(uid) && (uid == UID_REMOVED || uid == UID_TETHERING);
+    private void updatePreferences(AppDataUsageAggregator.Result result) {
+        PreferenceGroup group = getPreference();
+        List<AppItem> items = result.getItems();
+        SparseArray<AppDataUsagePreference> previous = mPreferencesByKey;
+        mPreferencesByKey = new SparseArray<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            AppItem item = items.get(i);
+            AppDataUsagePreference preference = previous.get(item.key);
+            if (preference == null) {
+                preference = new AppDataUsagePreference(getContext(), item, result.getPercent(i));
+                preference.setOrder(i);
+                group.addPreference(preference);
+            } else {
+                previous.remove(item.key);
+                preference.update(item, result.getPercent(i));
+                preference.setOrder(i);
+            }
+            mPreferencesByKey.put(item.key, preference);
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            mUidDetailResolver.remove(previous.keyAt(i));
+            group.removePreference(previous.valueAt(i));
+        }
     }
 
-    private boolean profileContainsUserId(List<UserInfo> profiles, int userId) {
-        return profiles.stream().anyMatch(userInfo -> userInfo.id == userId);
-    }
+    /** Aggregates the loaded stats in the background and adds the results on the main thread. */
+    private class AggregateTask extends AsyncTask<Void, Void, AppDataUsageAggregator.Result> {
 
-    private void updateRestrictedState(@Nullable int[] restrictedUids,
-            SparseArray<AppItem> knownItems, List<AppItem> items, List<UserInfo> profiles) {
-        if (restrictedUids == null) {
-            return;
-        }
+        private final AppDataUsageAggregator mAggregator;
+        @Nullable
+        private final NetworkStats mStats;
+        @Nullable
+        private final int[] mRestrictedUids;
 
-        for (int i = 0; i < restrictedUids.length; ++i) {
-            int uid = restrictedUids[i];
-            // Only splice in restricted state for current user or managed users.
-            if (!profileContainsUserId(profiles, uid)) {
-                continue;
-            }
-
-            AppItem item = knownItems.get(uid);
-            if (item == null) {
-                item = new AppItem(uid);
-                item.total = -1;
-                items.add(item);
-                knownItems.put(item.key, item);
-            }
-            item.restricted = true;
+        AggregateTask(AppDataUsageAggregator aggregator, @Nullable NetworkStats stats,
+                @Nullable int[] restrictedUids) {
+            mAggregator = aggregator;
+            mStats = stats;
+            mRestrictedUids = restrictedUids;
         }
-    }
 
-    private void sortAndAddPreferences(List<AppItem> items, long largest) {
-        Collections.sort(items);
-        for (int i = 0; i < items.size(); i++) {
-            int percentTotal = largest != 0 ? (int) (items.get(i).total * 100 / largest) : 0;
-            AppDataUsagePreference preference = new AppDataUsagePreference(getContext(),
-                    items.get(i), percentTotal, mUidDetailProvider);
-            getPreference().addPreference(preference);
+        @Override
+        protected AppDataUsageAggregator.Result doInBackground(Void... voids) {
+            return mAggregator.aggregate(mStats, mRestrictedUids);
         }
-    }
 
-    /**
-     * Accumulate data usage of a network stats entry for the item mapped by the collapse key.
-     * Creates the item if needed.
-     *
-     * @param collapseKey the collapse key used to map the item.
-     * @param knownItems collection of known (already existing) items.
-     * @param entry the network stats entry to extract data usage from.
-     * @param itemCategory the item is categorized on the list view by this category. Must be
-     */
-    private static long accumulate(int collapseKey, SparseArray<AppItem> knownItems,
-            NetworkStats.Entry entry, int itemCategory, List<AppItem> items) {
-        int uid = entry.uid;
-        AppItem item = knownItems.get(collapseKey);
-        if (item == null) {
-            item = new AppItem(collapseKey);
-            item.category = itemCategory;
-            items.add(item);
-            knownItems.put(item.key, item);
+        @Override
+        protected void onPostExecute(AppDataUsageAggregator.Result result) {
+            if (mAggregateTask == this) {
+                mAggregateTask = null;
+            }
+            updatePreferences(result);
         }
-        item.addUid(uid);
-        item.total += entry.rxBytes + entry.txBytes;
-        return item.total;
     }
 
     private class AppDataUsagePreference extends ProgressBarPreference {
 
-        private final AppItem mItem;
-        private final int mPercent;
+        private AppItem mItem;
+        private int mPercent;
         private UidDetail mDetail;
 
-        AppDataUsagePreference(Context context, AppItem item, int percent,
-                UidDetailProvider provider) {
+        AppDataUsagePreference(Context context, AppItem item, int percent) {
             super(context);
             mItem = item;
             mPercent = percent;
             setLayoutResource(R.layout.progress_bar_preference);
             setKey(String.valueOf(item.key));
-            if (item.restricted && item.total <= 0) {
-                setSummary(R.string.data_usage_app_restricted);
+            updateSummary();
+            mDetail = mUidDetailResolver.getDetail(item.key);
+            if (mDetail != null) {
+                setAppInfo();
             } else {
-                CharSequence s = DataUsageUtils.bytesToIecUnits(context, item.total);
-                setSummary(s);
+                mUidDetailResolver.request(item.key);
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(PreferenceViewHolder holder) {
+            super.onBindViewHolder(holder);
+            if (mDetail == null) {
+                // Bound rows are visible, so resolve them before the rest of the list.
+                mUidDetailResolver.prioritize(mItem.key);
             }
-            mDetail = provider.getUidDetail(item.key, false /* blocking */);
+        }
+
+        void setDetail(@Nullable UidDetail detail) {
+            mDetail = detail;
+            setAppInfo();
+        }
+
+        /** Updates the usage shown for an item with the same key. */
+        void update(AppItem item, int percent) {
+            mItem = item;
+            mPercent = percent;
+            updateSummary();
             if (mDetail != null) {
-                setAppInfo();
+                setProgress(mPercent);
+            }
+        }
+
+        private void updateSummary() {
+            if (mItem.restricted && mItem.total <= 0) {
+                setSummary(R.string.data_usage_app_restricted);
             } else {
-                ThreadUtils.postOnBackgroundThread(() -> {
-                    mDetail = provider.getUidDetail(mItem.key, true /* blocking */);
-                    ThreadUtils.postOnMainThread(() -> setAppInfo());
-                });
+                CharSequence s = DataUsageUtils.bytesToIecUnits(getContext(), mItem.total);
+                setSummary(s);
             }
         }
 
@@ -41,6 +41,11 @@ public class DataUsageEntryPreferenceController extends PreferenceController<Pre
         return Preference.class;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     protected int getAvailabilityStatus() {
         if (!NetworkUtils.hasMobileNetwork(
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datausage;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.net.UidDetail;
+
+import javax.annotation.Nullable;
+
+/**
+ * Process wide cache of resolved {@link UidDetail} instances, keyed by uid. The cache is bounded
+ * by the approximate number of bytes held by the icons and evicts the least recently used details
+ * first. Labels are locale dependent, so the cache is cleared when the {@link Configuration}
+ * changes.
+ */
+final class UidDetailCache {
+
+    /** Upper bound for the bytes held by cached icons. */
+    @VisibleForTesting
+    static final int MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    /** Size charged for a detail without a measurable icon. */
+    private static final int MIN_ENTRY_SIZE_BYTES = 1024;
+
+    private static UidDetailCache sInstance;
+
+    private final LruCache<Integer, UidDetail> mCache;
+    private Configuration mConfiguration;
+
+    /** Returns the cache for the current configuration of {@code context}. */
+    static synchronized UidDetailCache getInstance(Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (sInstance == null) {
+            sInstance = new UidDetailCache(MAX_SIZE_BYTES);
+        }
+        if (sInstance.mConfiguration == null
+                || sInstance.mConfiguration.diff(configuration) != 0) {
+            sInstance.mCache.evictAll();
+            sInstance.mConfiguration = new Configuration(configuration);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    static synchronized void resetInstance() {
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    UidDetailCache(int maxSizeBytes) {
+        mCache = new LruCache<Integer, UidDetail>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(Integer uid, UidDetail detail) {
+                return getSizeBytes(detail);
+            }
+        };
+    }
+
+    /** Returns the cached detail for {@code uid} or {@code null} if it is not cached. */
+    @Nullable
+    UidDetail get(int uid) {
+        return mCache.get(uid);
+    }
+
+    /** Caches {@code detail} for {@code uid}. */
+    void put(int uid, UidDetail detail) {
+        mCache.put(uid, detail);
+    }
+
+    /** Returns the approximate number of bytes held by the cached details. */
+    int getSizeBytes() {
+        return mCache.size();
+    }
+
+    private static int getSizeBytes(UidDetail detail) {
+        Drawable icon = detail.icon;
+        if (icon instanceof BitmapDrawable && ((BitmapDrawable) icon).getBitmap() != null) {
+            return Math.max(MIN_ENTRY_SIZE_BYTES,
+                    ((BitmapDrawable) icon).getBitmap().getAllocationByteCount());
+        }
+        if (icon != null && icon.getIntrinsicWidth() > 0 && icon.getIntrinsicHeight() > 0) {
+            // Assume the drawable is rendered into an ARGB_8888 bitmap of its intrinsic size.
+            return Math.max(MIN_ENTRY_SIZE_BYTES,
+                    icon.getIntrinsicWidth() * icon.getIntrinsicHeight() * 4);
+        }
+        return MIN_ENTRY_SIZE_BYTES;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datausage;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseArray;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.net.UidDetail;
+import com.android.settingslib.net.UidDetailProvider;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Resolves {@link UidDetail} instances in batches on a background thread. Uids of visible rows are
+ * resolved before the others, and the details of a batch are delivered together in a single post
+ * to the main thread. Resolved details are kept in a {@link UidDetailCache}.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+final class UidDetailResolver {
+
+    /** Callback for resolved details. */
+    interface Callback {
+        /**
+         * Called on the main thread with the details of a batch, keyed by uid. A value may be
+         * {@code null} if the uid could not be resolved.
+         */
+        void onUidDetailsResolved(SparseArray<UidDetail> details);
+    }
+
+    @VisibleForTesting
+    static final int BATCH_SIZE = 16;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final UidDetailProvider mProvider;
+    private final UidDetailCache mCache;
+    private final Callback mCallback;
+    private final Executor mBackgroundExecutor;
+
+    private final LinkedHashSet<Integer> mVisibleUids = new LinkedHashSet<>();
+    private final LinkedHashSet<Integer> mPendingUids = new LinkedHashSet<>();
+    private boolean mIsBatchRunning;
+    private int mGeneration;
+
+    UidDetailResolver(UidDetailProvider provider, UidDetailCache cache, Callback callback) {
+        this(provider, cache, callback, ThreadUtils::postOnBackgroundThread);
+    }
+
+    @VisibleForTesting
+    UidDetailResolver(UidDetailProvider provider, UidDetailCache cache, Callback callback,
+            Executor backgroundExecutor) {
+        mProvider = provider;
+        mCache = cache;
+        mCallback = callback;
+        mBackgroundExecutor = backgroundExecutor;
+    }
+
+    /**
+     * Returns the detail of {@code uid} if it is available without blocking, or {@code null} if it
+     * has to be resolved with {@link #request(int)}.
+     */
+    @Nullable
+    UidDetail getDetail(int uid) {
+        UidDetail detail = mCache.get(uid);
+        if (detail == null) {
+            detail = mProvider.getUidDetail(uid, /* blocking= */ false);
+            if (detail != null) {
+                mCache.put(uid, detail);
+            }
+        }
+        return detail;
+    }
+
+    /** Queues {@code uid} to be resolved. */
+    void request(int uid) {
+        if (!mVisibleUids.contains(uid)) {
+            mPendingUids.add(uid);
+        }
+        maybeStartBatch();
+    }
+
+    /** Resolves {@code uid} before the uids which are not visible if it is still queued. */
+    void prioritize(int uid) {
+        if (mPendingUids.remove(uid)) {
+            mVisibleUids.add(uid);
+        }
+    }
+
+    /** Removes {@code uid} from the queue. */
+    void remove(int uid) {
+        mVisibleUids.remove(uid);
+        mPendingUids.remove(uid);
+    }
+
+    /** Removes all queued uids and drops the results of the running batch. */
+    void cancel() {
+        mVisibleUids.clear();
+        mPendingUids.clear();
+        mGeneration++;
+    }
+
+    private void maybeStartBatch() {
+        if (mIsBatchRunning) {
+            return;
+        }
+        int[] uids = takeBatch();
+        if (uids.length == 0) {
+            return;
+        }
+        mIsBatchRunning = true;
+        int generation = mGeneration;
+        mBackgroundExecutor.execute(() -> {
+            SparseArray<UidDetail> details = new SparseArray<>(uids.length);
+            for (int uid : uids) {
+                UidDetail detail = mProvider.getUidDetail(uid, /* blocking= */ true);
+                if (detail != null) {
+                    mCache.put(uid, detail);
+                }
+                details.put(uid, detail);
+            }
+            mMainHandler.post(() -> onBatchResolved(generation, details));
+        });
+    }
+
+    private void onBatchResolved(int generation, SparseArray<UidDetail> details) {
+        mIsBatchRunning = false;
+        if (generation == mGeneration) {
+            mCallback.onUidDetailsResolved(details);
+        }
+        maybeStartBatch();
+    }
+
+    private int[] takeBatch() {
+        int size = Math.min(BATCH_SIZE, mVisibleUids.size() + mPendingUids.size());
+        int[] uids = new int[size];
+        int count = 0;
+        count = take(mVisibleUids, uids, count);
+        take(mPendingUids, uids, count);
+        return uids;
+    }
+
+    private static int take(LinkedHashSet<Integer> from, int[] to, int count) {
+        Iterator<Integer> iterator = from.iterator();
+        while (count < to.length && iterator.hasNext()) {
+            to[count++] = iterator.next();
+            iterator.remove();
+        }
+        return count;
+    }
+}
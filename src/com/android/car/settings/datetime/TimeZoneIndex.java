@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datetime;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.datetime.ZoneGetter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compact, immutable list of the time zones returned by {@link ZoneGetter}, sorted by offset from
+ * GMT and then by display label. Zones are stored in parallel arrays and addressed by row.
+ *
+ * <p>Building the index is expensive, so the last index is cached for the locale it was built
+ * in. Since the offsets depend on daylight saving time, the cached index expires after an hour.
+ */
+final class TimeZoneIndex {
+
+    private static final long MAX_CACHE_AGE_MS = DateUtils.HOUR_IN_MILLIS;
+
+    private static TimeZoneIndex sCachedIndex;
+    private static Locale sCachedLocale;
+    private static long sCachedTimeMs;
+
+    private final String[] mIds;
+    private final String[] mLabels;
+    private final String[] mOffsetLabels;
+
+    private TimeZoneIndex(String[] ids, String[] labels, String[] offsetLabels) {
+        mIds = ids;
+        mLabels = labels;
+        mOffsetLabels = offsetLabels;
+    }
+
+    /**
+     * Returns the cached index if it was built for the current locale and has not expired, or
+     * {@code null} otherwise.
+     */
+    @Nullable
+    static synchronized TimeZoneIndex getCached(Context context) {
+        if (sCachedIndex == null || !getLocale(context).equals(sCachedLocale)
+                || SystemClock.elapsedRealtime() - sCachedTimeMs > MAX_CACHE_AGE_MS) {
+            return null;
+        }
+        return sCachedIndex;
+    }
+
+    /** Returns the index for the current locale, building and caching it if necessary. */
+    @WorkerThread
+    static TimeZoneIndex load(Context context) {
+        TimeZoneIndex index = getCached(context);
+        if (index != null) {
+            return index;
+        }
+        Locale locale = getLocale(context);
+        index = create(ZoneGetter.getZonesList(context));
+        synchronized (TimeZoneIndex.class) {
+            sCachedIndex = index;
+            sCachedLocale = locale;
+            sCachedTimeMs = SystemClock.elapsedRealtime();
+        }
+        return index;
+    }
+
+    /** Builds an index from the time zone maps returned by {@link ZoneGetter}. */
+    static TimeZoneIndex create(List<Map<String, Object>> zones) {
+        int size = zones.size();
+        String[] ids = new String[size];
+        String[] labels = new String[size];
+        String[] offsetLabels = new String[size];
+        int[] offsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> zone = zones.get(i);
+            ids[i] = zone.get(ZoneGetter.KEY_ID).toString();
+            labels[i] = zone.get(ZoneGetter.KEY_DISPLAY_LABEL).toString();
+            offsetLabels[i] = zone.get(ZoneGetter.KEY_OFFSET_LABEL).toString();
+            offsets[i] = ((Number) zone.get(ZoneGetter.KEY_OFFSET)).intValue();
+        }
+
+        // Sort the rows by offset, then by display label.
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int offsetCompare = Integer.compare(offsets[a], offsets[b]);
+            return offsetCompare != 0 ? offsetCompare : labels[a].compareTo(labels[b]);
+        });
+
+        String[] sortedIds = new String[size];
+        String[] sortedLabels = new String[size];
+        String[] sortedOffsetLabels = new String[size];
+        for (int row = 0; row < size; row++) {
+            sortedIds[row] = ids[order[row]];
+            sortedLabels[row] = labels[order[row]];
+            sortedOffsetLabels[row] = offsetLabels[order[row]];
+        }
+        return new TimeZoneIndex(sortedIds, sortedLabels, sortedOffsetLabels);
+    }
+
+    /** Returns the number of time zones. */
+    int size() {
+        return mIds.length;
+    }
+
+    /** Returns the id of the time zone at {@code row}. */
+    String getId(int row) {
+        return mIds[row];
+    }
+
+    /** Returns the display label of the time zone at {@code row}. */
+    String getLabel(int row) {
+        return mLabels[row];
+    }
+
+    /** Returns the label of the GMT offset of the time zone at {@code row}. */
+    String getOffsetLabel(int row) {
+        return mOffsetLabels[row];
+    }
+
+    /** Returns the row of the time zone with the given {@code id}, or -1 if there is none. */
+    int indexOf(String id) {
+        for (int row = 0; row < mIds.length; row++) {
+            if (mIds[row].equals(id)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static Locale getLocale(Context context) {
+        return context.getResources().getConfiguration().getLocales().get(0);
+    }
+}
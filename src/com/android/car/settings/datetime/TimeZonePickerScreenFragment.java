@@ -17,9 +17,12 @@
 package com.android.car.settings.datetime;
 
 
+import android.os.Bundle;
+
 import androidx.annotation.XmlRes;
 
 import com.android.car.settings.R;
+import com.android.car.settings.common.NearEndScrollListener;
 import com.android.car.settings.common.SettingsFragment;
 
 import java.util.TimeZone;
@@ -35,6 +38,14 @@ public class TimeZonePickerScreenFragment extends SettingsFragment {
         return R.xml.timezone_picker_screen_fragment;
     }
 
+    @Override
+    public void onActivityCreated(Bundle savedInstanceState) {
+        super.onActivityCreated(savedInstanceState);
+        TimeZonePickerScreenPreferenceController controller = use(
+                TimeZonePickerScreenPreferenceController.class, R.string.pk_timezone_picker_screen);
+        getListView().addOnScrollListener(new NearEndScrollListener(controller::loadMoreRows));
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -20,6 +20,7 @@ import android.app.AlarmManager;
 import android.car.drivingstate.CarUxRestrictions;
 import android.content.Context;
 import android.content.Intent;
+import android.os.AsyncTask;
 
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
@@ -27,21 +28,29 @@ import androidx.preference.PreferenceGroup;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
-import com.android.settingslib.datetime.ZoneGetter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * Business logic which will populate the timezone options.
+ *
+ * <p>The time zones are read from a {@link TimeZoneIndex} which is built in the background.
+ * Preferences are only created for the rows up to the current time zone and a page beyond it, and
+ * further pages are added by {@link #loadMoreRows()} as the list is scrolled.
  */
 public class TimeZonePickerScreenPreferenceController extends
         PreferenceController<PreferenceGroup> {
 
-    private List<Preference> mZonesList;
+    /** Number of time zone preferences added at a time. */
+    @VisibleForTesting
+    static final int PAGE_SIZE = 50;
+
+    private TimeZoneIndex mTimeZoneIndex;
+    /** Number of rows of the index which have a preference. */
+    private int mRowCount;
+    private LoadTimeZoneIndexTask mLoadTimeZoneIndexTask;
     @VisibleForTesting
     AlarmManager mAlarmManager;
 
@@ -58,39 +67,66 @@ public class TimeZonePickerScreenPreferenceController extends
 
     @Override
     protected void updateState(PreferenceGroup preferenceGroup) {
-        if (mZonesList == null) {
-            constructTimeZoneList();
+        if (mTimeZoneIndex == null) {
+            mTimeZoneIndex = TimeZoneIndex.getCached(getContext());
         }
-        for (Preference zonePreference : mZonesList) {
-            preferenceGroup.addPreference(zonePreference);
+        if (mTimeZoneIndex == null) {
+            loadTimeZoneIndex();
+            return;
+        }
+        if (mRowCount == 0) {
+            // Show a page beyond the current time zone, so that it can be scrolled to.
+            int currentRow = mTimeZoneIndex.indexOf(TimeZone.getDefault().getID());
+            addRows(Math.max(PAGE_SIZE, currentRow + 1 + PAGE_SIZE));
         }
     }
 
-    private void constructTimeZoneList() {
-        // We load all of the time zones on the UI thread. However it shouldn't be very expensive
-        // and also shouldn't take a long time. We can revisit this to setup background work and
-        // paging, if it becomes an issue.
-        List<Map<String, Object>> zones = ZoneGetter.getZonesList(getContext());
-        setZonesList(zones);
+    @Override
+    protected void onDestroyInternal() {
+        if (mLoadTimeZoneIndexTask != null) {
+            mLoadTimeZoneIndexTask.cancel(/* mayInterruptIfRunning= */ false);
+            mLoadTimeZoneIndexTask = null;
+        }
+    }
+
+    /** Adds preferences for the next page of time zones, if there are any left. */
+    public void loadMoreRows() {
+        if (mTimeZoneIndex != null && mRowCount > 0) {
+            addRows(mRowCount + PAGE_SIZE);
+        }
     }
 
     @VisibleForTesting
     void setZonesList(List<Map<String, Object>> zones) {
-        Collections.sort(zones, new TimeZonesComparator());
-        mZonesList = new ArrayList<>();
-        for (Map<String, Object> zone : zones) {
-            mZonesList.add(createTimeZonePreference(zone));
+        mTimeZoneIndex = TimeZoneIndex.create(zones);
+    }
+
+    private void loadTimeZoneIndex() {
+        if (mLoadTimeZoneIndexTask != null) {
+            return;
         }
+        mLoadTimeZoneIndexTask = new LoadTimeZoneIndexTask();
+        mLoadTimeZoneIndexTask.execute();
     }
 
-    /** Construct a time zone preference based on the Map object given by {@link ZoneGetter}. */
-    private Preference createTimeZonePreference(Map<String, Object> timeZone) {
+    /** Adds preferences for the rows of the index up to {@code rowCount}. */
+    private void addRows(int rowCount) {
+        int newRowCount = Math.min(rowCount, mTimeZoneIndex.size());
+        for (int row = mRowCount; row < newRowCount; row++) {
+            getPreference().addPreference(createTimeZonePreference(row));
+        }
+        mRowCount = newRowCount;
+    }
+
+    /** Construct a time zone preference for a row of the {@link TimeZoneIndex}. */
+    private Preference createTimeZonePreference(int row) {
+        String id = mTimeZoneIndex.getId(row);
         Preference preference = new Preference(getContext());
-        preference.setKey(timeZone.get(ZoneGetter.KEY_ID).toString());
-        preference.setTitle(timeZone.get(ZoneGetter.KEY_DISPLAY_LABEL).toString());
-        preference.setSummary(timeZone.get(ZoneGetter.KEY_OFFSET_LABEL).toString());
+        preference.setKey(id);
+        preference.setTitle(mTimeZoneIndex.getLabel(row));
+        preference.setSummary(mTimeZoneIndex.getOffsetLabel(row));
         preference.setOnPreferenceClickListener(pref -> {
-            mAlarmManager.setTimeZone(timeZone.get(ZoneGetter.KEY_ID).toString());
+            mAlarmManager.setTimeZone(id);
             getFragmentController().goBack();
 
             // Note: This is intentionally ACTION_TIME_CHANGED, not ACTION_TIMEZONE_CHANGED.
@@ -103,38 +139,22 @@ public class TimeZonePickerScreenPreferenceController extends
         return preference;
     }
 
-    /** Compares the timezone objects returned by {@link ZoneGetter}. */
-    private static final class TimeZonesComparator implements Comparator<Map<String, Object>> {
-
-        /** Compares timezones based on 1. offset, 2. display label/name. */
-        TimeZonesComparator() {
-        }
+    /** Loads the time zone index in the background and shows the first rows. */
+    private class LoadTimeZoneIndexTask extends AsyncTask<Void, Void, TimeZoneIndex> {
 
         @Override
-        public int compare(Map<String, Object> map1, Map<String, Object> map2) {
-            int timeZoneOffsetCompare = compareWithKey(map1, map2, ZoneGetter.KEY_OFFSET);
-
-            // If equivalent timezone offset, compare based on display label.
-            if (timeZoneOffsetCompare == 0) {
-                return compareWithKey(map1, map2, ZoneGetter.KEY_DISPLAY_LABEL);
-            }
-
-            return timeZoneOffsetCompare;
+        protected TimeZoneIndex doInBackground(Void... voids) {
+            return TimeZoneIndex.load(getContext());
         }
 
-        private int compareWithKey(Map<String, Object> map1, Map<String, Object> map2,
-                String comparisonKey) {
-            Object value1 = map1.get(comparisonKey);
-            Object value2 = map2.get(comparisonKey);
-            if (!isComparable(value1) || !isComparable(value2)) {
-                throw new IllegalArgumentException(
-                        "Cannot use Map which has values that are not Comparable");
+        @Override
+        protected void onPostExecute(TimeZoneIndex timeZoneIndex) {
+            if (mLoadTimeZoneIndexTask != this) {
+                return;
             }
-            return ((Comparable) value1).compareTo(value2);
-        }
-
-        private boolean isComparable(Object value) {
-            return (value != null) && (value instanceof Comparable);
+            mLoadTimeZoneIndexTask = null;
+            mTimeZoneIndex = timeZoneIndex;
+            refreshUi();
         }
     }
 }
@@ -26,18 +26,25 @@ import android.content.Context;
 import android.os.PowerManager;
 import android.provider.Settings;
 
+import androidx.annotation.VisibleForTesting;
+
+import com.android.car.settings.common.CoalescingValueWriter;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.Logger;
 import com.android.car.settings.common.PreferenceController;
 import com.android.car.settings.common.SeekBarPreference;
 
-/** Business logic for changing the brightness of the display. */
+/**
+ * Business logic for changing the brightness of the display. While the slider is dragged, the
+ * brightness setting is written at a bounded rate by a {@link CoalescingValueWriter}.
+ */
 public class BrightnessLevelPreferenceController extends PreferenceController<SeekBarPreference> {
 
     private static final Logger LOG = new Logger(BrightnessLevelPreferenceController.class);
     private final CarUserManagerHelper mCarUserManagerHelper;
     private final int mMaximumBacklight;
     private final int mMinimumBacklight;
+    private final CoalescingValueWriter mBrightnessWriter;
 
     public BrightnessLevelPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
@@ -46,6 +53,7 @@ public class BrightnessLevelPreferenceController extends PreferenceController<Se
         PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
         mMaximumBacklight = powerManager.getMaximumScreenBrightnessSetting();
         mMinimumBacklight = powerManager.getMinimumScreenBrightnessSetting();
+        mBrightnessWriter = new CoalescingValueWriter(context, this::writeBrightness);
     }
 
     @Override
@@ -53,6 +61,11 @@ public class BrightnessLevelPreferenceController extends PreferenceController<Se
         return SeekBarPreference.class;
     }
 
+    @Override
+    protected void onStopInternal() {
+        mBrightnessWriter.flush();
+    }
+
     @Override
     protected void updateState(SeekBarPreference preference) {
         preference.setMax(GAMMA_SPACE_MAX);
@@ -64,10 +77,23 @@ public class BrightnessLevelPreferenceController extends PreferenceController<Se
     protected boolean handlePreferenceChanged(SeekBarPreference preference, Object newValue) {
         int gamma = (Integer) newValue;
         int linear = convertGammaToLinear(gamma, mMinimumBacklight, mMaximumBacklight);
+        if (preference.isTrackingTouch()) {
+            mBrightnessWriter.set(linear);
+        } else {
+            mBrightnessWriter.commit(linear);
+        }
+        return true;
+    }
+
+    @VisibleForTesting
+    CoalescingValueWriter getBrightnessWriter() {
+        return mBrightnessWriter;
+    }
+
+    private void writeBrightness(int linear) {
         Settings.System.putIntForUser(getContext().getContentResolver(),
                 Settings.System.SCREEN_BRIGHTNESS, linear,
                 mCarUserManagerHelper.getCurrentProcessUserId());
-        return true;
     }
 
     private int getSeekbarValue() {
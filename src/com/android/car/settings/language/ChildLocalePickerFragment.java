@@ -23,6 +23,7 @@ import android.widget.TextView;
 import androidx.annotation.XmlRes;
 
 import com.android.car.settings.R;
+import com.android.car.settings.common.NearEndScrollListener;
 import com.android.car.settings.common.SettingsFragment;
 import com.android.internal.app.LocaleStore;
 
@@ -72,6 +73,10 @@ public class ChildLocalePickerFragment extends SettingsFragment {
 
         TextView titleView = getActivity().findViewById(R.id.title);
         titleView.setText(mParentLocaleInfo.getFullNameNative());
+
+        ChildLocalePickerPreferenceController controller = use(
+                ChildLocalePickerPreferenceController.class, R.string.pk_child_locale_picker);
+        getListView().addOnScrollListener(new NearEndScrollListener(controller::loadMoreRows));
     }
 
     @Override
@@ -22,6 +22,7 @@ import android.content.Context;
 import com.android.car.settings.common.FragmentController;
 import com.android.internal.app.LocaleStore;
 
+import java.util.HashSet;
 import java.util.Set;
 
 /** Business logic for handling a secondary page for languages which have multiple locales. */
@@ -40,14 +41,13 @@ public class ChildLocalePickerPreferenceController extends LanguageBasePreferenc
     }
 
     @Override
-    protected LocalePreferenceProvider defineLocaleProvider() {
-        Set<LocaleStore.LocaleInfo> mLocaleInfoSet = LocaleStore.getLevelLocales(
-                getContext(),
-                getExclusionSet(),
-                mParentLocaleInfo,
-                /* translatedOnly= */ true);
-
-        return LocalePreferenceProvider.newInstance(getContext(), mLocaleInfoSet,
+    protected LocalePreferenceProvider defineLocaleProvider(
+            LocaleTreeCache.LocaleTree localeTree) {
+        // The regions are usually cached by the language screen, so they are shown right away.
+        Set<LocaleStore.LocaleInfo> localeInfoSet = new HashSet<>(
+                localeTree.getRegions(mParentLocaleInfo));
+
+        return LocalePreferenceProvider.newInstance(getContext(), localeInfoSet,
                 mParentLocaleInfo);
     }
 }
@@ -18,7 +18,9 @@ package com.android.car.settings.language;
 
 import android.car.drivingstate.CarUxRestrictions;
 import android.content.Context;
+import android.os.AsyncTask;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
 
@@ -32,6 +34,10 @@ import java.util.Set;
 
 /**
  * Common business logic shared between the primary and secondary screens for language selection.
+ *
+ * <p>Both screens render from the language to region tree of {@link LocaleTreeCache}, which is
+ * loaded in the background when it is not cached yet. Preferences are created a page at a time,
+ * and further pages are added by {@link #loadMoreRows()} as the list is scrolled.
  */
 public abstract class LanguageBasePreferenceController extends
         PreferenceController<PreferenceGroup> implements Preference.OnPreferenceClickListener {
@@ -42,12 +48,20 @@ public abstract class LanguageBasePreferenceController extends
         void onLocaleSelected(LocaleStore.LocaleInfo localeInfo);
     }
 
+    /** Number of locale list items added at a time. */
+    @VisibleForTesting
+    static final int PAGE_SIZE = 30;
+
+    private final LocaleTreeCache mLocaleTreeCache;
     private Set<String> mExclusionSet = new HashSet<>();
     private LocaleSelectedListener mLocaleSelectedListener;
+    private LocalePreferenceProvider mLocalePreferenceProvider;
+    private LoadLocalesTask mLoadLocalesTask;
 
     public LanguageBasePreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
+        mLocaleTreeCache = LocaleTreeCache.getInstance(context);
     }
 
     @Override
@@ -65,14 +79,48 @@ public abstract class LanguageBasePreferenceController extends
         return mExclusionSet;
     }
 
-    /** Defines the locale provider that should be used by the given preference controller. */
-    protected abstract LocalePreferenceProvider defineLocaleProvider();
+    /**
+     * Defines the locale provider that should be used by the given preference controller. This
+     * may be called on a background thread.
+     *
+     * @param localeTree the languages and regions which may be shown
+     */
+    protected abstract LocalePreferenceProvider defineLocaleProvider(
+            LocaleTreeCache.LocaleTree localeTree);
 
     @Override
     protected void updateState(PreferenceGroup preferenceGroup) {
-        // Only populate if the preference group is empty.
-        if (preferenceGroup.getPreferenceCount() == 0) {
-            defineLocaleProvider().populateBasePreference(preferenceGroup, this);
+        if (mLocalePreferenceProvider == null) {
+            LocaleTreeCache.LocaleTree localeTree = mLocaleTreeCache.getTree(getExclusionSet());
+            if (localeTree == null) {
+                loadLocales();
+                return;
+            }
+            mLocalePreferenceProvider = defineLocaleProvider(localeTree);
+        }
+        // Only populate the first page if nothing was added yet.
+        if (mLocalePreferenceProvider.getPopulatedCount() == 0) {
+            mLocalePreferenceProvider.populateBasePreference(preferenceGroup, this, PAGE_SIZE);
+        }
+    }
+
+    @Override
+    protected void onDestroyInternal() {
+        if (mLoadLocalesTask != null) {
+            mLoadLocalesTask.cancel(/* mayInterruptIfRunning= */ false);
+            mLoadLocalesTask = null;
+        }
+    }
+
+    /** Adds preferences for the next page of locales, if there are any left. */
+    public void loadMoreRows() {
+        if (mLocalePreferenceProvider == null) {
+            return;
+        }
+        int populatedCount = mLocalePreferenceProvider.getPopulatedCount();
+        if (populatedCount > 0) {
+            mLocalePreferenceProvider.populateBasePreference(getPreference(), this,
+                    populatedCount + PAGE_SIZE);
         }
     }
 
@@ -95,11 +143,7 @@ public abstract class LanguageBasePreferenceController extends
         if (localeInfo.getParent() == null) {
             // The locale only has the language info. Need to look up the sub-level
             // locale to get the country/region info as well.
-            Set<LocaleStore.LocaleInfo> subLocales = LocaleStore.getLevelLocales(
-                    getContext(),
-                    getExclusionSet(),
-                    /* parent */ localeInfo,
-                    /* translatedOnly */ true);
+            Set<LocaleStore.LocaleInfo> subLocales = getSubLocales(localeInfo);
 
             if (subLocales.size() > 1) {
                 handleLocaleWithChildren(localeInfo);
@@ -121,4 +165,49 @@ public abstract class LanguageBasePreferenceController extends
         getFragmentController().goBack();
         return true;
     }
+
+    private Set<LocaleStore.LocaleInfo> getSubLocales(LocaleStore.LocaleInfo parentLocaleInfo) {
+        LocaleTreeCache.LocaleTree localeTree = mLocaleTreeCache.getTree(getExclusionSet());
+        if (localeTree != null) {
+            return localeTree.getRegions(parentLocaleInfo);
+        }
+        // The tree was dropped since the preferences were shown.
+        return LocaleStore.getLevelLocales(
+                getContext(),
+                getExclusionSet(),
+                /* parent */ parentLocaleInfo,
+                /* translatedOnly */ true);
+    }
+
+    private void loadLocales() {
+        if (mLoadLocalesTask != null) {
+            return;
+        }
+        mLoadLocalesTask = new LoadLocalesTask(getExclusionSet());
+        mLoadLocalesTask.execute();
+    }
+
+    /** Loads the locale tree and defines the locale provider in the background. */
+    private class LoadLocalesTask extends AsyncTask<Void, Void, LocalePreferenceProvider> {
+        private final Set<String> mIgnorables;
+
+        LoadLocalesTask(Set<String> ignorables) {
+            mIgnorables = new HashSet<>(ignorables);
+        }
+
+        @Override
+        protected LocalePreferenceProvider doInBackground(Void... voids) {
+            return defineLocaleProvider(mLocaleTreeCache.loadTree(mIgnorables));
+        }
+
+        @Override
+        protected void onPostExecute(LocalePreferenceProvider localePreferenceProvider) {
+            if (mLoadLocalesTask != this) {
+                return;
+            }
+            mLoadLocalesTask = null;
+            mLocalePreferenceProvider = localePreferenceProvider;
+            refreshUi();
+        }
+    }
 }
@@ -16,9 +16,12 @@
 
 package com.android.car.settings.language;
 
+import android.os.Bundle;
+
 import androidx.annotation.XmlRes;
 
 import com.android.car.settings.R;
+import com.android.car.settings.common.NearEndScrollListener;
 import com.android.car.settings.common.SettingsFragment;
 
 /** Fragment for showing the list of languages. */
@@ -29,4 +32,12 @@ public class LanguagePickerFragment extends SettingsFragment {
     protected int getPreferenceScreenResId() {
         return R.xml.language_picker_fragment;
     }
+
+    @Override
+    public void onActivityCreated(Bundle savedInstanceState) {
+        super.onActivityCreated(savedInstanceState);
+        LanguagePickerPreferenceController controller = use(
+                LanguagePickerPreferenceController.class, R.string.pk_language_picker);
+        getListView().addOnScrollListener(new NearEndScrollListener(controller::loadMoreRows));
+    }
 }
@@ -23,6 +23,7 @@ import android.os.Build;
 import com.android.car.settings.common.FragmentController;
 import com.android.internal.app.LocaleStore;
 
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
@@ -35,12 +36,9 @@ public class LanguagePickerPreferenceController extends LanguageBasePreferenceCo
     }
 
     @Override
-    protected LocalePreferenceProvider defineLocaleProvider() {
-        Set<LocaleStore.LocaleInfo> localeInfoSet = LocaleStore.getLevelLocales(
-                getContext(),
-                getExclusionSet(),
-                /* parent= */ null,
-                /* translatedOnly= */ true);
+    protected LocalePreferenceProvider defineLocaleProvider(
+            LocaleTreeCache.LocaleTree localeTree) {
+        Set<LocaleStore.LocaleInfo> localeInfoSet = new HashSet<>(localeTree.getLanguages());
         maybeAddPseudoLocale(localeInfoSet);
 
         return LocalePreferenceProvider.newInstance(getContext(), localeInfoSet,
@@ -63,6 +63,9 @@ public class LocalePreferenceProvider {
 
     private final Context mContext;
     private SuggestedLocaleAdapter mSuggestedLocaleAdapter;
+    /** The category which the next locale preferences are added to, if there are categories. */
+    private PreferenceCategory mCategory;
+    private int mPopulatedCount;
 
     @VisibleForTesting
     LocalePreferenceProvider(Context context, SuggestedLocaleAdapter localeAdapter) {
@@ -80,6 +83,22 @@ public class LocalePreferenceProvider {
      */
     public void populateBasePreference(PreferenceGroup base,
             Preference.OnPreferenceClickListener listener) {
+        populateBasePreference(base, listener, mSuggestedLocaleAdapter.getCount());
+    }
+
+    /**
+     * Populates the base preference group with the items of this provider up to {@code itemCount}.
+     * Each call continues after the items added by the previous calls, so that preferences can be
+     * created a page at a time.
+     *
+     * @param base      the preference container which will hold the language preferences created
+     *                  by this provider
+     * @param listener  the click listener registered to the language/locale preferences contained
+     *                  in the base preference group
+     * @param itemCount the number of items which should have been added after this call
+     */
+    public void populateBasePreference(PreferenceGroup base,
+            Preference.OnPreferenceClickListener listener, int itemCount) {
         /*
          * LocalePreferenceProvider can give elements to be represented in 2 ways. In the first
          * way, it simply provides the LocalePreferences which lists the available options. In the
@@ -89,25 +108,30 @@ public class LocalePreferenceProvider {
          *
          * In the first case (no subcategories), preferences are added directly to the base
          * container. Otherwise, elements are added to the last category that was provided
-         * (stored in "category").
+         * (stored in "mCategory").
          */
-        PreferenceCategory category = null;
-        for (int position = 0; position < mSuggestedLocaleAdapter.getCount(); position++) {
-            Preference preference = getPreference(position);
+        int count = Math.min(itemCount, mSuggestedLocaleAdapter.getCount());
+        for (; mPopulatedCount < count; mPopulatedCount++) {
+            Preference preference = getPreference(mPopulatedCount);
             if (PreferenceUtil.checkPreferenceType(preference, PreferenceCategory.class)) {
-                category = (PreferenceCategory) preference;
-                base.addPreference(category);
+                mCategory = (PreferenceCategory) preference;
+                base.addPreference(mCategory);
             } else {
                 preference.setOnPreferenceClickListener(listener);
-                if (category == null) {
+                if (mCategory == null) {
                     base.addPreference(preference);
                 } else {
-                    category.addPreference(preference);
+                    mCategory.addPreference(preference);
                 }
             }
         }
     }
 
+    /** Returns the number of items which were added to the base preference group. */
+    public int getPopulatedCount() {
+        return mPopulatedCount;
+    }
+
     /**
      * Constructs a PreferenceCategory or Preference with locale arguments based on the type of item
      * provided.
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.language;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.util.ArrayMap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.android.car.settings.common.Logger;
+import com.android.internal.app.LocaleStore;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process wide cache of the language to region tree shown by the language pickers. Reading the
+ * locales from {@link LocaleStore} is slow the first time, so the whole tree is built once on a
+ * background thread and shared by the language and region screens. The tree is dropped when the
+ * system locales change.
+ */
+final class LocaleTreeCache {
+
+    private static final Logger LOG = new Logger(LocaleTreeCache.class);
+
+    private static LocaleTreeCache sInstance;
+
+    private final Context mContext;
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            LOG.d("Invalidating on " + intent.getAction());
+            invalidate();
+        }
+    };
+
+    private LocaleTree mTree;
+    private Set<String> mIgnorables;
+    /** Incremented whenever the tree is invalidated. */
+    private int mVersion;
+
+    /** Returns the cache of the application of {@code context}. */
+    static synchronized LocaleTreeCache getInstance(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (sInstance == null || sInstance.mContext != appContext) {
+            sInstance = new LocaleTreeCache(appContext);
+        }
+        return sInstance;
+    }
+
+    private LocaleTreeCache(Context context) {
+        mContext = context;
+        mContext.registerReceiver(mReceiver, new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+    }
+
+    /**
+     * Returns the cached tree if it was built without the locales in {@code ignorables}, or {@code
+     * null} if the tree needs to be loaded.
+     */
+    @Nullable
+    synchronized LocaleTree getTree(Set<String> ignorables) {
+        if (mTree == null || !mIgnorables.equals(ignorables)) {
+            return null;
+        }
+        return mTree;
+    }
+
+    /**
+     * Returns the tree without the locales in {@code ignorables}, building and caching it if
+     * necessary.
+     */
+    @WorkerThread
+    LocaleTree loadTree(Set<String> ignorables) {
+        int version;
+        synchronized (this) {
+            LocaleTree tree = getTree(ignorables);
+            if (tree != null) {
+                return tree;
+            }
+            version = mVersion;
+        }
+        Set<String> ignorablesCopy = new HashSet<>(ignorables);
+        LocaleTree tree = LocaleTree.create(mContext, ignorablesCopy);
+        synchronized (this) {
+            // Don't cache a tree built from locales which changed while it was being built.
+            if (version == mVersion) {
+                mTree = tree;
+                mIgnorables = ignorablesCopy;
+            }
+        }
+        return tree;
+    }
+
+    /** Drops the cached tree. */
+    synchronized void invalidate() {
+        mTree = null;
+        mIgnorables = null;
+        mVersion++;
+    }
+
+    /** Immutable tree of the available languages and the regions of each language. */
+    static final class LocaleTree {
+        private final Set<LocaleStore.LocaleInfo> mLanguages;
+        private final Map<LocaleStore.LocaleInfo, Set<LocaleStore.LocaleInfo>> mRegions;
+
+        private LocaleTree(Set<LocaleStore.LocaleInfo> languages,
+                Map<LocaleStore.LocaleInfo, Set<LocaleStore.LocaleInfo>> regions) {
+            mLanguages = languages;
+            mRegions = regions;
+        }
+
+        private static LocaleTree create(Context context, Set<String> ignorables) {
+            Set<LocaleStore.LocaleInfo> languages = Collections.unmodifiableSet(new HashSet<>(
+                    LocaleStore.getLevelLocales(context, ignorables, /* parent= */ null,
+                            /* translatedOnly= */ true)));
+            Map<LocaleStore.LocaleInfo, Set<LocaleStore.LocaleInfo>> regions = new ArrayMap<>(
+                    languages.size());
+            for (LocaleStore.LocaleInfo language : languages) {
+                regions.put(language, Collections.unmodifiableSet(new HashSet<>(
+                        LocaleStore.getLevelLocales(context, ignorables, language,
+                                /* translatedOnly= */ true))));
+            }
+            return new LocaleTree(languages, regions);
+        }
+
+        /** Returns the languages, which are the top level of the tree. */
+        Set<LocaleStore.LocaleInfo> getLanguages() {
+            return mLanguages;
+        }
+
+        /** Returns the regions of {@code language}, or an empty set if it is not in the tree. */
+        Set<LocaleStore.LocaleInfo> getRegions(LocaleStore.LocaleInfo language) {
+            Set<LocaleStore.LocaleInfo> regions = mRegions.get(language);
+            return regions != null ? regions : Collections.emptySet();
+        }
+    }
+}
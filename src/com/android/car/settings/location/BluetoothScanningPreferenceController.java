@@ -48,6 +48,11 @@ public class BluetoothScanningPreferenceController extends
                 PackageManager.FEATURE_BLUETOOTH_LE) ? AVAILABLE : UNSUPPORTED_ON_DEVICE;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     protected void updateState(TwoStatePreference preference) {
         preference.setChecked(Settings.Global.getInt(getContext().getContentResolver(),
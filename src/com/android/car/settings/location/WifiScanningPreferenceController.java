@@ -47,6 +47,11 @@ public class WifiScanningPreferenceController extends PreferenceController<TwoSt
                 ? AVAILABLE : UNSUPPORTED_ON_DEVICE;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     protected void updateState(TwoStatePreference preference) {
         preference.setChecked(Settings.Global.getInt(getContext().getContentResolver(),
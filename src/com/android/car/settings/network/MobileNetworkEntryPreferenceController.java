@@ -17,7 +17,6 @@
 package com.android.car.settings.network;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.os.UserManager;
@@ -30,6 +29,7 @@ import androidx.preference.Preference;
 import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 import java.util.List;
 
@@ -38,7 +38,7 @@ public class MobileNetworkEntryPreferenceController extends
         PreferenceController<Preference> implements
         SubscriptionsChangeListener.SubscriptionsChangeAction {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
     private final SubscriptionsChangeListener mChangeListener;
     private final SubscriptionManager mSubscriptionManager;
     private final ConnectivityManager mConnectivityManager;
@@ -47,7 +47,7 @@ public class MobileNetworkEntryPreferenceController extends
     public MobileNetworkEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
         mChangeListener = new SubscriptionsChangeListener(context, /* action= */ this);
         mSubscriptionManager = context.getSystemService(SubscriptionManager.class);
         mConnectivityManager = context.getSystemService(ConnectivityManager.class);
@@ -69,14 +69,19 @@ public class MobileNetworkEntryPreferenceController extends
         mChangeListener.stop();
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     protected int getAvailabilityStatus() {
         if (!NetworkUtils.hasMobileNetwork(mConnectivityManager)) {
             return UNSUPPORTED_ON_DEVICE;
         }
 
-        boolean isNotAdmin = !mCarUserManagerHelper.getCurrentProcessUserInfo().isAdmin();
-        boolean hasRestriction = mCarUserManagerHelper.isCurrentProcessUserHasRestriction(
+        boolean isNotAdmin = !mUserStateCache.getCurrentProcessUserInfo().isAdmin();
+        boolean hasRestriction = mUserStateCache.isCurrentProcessUserHasRestriction(
                 UserManager.DISALLOW_CONFIG_MOBILE_NETWORKS);
         if (isNotAdmin || hasRestriction) {
             return DISABLED_FOR_USER;
@@ -111,6 +116,7 @@ public class MobileNetworkEntryPreferenceController extends
 
     @Override
     public void onSubscriptionsChanged() {
+        invalidateAvailabilityStatus();
         refreshUi();
     }
 
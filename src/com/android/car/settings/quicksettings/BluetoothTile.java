@@ -83,7 +83,7 @@ public class BluetoothTile implements QuickSettingGridAdapter.Tile {
                         mIconRes = R.drawable.ic_settings_bluetooth;
                 }
             }
-            mStateChangedListener.onStateChanged();
+            mStateChangedListener.onStateChanged(BluetoothTile.this);
         }
     };
 
@@ -28,10 +28,12 @@ import android.provider.Settings.SettingNotFoundException;
 import android.provider.Settings.System;
 import android.widget.SeekBar;
 
+import com.android.car.settings.common.CoalescingValueWriter;
 import com.android.car.settings.common.Logger;
 
 /**
- * A slider to adjust the brightness of the screen
+ * A slider to adjust the brightness of the screen. While the slider is dragged, the brightness
+ * setting is written at a bounded rate by a {@link CoalescingValueWriter}.
  */
 public class BrightnessTile implements QuickSettingGridAdapter.SeekbarTile {
     private static final Logger LOG = new Logger(BrightnessTile.class);
@@ -39,6 +41,8 @@ public class BrightnessTile implements QuickSettingGridAdapter.SeekbarTile {
     private final Context mContext;
     private final int mMaximumBacklight;
     private final int mMinimumBacklight;
+    private final CoalescingValueWriter mBrightnessWriter;
+    private boolean mIsTrackingTouch;
 
     public BrightnessTile(Context context) {
         mContext = context;
@@ -46,21 +50,34 @@ public class BrightnessTile implements QuickSettingGridAdapter.SeekbarTile {
         PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
         mMaximumBacklight = powerManager.getMaximumScreenBrightnessSetting();
         mMinimumBacklight = powerManager.getMinimumScreenBrightnessSetting();
+        mBrightnessWriter = new CoalescingValueWriter(context, this::writeBrightness);
     }
 
     @Override
     public void onStartTrackingTouch(SeekBar seekBar) {
-        // don't care
+        mIsTrackingTouch = true;
     }
 
     @Override
     public void onStopTrackingTouch(SeekBar seekBar) {
-        // don't care
+        mIsTrackingTouch = false;
+        mBrightnessWriter.commit(toLinear(seekBar.getProgress()));
     }
 
     @Override
     public void onProgressChanged(SeekBar seekBar, int gamma, boolean fromUser) {
-        int linear = convertGammaToLinear(gamma, mMinimumBacklight, mMaximumBacklight);
+        if (mIsTrackingTouch) {
+            mBrightnessWriter.set(toLinear(gamma));
+        } else {
+            mBrightnessWriter.commit(toLinear(gamma));
+        }
+    }
+
+    private int toLinear(int gamma) {
+        return convertGammaToLinear(gamma, mMinimumBacklight, mMaximumBacklight);
+    }
+
+    private void writeBrightness(int linear) {
         System.putIntForUser(mContext.getContentResolver(), SCREEN_BRIGHTNESS, linear,
                              mCarUserManagerHelper.getCurrentForegroundUserId());
     }
@@ -76,6 +93,7 @@ public class BrightnessTile implements QuickSettingGridAdapter.SeekbarTile {
 
     @Override
     public void stop() {
+        mBrightnessWriter.flush();
     }
 
     @Override
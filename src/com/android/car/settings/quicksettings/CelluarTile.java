@@ -53,6 +53,7 @@ public class CelluarTile implements QuickSettingGridAdapter.Tile, DataUsageContr
     @Override
     public void onMobileDataEnabled(boolean enabled) {
         mState = enabled ? State.ON : State.OFF;
+        mStateChangedListener.onStateChanged(this);
     }
 
     @Nullable
@@ -42,13 +42,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.android.car.settings.R;
 import com.android.car.settings.common.BaseFragment;
 import com.android.car.settings.common.CarUxRestrictionsHelper;
+import com.android.car.settings.common.UxRestrictionPolicy;
 import com.android.car.settings.home.HomepageFragment;
 import com.android.car.settings.users.UserIconProvider;
 import com.android.car.settings.users.UserSwitcherFragment;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -57,18 +55,6 @@ import java.util.concurrent.TimeUnit;
 public class QuickSettingFragment extends BaseFragment {
     // Time to delay refreshing the build info, if the clock is not correct.
     private static final long BUILD_INFO_REFRESH_TIME_MS = TimeUnit.SECONDS.toMillis(5);
-    /**
-     * Indicates whether all Preferences are configured to ignore UX Restrictions Event.
-     */
-    private boolean mAllIgnoresUxRestrictions;
-
-    /**
-     * Set of the keys of Preferences that ignore UX Restrictions. When mAlwaysIgnoreUxRestrictions
-     * is configured to be false, then only the Preferences whose keys are contained in this Set
-     * ignore UX Restrictions.
-     */
-    private Set<String> mPreferencesIgnoringUxRestrictions;
-
     private CarUserManagerHelper mCarUserManagerHelper;
     private UserIconProvider mUserIconProvider;
     private QuickSettingGridAdapter mGridAdapter;
@@ -137,11 +123,6 @@ public class QuickSettingFragment extends BaseFragment {
                 .addTile(new CelluarTile(activity, mGridAdapter))
                 .addSeekbarTile(new BrightnessTile(activity));
         mListView.setAdapter(mGridAdapter);
-
-        mPreferencesIgnoringUxRestrictions = new HashSet<String>(Arrays.asList(
-                getContext().getResources().getStringArray(R.array.config_ignore_ux_restrictions)));
-        mAllIgnoresUxRestrictions =
-                getContext().getResources().getBoolean(R.bool.config_always_ignore_ux_restrictions);
     }
 
     @Override
@@ -220,8 +201,8 @@ public class QuickSettingFragment extends BaseFragment {
     @Override
     public void onUxRestrictionsChanged(CarUxRestrictions restrictionInfo) {
         // TODO: update tiles
-        if (!hasPreferenceIgnoringUxRestrictions(mAllIgnoresUxRestrictions,
-                mPreferencesIgnoringUxRestrictions)) {
+        if (!UxRestrictionPolicy.getInstance(getContext())
+                .hasPreferenceIgnoringUxRestrictions()) {
             applyRestriction(CarUxRestrictionsHelper.isNoSetup(restrictionInfo));
         }
     }
@@ -248,10 +229,6 @@ public class QuickSettingFragment extends BaseFragment {
         }
     }
 
-    private boolean hasPreferenceIgnoringUxRestrictions(boolean allIgnores, Set prefsThatIgnore) {
-        return allIgnores || prefsThatIgnore.size() > 0;
-    }
-
     private void hideExitIcon() {
         requireActivity().findViewById(R.id.action_bar_icon_container)
                 .setVisibility(FrameLayout.GONE);
@@ -20,6 +20,7 @@ import android.annotation.Nullable;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -34,6 +35,7 @@ import com.android.car.settings.R;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controls the content in quick setting grid view.
@@ -42,17 +44,24 @@ public class QuickSettingGridAdapter
         extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements StateChangedListener {
     private static final int SEEKBAR_VIEWTYPE = 0;
     private static final int TILE_VIEWTYPE = 1;
+    /**
+     * Payload for {@link #notifyItemChanged(int, Object)} which indicates that only the icon,
+     * state, and text of a tile need to be rebound.
+     */
+    private static final Object PAYLOAD_TILE_STATE = new Object();
     private final int mColumnCount;
     private final Context mContext;
     private final LayoutInflater mInflater;
     private final List<Tile> mTiles = new ArrayList<>();
     private final List<SeekbarTile> mSeekbarTiles = new ArrayList<>();
+    private final Map<Object, Long> mItemIds = new ArrayMap<>();
     private final QsSpanSizeLookup mQsSpanSizeLookup = new QsSpanSizeLookup();
 
     public QuickSettingGridAdapter(Context context) {
         mContext = context;
         mInflater = LayoutInflater.from(context);
         mColumnCount = mContext.getResources().getInteger(R.integer.quick_setting_column_count);
+        setHasStableIds(true);
     }
 
     GridLayoutManager getGridLayoutManager() {
@@ -123,12 +132,14 @@ public class QuickSettingGridAdapter
 
     QuickSettingGridAdapter addSeekbarTile(SeekbarTile seekbarTile) {
         mSeekbarTiles.add(seekbarTile);
+        mItemIds.put(seekbarTile, (long) mItemIds.size());
         return this;
     }
 
     QuickSettingGridAdapter addTile(Tile tile) {
         if (tile.isAvailable()) {
             mTiles.add(tile);
+            mItemIds.put(tile, (long) mItemIds.size());
         }
         return this;
     }
@@ -149,8 +160,6 @@ public class QuickSettingGridAdapter
         for (Tile tile : mTiles) {
             tile.stop();
         }
-        mTiles.clear();
-        mSeekbarTiles.clear();
     }
 
     @Override
@@ -167,6 +176,17 @@ public class QuickSettingGridAdapter
         }
     }
 
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position,
+            List<Object> payloads) {
+        if (holder.getItemViewType() == TILE_VIEWTYPE && !payloads.isEmpty()
+                && payloads.stream().allMatch(payload -> payload == PAYLOAD_TILE_STATE)) {
+            bindTileState((TileViewHolder) holder, mTiles.get(position - mSeekbarTiles.size()));
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
     @Override
     public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
         switch (holder.getItemViewType()) {
@@ -187,27 +207,31 @@ public class QuickSettingGridAdapter
                 } else {
                     vh.itemView.setOnLongClickListener(null);
                 }
-                vh.mIcon.setImageDrawable(tile.getIcon());
-                switch (tile.getState()) {
-                    case ON:
-                        vh.mIcon.setEnabled(true);
-                        vh.mIconBackground.setEnabled(true);
-                        break;
-                    case OFF:
-                        vh.mIcon.setEnabled(false);
-                        vh.mIconBackground.setEnabled(false);
-                        break;
-                    default:
-                }
-                String textString = tile.getText();
-                if (!TextUtils.isEmpty(textString)) {
-                    vh.mText.setText(textString);
-                }
+                bindTileState(vh, tile);
                 break;
             default:
         }
     }
 
+    private void bindTileState(TileViewHolder vh, Tile tile) {
+        vh.mIcon.setImageDrawable(tile.getIcon());
+        switch (tile.getState()) {
+            case ON:
+                vh.mIcon.setEnabled(true);
+                vh.mIconBackground.setEnabled(true);
+                break;
+            case OFF:
+                vh.mIcon.setEnabled(false);
+                vh.mIconBackground.setEnabled(false);
+                break;
+            default:
+        }
+        String textString = tile.getText();
+        if (!TextUtils.isEmpty(textString)) {
+            vh.mText.setText(textString);
+        }
+    }
+
     private class BrightnessViewHolder extends RecyclerView.ViewHolder {
         private final SeekBar mSeekBar;
 
@@ -257,8 +281,25 @@ public class QuickSettingGridAdapter
         return mTiles.size() + mSeekbarTiles.size();
     }
 
+    /** Returns the id assigned to the tile at {@code position} when it was added. */
+    @Override
+    public long getItemId(int position) {
+        Object tile = position < mSeekbarTiles.size()
+                ? mSeekbarTiles.get(position) : mTiles.get(position - mSeekbarTiles.size());
+        return mItemIds.get(tile);
+    }
+
+    /**
+     * Rebinds the icon, state, and text of {@code tile} only. Other tiles, the seekbar tiles, and
+     * the click listeners of {@code tile} are left untouched.
+     */
     @Override
-    public void onStateChanged() {
-        notifyDataSetChanged();
+    public void onStateChanged(Tile tile) {
+        int index = mTiles.indexOf(tile);
+        if (index < 0) {
+            // The tile is not shown because it is unavailable.
+            return;
+        }
+        notifyItemChanged(mSeekbarTiles.size() + index, PAYLOAD_TILE_STATE);
     }
 }
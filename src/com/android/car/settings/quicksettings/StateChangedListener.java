@@ -22,6 +22,8 @@ public interface StateChangedListener {
 
     /**
      * Called when the state of the tile changed.
+     *
+     * @param tile the tile whose icon, state, or text changed.
      */
-    void onStateChanged();
+    void onStateChanged(QuickSettingGridAdapter.Tile tile);
 }
@@ -20,6 +20,7 @@ import android.annotation.DrawableRes;
 import android.annotation.Nullable;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
+import android.net.wifi.WifiManager;
 import android.view.View;
 
 import com.android.car.settings.R;
@@ -34,7 +35,7 @@ import com.android.settingslib.wifi.AccessPoint;
  */
 public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Listener {
     private final StateChangedListener mStateChangedListener;
-    private final CarWifiManager mCarWifiManager;
+    private final WifiManager mWifiManager;
     private final Context mContext;
 
     private final View.OnLongClickListener mLaunchWifiSettings;
@@ -46,6 +47,10 @@ public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Li
 
     private State mState = State.OFF;
 
+    /** Only held while the tile is started, so that tiles which never start do not leak it. */
+    @Nullable
+    private CarWifiManager mCarWifiManager;
+
     WifiTile(
             Context context,
             StateChangedListener stateChangedListener,
@@ -55,11 +60,10 @@ public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Li
             fragmentController.launchFragment(new WifiSettingsFragment());
             return true;
         };
-        mCarWifiManager = new CarWifiManager(context);
+        mWifiManager = context.getSystemService(WifiManager.class);
         mStateChangedListener = stateChangedListener;
-        // init icon and text etc.
-        updateAccessPointSsid();
-        onWifiStateChanged(mCarWifiManager.getWifiState());
+        // init icon and text etc. The connected access point is filled in once started.
+        onWifiStateChanged(mWifiManager.getWifiState());
     }
 
     @Nullable
@@ -90,21 +94,30 @@ public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Li
 
     @Override
     public void start() {
+        if (mCarWifiManager != null) {
+            return;
+        }
+        mCarWifiManager = CarWifiManager.acquire(mContext);
         mCarWifiManager.addListener(this);
         mCarWifiManager.start();
+        onWifiStateChanged(mCarWifiManager.getWifiState());
     }
 
     @Override
     public void stop() {
+        if (mCarWifiManager == null) {
+            return;
+        }
         mCarWifiManager.removeListener(this);
         mCarWifiManager.stop();
-        mCarWifiManager.destroy();
+        mCarWifiManager.release();
+        mCarWifiManager = null;
     }
 
     @Override
     public void onAccessPointsChanged() {
         if (updateAccessPointSsid()) {
-            mStateChangedListener.onStateChanged();
+            mStateChangedListener.onStateChanged(this);
         }
     }
 
@@ -120,16 +133,21 @@ public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Li
             }
         }
         mState = WifiUtil.isWifiOn(state) ? State.ON : State.OFF;
-        mStateChangedListener.onStateChanged();
+        mStateChangedListener.onStateChanged(this);
     }
 
     @Override
     public void onClick(View v) {
-        mCarWifiManager.setWifiEnabled(!mCarWifiManager.isWifiEnabled());
+        mWifiManager.setWifiEnabled(!mWifiManager.isWifiEnabled());
     }
 
     private boolean wifiEnabledNotConnected() {
-        return mCarWifiManager.isWifiEnabled() && mCarWifiManager.getConnectedAccessPoint() == null;
+        return mWifiManager.isWifiEnabled() && getConnectedAccessPoint() == null;
+    }
+
+    @Nullable
+    private AccessPoint getConnectedAccessPoint() {
+        return mCarWifiManager != null ? mCarWifiManager.getConnectedAccessPoint() : null;
     }
 
     /**
@@ -138,7 +156,7 @@ public class WifiTile implements QuickSettingGridAdapter.Tile, CarWifiManager.Li
      * @return {@code true} if the text is updated, {@code false} other wise.
      */
     private boolean updateAccessPointSsid() {
-        AccessPoint accessPoint = mCarWifiManager.getConnectedAccessPoint();
+        AccessPoint accessPoint = getConnectedAccessPoint();
         if (accessPoint != null) {
             mText = accessPoint.getConfigName();
             return true;
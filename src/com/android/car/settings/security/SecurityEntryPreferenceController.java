@@ -17,13 +17,13 @@
 package com.android.car.settings.security;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 
 import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which determines if the top level entry into Security settings should be displayed
@@ -31,12 +31,12 @@ import com.android.car.settings.common.PreferenceController;
  */
 public class SecurityEntryPreferenceController extends PreferenceController<Preference> {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public SecurityEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -46,6 +46,6 @@ public class SecurityEntryPreferenceController extends PreferenceController<Pref
 
     @Override
     public int getAvailabilityStatus() {
-        return mCarUserManagerHelper.isCurrentProcessGuestUser() ? DISABLED_FOR_USER : AVAILABLE;
+        return mUserStateCache.isCurrentProcessGuestUser() ? DISABLED_FOR_USER : AVAILABLE;
     }
 }
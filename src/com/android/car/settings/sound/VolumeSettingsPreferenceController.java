@@ -22,14 +22,19 @@ import android.car.Car;
 import android.car.CarNotConnectedException;
 import android.car.drivingstate.CarUxRestrictions;
 import android.car.media.CarAudioManager;
+import android.car.media.ICarVolumeCallback;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.ServiceConnection;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.util.SparseArray;
 
 import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.XmlRes;
@@ -37,6 +42,7 @@ import androidx.preference.PreferenceGroup;
 
 import com.android.car.apps.common.util.Themes;
 import com.android.car.settings.R;
+import com.android.car.settings.common.CoalescingValueWriter;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.Logger;
 import com.android.car.settings.common.PreferenceController;
@@ -47,7 +53,13 @@ import java.util.List;
 
 /**
  * Business logic which parses car volume items into groups, creates a seek bar preference for each
- * group, and interfaces with the ringtone manager and audio manager.
+ * group, and interfaces with the ringtone manager and audio manager. While a slider is dragged,
+ * the group volume is set at a bounded rate by a {@link CoalescingValueWriter}.
+ *
+ * <p>The metadata of all volume groups is loaded in a single background pass when the car service
+ * connects. The preferences are created once from that model and stay attached across refreshes.
+ * Volume changes made outside of settings are received through an {@link ICarVolumeCallback} and
+ * only update the slider of the affected group.
  *
  * @see VolumeSettingsRingtoneManager
  * @see android.car.media.CarAudioManager
@@ -58,27 +70,18 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
     private static final String VOLUME_USAGE_KEY = "volume_usage_key";
 
     private final SparseArray<VolumeItem> mVolumeItems;
-    private final List<SeekBarPreference> mVolumePreferences = new ArrayList<>();
+    private final SparseArray<SeekBarPreference> mVolumePreferences = new SparseArray<>();
+    private final SparseArray<CoalescingValueWriter> mVolumeWriters = new SparseArray<>();
     private final VolumeSettingsRingtoneManager mRingtoneManager;
+    private final Handler mUiHandler = new Handler(Looper.getMainLooper());
 
     private final ServiceConnection mServiceConnection = new ServiceConnection() {
         @Override
         public void onServiceConnected(ComponentName name, IBinder service) {
             try {
                 mCarAudioManager = (CarAudioManager) mCar.getCarManager(Car.AUDIO_SERVICE);
-                int volumeGroupCount = mCarAudioManager.getVolumeGroupCount();
                 cleanUpVolumePreferences();
-                // Populates volume slider items from volume groups to UI.
-                for (int groupId = 0; groupId < volumeGroupCount; groupId++) {
-                    VolumeItem volumeItem = getVolumeItemForUsages(
-                            mCarAudioManager.getUsagesForVolumeGroupId(groupId));
-                    SeekBarPreference volumePreference = createVolumeSeekBarPreference(
-                            groupId, volumeItem.getUsage(), volumeItem.getIcon(),
-                            volumeItem.getTitle());
-                    mVolumePreferences.add(volumePreference);
-                }
-
-                refreshUi();
+                loadVolumeGroups();
             } catch (CarNotConnectedException e) {
                 LOG.e("Car is not connected!", e);
             }
@@ -91,8 +94,34 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
         }
     };
 
+    /** Called on a binder thread when a group volume changes, including changes made here. */
+    private final ICarVolumeCallback mVolumeCallback = new ICarVolumeCallback.Stub() {
+        @Override
+        public void onGroupVolumeChanged(int groupId, int flags) {
+            CarAudioManager carAudioManager = mCarAudioManager;
+            if (carAudioManager == null) {
+                return;
+            }
+            try {
+                int volume = carAudioManager.getGroupVolume(groupId);
+                mUiHandler.post(() -> updateGroupVolume(groupId, volume));
+            } catch (CarNotConnectedException e) {
+                LOG.w("Ignoring volume change event because the car isn't connected", e);
+            }
+        }
+
+        @Override
+        public void onMasterMuteChanged(int flags) {
+            // Mute is not represented by the volume sliders.
+        }
+    };
+
     private Car mCar;
-    private CarAudioManager mCarAudioManager;
+    private volatile CarAudioManager mCarAudioManager;
+    private boolean mIsVolumeCallbackRegistered;
+    private boolean mArePreferencesChanged;
+    @Nullable
+    private LoadVolumeGroupsTask mLoadTask;
 
     public VolumeSettingsPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController,
@@ -114,16 +143,31 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
         mCar.connect();
     }
 
+    /** Sets any volume which is still being coalesced before the screen goes away. */
+    @Override
+    protected void onStopInternal() {
+        for (int i = 0; i < mVolumeWriters.size(); i++) {
+            mVolumeWriters.valueAt(i).flush();
+        }
+    }
+
     /** Disconnect from car on destroy. */
     @Override
     protected void onDestroyInternal() {
+        cleanupAudioManager();
         mCar.disconnect();
     }
 
     @Override
     protected void updateState(PreferenceGroup preferenceGroup) {
-        for (SeekBarPreference preference : mVolumePreferences) {
-            preferenceGroup.addPreference(preference);
+        // Preferences are only re-added when the volume groups were loaded again.
+        if (!mArePreferencesChanged) {
+            return;
+        }
+        mArePreferencesChanged = false;
+        preferenceGroup.removeAll();
+        for (int i = 0; i < mVolumePreferences.size(); i++) {
+            preferenceGroup.addPreference(mVolumePreferences.valueAt(i));
         }
     }
 
@@ -136,38 +180,88 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
         return R.xml.car_volume_items;
     }
 
-    private SeekBarPreference createVolumeSeekBarPreference(
-            int volumeGroupId, int usage, @DrawableRes int iconResId,
-            @StringRes int titleId) {
+    @VisibleForTesting
+    CoalescingValueWriter getVolumeWriter(int volumeGroupId) {
+        return mVolumeWriters.get(volumeGroupId);
+    }
+
+    @VisibleForTesting
+    ICarVolumeCallback getVolumeCallback() {
+        return mVolumeCallback;
+    }
+
+    private void loadVolumeGroups() {
+        if (mLoadTask != null) {
+            mLoadTask.cancel(/* mayInterruptIfRunning= */ false);
+        }
+        mLoadTask = new LoadVolumeGroupsTask(mCarAudioManager);
+        mLoadTask.execute();
+    }
+
+    private void onVolumeGroupsLoaded(List<VolumeGroup> volumeGroups) {
+        cleanUpVolumePreferences();
+        for (VolumeGroup volumeGroup : volumeGroups) {
+            VolumeItem volumeItem = getVolumeItemForUsages(volumeGroup.mUsages);
+            SeekBarPreference volumePreference = createVolumeSeekBarPreference(volumeGroup,
+                    volumeItem.getUsage(), volumeItem.getIcon(), volumeItem.getTitle());
+            mVolumePreferences.put(volumeGroup.mGroupId, volumePreference);
+        }
+        registerVolumeCallback();
+        refreshUi();
+    }
+
+    private SeekBarPreference createVolumeSeekBarPreference(VolumeGroup volumeGroup, int usage,
+            @DrawableRes int iconResId, @StringRes int titleId) {
+        int volumeGroupId = volumeGroup.mGroupId;
         SeekBarPreference preference = new SeekBarPreference(getContext());
         preference.setTitle(getContext().getString(titleId));
         preference.setIcon(getContext().getDrawable(iconResId));
         preference.getIcon().setTintList(
                 Themes.getAttrColorStateList(getContext(), R.attr.iconColor));
-        try {
-            preference.setValue(mCarAudioManager.getGroupVolume(volumeGroupId));
-            preference.setMin(mCarAudioManager.getGroupMinVolume(volumeGroupId));
-            preference.setMax(mCarAudioManager.getGroupMaxVolume(volumeGroupId));
-        } catch (CarNotConnectedException e) {
-            LOG.e("Car is not connected!", e);
-        }
+        preference.setValue(volumeGroup.mVolume);
+        preference.setMin(volumeGroup.mMinVolume);
+        preference.setMax(volumeGroup.mMaxVolume);
         preference.setContinuousUpdate(true);
         preference.setShowSeekBarValue(false);
         Bundle bundle = preference.getExtras();
         bundle.putInt(VOLUME_GROUP_KEY, volumeGroupId);
         bundle.putInt(VOLUME_USAGE_KEY, usage);
+        CoalescingValueWriter volumeWriter = new CoalescingValueWriter(getContext(),
+                newVolume -> setGroupVolume(volumeGroupId, newVolume));
+        mVolumeWriters.put(volumeGroupId, volumeWriter);
         preference.setOnPreferenceChangeListener((pref, newValue) -> {
-            int prefGroup = pref.getExtras().getInt(VOLUME_GROUP_KEY);
+            SeekBarPreference seekBarPreference = (SeekBarPreference) pref;
             int prefUsage = pref.getExtras().getInt(VOLUME_USAGE_KEY);
             int newVolume = (Integer) newValue;
-            setGroupVolume(prefGroup, newVolume);
-            mRingtoneManager.playAudioFeedback(prefGroup, prefUsage);
+            if (seekBarPreference.isTrackingTouch()) {
+                volumeWriter.set(newVolume);
+            } else {
+                volumeWriter.commit(newVolume);
+                if (newVolume == seekBarPreference.getValue()) {
+                    // The slider reports the value it already reported while tracking again when
+                    // the drag ends. The feedback for it was already played.
+                    return true;
+                }
+            }
+            mRingtoneManager.playAudioFeedback(prefUsage);
             return true;
         });
         return preference;
     }
 
+    private void updateGroupVolume(int volumeGroupId, int volume) {
+        SeekBarPreference preference = mVolumePreferences.get(volumeGroupId);
+        // Don't fight with the user while the slider is being dragged.
+        if (preference != null && !preference.isTrackingTouch()
+                && preference.getValue() != volume) {
+            preference.setValue(volume);
+        }
+    }
+
     private void setGroupVolume(int volumeGroupId, int newVolume) {
+        if (mCarAudioManager == null) {
+            return;
+        }
         try {
             mCarAudioManager.setGroupVolume(volumeGroupId, newVolume, /* flags= */ 0);
         } catch (CarNotConnectedException e) {
@@ -175,7 +269,39 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
         }
     }
 
+    private void registerVolumeCallback() {
+        if (mIsVolumeCallbackRegistered || mCarAudioManager == null) {
+            return;
+        }
+        try {
+            mCarAudioManager.registerVolumeCallback(mVolumeCallback.asBinder());
+            mIsVolumeCallbackRegistered = true;
+        } catch (CarNotConnectedException e) {
+            LOG.e("Car is not connected!", e);
+        }
+    }
+
+    private void unregisterVolumeCallback() {
+        if (!mIsVolumeCallbackRegistered) {
+            return;
+        }
+        mIsVolumeCallbackRegistered = false;
+        try {
+            mCarAudioManager.unregisterVolumeCallback(mVolumeCallback.asBinder());
+        } catch (CarNotConnectedException e) {
+            LOG.w("Car is not connected, volume callback is already gone", e);
+        }
+    }
+
     private void cleanupAudioManager() {
+        if (mLoadTask != null) {
+            mLoadTask.cancel(/* mayInterruptIfRunning= */ false);
+            mLoadTask = null;
+        }
+        if (mCarAudioManager != null) {
+            unregisterVolumeCallback();
+        }
+        mUiHandler.removeCallbacksAndMessages(null);
         cleanUpVolumePreferences();
         mCarAudioManager = null;
     }
@@ -183,6 +309,11 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
     private void cleanUpVolumePreferences() {
         mRingtoneManager.stopCurrentRingtone();
         mVolumePreferences.clear();
+        mArePreferencesChanged = true;
+        for (int i = 0; i < mVolumeWriters.size(); i++) {
+            mVolumeWriters.valueAt(i).cancel();
+        }
+        mVolumeWriters.clear();
     }
 
     private VolumeItem getVolumeItemForUsages(int[] usages) {
@@ -197,4 +328,65 @@ public class VolumeSettingsPreferenceController extends PreferenceController<Pre
         }
         return result;
     }
+
+    /** Snapshot of the state of a volume group as reported by the car audio service. */
+    private static final class VolumeGroup {
+        final int mGroupId;
+        final int[] mUsages;
+        final int mMinVolume;
+        final int mMaxVolume;
+        final int mVolume;
+
+        VolumeGroup(int groupId, int[] usages, int minVolume, int maxVolume, int volume) {
+            mGroupId = groupId;
+            mUsages = usages;
+            mMinVolume = minVolume;
+            mMaxVolume = maxVolume;
+            mVolume = volume;
+        }
+    }
+
+    /**
+     * Loads the metadata and volume of all volume groups and prepares their audio feedback off
+     * the main thread.
+     */
+    private class LoadVolumeGroupsTask extends AsyncTask<Void, Void, List<VolumeGroup>> {
+
+        private final CarAudioManager mAudioManager;
+
+        LoadVolumeGroupsTask(CarAudioManager audioManager) {
+            mAudioManager = audioManager;
+        }
+
+        @Override
+        protected List<VolumeGroup> doInBackground(Void... voids) {
+            try {
+                int volumeGroupCount = mAudioManager.getVolumeGroupCount();
+                List<VolumeGroup> volumeGroups = new ArrayList<>(volumeGroupCount);
+                for (int groupId = 0; groupId < volumeGroupCount && !isCancelled(); groupId++) {
+                    int[] usages = mAudioManager.getUsagesForVolumeGroupId(groupId);
+                    volumeGroups.add(new VolumeGroup(groupId, usages,
+                            mAudioManager.getGroupMinVolume(groupId),
+                            mAudioManager.getGroupMaxVolume(groupId),
+                            mAudioManager.getGroupVolume(groupId)));
+                    // Prepare the feedback so that the first change of the slider doesn't load it.
+                    mRingtoneManager.preloadRingtone(getVolumeItemForUsages(usages).getUsage());
+                }
+                return volumeGroups;
+            } catch (CarNotConnectedException e) {
+                LOG.e("Car is not connected!", e);
+                return null;
+            }
+        }
+
+        @Override
+        protected void onPostExecute(List<VolumeGroup> volumeGroups) {
+            if (mLoadTask == this) {
+                mLoadTask = null;
+            }
+            if (volumeGroups != null) {
+                onVolumeGroupsLoaded(volumeGroups);
+            }
+        }
+    }
 }
@@ -23,67 +23,165 @@ import android.media.RingtoneManager;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.util.SparseArray;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.android.car.settings.common.Logger;
+import com.android.settingslib.utils.ThreadUtils;
 
-/** Manges the audio played by the {@link VolumeSettingsPreferenceController}. */
+import java.util.concurrent.Executor;
+
+/**
+ * Manges the audio played by the {@link VolumeSettingsPreferenceController}.
+ *
+ * <p>One {@link Ringtone} is pooled per usage. Ringtones can be prepared ahead of time with {@link
+ * #preloadRingtone(int)} so that the first feedback of a slider does not load audio on the main
+ * thread. While a slider is dragged, the playing feedback is kept running instead of being
+ * restarted on every change, and a finished feedback is replayed at most once per {@link
+ * #MIN_REPLAY_INTERVAL_MS}. A stopped ringtone is replaced by a freshly prepared one in the
+ * background.
+ */
 public class VolumeSettingsRingtoneManager {
 
+    private static final Logger LOG = new Logger(VolumeSettingsRingtoneManager.class);
+
     private static final int AUDIO_FEEDBACK_DURATION_MS = 1000;
+    @VisibleForTesting
+    static final int MIN_REPLAY_INTERVAL_MS = 250;
 
     private final Context mContext;
     private final Handler mUiHandler;
-    private final Map<Integer, Ringtone> mGroupToRingtoneMap = new HashMap<>();
+    private final Executor mBackgroundExecutor;
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final SparseArray<Ringtone> mUsageToRingtoneMap = new SparseArray<>();
+    private final Runnable mStopCurrentRingtone = () -> {
+        if (mCurrentRingtone != null && mCurrentRingtone.isPlaying()) {
+            stopCurrentRingtone();
+        } else {
+            mCurrentRingtone = null;
+        }
+    };
 
     @Nullable
     private Ringtone mCurrentRingtone;
+    private int mCurrentUsage;
+    private long mLastPlayUptimeMs = -MIN_REPLAY_INTERVAL_MS;
+    private long mFirstFeedbackLatencyMs = -1;
 
     public VolumeSettingsRingtoneManager(Context context) {
+        this(context, ThreadUtils::postOnBackgroundThread);
+    }
+
+    @VisibleForTesting
+    VolumeSettingsRingtoneManager(Context context, Executor backgroundExecutor) {
         mContext = context;
         mUiHandler = new Handler(Looper.getMainLooper());
+        mBackgroundExecutor = backgroundExecutor;
     }
 
     /**
-     * Play the audio defined by the current group and usage. Stop the current ringtone if it is a
-     * different ringtone than what is currently playing.
+     * Prepares the ringtone for {@code usage} so that feedback for it can start immediately. Does
+     * nothing if it is already prepared. May block, so must not be called on the main thread.
      */
-    public void playAudioFeedback(int group, int usage) {
-        Ringtone nextRingtone = lazyLoadRingtone(group, usage);
-        if (mCurrentRingtone != null && mCurrentRingtone != nextRingtone
-                && mCurrentRingtone.isPlaying()) {
-            mCurrentRingtone.stop();
+    @WorkerThread
+    public void preloadRingtone(int usage) {
+        synchronized (mLock) {
+            if (mUsageToRingtoneMap.get(usage) != null) {
+                return;
+            }
+        }
+        Ringtone ringtone = createRingtone(usage);
+        synchronized (mLock) {
+            if (mUsageToRingtoneMap.get(usage) == null) {
+                mUsageToRingtoneMap.put(usage, ringtone);
+            }
+        }
+    }
+
+    /**
+     * Play the audio defined by the given usage. Stop the current ringtone if it is a different
+     * ringtone than what is currently playing.
+     */
+    public void playAudioFeedback(int usage) {
+        long startUptimeMs = SystemClock.uptimeMillis();
+        Ringtone nextRingtone = getRingtone(usage);
+        mUiHandler.removeCallbacks(mStopCurrentRingtone);
+        if (mCurrentRingtone == nextRingtone && nextRingtone.isPlaying()) {
+            // Keep the feedback running while the slider moves instead of restarting it.
+            mUiHandler.postDelayed(mStopCurrentRingtone, AUDIO_FEEDBACK_DURATION_MS);
+            return;
+        }
+        if (mCurrentRingtone != null && mCurrentRingtone != nextRingtone) {
+            stopCurrentRingtone();
         }
 
-        mUiHandler.removeCallbacksAndMessages(null);
         mCurrentRingtone = nextRingtone;
-        mCurrentRingtone.play();
-        mUiHandler.postDelayed(() -> {
-            if (mCurrentRingtone.isPlaying()) {
-                mCurrentRingtone.stop();
-                mCurrentRingtone = null;
+        mCurrentUsage = usage;
+        if (startUptimeMs - mLastPlayUptimeMs >= MIN_REPLAY_INTERVAL_MS) {
+            mLastPlayUptimeMs = startUptimeMs;
+            mCurrentRingtone.play();
+            if (mFirstFeedbackLatencyMs < 0) {
+                mFirstFeedbackLatencyMs = SystemClock.uptimeMillis() - startUptimeMs;
+                LOG.d("First audio feedback started after " + mFirstFeedbackLatencyMs + "ms");
             }
-        }, AUDIO_FEEDBACK_DURATION_MS);
+        }
+        mUiHandler.postDelayed(mStopCurrentRingtone, AUDIO_FEEDBACK_DURATION_MS);
     }
 
     /** Stop playing the current ringtone. */
     public void stopCurrentRingtone() {
-        if (mCurrentRingtone != null) {
-            mCurrentRingtone.stop();
+        mUiHandler.removeCallbacks(mStopCurrentRingtone);
+        if (mCurrentRingtone == null) {
+            return;
         }
+        Ringtone ringtone = mCurrentRingtone;
+        int usage = mCurrentUsage;
+        mCurrentRingtone = null;
+        ringtone.stop();
+        // A stopped ringtone releases its player, so prepare a new one for the next feedback.
+        synchronized (mLock) {
+            if (mUsageToRingtoneMap.get(usage) == ringtone) {
+                mUsageToRingtoneMap.remove(usage);
+            }
+        }
+        mBackgroundExecutor.execute(() -> preloadRingtone(usage));
     }
 
-    /** If we have already seen this ringtone, use it. Otherwise load when requested. */
-    private Ringtone lazyLoadRingtone(int group, int usage) {
-        if (!mGroupToRingtoneMap.containsKey(group)) {
-            Ringtone ringtone = RingtoneManager.getRingtone(mContext, getRingtoneUri(usage));
-            ringtone.setAudioAttributes(new AudioAttributes.Builder().setUsage(usage).build());
-            mGroupToRingtoneMap.put(group, ringtone);
+    /**
+     * Returns the time in milliseconds it took to start the first audio feedback, or {@code -1}
+     * if no feedback was played yet.
+     */
+    public long getFirstFeedbackLatencyMs() {
+        return mFirstFeedbackLatencyMs;
+    }
+
+    /** Returns the pooled ringtone for the usage, loading it now if it was not preloaded. */
+    private Ringtone getRingtone(int usage) {
+        synchronized (mLock) {
+            Ringtone ringtone = mUsageToRingtoneMap.get(usage);
+            if (ringtone != null) {
+                return ringtone;
+            }
         }
-        return mGroupToRingtoneMap.get(group);
+        LOG.d("Ringtone for usage " + usage + " was not preloaded");
+        Ringtone ringtone = createRingtone(usage);
+        synchronized (mLock) {
+            mUsageToRingtoneMap.put(usage, ringtone);
+        }
+        return ringtone;
+    }
+
+    private Ringtone createRingtone(int usage) {
+        Ringtone ringtone = RingtoneManager.getRingtone(mContext, getRingtoneUri(usage));
+        ringtone.setAudioAttributes(new AudioAttributes.Builder().setUsage(usage).build());
+        return ringtone;
     }
 
     // TODO: bundle car-specific audio sample assets in res/raw by usage
@@ -365,6 +365,9 @@ public class AppStorageSettingsDetailsFragment extends SettingsFragment implemen
             if (getView() == null) {
                 return;
             }
+            // Clearing storage does not update the package, so the persisted storage stats used
+            // by the storage settings screen no longer apply.
+            StorageStatsSnapshot.delete(getContext());
             switch (msg.what) {
                 case MSG_CLEAR_USER_DATA:
                     mDataCleared = true;
@@ -21,82 +21,347 @@ import static android.content.pm.ApplicationInfo.CATEGORY_GAME;
 import static android.content.pm.ApplicationInfo.CATEGORY_IMAGE;
 import static android.content.pm.ApplicationInfo.CATEGORY_VIDEO;
 
+import android.annotation.Nullable;
 import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.pm.UserInfo;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.UserHandle;
+import android.text.format.DateUtils;
 import android.util.ArraySet;
 import android.util.SparseArray;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.android.car.settings.common.Logger;
 import com.android.car.settingslib.loader.AsyncLoader;
 import com.android.settingslib.applications.StorageStatsSource;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link StorageAsyncLoader} is a Loader which loads categorized app information and external stats
  * for all users.
  *
+ * <p>When given a snapshot file, the raw per-package stats are persisted after each load so that
+ * later loads can show the last known result immediately ({@link #MODE_SNAPSHOT_ONLY}) and only
+ * query packages which changed since ({@link #MODE_INCREMENTAL}).
+ *
+ * <p>Packages are queried in batches on a bounded pool of workers shared by all loads. Each batch
+ * returns its own stats which are merged on the loading thread, and partial results can be
+ * observed with {@link #setPartialResultListener(PartialResultListener)}.
+ *
  * <p>Class is taken from {@link com.android.settings.deviceinfo.storage.StorageAsyncLoader}
  */
 public class StorageAsyncLoader
         extends AsyncLoader<SparseArray<StorageAsyncLoader.AppsStorageResult>> {
     private static final Logger LOG = new Logger(StorageAsyncLoader.class);
 
+    /** Queries the stats of every package, ignoring any persisted snapshot. */
+    static final int MODE_FULL_SCAN = 0;
+    /**
+     * Reuses the persisted stats of packages which were not installed or updated since the
+     * snapshot was taken and only queries the remaining packages.
+     */
+    static final int MODE_INCREMENTAL = 1;
+    /** Only reads the persisted snapshot. The loaded result is {@code null} if there is none. */
+    static final int MODE_SNAPSHOT_ONLY = 2;
+
+    /**
+     * Snapshots based on a full scan older than this are not reused, so that the data and cache of
+     * packages which were not updated are eventually queried again.
+     */
+    @VisibleForTesting
+    static final long MAX_SNAPSHOT_AGE_MS = DateUtils.DAY_IN_MILLIS;
+
+    private static final int PACKAGE_BATCH_SIZE = 16;
+    private static final int MAX_WORKER_THREADS = 4;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 10;
+
+    private static ExecutorService sStatsExecutor;
+
+    /** Listener for the results of a load which is still in progress. */
+    interface PartialResultListener {
+        /**
+         * Called with the categorized result of the stats loaded so far. Packages which are still
+         * being queried are not included.
+         */
+        void onPartialResult(SparseArray<AppsStorageResult> result);
+    }
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
     private final CarUserManagerHelper mCarUserManagerHelper;
     private final StorageStatsSource mStatsManager;
     private final PackageManager mPackageManager;
+    @Nullable
+    private final File mSnapshotFile;
+    private final int mMode;
+    @Nullable
+    private volatile PartialResultListener mPartialResultListener;
 
     public StorageAsyncLoader(Context context, CarUserManagerHelper carUserManagerHelper,
             StorageStatsSource source) {
+        this(context, carUserManagerHelper, source, /* snapshotFile= */ null, MODE_FULL_SCAN);
+    }
+
+    /**
+     * Creates a loader which persists the collected stats to {@code snapshotFile} and loads
+     * according to {@code mode}. If {@code snapshotFile} is {@code null}, nothing is persisted and
+     * every load is a full scan.
+     */
+    StorageAsyncLoader(Context context, CarUserManagerHelper carUserManagerHelper,
+            StorageStatsSource source, @Nullable File snapshotFile, int mode) {
         super(context);
         mCarUserManagerHelper = carUserManagerHelper;
         mStatsManager = source;
         mPackageManager = context.getPackageManager();
+        mSnapshotFile = snapshotFile;
+        mMode = mode;
     }
 
     @Override
     public SparseArray<AppsStorageResult> loadInBackground() {
-        ArraySet<String> seenPackages = new ArraySet<>();
-        SparseArray<AppsStorageResult> result = new SparseArray<>();
+        StorageStatsSnapshot previous = null;
+        if (mSnapshotFile != null && mMode != MODE_FULL_SCAN) {
+            previous = StorageStatsSnapshot.read(mSnapshotFile);
+            if (mMode == MODE_SNAPSHOT_ONLY) {
+                return previous != null ? aggregate(previous) : null;
+            }
+            if (previous != null && System.currentTimeMillis() - previous.getFullScanTimeMillis()
+                    > MAX_SNAPSHOT_AGE_MS) {
+                LOG.d("Snapshot expired, performing full scan");
+                previous = null;
+            }
+        }
+        long fullScanTimeMillis = previous != null
+                ? previous.getFullScanTimeMillis() : System.currentTimeMillis();
+
         List<UserInfo> infos = mCarUserManagerHelper.getAllUsers();
-        for (int i = 0, userCount = infos.size(); i < userCount; i++) {
-            UserInfo info = infos.get(i);
-            result.put(info.id, getStorageResultForUser(info.id, seenPackages));
+        int userCount = infos.size();
+        int[] userIds = new int[userCount];
+        List<List<StorageStatsSnapshot.PackageStats>> packagesPerUser = new ArrayList<>(userCount);
+        StorageStatsSource.ExternalStorageStats[] externalStatsPerUser =
+                new StorageStatsSource.ExternalStorageStats[userCount];
+        CompletionService<BatchResult> completionService =
+                new ExecutorCompletionService<>(getStatsExecutor());
+        List<Future<BatchResult>> futures = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            userIds[i] = infos.get(i).id;
+            packagesPerUser.add(new ArrayList<>());
+            submitUser(completionService, futures, i, userIds[i],
+                    previous != null ? previous.getUser(userIds[i]) : null,
+                    packagesPerUser.get(i));
         }
-        return result;
+
+        // Results are merged on this thread only, so the workers never share any state.
+        for (int remaining = futures.size(); remaining > 0; remaining--) {
+            BatchResult batch;
+            try {
+                batch = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(futures);
+                return null;
+            } catch (ExecutionException e) {
+                LOG.w("Unable to load storage stats", e);
+                continue;
+            }
+            if (isLoadInBackgroundCanceled()) {
+                cancel(futures);
+                return null;
+            }
+            if (batch.mPackages != null) {
+                packagesPerUser.get(batch.mUserIndex).addAll(batch.mPackages);
+            } else {
+                externalStatsPerUser[batch.mUserIndex] = batch.mExternalStats;
+            }
+            if (remaining > 1 && mPartialResultListener != null) {
+                publishPartialResult(aggregate(buildSnapshot(fullScanTimeMillis, userIds,
+                        packagesPerUser, externalStatsPerUser)));
+            }
+        }
+
+        StorageStatsSnapshot snapshot = buildSnapshot(fullScanTimeMillis, userIds, packagesPerUser,
+                externalStatsPerUser);
+        if (mSnapshotFile != null) {
+            snapshot.write(mSnapshotFile);
+        }
+        LOG.d("Obtaining result completed");
+        return aggregate(snapshot);
+    }
+
+    /**
+     * Sets a listener which is notified on the main thread with the partial result each time the
+     * stats of another batch of packages are loaded. The final result is still delivered through
+     * the loader callbacks.
+     */
+    void setPartialResultListener(@Nullable PartialResultListener listener) {
+        mPartialResultListener = listener;
     }
 
-    private AppsStorageResult getStorageResultForUser(int userId, ArraySet<String> seenPackages) {
+    /**
+     * Submits the queries for the stats of every package of {@code userId} in batches of {@link
+     * #PACKAGE_BATCH_SIZE}, as well as the query for the external stats. Stats found in {@code
+     * previous} for the same package update time are added to {@code packages} directly instead of
+     * being queried again.
+     */
+    private void submitUser(CompletionService<BatchResult> completionService,
+            List<Future<BatchResult>> futures, int userIndex, int userId,
+            @Nullable StorageStatsSnapshot.UserStats previous,
+            List<StorageStatsSnapshot.PackageStats> packages) {
         LOG.d("Loading apps");
-        List<ApplicationInfo> applicationInfos =
-                mPackageManager.getInstalledApplicationsAsUser(/* getAllInstalledApplications= */ 0,
+        List<PackageInfo> packageInfos =
+                mPackageManager.getInstalledPackagesAsUser(/* getAllInstalledPackages= */ 0,
                         userId);
         UserHandle myUser = UserHandle.of(userId);
-        long gameAppSize = 0;
-        long musicAppsSize = 0;
-        long videoAppsSize = 0;
-        long photosAppsSize = 0;
-        long otherAppsSize = 0;
-        for (int i = 0, size = applicationInfos.size(); i < size; i++) {
-            ApplicationInfo app = applicationInfos.get(i);
+        List<PackageInfo> batch = new ArrayList<>(PACKAGE_BATCH_SIZE);
+        for (int i = 0, size = packageInfos.size(); i < size; i++) {
+            PackageInfo packageInfo = packageInfos.get(i);
+            if (packageInfo.applicationInfo == null) {
+                continue;
+            }
+            StorageStatsSnapshot.PackageStats cached = previous != null
+                    ? previous.getPackage(packageInfo.packageName, packageInfo.lastUpdateTime)
+                    : null;
+            if (cached != null) {
+                packages.add(cached);
+                continue;
+            }
+            batch.add(packageInfo);
+            if (batch.size() == PACKAGE_BATCH_SIZE) {
+                List<PackageInfo> toQuery = batch;
+                futures.add(completionService.submit(
+                        () -> new BatchResult(userIndex, getStatsForPackages(myUser, toQuery))));
+                batch = new ArrayList<>(PACKAGE_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<PackageInfo> toQuery = batch;
+            futures.add(completionService.submit(
+                    () -> new BatchResult(userIndex, getStatsForPackages(myUser, toQuery))));
+        }
+        LOG.d("Reused stats of " + packages.size() + " of " + packageInfos.size() + " packages");
+
+        // External stats are not tied to package updates, so they are always queried.
+        futures.add(completionService.submit(
+                () -> new BatchResult(userIndex, getExternalStats(myUser))));
+    }
+
+    private List<StorageStatsSnapshot.PackageStats> getStatsForPackages(UserHandle user,
+            List<PackageInfo> packageInfos) {
+        List<StorageStatsSnapshot.PackageStats> packages = new ArrayList<>(packageInfos.size());
+        for (int i = 0, size = packageInfos.size(); i < size; i++) {
+            PackageInfo packageInfo = packageInfos.get(i);
+            ApplicationInfo app = packageInfo.applicationInfo;
             StorageStatsSource.AppStorageStats stats;
             try {
                 stats = mStatsManager.getStatsForPackage(/* volumeUuid= */ null, app.packageName,
-                        myUser);
+                        user);
             } catch (NameNotFoundException | IOException e) {
                 // This may happen if the package was removed during our calculation.
                 LOG.w("App unexpectedly not found", e);
                 continue;
             }
+            long cacheQuota = mStatsManager.getCacheQuotaBytes(/* volumeUuid= */null, app.uid);
+            packages.add(new StorageStatsSnapshot.PackageStats(app.packageName,
+                    packageInfo.lastUpdateTime, app.category, app.flags, stats.getCodeBytes(),
+                    stats.getDataBytes(), stats.getCacheBytes(), cacheQuota));
+        }
+        return packages;
+    }
+
+    @Nullable
+    private StorageStatsSource.ExternalStorageStats getExternalStats(UserHandle user) {
+        LOG.d("Loading external stats");
+        try {
+            return mStatsManager.getExternalStorageStats(null, user);
+        } catch (IOException e) {
+            LOG.w("External stats not loaded" + e);
+            return null;
+        }
+    }
+
+    private void publishPartialResult(SparseArray<AppsStorageResult> result) {
+        mMainHandler.post(() -> {
+            PartialResultListener listener = mPartialResultListener;
+            if (listener != null && !isAbandoned() && !isReset()) {
+                listener.onPartialResult(result);
+            }
+        });
+    }
+
+    private static StorageStatsSnapshot buildSnapshot(long fullScanTimeMillis, int[] userIds,
+            List<List<StorageStatsSnapshot.PackageStats>> packagesPerUser,
+            StorageStatsSource.ExternalStorageStats[] externalStatsPerUser) {
+        List<StorageStatsSnapshot.UserStats> users = new ArrayList<>(userIds.length);
+        for (int i = 0; i < userIds.length; i++) {
+            users.add(new StorageStatsSnapshot.UserStats(userIds[i],
+                    new ArrayList<>(packagesPerUser.get(i)), externalStatsPerUser[i]));
+        }
+        return new StorageStatsSnapshot(fullScanTimeMillis, users);
+    }
+
+    private static void cancel(List<Future<BatchResult>> futures) {
+        for (Future<BatchResult> future : futures) {
+            future.cancel(/* mayInterruptIfRunning= */ true);
+        }
+    }
+
+    /**
+     * Returns the pool shared by all loads to query {@link StorageStatsSource}. The pool is bounded
+     * so that a device with many users and packages does not flood the stats service.
+     */
+    private static synchronized ExecutorService getStatsExecutor() {
+        if (sStatsExecutor == null) {
+            int threadCount = Math.max(1,
+                    Math.min(MAX_WORKER_THREADS, Runtime.getRuntime().availableProcessors()));
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                    WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(runnable, "StorageStatsWorker"));
+            executor.allowCoreThreadTimeOut(true);
+            sStatsExecutor = executor;
+        }
+        return sStatsExecutor;
+    }
 
+    /** Computes the categorized result of each user in {@code snapshot}. */
+    private static SparseArray<AppsStorageResult> aggregate(StorageStatsSnapshot snapshot) {
+        ArraySet<String> seenPackages = new ArraySet<>();
+        SparseArray<AppsStorageResult> result = new SparseArray<>();
+        for (StorageStatsSnapshot.UserStats user : snapshot.getUsers()) {
+            result.put(user.getUserId(), getStorageResultForUser(user, seenPackages));
+        }
+        return result;
+    }
+
+    private static AppsStorageResult getStorageResultForUser(StorageStatsSnapshot.UserStats user,
+            ArraySet<String> seenPackages) {
+        long gameAppSize = 0;
+        long musicAppsSize = 0;
+        long videoAppsSize = 0;
+        long photosAppsSize = 0;
+        long otherAppsSize = 0;
+        List<StorageStatsSnapshot.PackageStats> packages = user.getPackages();
+        for (int i = 0, size = packages.size(); i < size; i++) {
+            StorageStatsSnapshot.PackageStats stats = packages.get(i);
             long dataSize = stats.getDataBytes();
-            long cacheQuota = mStatsManager.getCacheQuotaBytes(/* volumeUuid= */null, app.uid);
+            long cacheQuota = stats.getCacheQuotaBytes();
             long cacheBytes = stats.getCacheBytes();
             long blamedSize = dataSize;
             // Technically, we could show overages as freeable on the storage settings screen.
@@ -109,12 +374,12 @@ public class StorageAsyncLoader
 
             // This isn't quite right because it slams the first user by user id with the whole code
             // size, but this ensures that we count all apps seen once.
-            if (!seenPackages.contains(app.packageName)) {
+            if (!seenPackages.contains(stats.getPackageName())) {
                 blamedSize += stats.getCodeBytes();
-                seenPackages.add(app.packageName);
+                seenPackages.add(stats.getPackageName());
             }
 
-            switch (app.category) {
+            switch (stats.getCategory()) {
                 case CATEGORY_GAME:
                     gameAppSize += blamedSize;
                     break;
@@ -129,7 +394,7 @@ public class StorageAsyncLoader
                     break;
                 default:
                     // The deprecated game flag does not set the category.
-                    if ((app.flags & ApplicationInfo.FLAG_IS_GAME) != 0) {
+                    if ((stats.getFlags() & ApplicationInfo.FLAG_IS_GAME) != 0) {
                         gameAppSize += blamedSize;
                         break;
                     }
@@ -140,16 +405,30 @@ public class StorageAsyncLoader
 
         AppsStorageResult result = new AppsStorageResult(gameAppSize, musicAppsSize, photosAppsSize,
                 videoAppsSize, otherAppsSize);
+        result.mStorageStats = user.getExternalStats();
+        return result;
+    }
 
-        LOG.d("Loading external stats");
-        try {
-            result.mStorageStats = mStatsManager.getExternalStorageStats(null,
-                    UserHandle.of(userId));
-        } catch (IOException e) {
-            LOG.w("External stats not loaded" + e);
+    /** The stats loaded by a single task submitted to the stats executor. */
+    private static final class BatchResult {
+        final int mUserIndex;
+        @Nullable
+        final List<StorageStatsSnapshot.PackageStats> mPackages;
+        @Nullable
+        final StorageStatsSource.ExternalStorageStats mExternalStats;
+
+        BatchResult(int userIndex, List<StorageStatsSnapshot.PackageStats> packages) {
+            mUserIndex = userIndex;
+            mPackages = packages;
+            mExternalStats = null;
+        }
+
+        BatchResult(int userIndex,
+                @Nullable StorageStatsSource.ExternalStorageStats externalStats) {
+            mUserIndex = userIndex;
+            mPackages = null;
+            mExternalStats = externalStats;
         }
-        LOG.d("Obtaining result completed");
-        return result;
     }
 
     /**
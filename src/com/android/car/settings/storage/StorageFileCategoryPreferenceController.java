@@ -47,7 +47,7 @@ public class StorageFileCategoryPreferenceController extends StorageUsageBasePre
     protected long calculateCategoryUsage(SparseArray<StorageAsyncLoader.AppsStorageResult> result,
             long usedSizeBytes) {
         StorageAsyncLoader.AppsStorageResult data = result.get(
-                getCarUserManagerHelper().getCurrentProcessUserId());
+                getUserStateCache().getCurrentProcessUserId());
         return data.getExternalStats().totalBytes - data.getExternalStats().audioBytes
                 - data.getExternalStats().videoBytes - data.getExternalStats().imageBytes
                 - data.getExternalStats().appBytes;
@@ -56,9 +56,9 @@ public class StorageFileCategoryPreferenceController extends StorageUsageBasePre
     @Override
     protected boolean handlePreferenceClicked(ProgressBarPreference preference) {
         Intent intent = getFilesIntent();
-        intent.putExtra(Intent.EXTRA_USER_ID, getCarUserManagerHelper().getCurrentProcessUserId());
+        intent.putExtra(Intent.EXTRA_USER_ID, getUserStateCache().getCurrentProcessUserId());
         getContext().startActivityAsUser(intent,
-                new UserHandle(getCarUserManagerHelper().getCurrentProcessUserId()));
+                new UserHandle(getUserStateCache().getCurrentProcessUserId()));
         return true;
     }
 
@@ -43,7 +43,7 @@ public class StorageMediaCategoryPreferenceController extends StorageUsageBasePr
     protected long calculateCategoryUsage(SparseArray<StorageAsyncLoader.AppsStorageResult> result,
             long usedSizeBytes) {
         StorageAsyncLoader.AppsStorageResult data = result.get(
-                getCarUserManagerHelper().getCurrentProcessUserId());
+                getUserStateCache().getCurrentProcessUserId());
         mExternalAudioBytes = data.getExternalStats().audioBytes;
         return data.getMusicAppsSize() + mExternalAudioBytes;
     }
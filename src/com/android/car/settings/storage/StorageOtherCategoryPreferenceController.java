@@ -38,7 +38,7 @@ public class StorageOtherCategoryPreferenceController extends StorageUsageBasePr
     protected long calculateCategoryUsage(SparseArray<StorageAsyncLoader.AppsStorageResult> result,
             long usedSizeBytes) {
         StorageAsyncLoader.AppsStorageResult data = result.get(
-                getCarUserManagerHelper().getCurrentProcessUserId());
+                getUserStateCache().getCurrentProcessUserId());
         return data.getOtherAppsSize();
     }
 }
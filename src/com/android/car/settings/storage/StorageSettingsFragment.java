@@ -23,7 +23,9 @@ import android.content.Context;
 import android.os.Bundle;
 import android.os.storage.StorageManager;
 import android.os.storage.VolumeInfo;
+import android.widget.Button;
 
+import androidx.annotation.LayoutRes;
 import androidx.loader.app.LoaderManager;
 
 import com.android.car.settings.R;
@@ -43,6 +45,12 @@ public class StorageSettingsFragment extends SettingsFragment {
         return R.xml.storage_settings_fragment;
     }
 
+    @Override
+    @LayoutRes
+    protected int getActionBarLayoutId() {
+        return R.layout.action_bar_with_button;
+    }
+
     @Override
     public void onAttach(Context context) {
         super.onAttach(context);
@@ -72,4 +80,15 @@ public class StorageSettingsFragment extends SettingsFragment {
         LoaderManager loaderManager = LoaderManager.getInstance(this);
         mStorageSettingsManager.startLoading(loaderManager);
     }
+
+    @Override
+    public void onActivityCreated(Bundle savedInstanceState) {
+        super.onActivityCreated(savedInstanceState);
+        // Incremental loads reuse the stats of unchanged packages, so let the user force a full
+        // scan when the sizes look stale.
+        Button refreshButton = requireActivity().findViewById(R.id.action_button1);
+        refreshButton.setText(R.string.storage_refresh);
+        refreshButton.setOnClickListener(
+                v -> mStorageSettingsManager.refresh(LoaderManager.getInstance(this)));
+    }
 }
@@ -48,7 +48,8 @@ public class StorageSettingsManager {
     public interface VolumeListener {
         /**
          * Called when the data is successfully loaded from {@link VolumeSizeCallback} and the
-         * total and used size for the mounted device is calculated from {@link AppsStorageResult}
+         * total and used size for the mounted device is calculated from {@link AppsStorageResult}.
+         * May be called several times per load, with partial results first.
          */
         void onDataLoaded(SparseArray<StorageAsyncLoader.AppsStorageResult> result,
                 long usedSizeBytes, long totalSizeBytes);
@@ -56,6 +57,7 @@ public class StorageSettingsManager {
 
     private static final int STORAGE_JOB_ID = 0;
     private static final int VOLUME_SIZE_JOB_ID = 1;
+    private static final int STORAGE_SNAPSHOT_JOB_ID = 2;
 
     private final Context mContext;
     private final VolumeInfo mVolumeInfo;
@@ -63,6 +65,9 @@ public class StorageSettingsManager {
     private List<VolumeListener> mVolumeListeners = new ArrayList<>();
     private PrivateStorageInfo mPrivateStorageInfo;
     private SparseArray<StorageAsyncLoader.AppsStorageResult> mAppsStorageResultSparseArray;
+    private boolean mIsAppsStorageResultFresh;
+    private boolean mIsShowingSnapshot;
+    private int mLoadGeneration;
 
     StorageSettingsManager(Context context, VolumeInfo volume) {
         mContext = context;
@@ -86,10 +91,31 @@ public class StorageSettingsManager {
     }
 
     /**
-     * Start calculating the storage and volume.
+     * Start calculating the storage and volume. The last persisted app storage result is delivered
+     * first if available, and then replaced by a result which only queries the packages that
+     * changed since.
      */
     public void startLoading(LoaderManager loaderManager) {
-        loaderManager.restartLoader(STORAGE_JOB_ID, Bundle.EMPTY, new AppsStorageResult());
+        startLoading(loaderManager, StorageAsyncLoader.MODE_INCREMENTAL);
+    }
+
+    /**
+     * Recalculates the storage and volume, querying the stats of every package regardless of the
+     * persisted snapshot.
+     */
+    public void refresh(LoaderManager loaderManager) {
+        startLoading(loaderManager, StorageAsyncLoader.MODE_FULL_SCAN);
+    }
+
+    private void startLoading(LoaderManager loaderManager, int mode) {
+        mIsAppsStorageResultFresh = false;
+        mIsShowingSnapshot = false;
+        mLoadGeneration++;
+        if (mode == StorageAsyncLoader.MODE_INCREMENTAL) {
+            loaderManager.restartLoader(STORAGE_SNAPSHOT_JOB_ID, Bundle.EMPTY,
+                    new AppsStorageResult(StorageAsyncLoader.MODE_SNAPSHOT_ONLY));
+        }
+        loaderManager.restartLoader(STORAGE_JOB_ID, Bundle.EMPTY, new AppsStorageResult(mode));
         loaderManager.restartLoader(VOLUME_SIZE_JOB_ID, Bundle.EMPTY, new VolumeSizeCallback());
     }
 
@@ -138,18 +164,54 @@ public class StorageSettingsManager {
     private class AppsStorageResult implements
             LoaderManager.LoaderCallbacks<SparseArray<StorageAsyncLoader.AppsStorageResult>> {
 
+        private final int mMode;
+        private final int mGeneration;
+
+        AppsStorageResult(int mode) {
+            mMode = mode;
+            mGeneration = mLoadGeneration;
+        }
+
         @NonNull
         @Override
         public Loader<SparseArray<StorageAsyncLoader.AppsStorageResult>> onCreateLoader(int id,
                 @Nullable Bundle args) {
-            return new StorageAsyncLoader(mContext, new CarUserManagerHelper(mContext),
-                    new StorageStatsSource(mContext));
+            StorageAsyncLoader loader = new StorageAsyncLoader(mContext,
+                    new CarUserManagerHelper(mContext), new StorageStatsSource(mContext),
+                    StorageStatsSnapshot.getFile(mContext), mMode);
+            if (mMode != StorageAsyncLoader.MODE_SNAPSHOT_ONLY) {
+                loader.setPartialResultListener(this::onPartialResult);
+            }
+            return loader;
+        }
+
+        /**
+         * Shows the totals of the packages loaded so far, so that the usage fills in progressively
+         * while the remaining packages are queried. A persisted result is kept instead since it is
+         * closer to the final totals.
+         */
+        private void onPartialResult(SparseArray<StorageAsyncLoader.AppsStorageResult> data) {
+            if (mGeneration != mLoadGeneration || mIsAppsStorageResultFresh
+                    || mIsShowingSnapshot) {
+                return;
+            }
+            mAppsStorageResultSparseArray = data;
+            onReceivedSizes();
         }
 
         @Override
         public void onLoadFinished(
                 @NonNull Loader<SparseArray<StorageAsyncLoader.AppsStorageResult>> loader,
                 SparseArray<StorageAsyncLoader.AppsStorageResult> data) {
+            if (mMode == StorageAsyncLoader.MODE_SNAPSHOT_ONLY) {
+                // Never replace a fresh result with the persisted one.
+                if (data == null || mIsAppsStorageResultFresh) {
+                    return;
+                }
+                mIsShowingSnapshot = true;
+            } else {
+                mIsAppsStorageResultFresh = true;
+            }
             mAppsStorageResultSparseArray = data;
             onReceivedSizes();
         }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.storage;
+
+import android.annotation.Nullable;
+import android.content.Context;
+import android.util.ArrayMap;
+import android.util.AtomicFile;
+
+import com.android.car.settings.common.Logger;
+import com.android.settingslib.applications.StorageStatsSource;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable per-(user, package) storage stats collected by {@link StorageAsyncLoader}. The snapshot
+ * is persisted so that the storage screen can show the last known values immediately and only
+ * query the stats of packages which were installed or updated since.
+ */
+final class StorageStatsSnapshot {
+    private static final Logger LOG = new Logger(StorageStatsSnapshot.class);
+
+    private static final String FILE_NAME = "storage_stats_snapshot";
+    private static final int VERSION = 1;
+
+    private final long mFullScanTimeMillis;
+    private final List<UserStats> mUsers;
+
+    StorageStatsSnapshot(long fullScanTimeMillis, List<UserStats> users) {
+        mFullScanTimeMillis = fullScanTimeMillis;
+        mUsers = Collections.unmodifiableList(users);
+    }
+
+    /** Returns the file in which the snapshot of the current user is persisted. */
+    static File getFile(Context context) {
+        return new File(context.getCacheDir(), FILE_NAME);
+    }
+
+    /**
+     * Deletes the persisted snapshot so that the next load performs a full scan. Should be called
+     * when package storage is changed without a package update, e.g. when data is cleared.
+     */
+    static void delete(Context context) {
+        new AtomicFile(getFile(context)).delete();
+    }
+
+    /**
+     * Returns the time in millis of the full scan the snapshot is based on. Incremental loads carry
+     * this time over, since the data and cache of reused packages may have grown since.
+     */
+    long getFullScanTimeMillis() {
+        return mFullScanTimeMillis;
+    }
+
+    /** Returns the stats of each user in load order. */
+    List<UserStats> getUsers() {
+        return mUsers;
+    }
+
+    /** Returns the stats for {@code userId} or {@code null} if the user is not in the snapshot. */
+    @Nullable
+    UserStats getUser(int userId) {
+        for (UserStats user : mUsers) {
+            if (user.getUserId() == userId) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a snapshot from {@code file}. Returns {@code null} if there is no snapshot or it
+     * cannot be read.
+     */
+    @Nullable
+    static StorageStatsSnapshot read(File file) {
+        AtomicFile atomicFile = new AtomicFile(file);
+        try (DataInputStream in = new DataInputStream(atomicFile.openRead())) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            long fullScanTimeMillis = in.readLong();
+            int userCount = in.readInt();
+            List<UserStats> users = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                int userId = in.readInt();
+                StorageStatsSource.ExternalStorageStats externalStats = null;
+                if (in.readBoolean()) {
+                    externalStats = new StorageStatsSource.ExternalStorageStats(in.readLong(),
+                            in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                }
+                int packageCount = in.readInt();
+                List<PackageStats> packages = new ArrayList<>(packageCount);
+                for (int j = 0; j < packageCount; j++) {
+                    packages.add(new PackageStats(in.readUTF(), in.readLong(), in.readInt(),
+                            in.readInt(), in.readLong(), in.readLong(), in.readLong(),
+                            in.readLong()));
+                }
+                users.add(new UserStats(userId, packages, externalStats));
+            }
+            return new StorageStatsSnapshot(fullScanTimeMillis, users);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.w("Unable to read storage stats snapshot", e);
+            return null;
+        }
+    }
+
+    /** Writes the snapshot to {@code file}, replacing any previous snapshot. */
+    void write(File file) {
+        AtomicFile atomicFile = new AtomicFile(file);
+        FileOutputStream fos = null;
+        try {
+            fos = atomicFile.startWrite();
+            DataOutputStream out = new DataOutputStream(fos);
+            out.writeInt(VERSION);
+            out.writeLong(mFullScanTimeMillis);
+            out.writeInt(mUsers.size());
+            for (UserStats user : mUsers) {
+                out.writeInt(user.getUserId());
+                StorageStatsSource.ExternalStorageStats externalStats = user.getExternalStats();
+                out.writeBoolean(externalStats != null);
+                if (externalStats != null) {
+                    out.writeLong(externalStats.totalBytes);
+                    out.writeLong(externalStats.audioBytes);
+                    out.writeLong(externalStats.videoBytes);
+                    out.writeLong(externalStats.imageBytes);
+                    out.writeLong(externalStats.appBytes);
+                }
+                out.writeInt(user.getPackages().size());
+                for (PackageStats stats : user.getPackages()) {
+                    out.writeUTF(stats.getPackageName());
+                    out.writeLong(stats.getLastUpdateTime());
+                    out.writeInt(stats.getCategory());
+                    out.writeInt(stats.getFlags());
+                    out.writeLong(stats.getCodeBytes());
+                    out.writeLong(stats.getDataBytes());
+                    out.writeLong(stats.getCacheBytes());
+                    out.writeLong(stats.getCacheQuotaBytes());
+                }
+            }
+            out.flush();
+            atomicFile.finishWrite(fos);
+        } catch (IOException e) {
+            LOG.w("Unable to write storage stats snapshot", e);
+            atomicFile.failWrite(fos);
+        }
+    }
+
+    /** Storage stats of all packages of a single user. */
+    static final class UserStats {
+        private final int mUserId;
+        private final List<PackageStats> mPackages;
+        private final Map<String, PackageStats> mPackagesByName;
+        @Nullable
+        private final StorageStatsSource.ExternalStorageStats mExternalStats;
+
+        UserStats(int userId, List<PackageStats> packages,
+                @Nullable StorageStatsSource.ExternalStorageStats externalStats) {
+            mUserId = userId;
+            mPackages = Collections.unmodifiableList(packages);
+            mPackagesByName = new ArrayMap<>(packages.size());
+            for (PackageStats stats : packages) {
+                mPackagesByName.put(stats.getPackageName(), stats);
+            }
+            mExternalStats = externalStats;
+        }
+
+        int getUserId() {
+            return mUserId;
+        }
+
+        List<PackageStats> getPackages() {
+            return mPackages;
+        }
+
+        /**
+         * Returns the stats of {@code packageName} if they were collected for the same {@code
+         * lastUpdateTime}, or {@code null} otherwise.
+         */
+        @Nullable
+        PackageStats getPackage(String packageName, long lastUpdateTime) {
+            PackageStats stats = mPackagesByName.get(packageName);
+            return stats != null && stats.getLastUpdateTime() == lastUpdateTime ? stats : null;
+        }
+
+        @Nullable
+        StorageStatsSource.ExternalStorageStats getExternalStats() {
+            return mExternalStats;
+        }
+    }
+
+    /** Storage stats of a single package for a single user. */
+    static final class PackageStats {
+        private final String mPackageName;
+        private final long mLastUpdateTime;
+        private final int mCategory;
+        private final int mFlags;
+        private final long mCodeBytes;
+        private final long mDataBytes;
+        private final long mCacheBytes;
+        private final long mCacheQuotaBytes;
+
+        PackageStats(String packageName, long lastUpdateTime, int category, int flags,
+                long codeBytes, long dataBytes, long cacheBytes, long cacheQuotaBytes) {
+            mPackageName = packageName;
+            mLastUpdateTime = lastUpdateTime;
+            mCategory = category;
+            mFlags = flags;
+            mCodeBytes = codeBytes;
+            mDataBytes = dataBytes;
+            mCacheBytes = cacheBytes;
+            mCacheQuotaBytes = cacheQuotaBytes;
+        }
+
+        String getPackageName() {
+            return mPackageName;
+        }
+
+        long getLastUpdateTime() {
+            return mLastUpdateTime;
+        }
+
+        /** Returns the {@link android.content.pm.ApplicationInfo#category} of the package. */
+        int getCategory() {
+            return mCategory;
+        }
+
+        /** Returns the {@link android.content.pm.ApplicationInfo#flags} of the package. */
+        int getFlags() {
+            return mFlags;
+        }
+
+        long getCodeBytes() {
+            return mCodeBytes;
+        }
+
+        long getDataBytes() {
+            return mDataBytes;
+        }
+
+        long getCacheBytes() {
+            return mCacheBytes;
+        }
+
+        long getCacheQuotaBytes() {
+            return mCacheQuotaBytes;
+        }
+    }
+}
@@ -17,7 +17,6 @@
 package com.android.car.settings.storage;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.res.Resources;
 import android.os.storage.VolumeInfo;
@@ -27,6 +26,7 @@ import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
 import com.android.car.settings.common.ProgressBarPreference;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which have the basic logic to determines the storage for different categories visible
@@ -39,13 +39,13 @@ public abstract class StorageUsageBasePreferenceController extends
     private static final int PROGRESS_MAX = 100;
 
     private VolumeInfo mVolumeInfo;
-    private CarUserManagerHelper mCarUserManagerHelper;
+    private UserStateCache mUserStateCache;
 
     public StorageUsageBasePreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController,
             CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -73,8 +73,8 @@ public abstract class StorageUsageBasePreferenceController extends
         setStorageSize(calculateCategoryUsage(result, usedSizeBytes), totalSizeBytes);
     }
 
-    CarUserManagerHelper getCarUserManagerHelper() {
-        return mCarUserManagerHelper;
+    UserStateCache getUserStateCache() {
+        return mUserStateCache;
     }
 
     public VolumeInfo getVolumeInfo() {
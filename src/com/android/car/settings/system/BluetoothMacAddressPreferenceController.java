@@ -51,6 +51,11 @@ public class BluetoothMacAddressPreferenceController extends
         return super.getAvailabilityStatus();
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     protected void updateState(Preference preference) {
         preference.setSummary(mBluetoothAdapter.getAddress());
@@ -20,7 +20,6 @@ import android.accounts.Account;
 import android.accounts.AccountManager;
 import android.accounts.AuthenticatorDescription;
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.content.pm.UserInfo;
@@ -38,6 +37,7 @@ import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.Logger;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 import java.util.HashSet;
 import java.util.List;
@@ -52,13 +52,13 @@ public class MasterClearAccountsPreferenceController extends PreferenceControlle
 
     private static final Logger LOG = new Logger(MasterClearAccountsPreferenceController.class);
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
     private final Map<Account, Preference> mAccountPreferenceMap = new ArrayMap<>();
 
     public MasterClearAccountsPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -78,7 +78,7 @@ public class MasterClearAccountsPreferenceController extends PreferenceControlle
         // Refresh the accounts in the off chance an account was added or removed while stopped.
         Set<Account> accountsToRemove = new HashSet<>(mAccountPreferenceMap.keySet());
         List<UserInfo> profiles = UserManager.get(getContext()).getProfiles(
-                mCarUserManagerHelper.getCurrentProcessUserId());
+                mUserStateCache.getCurrentProcessUserId());
         for (UserInfo profile : profiles) {
             UserHandle userHandle = new UserHandle(profile.id);
             AuthenticatorDescription[] descriptions = AccountManager.get(
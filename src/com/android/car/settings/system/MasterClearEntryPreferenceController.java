@@ -19,7 +19,6 @@ package com.android.car.settings.system;
 import static android.os.UserManager.DISALLOW_FACTORY_RESET;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.os.UserManager;
 
@@ -27,6 +26,7 @@ import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which determines if master clear (aka "factory reset") should be displayed based on
@@ -34,12 +34,12 @@ import com.android.car.settings.common.PreferenceController;
  */
 public class MasterClearEntryPreferenceController extends PreferenceController<Preference> {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public MasterClearEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -47,18 +47,23 @@ public class MasterClearEntryPreferenceController extends PreferenceController<P
         return Preference.class;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     public int getAvailabilityStatus() {
         return isUserRestricted() ? DISABLED_FOR_USER : AVAILABLE;
     }
 
     private boolean isUserRestricted() {
-        return !(mCarUserManagerHelper.isCurrentProcessAdminUser() || isDemoUser())
-                || mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_FACTORY_RESET);
+        return !(mUserStateCache.isCurrentProcessAdminUser() || isDemoUser())
+                || mUserStateCache.isCurrentProcessUserHasRestriction(DISALLOW_FACTORY_RESET);
     }
 
     private boolean isDemoUser() {
         return UserManager.isDeviceInDemoMode(getContext())
-                && mCarUserManagerHelper.isCurrentProcessDemoUser();
+                && mUserStateCache.isCurrentProcessDemoUser();
     }
 }
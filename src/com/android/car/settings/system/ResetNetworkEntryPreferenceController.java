@@ -19,23 +19,23 @@ package com.android.car.settings.system;
 import static android.os.UserManager.DISALLOW_NETWORK_RESET;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 
 import androidx.preference.Preference;
 
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /** Controller which determines if network reset should be displayed based on user status. */
 public class ResetNetworkEntryPreferenceController extends PreferenceController<Preference> {
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public ResetNetworkEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -43,13 +43,18 @@ public class ResetNetworkEntryPreferenceController extends PreferenceController<
         return Preference.class;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return true;
+    }
+
     @Override
     public int getAvailabilityStatus() {
         return isUserRestricted() ? DISABLED_FOR_USER : AVAILABLE;
     }
 
     private boolean isUserRestricted() {
-        return !mCarUserManagerHelper.isCurrentProcessAdminUser()
-                || mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_NETWORK_RESET);
+        return !mUserStateCache.isCurrentProcessAdminUser()
+                || mUserStateCache.isCurrentProcessUserHasRestriction(DISALLOW_NETWORK_RESET);
     }
 }
@@ -19,7 +19,6 @@ package com.android.car.settings.system;
 import static android.content.Context.CARRIER_CONFIG_SERVICE;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
@@ -35,6 +34,7 @@ import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.Logger;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 import java.util.List;
 
@@ -49,13 +49,13 @@ public class SystemUpdatePreferenceController extends PreferenceController<Prefe
 
     private static final Logger LOG = new Logger(SystemUpdatePreferenceController.class);
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
     private boolean mActivityFound;
 
     public SystemUpdatePreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -68,7 +68,7 @@ public class SystemUpdatePreferenceController extends PreferenceController<Prefe
         if (!getContext().getResources().getBoolean(R.bool.config_show_system_update_settings)) {
             return UNSUPPORTED_ON_DEVICE;
         }
-        return mCarUserManagerHelper.isCurrentProcessAdminUser() ? AVAILABLE : DISABLED_FOR_USER;
+        return mUserStateCache.isCurrentProcessAdminUser() ? AVAILABLE : DISABLED_FOR_USER;
     }
 
     @Override
@@ -17,17 +17,23 @@
 package com.android.car.settings.users;
 
 import android.car.userlib.CarUserManagerHelper;
+import android.content.Context;
 import android.content.pm.UserInfo;
 import android.os.AsyncTask;
 
+import com.android.car.settings.common.UserStateCache;
+
 /**
  * Task to add a new user to the device
  */
 public class AddNewUserTask extends AsyncTask<String, Void, UserInfo> {
+    private final UserStateCache mUserStateCache;
     private final CarUserManagerHelper mCarUserManagerHelper;
     private final AddNewUserListener mAddNewUserListener;
 
-    public AddNewUserTask(CarUserManagerHelper helper, AddNewUserListener addNewUserListener) {
+    public AddNewUserTask(Context context, CarUserManagerHelper helper,
+            AddNewUserListener addNewUserListener) {
+        mUserStateCache = UserStateCache.getInstance(context);
         mCarUserManagerHelper = helper;
         mAddNewUserListener = addNewUserListener;
     }
@@ -43,6 +49,7 @@ public class AddNewUserTask extends AsyncTask<String, Void, UserInfo> {
     @Override
     protected void onPostExecute(UserInfo user) {
         if (user != null) {
+            mUserStateCache.invalidate();
             mAddNewUserListener.onUserAddedSuccess();
             mCarUserManagerHelper.switchToUser(user);
         } else {
@@ -26,6 +26,7 @@ import com.android.car.settings.R;
 import com.android.car.settings.common.ConfirmationDialogFragment;
 import com.android.car.settings.common.ErrorDialog;
 import com.android.car.settings.common.FragmentController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Business logic for when the last admin is about to be removed from the device and a new
@@ -85,12 +86,15 @@ public class ChooseNewAdminPreferenceController extends UsersBasePreferenceContr
     @VisibleForTesting
     void assignNewAdminAndRemoveOldAdmin(UserInfo userToMakeAdmin) {
         getCarUserManagerHelper().grantAdminPermissions(userToMakeAdmin);
+        UserStateCache.getInstance(getContext()).invalidate();
         removeOldAdmin();
     }
 
     private void removeOldAdmin() {
-        if (!getCarUserManagerHelper().removeUser(mAdminInfo,
-                getContext().getString(R.string.user_guest))) {
+        boolean isRemoved = getCarUserManagerHelper().removeUser(mAdminInfo,
+                getContext().getString(R.string.user_guest));
+        UserStateCache.getInstance(getContext()).invalidate();
+        if (!isRemoved) {
             // If failed, need to show error dialog for users.
             getFragmentController().showDialog(
                     ErrorDialog.newInstance(R.string.delete_user_error_title), /* tag= */ null);
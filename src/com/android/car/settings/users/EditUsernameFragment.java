@@ -32,6 +32,7 @@ import androidx.annotation.StringRes;
 
 import com.android.car.settings.R;
 import com.android.car.settings.common.BaseFragment;
+import com.android.car.settings.common.UserStateCache;
 import com.android.car.settingslib.util.SettingsConstants;
 
 /**
@@ -134,6 +135,7 @@ public class EditUsernameFragment extends BaseFragment {
         mOkButton.setOnClickListener(view -> {
             // Save new user's name.
             mCarUserManagerHelper.setUserName(mUserInfo, mUserNameEditText.getText().toString());
+            UserStateCache.getInstance(getContext()).invalidate();
             Settings.Secure.putInt(getActivity().getContentResolver(),
                     SettingsConstants.USER_NAME_SET, 1);
             getActivity().onBackPressed();
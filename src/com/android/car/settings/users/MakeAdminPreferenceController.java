@@ -26,6 +26,7 @@ import androidx.annotation.VisibleForTesting;
 import com.android.car.settings.common.ButtonPreference;
 import com.android.car.settings.common.ConfirmationDialogFragment;
 import com.android.car.settings.common.FragmentController;
+import com.android.car.settings.common.UserStateCache;
 
 /** Business Logic for preference which promotes a regular user to an admin user. */
 public class MakeAdminPreferenceController extends
@@ -37,6 +38,7 @@ public class MakeAdminPreferenceController extends
                 UserInfo userToMakeAdmin = (UserInfo) arguments.get(
                         UsersDialogProvider.KEY_USER_TO_MAKE_ADMIN);
                 getCarUserManagerHelper().grantAdminPermissions(userToMakeAdmin);
+                UserStateCache.getInstance(getContext()).invalidate();
                 getFragmentController().goBack();
             };
 
@@ -28,6 +28,7 @@ import androidx.preference.SwitchPreference;
 
 import com.android.car.settings.R;
 import com.android.car.settings.common.FragmentController;
+import com.android.car.settings.common.UserStateCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -93,6 +94,7 @@ public class PermissionsPreferenceController extends
                 boolean granted = (boolean) newValue;
                 getCarUserManagerHelper().setUserRestriction(getUserInfo(),
                         pref.getExtras().getString(PERMISSION_TYPE_KEY), !granted);
+                UserStateCache.getInstance(context).invalidate();
                 return true;
             });
             mPermissionPreferences.add(preference);
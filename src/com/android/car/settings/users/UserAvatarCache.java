@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.users;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.ArrayMap;
+import android.util.LruCache;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Process wide cache of circle cropped user avatars, keyed by user id. Avatars are loaded, scaled
+ * and cropped on a background thread and delivered on the main thread. The cache is bounded by
+ * the bytes held by the avatar bitmaps and evicts the least recently used avatars first.
+ *
+ * <p>All methods must be called on the main thread.
+ */
+final class UserAvatarCache {
+
+    /** Callback for loaded avatars. */
+    interface Callback {
+        /** Called on the main thread with the avatar loaded for {@code key}. */
+        void onAvatarLoaded(int key, Bitmap avatar);
+    }
+
+    /** Key of the avatar of the "start guest session" pod, which is not tied to a user. */
+    static final int KEY_START_GUEST_SESSION = Integer.MIN_VALUE;
+
+    /** Key of the avatar of the "add user" pod, which is not tied to a user. */
+    static final int KEY_ADD_USER = Integer.MIN_VALUE + 1;
+
+    /** Upper bound for the bytes held by cached avatars. */
+    @VisibleForTesting
+    static final int MAX_SIZE_BYTES = 2 * 1024 * 1024;
+
+    private static UserAvatarCache sInstance;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Integer, Bitmap> mCache;
+    private final Executor mBackgroundExecutor;
+    private final Map<Integer, List<Callback>> mPendingLoads = new ArrayMap<>();
+
+    /** Returns the process wide cache. */
+    static synchronized UserAvatarCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new UserAvatarCache(MAX_SIZE_BYTES, ThreadUtils::postOnBackgroundThread);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    static synchronized void resetInstance() {
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    UserAvatarCache(int maxSizeBytes, Executor backgroundExecutor) {
+        mBackgroundExecutor = backgroundExecutor;
+        mCache = new LruCache<Integer, Bitmap>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap avatar) {
+                return avatar.getAllocationByteCount();
+            }
+        };
+    }
+
+    /** Returns the cached avatar for {@code key} or {@code null} if it is not cached. */
+    @Nullable
+    Bitmap get(int key) {
+        return mCache.get(key);
+    }
+
+    /**
+     * Loads the avatar for {@code key} if it is not cached. {@code loader} is called on a
+     * background thread and its result is cropped to a circle of {@code sizePx} pixels. Requests
+     * for a key which is already loading share the running load.
+     */
+    void load(int key, int sizePx, Supplier<Bitmap> loader, Callback callback) {
+        Bitmap avatar = mCache.get(key);
+        if (avatar != null) {
+            callback.onAvatarLoaded(key, avatar);
+            return;
+        }
+        List<Callback> callbacks = mPendingLoads.get(key);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        List<Callback> newCallbacks = new ArrayList<>();
+        newCallbacks.add(callback);
+        mPendingLoads.put(key, newCallbacks);
+        mBackgroundExecutor.execute(() -> {
+            Bitmap source = loader.get();
+            Bitmap loaded = source == null ? null : circleCrop(source, sizePx);
+            mMainHandler.post(() -> onAvatarLoaded(key, newCallbacks, loaded));
+        });
+    }
+
+    /**
+     * Drops the cached avatar for {@code key}, e.g. because the user changed their icon. A running
+     * load for {@code key} is not delivered to its callbacks.
+     */
+    void invalidate(int key) {
+        mCache.remove(key);
+        mPendingLoads.remove(key);
+    }
+
+    /** Returns the approximate number of bytes held by the cached avatars. */
+    int getSizeBytes() {
+        return mCache.size();
+    }
+
+    private void onAvatarLoaded(int key, List<Callback> callbacks, @Nullable Bitmap avatar) {
+        if (mPendingLoads.get(key) != callbacks) {
+            // Invalidated while loading.
+            return;
+        }
+        mPendingLoads.remove(key);
+        if (avatar == null) {
+            return;
+        }
+        mCache.put(key, avatar);
+        for (Callback callback : callbacks) {
+            callback.onAvatarLoaded(key, avatar);
+        }
+    }
+
+    private static Bitmap circleCrop(Bitmap source, int sizePx) {
+        Bitmap output = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        float scale = sizePx / (float) Math.min(source.getWidth(), source.getHeight());
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((sizePx - source.getWidth() * scale) / 2f,
+                (sizePx - source.getHeight() * scale) / 2f);
+        BitmapShader shader = new BitmapShader(source, Shader.TileMode.CLAMP,
+                Shader.TileMode.CLAMP);
+        shader.setLocalMatrix(matrix);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setShader(shader);
+        float radius = sizePx / 2f;
+        new Canvas(output).drawCircle(radius, radius, radius, paint);
+        return output;
+    }
+}
@@ -31,6 +31,7 @@ import com.android.car.settings.R;
 import com.android.car.settings.common.ConfirmationDialogFragment;
 import com.android.car.settings.common.ErrorDialog;
 import com.android.car.settings.common.SettingsFragment;
+import com.android.car.settings.common.UserStateCache;
 
 /** Common logic shared for controlling the action bar which contains a button to delete a user. */
 public abstract class UserDetailsBaseFragment extends SettingsFragment {
@@ -43,8 +44,10 @@ public abstract class UserDetailsBaseFragment extends SettingsFragment {
         if (userType.equals(UsersDialogProvider.LAST_ADMIN)) {
             launchFragment(ChooseNewAdminFragment.newInstance(mUserInfo));
         } else {
-            if (mCarUserManagerHelper.removeUser(
-                    mUserInfo, getContext().getString(R.string.user_guest))) {
+            boolean isRemoved = mCarUserManagerHelper.removeUser(
+                    mUserInfo, getContext().getString(R.string.user_guest));
+            UserStateCache.getInstance(getContext()).invalidate();
+            if (isRemoved) {
                 getActivity().onBackPressed();
             } else {
                 // If failed, need to show error dialog for users.
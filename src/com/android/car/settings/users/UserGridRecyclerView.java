@@ -17,11 +17,17 @@
 package com.android.car.settings.users;
 
 import android.car.userlib.CarUserManagerHelper;
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.UserInfo;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.UserHandle;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -30,8 +36,7 @@ import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import androidx.core.graphics.drawable.RoundedBitmapDrawable;
-import androidx.core.graphics.drawable.RoundedBitmapDrawableFactory;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -58,6 +63,18 @@ public class UserGridRecyclerView extends RecyclerView implements
     public AddNewUserTask mAddNewUserTask;
     public boolean mEnableAddUserButton;
 
+    private final BroadcastReceiver mUserInfoChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            int userId = intent.getIntExtra(Intent.EXTRA_USER_HANDLE, UserHandle.USER_NULL);
+            // The icon may have changed, which is not reflected in the user records.
+            UserAvatarCache.getInstance().invalidate(userId);
+            if (mAdapter != null) {
+                mAdapter.onUserAvatarChanged(userId);
+            }
+        }
+    };
+
     public UserGridRecyclerView(Context context, AttributeSet attrs) {
         super(context, attrs);
         mContext = context;
@@ -69,12 +86,16 @@ public class UserGridRecyclerView extends RecyclerView implements
     }
 
     /**
-     * Register listener for any update to the users
+     * Register listener for any update to the users. Registered on every attach, so that it is
+     * balanced by {@link #onDetachedFromWindow()} when the view is attached more than once.
      */
     @Override
-    public void onFinishInflate() {
-        super.onFinishInflate();
+    public void onAttachedToWindow() {
+        super.onAttachedToWindow();
         mCarUserManagerHelper.registerOnUsersUpdateListener(this);
+        mContext.registerReceiverAsUser(mUserInfoChangedReceiver, UserHandle.ALL,
+                new IntentFilter(Intent.ACTION_USER_INFO_CHANGED), /* broadcastPermission= */
+                null, /* scheduler= */ null);
     }
 
     /**
@@ -84,6 +105,7 @@ public class UserGridRecyclerView extends RecyclerView implements
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         mCarUserManagerHelper.unregisterOnUsersUpdateListener(this);
+        mContext.unregisterReceiver(mUserInfoChangedReceiver);
         if (mAddNewUserTask != null) {
             mAddNewUserTask.cancel(/* mayInterruptIfRunning= */ false);
         }
@@ -185,10 +207,8 @@ public class UserGridRecyclerView extends RecyclerView implements
     public void onUsersUpdate() {
         // If you can show the add user button, there is no restriction
         mAdapter.setAddUserRestricted(!mEnableAddUserButton);
-        mAdapter.clearUsers();
         mAdapter.updateUsers(createUserRecords(mCarUserManagerHelper
                 .getAllUsers()));
-        mAdapter.notifyDataSetChanged();
     }
 
     /**
@@ -200,6 +220,8 @@ public class UserGridRecyclerView extends RecyclerView implements
         private final Context mContext;
         private final Resources mRes;
         private final String mGuestName;
+        private final int mAvatarSize;
+        private final UserAvatarCache mAvatarCache = UserAvatarCache.getInstance();
 
         private List<UserRecord> mUsers;
         private String mNewUserName;
@@ -210,8 +232,8 @@ public class UserGridRecyclerView extends RecyclerView implements
         private boolean mIsAddUserRestricted;
 
         private final ConfirmationDialogFragment.ConfirmListener mConfirmListener = arguments -> {
-            mAddNewUserTask = new AddNewUserTask(mCarUserManagerHelper, /* addNewUserListener= */
-                    this);
+            mAddNewUserTask = new AddNewUserTask(mContext, mCarUserManagerHelper,
+                    /* addNewUserListener= */ this);
             mAddNewUserTask.execute(mNewUserName);
         };
 
@@ -225,25 +247,41 @@ public class UserGridRecyclerView extends RecyclerView implements
         public UserAdapter(Context context, List<UserRecord> users) {
             mRes = context.getResources();
             mContext = context;
-            updateUsers(users);
+            mUsers = users;
             mGuestName = mRes.getString(R.string.user_guest);
             mNewUserName = mRes.getString(R.string.user_new_user_name);
             mOpacityDisabled = mRes.getFloat(R.dimen.opacity_disabled);
             mOpacityEnabled = mRes.getFloat(R.dimen.opacity_enabled);
+            mAvatarSize = mRes.getDimensionPixelSize(R.dimen.user_switcher_image_avatar_size);
         }
 
         /**
          * Removes all the users from the User Grid.
          */
         public void clearUsers() {
+            int count = mUsers.size();
             mUsers.clear();
+            notifyItemRangeRemoved(0, count);
         }
 
         /**
-         * Refreshes the User Grid with the new List of users.
+         * Refreshes the User Grid with the new List of users. Only the pods of users which were
+         * added, removed, or changed are rebound.
          */
         public void updateUsers(List<UserRecord> users) {
+            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(
+                    new UserRecordDiffCallback(mUsers, users));
             mUsers = users;
+            diffResult.dispatchUpdatesTo(this);
+        }
+
+        /** Rebinds the pod of {@code userId} after its avatar was invalidated. */
+        void onUserAvatarChanged(int userId) {
+            for (int i = 0; i < mUsers.size(); i++) {
+                if (getAvatarKey(mUsers.get(i)) == userId) {
+                    notifyItemChanged(i);
+                }
+            }
         }
 
         @Override
@@ -258,10 +296,7 @@ public class UserGridRecyclerView extends RecyclerView implements
         @Override
         public void onBindViewHolder(UserAdapterViewHolder holder, int position) {
             UserRecord userRecord = mUsers.get(position);
-            RoundedBitmapDrawable circleIcon = RoundedBitmapDrawableFactory.create(mRes,
-                    getUserRecordIcon(userRecord));
-            circleIcon.setCircular(true);
-            holder.mUserAvatarImageView.setImageDrawable(circleIcon);
+            bindAvatar(holder, userRecord);
             holder.mUserNameTextView.setText(userRecord.mInfo.name);
 
             // Defaults to 100% opacity and no circle around the icon.
@@ -306,7 +341,34 @@ public class UserGridRecyclerView extends RecyclerView implements
          * @param isAddUserRestricted should adding a user be restricted
          */
         public void setAddUserRestricted(boolean isAddUserRestricted) {
+            if (mIsAddUserRestricted == isAddUserRestricted) {
+                return;
+            }
             mIsAddUserRestricted = isAddUserRestricted;
+            for (int i = 0; i < mUsers.size(); i++) {
+                if (mUsers.get(i).mIsAddUser) {
+                    notifyItemChanged(i);
+                }
+            }
+        }
+
+        private void bindAvatar(UserAdapterViewHolder holder, UserRecord userRecord) {
+            int key = getAvatarKey(userRecord);
+            holder.mAvatarKey = key;
+            Bitmap avatar = mAvatarCache.get(key);
+            if (avatar != null) {
+                holder.mUserAvatarImageView.setImageDrawable(new BitmapDrawable(mRes, avatar));
+                return;
+            }
+            holder.mUserAvatarImageView.setImageDrawable(null);
+            mAvatarCache.load(key, mAvatarSize, () -> getUserRecordIcon(userRecord),
+                    (loadedKey, loadedAvatar) -> {
+                        // The holder may have been rebound to another user while loading.
+                        if (holder.mAvatarKey == loadedKey) {
+                            holder.mUserAvatarImageView.setImageDrawable(
+                                    new BitmapDrawable(mRes, loadedAvatar));
+                        }
+                    });
         }
 
         private void handleUserSwitch(UserInfo userInfo) {
@@ -349,6 +411,7 @@ public class UserGridRecyclerView extends RecyclerView implements
             dialogFragment.show(mBaseFragment.getFragmentManager(), ConfirmationDialogFragment.TAG);
         }
 
+        /** Loads the icon of {@code userRecord}. Called on a background thread. */
         private Bitmap getUserRecordIcon(UserRecord userRecord) {
             if (userRecord.mIsStartGuestSession) {
                 return mCarUserManagerHelper.getGuestDefaultIcon();
@@ -358,7 +421,12 @@ public class UserGridRecyclerView extends RecyclerView implements
                 return UserIcons.convertToBitmap(mContext.getDrawable(R.drawable.user_add_circle));
             }
 
-            return mCarUserManagerHelper.getUserIcon(userRecord.mInfo);
+            Bitmap icon = mCarUserManagerHelper.getUserIcon(userRecord.mInfo);
+            if (icon == null) {
+                icon = UserIcons.convertToBitmap(UserIcons.getDefaultUserIcon(mRes,
+                        userRecord.mInfo.id, /* light= */ false));
+            }
+            return icon;
         }
 
 
@@ -392,6 +460,7 @@ public class UserGridRecyclerView extends RecyclerView implements
             public TextView mUserNameTextView;
             public View mView;
             public FrameLayout mFrame;
+            private int mAvatarKey;
 
             public UserAdapterViewHolder(View view) {
                 super(view);
@@ -409,6 +478,54 @@ public class UserGridRecyclerView extends RecyclerView implements
         }
     }
 
+    private static int getAvatarKey(UserRecord userRecord) {
+        if (userRecord.mIsStartGuestSession) {
+            return UserAvatarCache.KEY_START_GUEST_SESSION;
+        }
+        if (userRecord.mIsAddUser) {
+            return UserAvatarCache.KEY_ADD_USER;
+        }
+        return userRecord.mInfo.id;
+    }
+
+    /**
+     * Matches {@link UserRecord}s by user, so that only the pods of users which were added,
+     * removed, or changed are rebound.
+     */
+    private static class UserRecordDiffCallback extends DiffUtil.Callback {
+        private final List<UserRecord> mOldUsers;
+        private final List<UserRecord> mNewUsers;
+
+        UserRecordDiffCallback(List<UserRecord> oldUsers, List<UserRecord> newUsers) {
+            mOldUsers = oldUsers;
+            mNewUsers = newUsers;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldUsers.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewUsers.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return getAvatarKey(mOldUsers.get(oldItemPosition))
+                    == getAvatarKey(mNewUsers.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            UserRecord oldUser = mOldUsers.get(oldItemPosition);
+            UserRecord newUser = mNewUsers.get(newItemPosition);
+            return oldUser.mIsForeground == newUser.mIsForeground
+                    && TextUtils.equals(oldUser.mInfo.name, newUser.mInfo.name);
+        }
+    }
+
     /**
      * Object wrapper class for the userInfo.  Use it to distinguish if a profile is a
      * guest profile, add user profile, or the foreground user.
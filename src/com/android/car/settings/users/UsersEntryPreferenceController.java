@@ -17,7 +17,6 @@
 package com.android.car.settings.users;
 
 import android.car.drivingstate.CarUxRestrictions;
-import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 
 import androidx.preference.Preference;
@@ -25,6 +24,7 @@ import androidx.preference.Preference;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.Logger;
 import com.android.car.settings.common.PreferenceController;
+import com.android.car.settings.common.UserStateCache;
 
 /**
  * Controller which determines if the top level entry into User settings should direct to a list
@@ -34,12 +34,12 @@ public class UsersEntryPreferenceController extends PreferenceController<Prefere
 
     private static final Logger LOG = new Logger(UsersEntryPreferenceController.class);
 
-    private final CarUserManagerHelper mCarUserManagerHelper;
+    private final UserStateCache mUserStateCache;
 
     public UsersEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarUserManagerHelper = new CarUserManagerHelper(context);
+        mUserStateCache = UserStateCache.getInstance(context);
     }
 
     @Override
@@ -49,7 +49,7 @@ public class UsersEntryPreferenceController extends PreferenceController<Prefere
 
     @Override
     public boolean handlePreferenceClicked(Preference preference) {
-        if (mCarUserManagerHelper.isCurrentProcessAdminUser()) {
+        if (mUserStateCache.isCurrentProcessAdminUser()) {
             // Admins can see a full list of users in Settings.
             LOG.v("Creating UsersListFragment for admin user.");
             getFragmentController().launchFragment(new UsersListFragment());
@@ -57,7 +57,7 @@ public class UsersEntryPreferenceController extends PreferenceController<Prefere
             // Non-admins can only manage themselves in Settings.
             LOG.v("Creating UserDetailsFragment for non-admin.");
             getFragmentController().launchFragment(UserDetailsFragment.newInstance(
-                    mCarUserManagerHelper.getCurrentProcessUserId()));
+                    mUserStateCache.getCurrentProcessUserId()));
         }
         return true;
     }
@@ -59,8 +59,9 @@ public class UsersListFragment extends SettingsFragment implements
 
     @VisibleForTesting
     final ConfirmationDialogFragment.ConfirmListener mConfirmListener = arguments -> {
-        mAddNewUserTask = new AddNewUserTask(mCarUserManagerHelper, /* addNewUserListener= */
-                this).execute(getContext().getString(R.string.user_new_user_name));
+        mAddNewUserTask = new AddNewUserTask(getContext(), mCarUserManagerHelper,
+                /* addNewUserListener= */ this).execute(
+                getContext().getString(R.string.user_new_user_name));
         mIsBusy = true;
         updateUi();
     };
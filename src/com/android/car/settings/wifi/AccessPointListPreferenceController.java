@@ -20,8 +20,10 @@ import android.car.drivingstate.CarUxRestrictions;
 import android.car.drivingstate.CarUxRestrictionsManager;
 import android.content.Context;
 import android.net.wifi.WifiManager;
+import android.util.ArrayMap;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
 
@@ -34,9 +36,11 @@ import com.android.settingslib.wifi.AccessPoint;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Renders a list of {@link AccessPoint} as a list of preferences.
+ * Renders a list of {@link AccessPoint} as a list of preferences. Preferences are kept across
+ * updates and matched to access points by key, so a scan only changes the rows that changed.
  */
 public class AccessPointListPreferenceController extends
         WifiBasePreferenceController<PreferenceGroup> implements
@@ -47,6 +51,11 @@ public class AccessPointListPreferenceController extends
     private final WifiManager.ActionListener mConnectionListener =
             new WifiUtil.ActionFailedListener(getContext(), R.string.wifi_failed_connect_message);
     private List<AccessPoint> mAccessPoints = new ArrayList<>();
+    private Map<String, AccessPointPreference> mPreferencesByKey = new ArrayMap<>();
+    private final List<AccessPointPreference> mUnkeyedPreferences = new ArrayList<>();
+    private int mCreatedPreferenceCount;
+    private int mReusedPreferenceCount;
+    private int mRemovedPreferenceCount;
 
     public AccessPointListPreferenceController(@NonNull Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
@@ -69,10 +78,83 @@ public class AccessPointListPreferenceController extends
         LOG.d("showing accessPoints: " + mAccessPoints.size());
 
         preferenceGroup.setVisible(!mAccessPoints.isEmpty());
-        preferenceGroup.removeAll();
-        for (AccessPoint accessPoint : mAccessPoints) {
-            preferenceGroup.addPreference(createAccessPointPreference(accessPoint));
+        reconcilePreferences(preferenceGroup);
+    }
+
+    /**
+     * Updates {@code preferenceGroup} to show {@link #mAccessPoints}, matching preferences to
+     * access points by {@link AccessPoint#getKey()}. Matched preferences only have their changed
+     * fields updated and are moved if their position changed. Preferences are only created for new
+     * access points and only removed for access points which are gone.
+     */
+    private void reconcilePreferences(PreferenceGroup preferenceGroup) {
+        int created = 0;
+        int reused = 0;
+        int removed = 0;
+        Map<String, AccessPointPreference> previous = mPreferencesByKey;
+        mPreferencesByKey = new ArrayMap<>(mAccessPoints.size());
+        for (AccessPointPreference preference : mUnkeyedPreferences) {
+            preferenceGroup.removePreference(preference);
+            removed++;
+        }
+        mUnkeyedPreferences.clear();
+
+        for (int i = 0; i < mAccessPoints.size(); i++) {
+            AccessPoint accessPoint = mAccessPoints.get(i);
+            String key = accessPoint.getKey();
+            AccessPointPreference preference = key != null ? previous.remove(key) : null;
+            if (preference != null && !canReuse(preference, accessPoint)) {
+                preferenceGroup.removePreference(preference);
+                removed++;
+                preference = null;
+            }
+            if (preference == null) {
+                preference = createAccessPointPreference(accessPoint);
+                preference.setOrder(i);
+                preferenceGroup.addPreference(preference);
+                created++;
+            } else {
+                preference.setAccessPoint(accessPoint);
+                updateAccessPointPreference(preference, accessPoint);
+                preference.setOrder(i);
+                reused++;
+            }
+            if (key == null || mPreferencesByKey.containsKey(key)) {
+                // Without a unique key the preference cannot be matched in the next update.
+                mUnkeyedPreferences.add(preference);
+            } else {
+                mPreferencesByKey.put(key, preference);
+            }
+        }
+
+        for (AccessPointPreference preference : previous.values()) {
+            preferenceGroup.removePreference(preference);
+            removed++;
         }
+
+        mCreatedPreferenceCount += created;
+        mReusedPreferenceCount += reused;
+        mRemovedPreferenceCount += removed;
+        LOG.d("preferences created: " + created + ", reused: " + reused + ", removed: "
+                + removed);
+    }
+
+    /** Returns the number of access point preferences created since the controller was created. */
+    @VisibleForTesting
+    int getCreatedPreferenceCount() {
+        return mCreatedPreferenceCount;
+    }
+
+    /** Returns the number of access point preferences reused since the controller was created. */
+    @VisibleForTesting
+    int getReusedPreferenceCount() {
+        return mReusedPreferenceCount;
+    }
+
+    /** Returns the number of access point preferences removed since the controller was created. */
+    @VisibleForTesting
+    int getRemovedPreferenceCount() {
+        return mRemovedPreferenceCount;
     }
 
     @Override
@@ -81,15 +163,23 @@ public class AccessPointListPreferenceController extends
         // regardless of the restriction. Intentional no-op.
     }
 
+    @Override
+    protected boolean isUxRestrictionsChangeRelevant(CarUxRestrictions previousUxRestrictions,
+            CarUxRestrictions uxRestrictions) {
+        // The list shows only saved networks when setup is restricted.
+        return CarUxRestrictionsHelper.isNoSetup(previousUxRestrictions)
+                != CarUxRestrictionsHelper.isNoSetup(uxRestrictions);
+    }
+
     @Override
     public void onAccessPointsChanged() {
-        refreshUi();
+        requestRefreshUi();
     }
 
     @Override
     public void onWifiStateChanged(int state) {
         if (state == WifiManager.WIFI_STATE_ENABLED) {
-            refreshUi();
+            requestRefreshUi();
         }
     }
 
@@ -122,20 +212,45 @@ public class AccessPointListPreferenceController extends
         AccessPointPreference accessPointPreference = new AccessPointPreference(getContext(),
                 accessPoint);
         accessPointPreference.setKey(accessPoint.getKey());
-        accessPointPreference.setTitle(accessPoint.getConfigName());
-        accessPointPreference.setDialogTitle(accessPoint.getConfigName());
-        accessPointPreference.setSummary(accessPoint.getSummary());
         accessPointPreference.setOnPreferenceClickListener(this);
         accessPointPreference.setOnPreferenceChangeListener(this);
         accessPointPreference.showButton(false);
 
-        if (accessPoint.isSaved() && WifiUtil.isAccessPointDisabledByWrongPassword(accessPoint)) {
+        if (hasForgetButton(accessPoint)) {
             accessPointPreference.setWidgetLayoutResource(R.layout.delete_preference_widget);
             accessPointPreference.setOnButtonClickListener(
-                    preference -> WifiUtil.forget(getContext(), accessPoint));
-            accessPointPreference.showButton(true);
+                    preference -> WifiUtil.forget(getContext(),
+                            ((AccessPointPreference) preference).getAccessPoint()));
         }
+        updateAccessPointPreference(accessPointPreference, accessPoint);
 
         return accessPointPreference;
     }
+
+    /** Updates the fields of {@code preference} which depend on the state of the access point. */
+    private void updateAccessPointPreference(AccessPointPreference preference,
+            AccessPoint accessPoint) {
+        // The setters below are no-ops when the value is unchanged.
+        preference.setTitle(accessPoint.getConfigName());
+        preference.setDialogTitle(accessPoint.getConfigName());
+        preference.setSummary(accessPoint.getSummary());
+        boolean showButton = hasForgetButton(accessPoint);
+        if (preference.isButtonShown() != showButton) {
+            preference.showButton(showButton);
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code preference} can show {@code accessPoint}. The widget layout
+     * of a preference cannot change once it is shown, so a preference which gains the forget
+     * button is recreated.
+     */
+    private boolean canReuse(AccessPointPreference preference, AccessPoint accessPoint) {
+        return !hasForgetButton(accessPoint)
+                || preference.getWidgetLayoutResource() == R.layout.delete_preference_widget;
+    }
+
+    private static boolean hasForgetButton(AccessPoint accessPoint) {
+        return accessPoint.isSaved() && WifiUtil.isAccessPointDisabledByWrongPassword(accessPoint);
+    }
 }
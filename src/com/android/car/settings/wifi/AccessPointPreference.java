@@ -35,7 +35,9 @@ public class AccessPointPreference extends ButtonPasswordEditTextPreference {
     private static int[] sWifiSignalAttributes = {com.android.settingslib.R.attr.wifi_signal};
 
     private final StateListDrawable mWifiSld;
-    private final AccessPoint mAccessPoint;
+    private AccessPoint mAccessPoint;
+    private int mLevel;
+    private int mSecurity;
 
     public AccessPointPreference(
             Context context,
@@ -45,6 +47,8 @@ public class AccessPointPreference extends ButtonPasswordEditTextPreference {
                 .obtainStyledAttributes(sWifiSignalAttributes).getDrawable(0);
         mAccessPoint = accessPoint;
         LOG.d("creating preference for ap: " + mAccessPoint);
+        mLevel = accessPoint.getLevel();
+        mSecurity = accessPoint.getSecurity();
         setIcon(getAccessPointIcon());
     }
 
@@ -55,6 +59,22 @@ public class AccessPointPreference extends ButtonPasswordEditTextPreference {
         return mAccessPoint;
     }
 
+    /**
+     * Sets the {@link AccessPoint} shown by this preference, e.g. when the same network is found
+     * by a new scan. The icon is only updated if the signal level or security changed.
+     */
+    public void setAccessPoint(AccessPoint accessPoint) {
+        mAccessPoint = accessPoint;
+        int level = accessPoint.getLevel();
+        int security = accessPoint.getSecurity();
+        if (level != mLevel || security != mSecurity) {
+            mLevel = level;
+            mSecurity = security;
+            // The signal drawable is shared, so a changed level alone does not change the icon.
+            notifyChanged();
+        }
+    }
+
     @Override
     public void onBindViewHolder(PreferenceViewHolder holder) {
         super.onBindViewHolder(holder);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.wifi;
+
+import android.annotation.Nullable;
+import android.net.NetworkInfo;
+
+import com.android.settingslib.wifi.AccessPoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the reachable access points of a single scan. The views needed by {@link
+ * CarWifiManager} consumers are computed once when the snapshot is created.
+ */
+final class AccessPointSnapshot {
+
+    private final int mVersion;
+    private final List<AccessPoint> mAllAccessPoints;
+    private final List<AccessPoint> mSavedAccessPoints;
+    @Nullable
+    private final AccessPoint mConnectedAccessPoint;
+
+    /**
+     * Creates a snapshot of {@code accessPoints}. Access points which are out of reach are
+     * ignored.
+     */
+    AccessPointSnapshot(int version, List<AccessPoint> accessPoints) {
+        mVersion = version;
+        List<AccessPoint> all = new ArrayList<>(accessPoints.size());
+        List<AccessPoint> saved = new ArrayList<>();
+        AccessPoint connected = null;
+        for (AccessPoint accessPoint : accessPoints) {
+            if (!accessPoint.isReachable()) {
+                continue;
+            }
+            all.add(accessPoint);
+            if (accessPoint.isSaved()) {
+                saved.add(accessPoint);
+            }
+            if (connected == null
+                    && accessPoint.getDetailedState() == NetworkInfo.DetailedState.CONNECTED) {
+                connected = accessPoint;
+            }
+        }
+        mAllAccessPoints = Collections.unmodifiableList(all);
+        mSavedAccessPoints = Collections.unmodifiableList(saved);
+        mConnectedAccessPoint = connected;
+    }
+
+    /** Returns the version of the scan results this snapshot was created from. */
+    int getVersion() {
+        return mVersion;
+    }
+
+    /** Returns the unmodifiable list of reachable access points. */
+    List<AccessPoint> getAllAccessPoints() {
+        return mAllAccessPoints;
+    }
+
+    /** Returns the unmodifiable list of reachable saved access points. */
+    List<AccessPoint> getSavedAccessPoints() {
+        return mSavedAccessPoints;
+    }
+
+    /** Returns the connected access point or {@code null} if there is none. */
+    @Nullable
+    AccessPoint getConnectedAccessPoint() {
+        return mConnectedAccessPoint;
+    }
+}
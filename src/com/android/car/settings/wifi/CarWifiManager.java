@@ -17,25 +17,62 @@ package com.android.car.settings.wifi;
 
 import android.annotation.Nullable;
 import android.content.Context;
-import android.net.NetworkInfo;
 import android.net.wifi.WifiConfiguration;
 import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
 
+import com.android.car.settings.R;
+import com.android.car.settings.common.Logger;
 import com.android.settingslib.wifi.AccessPoint;
 import com.android.settingslib.wifi.WifiTracker;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Manages Wifi configuration: e.g. monitors wifi states, change wifi setting etc.
+ *
+ * <p>The access points of each scan are kept in one immutable {@link AccessPointSnapshot} which is
+ * shared by all callers until the next change. {@link Listener#onAccessPointsChanged()} is
+ * delivered at most once per {@code config_wifi_access_points_changed_min_interval_ms}.
+ *
+ * <p>A single instance is shared by the whole process. Callers obtain it with {@link
+ * #acquire(Context)} and must balance it with {@link #release()}. Calls to {@link #start()} and
+ * {@link #stop()} are counted, so the underlying {@link WifiTracker} keeps scanning while any
+ * caller is started. The tracker is only stopped {@link #TRACKER_STOP_DELAY_MS} after the last
+ * caller stops, which keeps the access point list warm when moving between screens.
  */
 public class CarWifiManager implements WifiTracker.WifiListener {
+    private static final Logger LOG = new Logger(CarWifiManager.class);
+
+    @VisibleForTesting
+    static final long TRACKER_STOP_DELAY_MS = 1000;
+
+    private static CarWifiManager sInstance;
+    private static int sReferenceCount;
+
     private final Context mContext;
     private final List<Listener> mListeners = new ArrayList<>();
-    private boolean mStarted;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mDeliverAccessPointsChanged = this::deliverAccessPointsChanged;
+    private final Runnable mStopTracker = this::stopTracker;
+    private final long mMinAccessPointsChangedIntervalMs;
+    private int mStartCount;
+    private boolean mIsTrackerStarted;
+
+    @Nullable
+    private AccessPointSnapshot mSnapshot;
+    private int mVersion;
+    private int mDeliveredVersion = -1;
+    private boolean mHasDelivered;
+    private long mLastDeliveryUptimeMs;
+    private boolean mIsDeliveryScheduled;
 
     private WifiTracker mWifiTracker;
     private WifiManager mWifiManager;
@@ -62,10 +99,56 @@ public class CarWifiManager implements WifiTracker.WifiListener {
         void onWifiStateChanged(int state);
     }
 
-    public CarWifiManager(Context context) {
+    @VisibleForTesting
+    CarWifiManager(Context context) {
+        this(context, /* wifiTracker= */ null);
+    }
+
+    @VisibleForTesting
+    CarWifiManager(Context context, @Nullable WifiTracker wifiTracker) {
         mContext = context;
         mWifiManager = mContext.getSystemService(WifiManager.class);
-        mWifiTracker = new WifiTracker(context, this, true, true);
+        mWifiTracker = wifiTracker != null ? wifiTracker
+                : new WifiTracker(context, this, true, true);
+        mMinAccessPointsChangedIntervalMs = context.getResources().getInteger(
+                R.integer.config_wifi_access_points_changed_min_interval_ms);
+    }
+
+    /**
+     * Returns the shared {@link CarWifiManager}, creating it if no other caller holds it. Every
+     * call must be balanced by a call to {@link #release()}.
+     * This should be called only from main thread.
+     */
+    @UiThread
+    public static CarWifiManager acquire(Context context) {
+        if (sInstance == null) {
+            sInstance = new CarWifiManager(context.getApplicationContext());
+        }
+        sReferenceCount++;
+        return sInstance;
+    }
+
+    /**
+     * Releases a reference obtained from {@link #acquire(Context)}. The underlying tracker is
+     * destroyed when the last reference is released.
+     * This should be called only from main thread.
+     */
+    @UiThread
+    public void release() {
+        if (sInstance != this || sReferenceCount == 0) {
+            LOG.w("release() called without a matching acquire()");
+            return;
+        }
+        sReferenceCount--;
+        if (sReferenceCount == 0) {
+            mHandler.removeCallbacks(mStopTracker);
+            if (mIsTrackerStarted) {
+                stopTracker();
+            }
+            mWifiTracker.onDestroy();
+            mListeners.clear();
+            sInstance = null;
+        }
     }
 
     /**
@@ -83,78 +166,74 @@ public class CarWifiManager implements WifiTracker.WifiListener {
     }
 
     /**
-     * Starts {@link CarWifiManager}.
+     * Starts {@link CarWifiManager}. Each call must be balanced by a call to {@link #stop()}.
      * This should be called only from main thread.
      */
     @UiThread
     public void start() {
-        if (!mStarted) {
-            mStarted = true;
+        mStartCount++;
+        mHandler.removeCallbacks(mStopTracker);
+        if (!mIsTrackerStarted) {
+            mIsTrackerStarted = true;
             mWifiTracker.onStart();
         }
     }
 
     /**
-     * Stops {@link CarWifiManager}.
+     * Stops {@link CarWifiManager}. The tracker keeps running while other callers are started,
+     * and briefly after the last one stops in case another screen starts right away.
      * This should be called only from main thread.
      */
     @UiThread
     public void stop() {
-        if (mStarted) {
-            mStarted = false;
-            mWifiTracker.onStop();
+        if (mStartCount == 0) {
+            LOG.w("stop() called without a matching start()");
+            return;
+        }
+        mStartCount--;
+        if (mStartCount == 0 && mIsTrackerStarted) {
+            mHandler.postDelayed(mStopTracker, TRACKER_STOP_DELAY_MS);
         }
     }
 
-    /**
-     * Destroys {@link CarWifiManager}
-     * This should only be called from main thread.
-     */
-    @UiThread
-    public void destroy() {
-        mWifiTracker.onDestroy();
+    private void stopTracker() {
+        mIsTrackerStarted = false;
+        mWifiTracker.onStop();
+        // Listeners refresh when they start again, so a pending delivery is not needed.
+        mHandler.removeCallbacks(mDeliverAccessPointsChanged);
+        mIsDeliveryScheduled = false;
     }
 
     /**
-     * Returns a list of all reachable access points.
+     * Returns the unmodifiable list of all reachable access points.
      */
     public List<AccessPoint> getAllAccessPoints() {
-        return getAccessPoints(false);
+        return getSnapshot().getAllAccessPoints();
     }
 
     /**
-     * Returns a list of saved access points.
+     * Returns the unmodifiable list of saved access points.
      */
     public List<AccessPoint> getSavedAccessPoints() {
-        return getAccessPoints(true);
+        return getSnapshot().getSavedAccessPoints();
     }
 
-    private List<AccessPoint> getAccessPoints(boolean saved) {
-        List<AccessPoint> accessPoints = new ArrayList<AccessPoint>();
-        if (mWifiManager.isWifiEnabled()) {
-            for (AccessPoint accessPoint : mWifiTracker.getAccessPoints()) {
-                // ignore out of reach access points.
-                if (shouldIncludeAp(accessPoint, saved)) {
-                    accessPoints.add(accessPoint);
-                }
-            }
-        }
-        return accessPoints;
+    @Nullable
+    public AccessPoint getConnectedAccessPoint() {
+        return getSnapshot().getConnectedAccessPoint();
     }
 
-    private boolean shouldIncludeAp(AccessPoint accessPoint, boolean saved) {
-        return saved ? accessPoint.isReachable() && accessPoint.isSaved()
-                : accessPoint.isReachable();
+    private AccessPointSnapshot getSnapshot() {
+        if (mSnapshot == null) {
+            mSnapshot = new AccessPointSnapshot(mVersion, mWifiManager.isWifiEnabled()
+                    ? mWifiTracker.getAccessPoints() : Collections.emptyList());
+        }
+        return mSnapshot;
     }
 
-    @Nullable
-    public AccessPoint getConnectedAccessPoint() {
-        for (AccessPoint accessPoint : getAllAccessPoints()) {
-            if (accessPoint.getDetailedState() == NetworkInfo.DetailedState.CONNECTED) {
-                return accessPoint;
-            }
-        }
-        return null;
+    private void invalidateSnapshot() {
+        mSnapshot = null;
+        mVersion++;
     }
 
     /**
@@ -232,18 +311,39 @@ public class CarWifiManager implements WifiTracker.WifiListener {
 
     @Override
     public void onWifiStateChanged(int state) {
-        for (Listener listener : mListeners) {
+        invalidateSnapshot();
+        for (Listener listener : new ArrayList<>(mListeners)) {
             listener.onWifiStateChanged(state);
         }
     }
 
     @Override
     public void onConnectedChanged() {
+        invalidateSnapshot();
     }
 
     @Override
     public void onAccessPointsChanged() {
-        for (Listener listener : mListeners) {
+        invalidateSnapshot();
+        long nextDeliveryUptimeMs = mLastDeliveryUptimeMs + mMinAccessPointsChangedIntervalMs;
+        if (!mHasDelivered || SystemClock.uptimeMillis() >= nextDeliveryUptimeMs) {
+            mHandler.removeCallbacks(mDeliverAccessPointsChanged);
+            deliverAccessPointsChanged();
+        } else if (!mIsDeliveryScheduled) {
+            mIsDeliveryScheduled = true;
+            mHandler.postAtTime(mDeliverAccessPointsChanged, nextDeliveryUptimeMs);
+        }
+    }
+
+    private void deliverAccessPointsChanged() {
+        mIsDeliveryScheduled = false;
+        if (mVersion == mDeliveredVersion) {
+            return;
+        }
+        mDeliveredVersion = mVersion;
+        mHasDelivered = true;
+        mLastDeliveryUptimeMs = SystemClock.uptimeMillis();
+        for (Listener listener : new ArrayList<>(mListeners)) {
             listener.onAccessPointsChanged();
         }
     }
@@ -42,7 +42,7 @@ public abstract class WifiBasePreferenceController<V extends Preference> extends
 
     @Override
     protected void onCreateInternal() {
-        mCarWifiManager = new CarWifiManager(getContext());
+        mCarWifiManager = CarWifiManager.acquire(getContext());
     }
 
     @Override
@@ -59,7 +59,7 @@ public abstract class WifiBasePreferenceController<V extends Preference> extends
 
     @Override
     protected void onDestroyInternal() {
-        mCarWifiManager.destroy();
+        mCarWifiManager.release();
     }
 
     @Override
@@ -34,7 +34,6 @@ public class WifiEntryPreferenceController extends PreferenceController<MasterSw
     public WifiEntryPreferenceController(Context context, String preferenceKey,
             FragmentController fragmentController, CarUxRestrictions uxRestrictions) {
         super(context, preferenceKey, fragmentController, uxRestrictions);
-        mCarWifiManager = new CarWifiManager(context);
     }
 
     @Override
@@ -44,6 +43,7 @@ public class WifiEntryPreferenceController extends PreferenceController<MasterSw
 
     @Override
     protected void onCreateInternal() {
+        mCarWifiManager = CarWifiManager.acquire(getContext());
         getPreference().setSwitchToggleListener((preference, isChecked) -> {
             if (isChecked != mCarWifiManager.isWifiEnabled()) {
                 mCarWifiManager.setWifiEnabled(isChecked);
@@ -51,6 +51,11 @@ public class WifiEntryPreferenceController extends PreferenceController<MasterSw
         });
     }
 
+    @Override
+    protected void onDestroyInternal() {
+        mCarWifiManager.release();
+    }
+
     @Override
     protected int getAvailabilityStatus() {
         return WifiUtil.isWifiAvailable(getContext()) ? AVAILABLE : UNSUPPORTED_ON_DEVICE;
@@ -72,7 +72,7 @@ public class WifiRequestToggleActivity extends Activity implements DialogInterfa
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        mCarWifiManager = new CarWifiManager(getApplicationContext());
+        mCarWifiManager = CarWifiManager.acquire(getApplicationContext());
 
         setResult(Activity.RESULT_CANCELED);
 
@@ -185,6 +185,12 @@ public class WifiRequestToggleActivity extends Activity implements DialogInterfa
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mCarWifiManager.release();
+    }
+
     private void updateUi() {
         if (mDialog != null) {
             mDialog.dismiss();
@@ -15,6 +15,7 @@
  */
 package com.android.car.settings.wifi;
 
+import android.content.Context;
 import android.net.wifi.WifiManager;
 import android.os.Bundle;
 import android.view.View;
@@ -51,11 +52,15 @@ public class WifiSettingsFragment extends SettingsFragment
         return R.xml.wifi_list_fragment;
     }
 
+    @Override
+    public void onAttach(Context context) {
+        super.onAttach(context);
+        mCarWifiManager = CarWifiManager.acquire(context);
+    }
+
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
-        mCarWifiManager = new CarWifiManager(getContext());
-
         mProgressBar = requireActivity().findViewById(R.id.progress_bar);
         setupWifiSwitch();
     }
@@ -79,7 +84,7 @@ public class WifiSettingsFragment extends SettingsFragment
     @Override
     public void onDestroy() {
         super.onDestroy();
-        mCarWifiManager.destroy();
+        mCarWifiManager.release();
     }
 
     @Override
@@ -46,7 +46,7 @@ public abstract class WifiTetherBasePreferenceController<V extends Preference> e
     @Override
     @CallSuper
     protected void onCreateInternal() {
-        mCarWifiManager = new CarWifiManager(getContext());
+        mCarWifiManager = CarWifiManager.acquire(getContext());
     }
 
     @Override
@@ -65,7 +65,7 @@ public abstract class WifiTetherBasePreferenceController<V extends Preference> e
     @Override
     @CallSuper
     protected void onDestroyInternal() {
-        mCarWifiManager.destroy();
+        mCarWifiManager.release();
     }
 
     @Override
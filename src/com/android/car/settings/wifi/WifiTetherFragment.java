@@ -71,7 +71,7 @@ public class WifiTetherFragment extends SettingsFragment implements Switch.OnChe
     public void onAttach(Context context) {
         super.onAttach(context);
 
-        mCarWifiManager = new CarWifiManager(context);
+        mCarWifiManager = CarWifiManager.acquire(context);
         mConnectivityManager = (ConnectivityManager) getContext().getSystemService(
                 Context.CONNECTIVITY_SERVICE);
     }
@@ -105,7 +105,7 @@ public class WifiTetherFragment extends SettingsFragment implements Switch.OnChe
     @Override
     public void onDestroy() {
         super.onDestroy();
-        mCarWifiManager.destroy();
+        mCarWifiManager.release();
     }
 
     @Override
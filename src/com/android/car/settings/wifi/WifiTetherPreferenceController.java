@@ -47,4 +47,10 @@ public class WifiTetherPreferenceController extends PreferenceController<Prefere
     protected int getAvailabilityStatus() {
         return  mConnectivityManager.isTetheringSupported() ? AVAILABLE : UNSUPPORTED_ON_DEVICE;
     }
+
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        // Tethering support is fixed for the device.
+        return true;
+    }
 }
@@ -87,12 +87,12 @@ public abstract class WifiDetailsBasePreferenceController<V extends Preference>
     @Override
     public void onWifiConfigurationChanged(WifiConfiguration wifiConfiguration,
             NetworkInfo networkInfo, WifiInfo wifiInfo) {
-        refreshUi();
+        requestRefreshUi();
     }
 
     @Override
     public void onLinkPropertiesChanged(Network network, LinkProperties lp) {
-        refreshUi();
+        requestRefreshUi();
     }
 
     @Override
@@ -27,6 +27,7 @@ import android.accounts.Account;
 import android.accounts.AccountManager;
 import android.accounts.AuthenticatorDescription;
 import android.car.userlib.CarUserManagerHelper;
+import android.content.Intent;
 import android.content.pm.UserInfo;
 import android.os.UserHandle;
 
@@ -48,6 +49,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadow.api.Shadow;
 
@@ -106,6 +108,7 @@ public class AccountListPreferenceControllerTest {
     @Test
     public void refreshUi_hasNoAccounts_shouldDisplayNoAccountPref() {
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(1);
         Preference noAccountPref = mPreferenceCategory.getPreference(0);
@@ -120,6 +123,7 @@ public class AccountListPreferenceControllerTest {
         addAccount(/* name= */ "Account2", /* type= */ "com.acct2");
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
 
@@ -141,6 +145,7 @@ public class AccountListPreferenceControllerTest {
         addAccount(/* name= */ "Account3", /* type= */ "com.acct3");
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
 
@@ -159,12 +164,14 @@ public class AccountListPreferenceControllerTest {
         addAccount(/* name= */ "Account2", /* type= */ "com.acct2");
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
 
         getShadowAccountManager().removeAllAccounts();
         addAccount(/* name= */ "Account3", /* type= */ "com.acct1");
 
         mController.onAccountsUpdate(new UserHandle(USER_ID));
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(1);
         Preference firstPref = mPreferenceCategory.getPreference(0);
@@ -178,12 +185,14 @@ public class AccountListPreferenceControllerTest {
         addAccount(/* name= */ "Account2", /* type= */ "com.acct2");
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
 
         getShadowAccountManager().removeAllAccounts();
         addAccount(/* name= */ "Account3", /* type= */ "com.acct1");
 
         mController.onAccountsUpdate(new UserHandle(NOT_THIS_USER_ID));
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
     }
@@ -194,12 +203,14 @@ public class AccountListPreferenceControllerTest {
         addAccount(/* name= */ "Account2", /* type= */ "com.acct2");
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
 
         getShadowAccountManager().removeAllAccounts();
         addAccount(/* name= */ "Account3", /* type= */ "com.acct1");
 
         mController.onUsersUpdate();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(1);
         Preference firstPref = mPreferenceCategory.getPreference(0);
@@ -207,10 +218,52 @@ public class AccountListPreferenceControllerTest {
         assertThat(firstPref.getSummary()).isEqualTo("Type 1");
     }
 
+    @Test
+    public void refreshUi_sameAccounts_reusesPreferences() {
+        addAccount(/* name= */ "Account1", /* type= */ "com.acct1");
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        Preference firstPref = mPreferenceCategory.getPreference(0);
+
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(1);
+        assertThat(mPreferenceCategory.getPreference(0)).isSameAs(firstPref);
+    }
+
+    @Test
+    public void refreshUi_multipleTimes_appliesLatestLoadOnly() {
+        addAccount(/* name= */ "Account1", /* type= */ "com.acct1");
+        mController.refreshUi();
+        addAccount(/* name= */ "Account2", /* type= */ "com.acct2");
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void started_accountsChangedBroadcast_reloadsAccountTypes() {
+        mHelper.markState(Lifecycle.State.STARTED);
+        Robolectric.flushBackgroundThreadScheduler();
+        assertThat(mPreferenceCategory.getPreference(0).getTitle()).isEqualTo(
+                application.getString(R.string.no_accounts_added));
+
+        // The account type becomes enabled once it has an account.
+        addAccount(/* name= */ "Account1", /* type= */ "com.acct1");
+        application.sendBroadcast(new Intent(AccountManager.LOGIN_ACCOUNTS_CHANGED_ACTION));
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(1);
+        assertThat(mPreferenceCategory.getPreference(0).getTitle()).isEqualTo("Account1");
+    }
+
     @Test
     public void onAccountPreferenceClicked_shouldLaunchAccountDetailsFragment() {
         addAccount(/* name= */ "Account1", /* type= */ "com.acct1");
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         Preference firstPref = mPreferenceCategory.getPreference(0);
         firstPref.performClick();
@@ -29,6 +29,7 @@ import android.content.Context;
 import android.content.SyncAdapterType;
 import android.content.SyncInfo;
 import android.content.SyncStatusInfo;
+import android.content.SyncStatusObserver;
 import android.content.pm.PackageInfo;
 import android.content.pm.ProviderInfo;
 import android.os.Bundle;
@@ -51,9 +52,11 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
 import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -117,6 +120,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncAdapterTypes(syncAdapters);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -130,6 +134,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncAdapterTypes(syncAdapters);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -145,6 +150,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setIsSyncable(mAccount, AUTHORITY, /* syncable= */ NOT_SYNCABLE);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -162,6 +168,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         // However, no provider info is set for the sync adapter, so it shouldn't be visible.
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -187,6 +194,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         getShadowApplicationManager().addPackage(packageInfo);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -212,6 +220,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         getShadowApplicationManager().addPackage(packageInfo);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -227,6 +236,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
@@ -242,6 +252,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
@@ -257,6 +268,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
@@ -271,6 +283,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 mUserHandle.getIdentifier());
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -291,6 +304,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setCurrentSyncs(syncs);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -309,6 +323,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncStatus(mAccount, AUTHORITY, status);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -334,6 +349,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncStatus(mAccount, AUTHORITY, status);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -354,6 +370,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncStatus(mAccount, AUTHORITY, status);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -376,6 +393,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ShadowContentResolver.setSyncStatus(mAccount, AUTHORITY, status);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -389,6 +407,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         setUpVisibleSyncAdapters(AUTHORITY);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
         Preference pref = mPreferenceGroup.getPreference(0);
@@ -402,10 +421,12 @@ public class AccountSyncDetailsPreferenceControllerTest {
         setUpVisibleSyncAdapters(AUTHORITY);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
 
         ShadowContentResolver.reset();
         mController.onAccountsUpdate(mUserHandle);
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -415,14 +436,95 @@ public class AccountSyncDetailsPreferenceControllerTest {
         setUpVisibleSyncAdapters(AUTHORITY);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
 
         ShadowContentResolver.reset();
         mController.onAccountsUpdate(new UserHandle(NOT_USER_ID));
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
     }
 
+    @Test
+    public void refreshUi_existingSyncAdapter_preferenceReused() {
+        setUpVisibleSyncAdapters(AUTHORITY);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        Preference pref = mPreferenceGroup.getPreference(0);
+
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
+        assertThat(mPreferenceGroup.getPreference(0)).isSameAs(pref);
+    }
+
+    @Test
+    public void onSyncStatusChanged_multipleChanges_loadsOnce() {
+        setUpVisibleSyncAdapters(AUTHORITY);
+        Robolectric.flushBackgroundThreadScheduler();
+        SyncStatusObserver observer = ShadowContentResolver.getStatusChangeListener();
+
+        ShadowLooper.pauseMainLooper();
+        observer.onStatusChanged(ContentResolver.SYNC_OBSERVER_TYPE_ACTIVE);
+        observer.onStatusChanged(ContentResolver.SYNC_OBSERVER_TYPE_STATUS);
+        observer.onStatusChanged(ContentResolver.SYNC_OBSERVER_TYPE_ACTIVE);
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(Robolectric.getBackgroundThreadScheduler().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void onSyncStatusChanged_activelySyncing_summaryShouldBeUpdated() {
+        setUpVisibleSyncAdapters(AUTHORITY);
+        ContentResolver.setSyncAutomaticallyAsUser(mAccount, AUTHORITY, /* sync= */ true,
+                USER_ID);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        // Adds the sync adapter to the list of currently syncing adapters.
+        SyncInfo syncInfo = new SyncInfo(/* authorityId= */ 0, mAccount, AUTHORITY, /* startTime= */
+                0);
+        List<SyncInfo> syncs = new ArrayList<>();
+        syncs.add(syncInfo);
+        ShadowContentResolver.setCurrentSyncs(syncs);
+
+        ShadowContentResolver.getStatusChangeListener().onStatusChanged(
+                ContentResolver.SYNC_OBSERVER_TYPE_ACTIVE);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        Preference pref = mPreferenceGroup.getPreference(0);
+        assertThat(pref.getSummary()).isEqualTo(mContext.getString(R.string.sync_in_progress));
+    }
+
+    @Test
+    public void onSyncStatusChanged_statusChange_shouldNotReloadSyncAdapters() {
+        setUpVisibleSyncAdapters(AUTHORITY);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        ShadowContentResolver.setIsSyncable(mAccount, AUTHORITY, /* syncable= */ NOT_SYNCABLE);
+
+        ShadowContentResolver.getStatusChangeListener().onStatusChanged(
+                ContentResolver.SYNC_OBSERVER_TYPE_STATUS);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onSyncStatusChanged_settingsChange_shouldReloadSyncAdapters() {
+        setUpVisibleSyncAdapters(AUTHORITY);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        ShadowContentResolver.setIsSyncable(mAccount, AUTHORITY, /* syncable= */ NOT_SYNCABLE);
+
+        ShadowContentResolver.getStatusChangeListener().onStatusChanged(
+                ContentResolver.SYNC_OBSERVER_TYPE_SETTINGS);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
+    }
+
     @Test
     public void onSyncPreferenceClicked_preferenceUnchecked_shouldSetSyncAutomaticallyOff() {
         setUpVisibleSyncAdapters(AUTHORITY);
@@ -434,6 +536,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
         pref.performClick();
 
@@ -452,6 +555,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
         pref.performClick();
 
@@ -469,6 +573,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
         pref.performClick();
 
@@ -486,6 +591,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
                 USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
 
         // Sets master sync off
@@ -504,6 +610,7 @@ public class AccountSyncDetailsPreferenceControllerTest {
         ContentResolver.setMasterSyncAutomaticallyAsUser(/* sync= */ false, USER_ID);
 
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         SyncPreference pref = (SyncPreference) mPreferenceGroup.getPreference(0);
         pref.performClick();
 
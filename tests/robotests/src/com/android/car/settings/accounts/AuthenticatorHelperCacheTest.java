@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.accounts;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.accounts.AccountManager;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Process;
+import android.os.UserHandle;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.testutils.ShadowAccountManager;
+import com.android.car.settings.testutils.ShadowContentResolver;
+import com.android.settingslib.accounts.AuthenticatorHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/** Unit test for {@link AuthenticatorHelperCache}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+@Config(shadows = {ShadowContentResolver.class, ShadowAccountManager.class})
+public class AuthenticatorHelperCacheTest {
+
+    private static final UserHandle USER_HANDLE = new UserHandle(0);
+
+    @Mock
+    private AuthenticatorHelper.OnAccountsUpdateListener mListener;
+    private Context mContext;
+    private AuthenticatorHelperCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = RuntimeEnvironment.application;
+        mCache = AuthenticatorHelperCache.getInstance(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowContentResolver.reset();
+    }
+
+    @Test
+    public void getAuthenticatorHelper_returnsCachedHelper() {
+        AuthenticatorHelper helper = mCache.getAuthenticatorHelper(USER_HANDLE);
+
+        assertThat(mCache.getAuthenticatorHelper(USER_HANDLE)).isSameAs(helper);
+    }
+
+    @Test
+    public void invalidate_rebuildsHelper() {
+        AuthenticatorHelper helper = mCache.getAuthenticatorHelper(USER_HANDLE);
+
+        mCache.invalidate();
+
+        assertThat(mCache.getAuthenticatorHelper(USER_HANDLE)).isNotSameAs(helper);
+    }
+
+    @Test
+    public void accountsChangedBroadcast_rebuildsHelperAndNotifiesListener() {
+        AuthenticatorHelper helper = mCache.getAuthenticatorHelper(USER_HANDLE);
+        mCache.addListener(mListener);
+
+        mContext.sendBroadcast(new Intent(AccountManager.LOGIN_ACCOUNTS_CHANGED_ACTION));
+
+        assertThat(mCache.getAuthenticatorHelper(USER_HANDLE)).isNotSameAs(helper);
+        verify(mListener).onAccountsUpdate(Process.myUserHandle());
+    }
+
+    @Test
+    public void packageChangedBroadcast_rebuildsHelper() {
+        AuthenticatorHelper helper = mCache.getAuthenticatorHelper(USER_HANDLE);
+
+        mContext.sendBroadcast(new Intent(Intent.ACTION_PACKAGE_CHANGED,
+                Uri.fromParts("package", "com.example.authenticator", /* fragment= */ null)));
+
+        assertThat(mCache.getAuthenticatorHelper(USER_HANDLE)).isNotSameAs(helper);
+    }
+
+    @Test
+    public void removeListener_notNotified() {
+        mCache.addListener(mListener);
+        mCache.removeListener(mListener);
+
+        mContext.sendBroadcast(new Intent(AccountManager.LOGIN_ACCOUNTS_CHANGED_ACTION));
+
+        verify(mListener, never()).onAccountsUpdate(any());
+    }
+}
@@ -21,6 +21,9 @@ import static android.content.pm.PackageManager.FEATURE_BLUETOOTH;
 import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.bluetooth.BluetoothAdapter;
@@ -255,6 +258,78 @@ public class BluetoothDevicesGroupPreferenceControllerTest {
         assertThat(mPreferenceGroup.isVisible()).isFalse();
     }
 
+    @Test
+    public void onDeviceAdded_doesNotReconcileAllDevices() {
+        when(mFilter.matches(any(BluetoothDevice.class))).thenReturn(true);
+        clearInvocations(mCachedDeviceManager);
+
+        mController.onDeviceAdded(mCachedDevice1);
+
+        verify(mCachedDeviceManager, never()).getCachedDevicesCopy();
+        assertThat(mController.getPreferenceMap()).containsKey(mCachedDevice1);
+    }
+
+    @Test
+    public void devicePreferenceUpdated_doesNotReconcileAllDevices() {
+        when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(
+                Arrays.asList(mCachedDevice1, mCachedDevice2));
+        when(mFilter.matches(any(BluetoothDevice.class))).thenReturn(true);
+        mController.refreshUi();
+        BluetoothDevicePreference devicePreference =
+                (BluetoothDevicePreference) mPreferenceGroup.getPreference(0);
+        clearInvocations(mCachedDeviceManager);
+
+        devicePreference.onAttached();
+
+        verify(mCachedDeviceManager, never()).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void refreshAllDevices_afterDeviceEvent_reEvaluatesFilterForAllDevices() {
+        when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(
+                Arrays.asList(mCachedDevice1, mCachedDevice2));
+        when(mFilter.matches(any(BluetoothDevice.class))).thenReturn(true);
+        mController.refreshUi();
+        mController.onDeviceAdded(mCachedDevice2);
+
+        when(mFilter.matches(mDevice1)).thenReturn(false);
+        mController.refreshAllDevices();
+
+        assertThat(mController.getPreferenceMap()).doesNotContainKey(mCachedDevice1);
+        assertThat(mController.getPreferenceMap()).containsKey(mCachedDevice2);
+    }
+
+    @Test
+    public void devicePreferenceUpdated_inOrder_doesNotSort() {
+        when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(
+                Arrays.asList(mCachedDevice1, mCachedDevice2));
+        when(mFilter.matches(any(BluetoothDevice.class))).thenReturn(true);
+        mController.refreshUi();
+        BluetoothDevicePreference devicePreference =
+                (BluetoothDevicePreference) mPreferenceGroup.getPreference(0);
+
+        devicePreference.onAttached();
+
+        assertThat(mController.getSortCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void devicePreferenceUpdated_outOfOrder_sorts() {
+        when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(
+                Arrays.asList(mCachedDevice1, mCachedDevice2));
+        when(mFilter.matches(any(BluetoothDevice.class))).thenReturn(true);
+        mController.refreshUi();
+        BluetoothDevicePreference first =
+                (BluetoothDevicePreference) mPreferenceGroup.getPreference(0);
+        BluetoothDevicePreference second =
+                (BluetoothDevicePreference) mPreferenceGroup.getPreference(1);
+        when(first.getCachedDevice().compareTo(second.getCachedDevice())).thenReturn(1);
+
+        first.onAttached();
+
+        assertThat(mController.getSortCount()).isEqualTo(1);
+    }
+
     @Test
     public void preferenceClicked_callsOnDeviceClicked() {
         when(mCachedDeviceManager.getCachedDevicesCopy()).thenReturn(
@@ -30,6 +30,7 @@ import android.bluetooth.BluetoothAdapter;
 import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.Intent;
+import android.os.UserManager;
 
 import androidx.lifecycle.Lifecycle;
 import androidx.preference.Preference;
@@ -111,6 +112,8 @@ public class BluetoothNamePreferenceControllerTest {
     public void refreshUi_userHasConfigRestriction_setsNotSelectable() {
         when(mCarUserManagerHelper.isCurrentProcessUserHasRestriction(
                 DISALLOW_CONFIG_BLUETOOTH)).thenReturn(true);
+        RuntimeEnvironment.application.sendBroadcast(
+                new Intent(UserManager.ACTION_USER_RESTRICTIONS_CHANGED));
 
         mController.refreshUi();
 
@@ -21,6 +21,8 @@ import static android.os.UserManager.DISALLOW_CONFIG_BLUETOOTH;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +32,7 @@ import android.car.drivingstate.CarUxRestrictions;
 import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.content.Intent;
+import android.os.SystemClock;
 
 import androidx.lifecycle.Lifecycle;
 import androidx.preference.PreferenceGroup;
@@ -56,6 +59,7 @@ import org.robolectric.RuntimeEnvironment;
 import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowLooper;
 import org.robolectric.util.ReflectionHelpers;
 
 import java.util.Collections;
@@ -114,6 +118,7 @@ public class BluetoothScanningDevicesGroupPreferenceControllerTest {
 
     @After
     public void tearDown() {
+        BluetoothScanningDevicesGroupPreferenceController.resetNonBondedDevicesCache();
         ShadowCarUserManagerHelper.reset();
         ShadowBluetoothAdapter.reset();
         ReflectionHelpers.setField(mLocalBluetoothManager, "mCachedDeviceManager",
@@ -143,6 +148,51 @@ public class BluetoothScanningDevicesGroupPreferenceControllerTest {
         assertThat(BluetoothAdapter.getDefaultAdapter().isDiscovering()).isTrue();
     }
 
+    @Test
+    public void onScanningStateChanged_noNewDevicesAfterBurst_backsOff() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        for (int i = 0; i < BluetoothDiscoveryScheduler.BURST_INQUIRY_COUNT; i++) {
+            BluetoothAdapter.getDefaultAdapter().cancelDiscovery();
+            mController.onScanningStateChanged(/* started= */ false);
+        }
+
+        assertThat(BluetoothAdapter.getDefaultAdapter().isDiscovering()).isFalse();
+        assertThat(mController.getDiscoveryScheduler().getInquiryCount()).isEqualTo(
+                BluetoothDiscoveryScheduler.BURST_INQUIRY_COUNT);
+    }
+
+    @Test
+    public void onScanningStateChanged_backedOff_restartsScanningAfterDelay() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        for (int i = 0; i < BluetoothDiscoveryScheduler.BURST_INQUIRY_COUNT; i++) {
+            BluetoothAdapter.getDefaultAdapter().cancelDiscovery();
+            mController.onScanningStateChanged(/* started= */ false);
+        }
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(BluetoothAdapter.getDefaultAdapter().isDiscovering()).isTrue();
+    }
+
+    @Test
+    public void onScanningStateChanged_newDevicesFound_restartsScanning() {
+        CachedBluetoothDevice newCachedDevice = mock(CachedBluetoothDevice.class);
+        when(newCachedDevice.getBondState()).thenReturn(BluetoothDevice.BOND_NONE);
+        when(newCachedDevice.getDevice()).thenReturn(mDevice);
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        for (int i = 0; i < BluetoothDiscoveryScheduler.BURST_INQUIRY_COUNT - 1; i++) {
+            BluetoothAdapter.getDefaultAdapter().cancelDiscovery();
+            mController.onScanningStateChanged(/* started= */ false);
+        }
+
+        mController.onDeviceAdded(newCachedDevice);
+        BluetoothAdapter.getDefaultAdapter().cancelDiscovery();
+        mController.onScanningStateChanged(/* started= */ false);
+
+        assertThat(BluetoothAdapter.getDefaultAdapter().isDiscovering()).isTrue();
+        assertThat(mController.getDiscoveryScheduler().getNewDeviceCount()).isEqualTo(1);
+    }
+
     @Test
     public void onScanningStateChanged_scanningDisabled_receiveStopped_doesNothing() {
         mControllerHelper.markState(Lifecycle.State.STARTED);
@@ -263,21 +313,47 @@ public class BluetoothScanningDevicesGroupPreferenceControllerTest {
     }
 
     @Test
-    public void onStop_clearsNonBondedDevices() {
+    public void refreshUi_afterStop_doesNotRestartScanning() {
         mControllerHelper.markState(Lifecycle.State.STARTED);
         mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_STOP);
 
-        verify(mCachedDeviceManager).clearNonBondedDevices();
+        mController.refreshUi();
+
+        assertThat(BluetoothAdapter.getDefaultAdapter().isDiscovering()).isFalse();
+        assertThat(BluetoothAdapter.getDefaultAdapter().getScanMode()).isNotEqualTo(
+                BluetoothAdapter.SCAN_MODE_CONNECTABLE_DISCOVERABLE);
     }
 
     @Test
-    public void onStop_clearsGroup() {
+    public void onStop_keepsNonBondedDevices() {
         mControllerHelper.markState(Lifecycle.State.STARTED);
+        mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_STOP);
+
+        verify(mCachedDeviceManager, never()).clearNonBondedDevices();
         assertThat(mPreferenceGroup.getPreferenceCount()).isGreaterThan(0);
+    }
 
+    @Test
+    public void onStart_withinCacheTimeout_keepsNonBondedDevices() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
         mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_STOP);
 
-        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(0);
+        mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_START);
+
+        verify(mCachedDeviceManager, never()).clearNonBondedDevices();
+    }
+
+    @Test
+    public void onStart_cacheTimedOut_clearsNonBondedDevices() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_STOP);
+        SystemClock.setCurrentTimeMillis(SystemClock.elapsedRealtime()
+                + BluetoothScanningDevicesGroupPreferenceController
+                .NON_BONDED_DEVICES_CACHE_TIMEOUT_MS + 1);
+
+        mControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_START);
+
+        verify(mCachedDeviceManager).clearNonBondedDevices();
     }
 
     @Test
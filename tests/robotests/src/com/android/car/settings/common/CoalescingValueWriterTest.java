@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Unit test for {@link CoalescingValueWriter}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class CoalescingValueWriterTest {
+
+    private final List<Integer> mWrittenValues = new ArrayList<>();
+    private CoalescingValueWriter mWriter;
+
+    @Before
+    public void setUp() {
+        mWriter = new CoalescingValueWriter(RuntimeEnvironment.application,
+                mWrittenValues::add);
+    }
+
+    @Test
+    public void set_firstValue_writesImmediately() {
+        mWriter.set(1);
+
+        assertThat(mWrittenValues).containsExactly(1);
+    }
+
+    @Test
+    public void set_withinInterval_keepsOnlyLatestValue() {
+        mWriter.set(1);
+        mWriter.set(2);
+        mWriter.set(3);
+        mWriter.set(4);
+
+        assertThat(mWrittenValues).containsExactly(1);
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(mWrittenValues).containsExactly(1, 4).inOrder();
+        assertThat(mWriter.getIssuedWriteCount()).isEqualTo(2);
+        assertThat(mWriter.getCoalescedWriteCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void commit_writesImmediatelyAndDropsPendingValue() {
+        mWriter.set(1);
+        mWriter.set(2);
+
+        mWriter.commit(3);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(mWrittenValues).containsExactly(1, 3).inOrder();
+        assertThat(mWriter.getCoalescedWriteCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void flush_writesPendingValue() {
+        mWriter.set(1);
+        mWriter.set(2);
+
+        mWriter.flush();
+
+        assertThat(mWrittenValues).containsExactly(1, 2).inOrder();
+    }
+
+    @Test
+    public void cancel_dropsPendingValue() {
+        mWriter.set(1);
+        mWriter.set(2);
+
+        mWriter.cancel();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(mWrittenValues).containsExactly(1);
+    }
+}
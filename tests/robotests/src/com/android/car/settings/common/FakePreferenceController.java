@@ -31,6 +31,7 @@ public class FakePreferenceController extends PreferenceController<Preference> {
 
     @AvailabilityStatus
     private int mAvailabilityStatus;
+    private boolean mIsAvailabilityStatusCacheable;
     private int mCheckInitializedCallCount;
     private int mOnCreateInternalCallCount;
     private int mOnStartInternalCallCount;
@@ -78,6 +79,15 @@ public class FakePreferenceController extends PreferenceController<Preference> {
         mAvailabilityStatus = availabilityStatus;
     }
 
+    @Override
+    protected boolean isAvailabilityStatusCacheable() {
+        return mIsAvailabilityStatusCacheable;
+    }
+
+    void setAvailabilityStatusCacheable(boolean cacheable) {
+        mIsAvailabilityStatusCacheable = cacheable;
+    }
+
     @Override
     protected void onCreateInternal() {
         mOnCreateInternalCallCount++;
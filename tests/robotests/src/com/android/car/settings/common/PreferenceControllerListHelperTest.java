@@ -63,6 +63,27 @@ public class PreferenceControllerListHelperTest {
         assertThat(foundKeys).containsAllIn(validKeys);
     }
 
+    @Test
+    public void getControllersFromManifest_createsControllersInOrder() {
+        List<PreferenceControllerEntry> entries = Arrays.asList(
+                PreferenceControllerEntry.forKey("key1",
+                        DefaultRestrictionsPreferenceController.class.getName(),
+                        DefaultRestrictionsPreferenceController::new),
+                PreferenceControllerEntry.forKey("key2",
+                        DefaultRestrictionsPreferenceController.class.getName(),
+                        DefaultRestrictionsPreferenceController::new));
+
+        List<PreferenceController> controllers =
+                PreferenceControllerListHelper.getPreferenceControllersFromManifest(
+                        RuntimeEnvironment.application, entries, mock(FragmentController.class),
+                        UX_RESTRICTIONS);
+
+        assertThat(controllers).hasSize(2);
+        assertThat(controllers.get(0)).isInstanceOf(DefaultRestrictionsPreferenceController.class);
+        assertThat(controllers.get(0).getPreferenceKey()).isEqualTo("key1");
+        assertThat(controllers.get(1).getPreferenceKey()).isEqualTo("key2");
+    }
+
     @Test
     public void getControllers_invalidController_throwsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class,
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.text.TextUtils;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test for the generated {@link PreferenceControllerManifest}.
+ */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class PreferenceControllerManifestTest {
+
+    @Test
+    public void getEntries_unknownScreen_returnsNull() {
+        assertThat(PreferenceControllerManifest.getEntries(
+                R.xml.preference_controller_list_helper_success)).isNull();
+    }
+
+    @Test
+    public void getEntries_matchesScreenXml() throws IOException, XmlPullParserException {
+        Context context = RuntimeEnvironment.application;
+        List<PreferenceControllerEntry> entries = PreferenceControllerManifest.getEntries(
+                R.xml.network_and_internet_fragment);
+
+        List<String> expected = new ArrayList<>();
+        for (Bundle metadata : PreferenceXmlParser.extractMetadata(context,
+                R.xml.network_and_internet_fragment,
+                PreferenceXmlParser.MetadataFlag.FLAG_NEED_KEY
+                        | PreferenceXmlParser.MetadataFlag.FLAG_NEED_PREF_CONTROLLER)) {
+            String controllerName = metadata.getString(PreferenceXmlParser.METADATA_CONTROLLER);
+            if (!TextUtils.isEmpty(controllerName)) {
+                expected.add(metadata.getString(PreferenceXmlParser.METADATA_KEY) + "="
+                        + controllerName);
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        for (PreferenceControllerEntry entry : entries) {
+            actual.add(entry.getKey(context) + "=" + entry.getControllerName());
+        }
+
+        assertThat(actual).containsExactlyElementsIn(expected).inOrder();
+    }
+}
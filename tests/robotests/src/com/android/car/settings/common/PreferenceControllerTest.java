@@ -232,6 +232,43 @@ public class PreferenceControllerTest {
         assertThat(mPreference.isEnabled()).isFalse();
     }
 
+    @Test
+    public void onScreenUxRestrictionsChanged_noSetupChanged_updatesState() {
+        mControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(mController.onScreenUxRestrictionsChanged(NO_SETUP_UX_RESTRICTIONS)).isTrue();
+
+        // onCreate, onScreenUxRestrictionsChanged.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(2);
+        verify(mPreference).setEnabled(false);
+    }
+
+    @Test
+    public void onScreenUxRestrictionsChanged_noSetupUnchanged_doesNotUpdateState() {
+        mControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(mController.onScreenUxRestrictionsChanged(
+                LIMIT_STRINGS_UX_RESTRICTIONS)).isFalse();
+
+        // onCreate.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(1);
+        assertThat(mController.getUxRestrictions()).isEqualTo(LIMIT_STRINGS_UX_RESTRICTIONS);
+    }
+
+    @Test
+    public void onScreenUxRestrictionsChanged_preferenceIgnores_doesNotUpdateState() {
+        Set preferencesIgnoringUxRestrictions = new HashSet();
+        preferencesIgnoringUxRestrictions.add(PreferenceControllerTestHelper.getKey());
+        mController.setUxRestrictionsIgnoredConfig(/* allIgnores= */ false,
+                preferencesIgnoringUxRestrictions);
+        mControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(mController.onScreenUxRestrictionsChanged(NO_SETUP_UX_RESTRICTIONS)).isFalse();
+
+        // onCreate.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(1);
+    }
+
     @Test
     public void getAvailabilityStatus_defaultsToAvailable() {
         assertThat(mController.getAvailabilityStatus()).isEqualTo(AVAILABLE);
@@ -287,6 +324,86 @@ public class PreferenceControllerTest {
         assertThat(mController.getUpdateStateCallCount()).isEqualTo(0);
     }
 
+    @Test
+    public void lifecycle_evaluatesAvailabilityOncePerCreateAndStart() {
+        mControllerHelper.markState(Lifecycle.State.RESUMED);
+        mControllerHelper.markState(Lifecycle.State.DESTROYED);
+
+        // onCreate, onStart.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void refreshUi_notCacheable_evaluatesAvailability() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+
+        mController.refreshUi();
+
+        // onCreate, onStart, refreshUi.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void refreshUi_cacheable_reusesAvailability() {
+        mController.setAvailabilityStatusCacheable(true);
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        mController.setAvailabilityStatus(CONDITIONALLY_UNAVAILABLE);
+
+        mController.refreshUi();
+
+        // onCreate, onStart.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(2);
+        verify(mPreference, never()).setVisible(false);
+    }
+
+    @Test
+    public void refreshUi_cacheable_invalidated_evaluatesAvailability() {
+        mController.setAvailabilityStatusCacheable(true);
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        mController.setAvailabilityStatus(CONDITIONALLY_UNAVAILABLE);
+
+        mController.invalidateAvailabilityStatus();
+        mController.refreshUi();
+
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(3);
+        verify(mPreference).setVisible(false);
+    }
+
+    @Test
+    public void userStateInvalidated_cacheable_started_evaluatesAvailability() {
+        mController.setAvailabilityStatusCacheable(true);
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        mController.setAvailabilityStatus(CONDITIONALLY_UNAVAILABLE);
+
+        UserStateCache.getInstance(mContext).invalidate();
+
+        // onCreate, onStart, invalidation.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(3);
+        verify(mPreference).setVisible(false);
+    }
+
+    @Test
+    public void userStateInvalidated_cacheable_stopped_doesNotEvaluateAvailability() {
+        mController.setAvailabilityStatusCacheable(true);
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+        mControllerHelper.markState(Lifecycle.State.CREATED);
+
+        UserStateCache.getInstance(mContext).invalidate();
+
+        // onCreate, onStart.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void userStateInvalidated_notCacheable_doesNotRefresh() {
+        mControllerHelper.markState(Lifecycle.State.STARTED);
+
+        UserStateCache.getInstance(mContext).invalidate();
+
+        // onCreate, onStart.
+        assertThat(mController.getAvailabilityStatusEvaluationCount()).isEqualTo(2);
+    }
+
     @Test
     public void lifecycle_unsupportedOnDevice_doesNotCallSubclassHooks() {
         mController.setAvailabilityStatus(UNSUPPORTED_ON_DEVICE);
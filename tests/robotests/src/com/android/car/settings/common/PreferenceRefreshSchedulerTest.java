@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.view.Choreographer;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.preference.Preference;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Unit test for {@link PreferenceRefreshScheduler}.
+ */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class PreferenceRefreshSchedulerTest {
+
+    private FakePreferenceController mController;
+    private PreferenceRefreshScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        PreferenceControllerTestHelper<FakePreferenceController> controllerHelper =
+                new PreferenceControllerTestHelper<>(context, FakePreferenceController.class,
+                        new Preference(context));
+        controllerHelper.markState(Lifecycle.State.CREATED);
+        mController = controllerHelper.getController();
+
+        // Frames are dispatched manually.
+        ShadowLooper.pauseMainLooper();
+        mScheduler = new PreferenceRefreshScheduler(Choreographer.getInstance());
+        mController.setRefreshScheduler(mScheduler);
+    }
+
+    @Test
+    public void requestRefreshUi_deferredUntilFrame() {
+        mController.requestRefreshUi();
+
+        // onCreate.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(1);
+
+        mScheduler.doFrame(/* frameTimeNanos= */ 0);
+
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void requestRefreshUi_multipleRequests_coalesced() {
+        mController.requestRefreshUi();
+        mController.requestRefreshUi();
+        mController.requestRefreshUi();
+
+        mScheduler.doFrame(/* frameTimeNanos= */ 0);
+
+        // onCreate, one coalesced refresh.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(2);
+        assertThat(mScheduler.getRequestedRefreshCount()).isEqualTo(3);
+        assertThat(mScheduler.getExecutedRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cancel_dropsPendingRefreshes() {
+        mController.requestRefreshUi();
+
+        mScheduler.cancel();
+        mScheduler.doFrame(/* frameTimeNanos= */ 0);
+
+        // onCreate.
+        assertThat(mController.getUpdateStateCallCount()).isEqualTo(1);
+        assertThat(mScheduler.getExecutedRefreshCount()).isEqualTo(0);
+    }
+}
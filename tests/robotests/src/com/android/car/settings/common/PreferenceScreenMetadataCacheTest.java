@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.Configuration;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Unit test for {@link PreferenceScreenMetadataCache}.
+ */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class PreferenceScreenMetadataCacheTest {
+
+    private Context mContext;
+    private PreferenceScreenMetadataCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mCache = new PreferenceScreenMetadataCache();
+    }
+
+    @Test
+    public void getMetadata_returnsKeysAndControllers() throws IOException, XmlPullParserException {
+        PreferenceScreenMetadata metadata = mCache.getMetadata(mContext,
+                R.xml.preference_controller_list_helper_success);
+
+        // PreferenceScreen, key1, key2, key3.
+        assertThat(metadata.size()).isEqualTo(4);
+        assertThat(metadata.getKey(1)).isEqualTo("key1");
+        assertThat(metadata.getControllerName(1)).isEqualTo(
+                DefaultRestrictionsPreferenceController.class.getName());
+        assertThat(metadata.getKey(3)).isEqualTo("key3");
+        assertThat(metadata.getControllerName(3)).isNull();
+    }
+
+    @Test
+    public void getMetadata_sameConfiguration_returnsCachedInstance()
+            throws IOException, XmlPullParserException {
+        PreferenceScreenMetadata first = mCache.getMetadata(mContext,
+                R.xml.preference_controller_list_helper_success);
+        PreferenceScreenMetadata second = mCache.getMetadata(mContext,
+                R.xml.preference_controller_list_helper_success);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void getMetadata_configurationChanged_reparses()
+            throws IOException, XmlPullParserException {
+        PreferenceScreenMetadata first = mCache.getMetadata(mContext,
+                R.xml.preference_controller_list_helper_success);
+
+        Configuration configuration = new Configuration(
+                mContext.getResources().getConfiguration());
+        configuration.setLocale(Locale.KOREA);
+        Context localizedContext = mContext.createConfigurationContext(configuration);
+        PreferenceScreenMetadata second = mCache.getMetadata(localizedContext,
+                R.xml.preference_controller_list_helper_success);
+
+        assertThat(second).isNotSameAs(first);
+    }
+}
@@ -44,12 +44,19 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
 
 /** Unit test for {@link SettingsFragment}. */
 @RunWith(CarSettingsRobolectricTestRunner.class)
 public class SettingsFragmentTest {
 
     private static final String TEST_TAG = "test_tag";
+    private static final CarUxRestrictions NO_SETUP_UX_RESTRICTIONS =
+            new CarUxRestrictions.Builder(/* reqOpt= */ true,
+                    CarUxRestrictions.UX_RESTRICTIONS_NO_SETUP, /* timestamp= */ 0).build();
+    private static final CarUxRestrictions NO_KEYBOARD_UX_RESTRICTIONS =
+            new CarUxRestrictions.Builder(/* reqOpt= */ true,
+                    CarUxRestrictions.UX_RESTRICTIONS_NO_KEYBOARD, /* timestamp= */ 0).build();
 
     private Context mContext;
     private FragmentController<TestSettingsFragment> mFragmentController;
@@ -90,6 +97,64 @@ public class SettingsFragmentTest {
         assertThat(controller.getUxRestrictions()).isEqualTo(uxRestrictions);
     }
 
+    @Test
+    public void onUxRestrictionsChanged_relevantChange_refreshesController() {
+        mFragmentController.setup();
+        FakePreferenceController controller = mFragment.use(FakePreferenceController.class,
+                R.string.tpk_fake_controller);
+        int updateStateCallCount = controller.getUpdateStateCallCount();
+
+        mFragment.onUxRestrictionsChanged(NO_SETUP_UX_RESTRICTIONS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(controller.getUpdateStateCallCount()).isEqualTo(updateStateCallCount + 1);
+    }
+
+    @Test
+    public void onUxRestrictionsChanged_irrelevantChange_doesNotRefreshController() {
+        mFragmentController.setup();
+        FakePreferenceController controller = mFragment.use(FakePreferenceController.class,
+                R.string.tpk_fake_controller);
+        int updateStateCallCount = controller.getUpdateStateCallCount();
+
+        // The fake controller only consults the no setup restriction.
+        mFragment.onUxRestrictionsChanged(NO_KEYBOARD_UX_RESTRICTIONS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(controller.getUpdateStateCallCount()).isEqualTo(updateStateCallCount);
+        assertThat(controller.getUxRestrictions()).isEqualTo(NO_KEYBOARD_UX_RESTRICTIONS);
+    }
+
+    @Test
+    public void onStop_pendingRefreshCancelled() {
+        mFragmentController.setup();
+        FakePreferenceController controller = mFragment.use(FakePreferenceController.class,
+                R.string.tpk_fake_controller);
+        int updateStateCallCount = controller.getUpdateStateCallCount();
+        ShadowLooper.pauseMainLooper();
+        controller.requestRefreshUi();
+
+        mFragmentController.pause().stop();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(controller.getUpdateStateCallCount()).isEqualTo(updateStateCallCount);
+        assertThat(mFragment.getRefreshScheduler().getExecutedRefreshCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void onDetach_pendingRefreshCancelled() {
+        mFragmentController.setup();
+        FakePreferenceController controller = mFragment.use(FakePreferenceController.class,
+                R.string.tpk_fake_controller);
+        ShadowLooper.pauseMainLooper();
+        controller.requestRefreshUi();
+
+        mFragmentController.destroy();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(mFragment.getRefreshScheduler().getExecutedRefreshCount()).isEqualTo(0);
+    }
+
     @Test
     public void onDisplayPreferenceDialog_editTextPreference_showsDialog() {
         mFragmentController.setup();
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static android.os.UserManager.DISALLOW_BLUETOOTH;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.car.userlib.CarUserManagerHelper;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.UserInfo;
+import android.os.UserManager;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.testutils.ShadowCarUserManagerHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Unit test for {@link UserStateCache}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+@Config(shadows = {ShadowCarUserManagerHelper.class})
+public class UserStateCacheTest {
+
+    @Mock
+    private CarUserManagerHelper mCarUserManagerHelper;
+    private Context mContext;
+    private UserStateCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ShadowCarUserManagerHelper.setMockInstance(mCarUserManagerHelper);
+        mContext = RuntimeEnvironment.application;
+        mCache = UserStateCache.getInstance(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowCarUserManagerHelper.reset();
+    }
+
+    @Test
+    public void getInstance_sameApplication_returnsSameInstance() {
+        assertThat(UserStateCache.getInstance(mContext)).isSameAs(mCache);
+    }
+
+    @Test
+    public void isCurrentProcessUserHasRestriction_queriedOnce() {
+        when(mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH))
+                .thenReturn(true);
+
+        assertThat(mCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)).isTrue();
+        assertThat(mCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)).isTrue();
+
+        verify(mCarUserManagerHelper).isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH);
+        assertThat(mCache.getMissCount()).isEqualTo(1);
+        assertThat(mCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getCurrentProcessUserInfo_nullValue_cached() {
+        when(mCarUserManagerHelper.getCurrentProcessUserInfo()).thenReturn(null);
+
+        assertThat(mCache.getCurrentProcessUserInfo()).isNull();
+        assertThat(mCache.getCurrentProcessUserInfo()).isNull();
+
+        verify(mCarUserManagerHelper).getCurrentProcessUserInfo();
+    }
+
+    @Test
+    public void restrictionsChangedBroadcast_requeries() {
+        when(mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH))
+                .thenReturn(false);
+        assertThat(mCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)).isFalse();
+
+        when(mCarUserManagerHelper.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH))
+                .thenReturn(true);
+        mContext.sendBroadcast(new Intent(UserManager.ACTION_USER_RESTRICTIONS_CHANGED));
+
+        assertThat(mCache.isCurrentProcessUserHasRestriction(DISALLOW_BLUETOOTH)).isTrue();
+        verify(mCarUserManagerHelper, times(2)).isCurrentProcessUserHasRestriction(
+                DISALLOW_BLUETOOTH);
+    }
+
+    @Test
+    public void userAddedBroadcast_requeriesUsers() {
+        UserInfo userInfo = new UserInfo();
+        when(mCarUserManagerHelper.getAllUsers()).thenReturn(Collections.emptyList());
+        assertThat(mCache.getAllUsers()).isEmpty();
+
+        when(mCarUserManagerHelper.getAllUsers()).thenReturn(Collections.singletonList(userInfo));
+        mContext.sendBroadcast(new Intent(Intent.ACTION_USER_ADDED));
+
+        assertThat(mCache.getAllUsers()).containsExactly(userInfo);
+    }
+
+    @Test
+    public void invalidate_requeries() {
+        mCache.isCurrentProcessAdminUser();
+
+        mCache.invalidate();
+        mCache.isCurrentProcessAdminUser();
+
+        verify(mCarUserManagerHelper, times(2)).isCurrentProcessAdminUser();
+        assertThat(mCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void restrictionsChangedBroadcast_runsInvalidationListeners() {
+        Runnable listener = mock(Runnable.class);
+        mCache.addInvalidationListener(listener);
+
+        mContext.sendBroadcast(new Intent(UserManager.ACTION_USER_RESTRICTIONS_CHANGED));
+
+        verify(listener).run();
+    }
+
+    @Test
+    public void invalidate_removedListener_notRun() {
+        Runnable listener = mock(Runnable.class);
+        mCache.addInvalidationListener(listener);
+        mCache.removeInvalidationListener(listener);
+
+        mCache.invalidate();
+
+        verify(listener, never()).run();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getAllUsers_returnsImmutableList() {
+        when(mCarUserManagerHelper.getAllUsers()).thenReturn(Collections.emptyList());
+
+        List<UserInfo> users = mCache.getAllUsers();
+        users.add(new UserInfo());
+    }
+}
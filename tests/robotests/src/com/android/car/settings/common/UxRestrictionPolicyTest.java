@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.common;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.Configuration;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Unit test for {@link UxRestrictionPolicy}.
+ */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class UxRestrictionPolicyTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void readsConfiguredPreferences() {
+        UxRestrictionPolicy policy = new UxRestrictionPolicy(mContext.getResources());
+
+        assertThat(policy.isAlwaysIgnoringUxRestrictions()).isEqualTo(
+                mContext.getResources().getBoolean(R.bool.config_always_ignore_ux_restrictions));
+        assertThat(policy.getPreferencesIgnoringUxRestrictions()).containsExactlyElementsIn(
+                Arrays.asList(mContext.getResources().getStringArray(
+                        R.array.config_ignore_ux_restrictions)));
+    }
+
+    @Test
+    public void isIgnoringUxRestrictions_configuredKey_returnsTrue() {
+        UxRestrictionPolicy policy = new UxRestrictionPolicy(mContext.getResources());
+
+        assertThat(policy.isIgnoringUxRestrictions(
+                mContext.getString(R.string.pk_sound_settings_entry))).isTrue();
+    }
+
+    @Test
+    public void getInstance_sameConfiguration_returnsSameInstance() {
+        assertThat(UxRestrictionPolicy.getInstance(mContext)).isSameAs(
+                UxRestrictionPolicy.getInstance(mContext));
+    }
+
+    @Test
+    public void getInstance_configurationChanged_returnsNewInstance() {
+        UxRestrictionPolicy policy = UxRestrictionPolicy.getInstance(mContext);
+
+        Configuration configuration = new Configuration(
+                mContext.getResources().getConfiguration());
+        configuration.setLocale(Locale.KOREA);
+
+        assertThat(UxRestrictionPolicy.getInstance(
+                mContext.createConfigurationContext(configuration))).isNotSameAs(policy);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datausage;
+
+import static android.net.TrafficStats.UID_REMOVED;
+import static android.net.TrafficStats.UID_TETHERING;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.pm.UserInfo;
+import android.net.NetworkStats;
+import android.os.Process;
+import android.os.UserHandle;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.AppItem;
+import com.android.settingslib.net.UidDetailProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Unit test for {@link AppDataUsageAggregator}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class AppDataUsageAggregatorTest {
+
+    private static final int CURRENT_USER_ID = 10;
+    private static final int OTHER_USER_ID = 11;
+    private static final int REMOVED_USER_ID = 12;
+    private static final int APP_ID = Process.FIRST_APPLICATION_UID + 1;
+
+    private final AppDataUsageAggregator mAggregator = new AppDataUsageAggregator(
+            Arrays.asList(new UserInfo(CURRENT_USER_ID, "current", /* flags= */ 0),
+                    new UserInfo(OTHER_USER_ID, "other", /* flags= */ 0)),
+            CURRENT_USER_ID);
+
+    @Test
+    public void aggregate_nullStats_noItems() {
+        AppDataUsageAggregator.Result result = mAggregator.aggregate(null, null);
+
+        assertThat(result.getItems()).isEmpty();
+    }
+
+    @Test
+    public void aggregate_currentUserApp_collapsedByUid() {
+        int uid = UserHandle.getUid(CURRENT_USER_ID, APP_ID);
+        NetworkStats stats = new NetworkStats(0, 0);
+        stats.addValues(createEntry(uid, 100));
+        stats.addValues(createEntry(uid, 50));
+
+        List<AppItem> items = mAggregator.aggregate(stats, null).getItems();
+
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).key).isEqualTo(uid);
+        assertThat(items.get(0).total).isEqualTo(150);
+    }
+
+    @Test
+    public void aggregate_otherUserApp_attributedToAppAndUser() {
+        int uid = UserHandle.getUid(OTHER_USER_ID, APP_ID);
+        NetworkStats stats = new NetworkStats(0, 0);
+        stats.addValues(createEntry(uid, 100));
+
+        List<AppItem> items = mAggregator.aggregate(stats, null).getItems();
+
+        assertThat(items).hasSize(2);
+        AppItem userItem = findItem(items, UidDetailProvider.buildKeyForUser(OTHER_USER_ID));
+        assertThat(userItem.category).isEqualTo(AppItem.CATEGORY_USER);
+        assertThat(userItem.total).isEqualTo(100);
+        assertThat(findItem(items, uid).total).isEqualTo(100);
+    }
+
+    @Test
+    public void aggregate_removedUserApp_collapsedToRemoved() {
+        NetworkStats stats = new NetworkStats(0, 0);
+        stats.addValues(createEntry(UserHandle.getUid(REMOVED_USER_ID, APP_ID), 100));
+
+        List<AppItem> items = mAggregator.aggregate(stats, null).getItems();
+
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).key).isEqualTo(UID_REMOVED);
+    }
+
+    @Test
+    public void aggregate_nonAppUids_collapsedToSystemExceptTethering() {
+        NetworkStats stats = new NetworkStats(0, 0);
+        stats.addValues(createEntry(Process.ROOT_UID, 100));
+        stats.addValues(createEntry(Process.PHONE_UID, 100));
+        stats.addValues(createEntry(UID_TETHERING, 100));
+
+        List<AppItem> items = mAggregator.aggregate(stats, null).getItems();
+
+        assertThat(items).hasSize(2);
+        assertThat(findItem(items, Process.SYSTEM_UID).total).isEqualTo(200);
+        assertThat(findItem(items, UID_TETHERING).total).isEqualTo(100);
+    }
+
+    @Test
+    public void aggregate_sortedWithPercentOfLargest() {
+        int smallUid = UserHandle.getUid(CURRENT_USER_ID, APP_ID);
+        int largeUid = UserHandle.getUid(CURRENT_USER_ID, APP_ID + 1);
+        NetworkStats stats = new NetworkStats(0, 0);
+        stats.addValues(createEntry(smallUid, 25));
+        stats.addValues(createEntry(largeUid, 100));
+
+        AppDataUsageAggregator.Result result = mAggregator.aggregate(stats, null);
+
+        assertThat(result.getItems().get(0).key).isEqualTo(largeUid);
+        assertThat(result.getPercent(0)).isEqualTo(100);
+        assertThat(result.getItems().get(1).key).isEqualTo(smallUid);
+        assertThat(result.getPercent(1)).isEqualTo(25);
+    }
+
+    @Test
+    public void aggregate_restrictedWithoutUsage_addsRestrictedItem() {
+        AppDataUsageAggregator.Result result = mAggregator.aggregate(
+                new NetworkStats(0, 0), new int[]{CURRENT_USER_ID});
+
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).restricted).isTrue();
+        assertThat(result.getItems().get(0).total).isEqualTo(-1);
+    }
+
+    private static NetworkStats.Entry createEntry(int uid, long rxBytes) {
+        NetworkStats.Entry entry = new NetworkStats.Entry();
+        entry.uid = uid;
+        entry.rxBytes = rxBytes;
+        return entry;
+    }
+
+    private static AppItem findItem(List<AppItem> items, int key) {
+        for (AppItem item : items) {
+            if (item.key == key) {
+                return item;
+            }
+        }
+        throw new AssertionError("No item for key " + key);
+    }
+}
@@ -42,6 +42,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
@@ -83,6 +84,7 @@ public class AppDataUsagePreferenceControllerTest {
     public void tearDown() {
         ShadowUidDetailProvider.reset();
         ShadowCarUserManagerHelper.reset();
+        UidDetailCache.resetInstance();
     }
 
     @Test
@@ -93,6 +95,7 @@ public class AppDataUsagePreferenceControllerTest {
     @Test
     public void onDataLoaded_dataNotLoaded_hasNoPreference() {
         mController.onDataLoaded(null, new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mLogicalPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -102,6 +105,7 @@ public class AppDataUsagePreferenceControllerTest {
         NetworkStats networkStats = new NetworkStats(0, 0);
 
         mController.onDataLoaded(networkStats, new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mLogicalPreferenceGroup.getPreferenceCount()).isEqualTo(0);
     }
@@ -119,6 +123,7 @@ public class AppDataUsagePreferenceControllerTest {
         networkStats.addValues(entry2);
 
         mController.onDataLoaded(networkStats, new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
 
         assertThat(mLogicalPreferenceGroup.getPreferenceCount()).isEqualTo(2);
     }
@@ -137,6 +142,7 @@ public class AppDataUsagePreferenceControllerTest {
         networkStats.addValues(entry2);
 
         mController.onDataLoaded(networkStats, new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
 
         ProgressBarPreference preference1 =
                 (ProgressBarPreference) mLogicalPreferenceGroup.getPreference(0);
@@ -147,4 +153,55 @@ public class AppDataUsagePreferenceControllerTest {
         assertThat(preference1.getProgress()).isEqualTo(100);
         assertThat(preference2.getProgress()).isEqualTo(50);
     }
+
+    @Test
+    public void onDataLoaded_sameItems_preferencesReused() {
+        ShadowUidDetailProvider.setUidDetail(mUidDetail);
+        mController.onDataLoaded(createStats(100, 200), new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
+        ProgressBarPreference tetheringPreference =
+                (ProgressBarPreference) mLogicalPreferenceGroup.getPreference(0);
+
+        mController.onDataLoaded(createStats(400, 200), new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mLogicalPreferenceGroup.getPreferenceCount()).isEqualTo(2);
+        assertThat(mLogicalPreferenceGroup.findPreference(String.valueOf(UID_TETHERING)))
+                .isSameAs(tetheringPreference);
+        assertThat(tetheringPreference.getOrder()).isEqualTo(1);
+        assertThat(tetheringPreference.getProgress()).isEqualTo(50);
+        assertThat(((ProgressBarPreference) mLogicalPreferenceGroup.getPreference(1))
+                .getProgress()).isEqualTo(100);
+    }
+
+    @Test
+    public void onDataLoaded_itemRemoved_preferenceRemoved() {
+        mController.onDataLoaded(createStats(100, 200), new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        NetworkStats networkStats = new NetworkStats(0, 0);
+        NetworkStats.Entry entry = new NetworkStats.Entry();
+        entry.uid = UID_TETHERING;
+        entry.rxBytes = 200;
+        networkStats.addValues(entry);
+        mController.onDataLoaded(networkStats, new int[0]);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        assertThat(mLogicalPreferenceGroup.getPreferenceCount()).isEqualTo(1);
+        assertThat(mLogicalPreferenceGroup.getPreference(0).getKey())
+                .isEqualTo(String.valueOf(UID_TETHERING));
+    }
+
+    private NetworkStats createStats(long systemBytes, long tetheringBytes) {
+        NetworkStats networkStats = new NetworkStats(0, 0);
+        NetworkStats.Entry entry1 = new NetworkStats.Entry();
+        entry1.rxBytes = systemBytes;
+        networkStats.addValues(entry1);
+
+        NetworkStats.Entry entry2 = new NetworkStats.Entry();
+        entry2.uid = UID_TETHERING;
+        entry2.rxBytes = tetheringBytes;
+        networkStats.addValues(entry2);
+        return networkStats;
+    }
 }
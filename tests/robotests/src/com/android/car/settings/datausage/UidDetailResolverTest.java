@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datausage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.util.SparseArray;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.net.UidDetail;
+import com.android.settingslib.net.UidDetailProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Unit test for {@link UidDetailResolver}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class UidDetailResolverTest {
+
+    @Mock
+    private UidDetailProvider mProvider;
+
+    private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+    private final List<SparseArray<UidDetail>> mResolved = new ArrayList<>();
+    private UidDetailCache mCache;
+    private UidDetailResolver mResolver;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mProvider.getUidDetail(anyInt(), eq(true))).thenAnswer(invocation -> {
+            UidDetail detail = new UidDetail();
+            detail.label = String.valueOf((int) invocation.getArgument(0));
+            return detail;
+        });
+        mCache = new UidDetailCache(UidDetailCache.MAX_SIZE_BYTES);
+        mResolver = new UidDetailResolver(mProvider, mCache, mResolved::add,
+                mBackgroundTasks::add);
+    }
+
+    @Test
+    public void getDetail_cached_doesNotQueryProvider() {
+        UidDetail detail = new UidDetail();
+        mCache.put(1, detail);
+
+        assertThat(mResolver.getDetail(1)).isSameAs(detail);
+        verify(mProvider, never()).getUidDetail(anyInt(), eq(false));
+    }
+
+    @Test
+    public void request_resolvesInSingleBatch() {
+        mResolver.request(1);
+        mResolver.request(2);
+        mResolver.request(3);
+
+        runBackgroundTasks();
+
+        // The first request starts a batch right away, the others are coalesced into the next one.
+        assertThat(mResolved).hasSize(2);
+        assertThat(mResolved.get(0).size()).isEqualTo(1);
+        assertThat(mResolved.get(1).size()).isEqualTo(2);
+        assertThat(mCache.get(3).label.toString()).isEqualTo("3");
+    }
+
+    @Test
+    public void prioritize_visibleUidResolvedFirst() {
+        mResolver.request(1);
+        for (int uid = 2; uid < 2 + UidDetailResolver.BATCH_SIZE + 1; uid++) {
+            mResolver.request(uid);
+        }
+        int lastUid = 1 + UidDetailResolver.BATCH_SIZE + 1;
+        mResolver.prioritize(lastUid);
+
+        runBackgroundTasks();
+
+        // The prioritized uid takes the place of the last pending uid in the second batch.
+        assertThat(mResolved.get(1).indexOfKey(lastUid)).isAtLeast(0);
+        assertThat(mResolved.get(2).size()).isEqualTo(1);
+        assertThat(mResolved.get(2).keyAt(0)).isEqualTo(lastUid - 1);
+    }
+
+    @Test
+    public void cancel_resultsDropped() {
+        mResolver.request(1);
+
+        mResolver.cancel();
+        runBackgroundTasks();
+
+        assertThat(mResolved).isEmpty();
+    }
+
+    private void runBackgroundTasks() {
+        while (!mBackgroundTasks.isEmpty()) {
+            mBackgroundTasks.remove(0).run();
+        }
+    }
+}
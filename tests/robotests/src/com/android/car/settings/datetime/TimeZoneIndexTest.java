@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.datetime;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.datetime.ZoneGetter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Unit test for {@link TimeZoneIndex}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class TimeZoneIndexTest {
+
+    @Test
+    public void create_sortsByOffsetThenLabel() {
+        List<Map<String, Object>> zones = new ArrayList<>();
+        zones.add(createTimeZoneMap("testKey1", "Oral", "GMT+05:00", 500));
+        zones.add(createTimeZoneMap("testKey2", "Casablanca", "GMT+01:00", 100));
+        zones.add(createTimeZoneMap("testKey3", "Nuuk", "GMT-02:00", -200));
+        zones.add(createTimeZoneMap("testKey4", "Brazzaville", "GMT+01:00", 100));
+
+        TimeZoneIndex index = TimeZoneIndex.create(zones);
+
+        List<String> labels = new ArrayList<>();
+        for (int row = 0; row < index.size(); row++) {
+            labels.add(index.getLabel(row));
+        }
+        assertThat(labels).containsExactly("Nuuk", "Brazzaville", "Casablanca", "Oral")
+                .inOrder();
+    }
+
+    @Test
+    public void create_keepsZoneFieldsTogether() {
+        List<Map<String, Object>> zones = new ArrayList<>();
+        zones.add(createTimeZoneMap("testKey1", "Kathmandu", "GMT+05:45", 545));
+        zones.add(createTimeZoneMap("testKey2", "St. John's", "GMT-02:30", -230));
+
+        TimeZoneIndex index = TimeZoneIndex.create(zones);
+
+        assertThat(index.getId(0)).isEqualTo("testKey2");
+        assertThat(index.getLabel(0)).isEqualTo("St. John's");
+        assertThat(index.getOffsetLabel(0)).isEqualTo("GMT-02:30");
+    }
+
+    @Test
+    public void indexOf_returnsSortedRow() {
+        List<Map<String, Object>> zones = new ArrayList<>();
+        zones.add(createTimeZoneMap("testKey1", "Kabul", "GMT+04:30", 430));
+        zones.add(createTimeZoneMap("testKey2", "Midway", "GMT-11:00", -1100));
+
+        TimeZoneIndex index = TimeZoneIndex.create(zones);
+
+        assertThat(index.indexOf("testKey1")).isEqualTo(1);
+        assertThat(index.indexOf("unknown")).isEqualTo(-1);
+    }
+
+    private Map<String, Object> createTimeZoneMap(String key, String timeZone, String offset,
+            int offsetValue) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(ZoneGetter.KEY_ID, key);
+        map.put(ZoneGetter.KEY_DISPLAY_LABEL, timeZone);
+        map.put(ZoneGetter.KEY_OFFSET_LABEL, offset);
+        map.put(ZoneGetter.KEY_OFFSET, offsetValue);
+        return map;
+    }
+}
@@ -33,6 +33,7 @@ import com.android.car.settings.common.LogicalPreferenceGroup;
 import com.android.car.settings.common.PreferenceControllerTestHelper;
 import com.android.settingslib.datetime.ZoneGetter;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -45,16 +46,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
 
 @RunWith(CarSettingsRobolectricTestRunner.class)
 public class TimeZonePickerScreenPreferenceControllerTest {
 
+    private static final int PAGE_SIZE = TimeZonePickerScreenPreferenceController.PAGE_SIZE;
+
     private PreferenceGroup mPreferenceGroup;
     private PreferenceControllerTestHelper<TimeZonePickerScreenPreferenceController>
             mPreferenceControllerHelper;
     private TimeZonePickerScreenPreferenceController mController;
     @Mock
     private AlarmManager mAlarmManager;
+    private TimeZone mDefaultTimeZone;
 
     @Before
     public void setUp() {
@@ -67,6 +72,12 @@ public class TimeZonePickerScreenPreferenceControllerTest {
 
         // Test setup.
         mController.mAlarmManager = mAlarmManager;
+        mDefaultTimeZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mDefaultTimeZone);
     }
 
     @Test
@@ -149,6 +160,59 @@ public class TimeZonePickerScreenPreferenceControllerTest {
                 "Oral", "Kathmandu");
     }
 
+    @Test
+    public void testOnCreate_manyTimeZones_onlyFirstPageAdded() {
+        mController.setZonesList(createTimeZones(PAGE_SIZE * 3));
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    public void testLoadMoreRows_addsNextPage() {
+        mController.setZonesList(createTimeZones(PAGE_SIZE * 3));
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        mController.loadMoreRows();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(PAGE_SIZE * 2);
+        assertThat(mPreferenceGroup.getPreference(PAGE_SIZE).getKey()).isEqualTo(
+                "testKey" + PAGE_SIZE);
+    }
+
+    @Test
+    public void testLoadMoreRows_allRowsAdded_noChange() {
+        int zoneCount = PAGE_SIZE + 1;
+        mController.setZonesList(createTimeZones(zoneCount));
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        mController.loadMoreRows();
+        mController.loadMoreRows();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(zoneCount);
+    }
+
+    @Test
+    public void testOnCreate_currentTimeZoneBeyondFirstPage_currentTimeZoneAdded() {
+        List<Map<String, Object>> testTimeZones = createTimeZones(PAGE_SIZE * 3);
+        testTimeZones.add(createTimeZoneMap("Pacific/Kiritimati", "Kiritimati", "GMT+14:00",
+                Integer.MAX_VALUE));
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+        mController.setZonesList(testTimeZones);
+
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(mPreferenceGroup.findPreference("Pacific/Kiritimati")).isNotNull();
+    }
+
+    private List<Map<String, Object>> createTimeZones(int count) {
+        List<Map<String, Object>> timeZones = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            timeZones.add(createTimeZoneMap("testKey" + i, "Zone " + i, "GMT+00:00", i));
+        }
+        return timeZones;
+    }
+
     private Map<String, Object> createTimeZoneMap(String key, String timeZone, String offset,
             int offsetValue) {
         Map<String, Object> map = new HashMap<>();
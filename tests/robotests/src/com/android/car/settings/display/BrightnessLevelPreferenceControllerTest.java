@@ -26,10 +26,15 @@ import static org.mockito.Mockito.when;
 import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
 import android.provider.Settings;
+import android.view.View;
+import android.widget.SeekBar;
 
 import androidx.lifecycle.Lifecycle;
+import androidx.preference.PreferenceViewHolder;
 
 import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.R;
+import com.android.car.settings.common.CoalescingValueWriter;
 import com.android.car.settings.common.PreferenceControllerTestHelper;
 import com.android.car.settings.common.SeekBarPreference;
 import com.android.car.settings.testutils.ShadowCarUserManagerHelper;
@@ -41,6 +46,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
 
 @RunWith(CarSettingsRobolectricTestRunner.class)
 public class BrightnessLevelPreferenceControllerTest {
@@ -49,6 +55,9 @@ public class BrightnessLevelPreferenceControllerTest {
     private Context mContext;
     private BrightnessLevelPreferenceController mController;
     private SeekBarPreference mSeekBarPreference;
+    private PreferenceControllerTestHelper<BrightnessLevelPreferenceController>
+            mPreferenceControllerHelper;
+    private SeekBar.OnSeekBarChangeListener mSeekBarListener;
     private int mMin;
     private int mMax;
     private int mMid;
@@ -70,11 +79,10 @@ public class BrightnessLevelPreferenceControllerTest {
         when(mCarUserManagerHelper.getCurrentProcessUserId()).thenReturn(CURRENT_USER);
 
         mSeekBarPreference = new SeekBarPreference(mContext);
-        PreferenceControllerTestHelper<BrightnessLevelPreferenceController>
-                preferenceControllerHelper = new PreferenceControllerTestHelper<>(mContext,
+        mPreferenceControllerHelper = new PreferenceControllerTestHelper<>(mContext,
                 BrightnessLevelPreferenceController.class, mSeekBarPreference);
-        mController = preferenceControllerHelper.getController();
-        preferenceControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_CREATE);
+        mController = mPreferenceControllerHelper.getController();
+        mPreferenceControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_CREATE);
     }
 
     @After
@@ -146,4 +154,66 @@ public class BrightnessLevelPreferenceControllerTest {
                 mCarUserManagerHelper.getCurrentProcessUserId());
         assertThat(currentSettingsVal).isEqualTo(mMid);
     }
+
+    @Test
+    public void testDrag_brightnessCoalesced() throws Settings.SettingNotFoundException {
+        SeekBar seekBar = bindSeekBar();
+
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, 0);
+        dragTo(seekBar, GAMMA_SPACE_MAX / 2);
+        dragTo(seekBar, GAMMA_SPACE_MAX);
+
+        assertThat(getBrightnessSetting()).isEqualTo(mMin);
+        CoalescingValueWriter brightnessWriter = mController.getBrightnessWriter();
+        assertThat(brightnessWriter.getIssuedWriteCount()).isEqualTo(1);
+        assertThat(brightnessWriter.getCoalescedWriteCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDragAndRelease_finalBrightnessWritten()
+            throws Settings.SettingNotFoundException {
+        SeekBar seekBar = bindSeekBar();
+
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, 0);
+        dragTo(seekBar, GAMMA_SPACE_MAX);
+        mSeekBarListener.onStopTrackingTouch(seekBar);
+
+        assertThat(getBrightnessSetting()).isEqualTo(mMax);
+        assertThat(mController.getBrightnessWriter().getIssuedWriteCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testOnStop_pendingBrightnessWritten() throws Settings.SettingNotFoundException {
+        SeekBar seekBar = bindSeekBar();
+        mPreferenceControllerHelper.markState(Lifecycle.State.STARTED);
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, 0);
+        dragTo(seekBar, GAMMA_SPACE_MAX);
+
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        assertThat(getBrightnessSetting()).isEqualTo(mMax);
+    }
+
+    private SeekBar bindSeekBar() {
+        mController.refreshUi();
+        View rootView = View.inflate(mContext, R.layout.seekbar_preference, /* root= */ null);
+        mSeekBarPreference.onBindViewHolder(PreferenceViewHolder.createInstanceForTests(rootView));
+        SeekBar seekBar = rootView.findViewById(R.id.seekbar);
+        mSeekBarListener = Shadows.shadowOf(seekBar).getOnSeekBarChangeListener();
+        return seekBar;
+    }
+
+    private void dragTo(SeekBar seekBar, int gamma) {
+        seekBar.setProgress(gamma);
+        mSeekBarListener.onProgressChanged(seekBar, seekBar.getProgress(), /* fromUser= */ true);
+    }
+
+    private int getBrightnessSetting() throws Settings.SettingNotFoundException {
+        return Settings.System.getIntForUser(mContext.getContentResolver(),
+                Settings.System.SCREEN_BRIGHTNESS,
+                mCarUserManagerHelper.getCurrentProcessUserId());
+    }
 }
@@ -44,6 +44,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
@@ -74,7 +75,8 @@ public class LanguageBasePreferenceControllerTest {
         }
 
         @Override
-        protected LocalePreferenceProvider defineLocaleProvider() {
+        protected LocalePreferenceProvider defineLocaleProvider(
+                LocaleTreeCache.LocaleTree localeTree) {
             return new LocalePreferenceProvider(getContext(), mAdapter);
         }
     }
@@ -120,9 +122,47 @@ public class LanguageBasePreferenceControllerTest {
                 LocalePreferenceProvider.TYPE_LOCALE);
         when(mSuggestedLocaleAdapter.getItem(0)).thenReturn(TEST_LOCALE_INFO);
         mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
     }
 
+    @Test
+    public void testRefreshUi_manyLocales_onlyFirstPageAdded() {
+        setUpLocales(LanguageBasePreferenceController.PAGE_SIZE * 2);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(
+                LanguageBasePreferenceController.PAGE_SIZE);
+    }
+
+    @Test
+    public void testLoadMoreRows_addsNextPage() {
+        setUpLocales(LanguageBasePreferenceController.PAGE_SIZE + 1);
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+
+        mController.loadMoreRows();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(
+                LanguageBasePreferenceController.PAGE_SIZE + 1);
+    }
+
+    @Test
+    public void testOnPreferenceClick_localesLoaded_usesCachedSubLocales() {
+        mController.refreshUi();
+        Robolectric.flushBackgroundThreadScheduler();
+        // The sub-locales are read from the loaded locale tree.
+        ShadowLocaleStore.reset();
+
+        LocaleStore.LocaleInfo localeInfo = LocaleStore.getLocaleInfo(HAS_MULTIPLE_CHILD_LOCALE);
+        Preference preference = new Preference(mContext);
+        LocaleUtil.setLocaleArgument(preference, localeInfo);
+        mController.onPreferenceClick(preference);
+
+        assertThat(ShadowLocalePicker.localeWasUpdated()).isFalse();
+        verify(mFragmentController, never()).goBack();
+    }
+
     @Test
     public void testOnPreferenceClick_noLocale_returnsFalse() {
         assertThat(mController.onPreferenceClick(new Preference(mContext))).isFalse();
@@ -205,4 +245,13 @@ public class LanguageBasePreferenceControllerTest {
         mController.onPreferenceClick(preference);
         verify(mFragmentController).goBack();
     }
+
+    private void setUpLocales(int count) {
+        when(mSuggestedLocaleAdapter.getCount()).thenReturn(count);
+        for (int i = 0; i < count; i++) {
+            when(mSuggestedLocaleAdapter.getItemViewType(i)).thenReturn(
+                    LocalePreferenceProvider.TYPE_LOCALE);
+            when(mSuggestedLocaleAdapter.getItem(i)).thenReturn(TEST_LOCALE_INFO);
+        }
+    }
 }
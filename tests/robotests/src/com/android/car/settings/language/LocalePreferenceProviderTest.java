@@ -134,6 +134,30 @@ public class LocalePreferenceProviderTest {
         assertThat(secondCategory.getPreferenceCount()).isEqualTo(4);
     }
 
+    @Test
+    public void testPopulateBasePreference_inPages_continuesLastCategory() {
+        mLocaleAdapterExpectedValues.add(
+                new Pair(LocalePreferenceProvider.TYPE_HEADER_SUGGESTED, null));
+        mLocaleAdapterExpectedValues.add(new Pair(LocalePreferenceProvider.TYPE_LOCALE,
+                LocaleStore.getLocaleInfo(Locale.US)));
+        mLocaleAdapterExpectedValues.add(new Pair(LocalePreferenceProvider.TYPE_LOCALE,
+                LocaleStore.getLocaleInfo(Locale.FRANCE)));
+        prepareSuggestedLocaleAdapterMock();
+        Preference.OnPreferenceClickListener listener = mock(
+                Preference.OnPreferenceClickListener.class);
+
+        mLocalePreferenceProvider.populateBasePreference(mPreferenceGroup, listener,
+                /* itemCount= */ 2);
+        PreferenceCategory category = (PreferenceCategory) mPreferenceGroup.getPreference(0);
+        assertThat(category.getPreferenceCount()).isEqualTo(1);
+
+        mLocalePreferenceProvider.populateBasePreference(mPreferenceGroup, listener,
+                /* itemCount= */ 4);
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
+        assertThat(category.getPreferenceCount()).isEqualTo(2);
+        assertThat(mLocalePreferenceProvider.getPopulatedCount()).isEqualTo(3);
+    }
+
     @Test
     public void testClickListenerTriggered() {
         mLocaleAdapterExpectedValues.add(new Pair(LocalePreferenceProvider.TYPE_LOCALE,
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.language;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.testutils.ShadowLocaleStore;
+import com.android.internal.app.LocaleStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+/** Unit test for {@link LocaleTreeCache}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+@Config(shadows = {ShadowLocaleStore.class})
+public class LocaleTreeCacheTest {
+
+    private static final Set<String> NO_IGNORABLES = Collections.emptySet();
+
+    private Context mContext;
+    private LocaleTreeCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mCache = LocaleTreeCache.getInstance(mContext);
+
+        ShadowLocaleStore.addLocaleRelationship(Locale.ENGLISH, Locale.CANADA);
+        ShadowLocaleStore.addLocaleRelationship(Locale.ENGLISH, Locale.US);
+        ShadowLocaleStore.addLocaleRelationship(Locale.KOREAN, Locale.KOREA);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLocaleStore.reset();
+    }
+
+    @Test
+    public void getTree_notLoaded_returnsNull() {
+        assertThat(mCache.getTree(NO_IGNORABLES)).isNull();
+    }
+
+    @Test
+    public void loadTree_containsLanguagesAndRegions() {
+        LocaleTreeCache.LocaleTree tree = mCache.loadTree(NO_IGNORABLES);
+
+        assertThat(tree.getLanguages()).containsExactly(LocaleStore.getLocaleInfo(Locale.ENGLISH),
+                LocaleStore.getLocaleInfo(Locale.KOREAN));
+        assertThat(tree.getRegions(LocaleStore.getLocaleInfo(Locale.ENGLISH))).containsExactly(
+                LocaleStore.getLocaleInfo(Locale.CANADA), LocaleStore.getLocaleInfo(Locale.US));
+        assertThat(tree.getRegions(LocaleStore.getLocaleInfo(Locale.FRENCH))).isEmpty();
+    }
+
+    @Test
+    public void loadTree_cachesTree() {
+        LocaleTreeCache.LocaleTree tree = mCache.loadTree(NO_IGNORABLES);
+
+        assertThat(mCache.getTree(NO_IGNORABLES)).isSameAs(tree);
+    }
+
+    @Test
+    public void getTree_differentIgnorables_returnsNull() {
+        mCache.loadTree(NO_IGNORABLES);
+
+        assertThat(mCache.getTree(Collections.singleton("en-US"))).isNull();
+    }
+
+    @Test
+    public void localeChangedBroadcast_dropsTree() {
+        mCache.loadTree(NO_IGNORABLES);
+
+        mContext.sendBroadcast(new Intent(Intent.ACTION_LOCALE_CHANGED));
+
+        assertThat(mCache.getTree(NO_IGNORABLES)).isNull();
+    }
+}
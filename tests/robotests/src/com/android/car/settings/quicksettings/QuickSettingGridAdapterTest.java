@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.quicksettings;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.mock;
+
+import android.content.Context;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Unit test for {@link QuickSettingGridAdapter}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class QuickSettingGridAdapterTest {
+
+    private static final String TEXT_OFF = "off";
+    private static final String TEXT_ON = "on";
+
+    private QuickSettingGridAdapter mAdapter;
+    private TestTile mTile;
+    private RecyclerView.ViewHolder mViewHolder;
+    private List<Object> mChangePayloads;
+    private boolean mIsDataSetChanged;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        mAdapter = new QuickSettingGridAdapter(context);
+        mTile = new TestTile();
+        mAdapter.addTile(mTile);
+        mChangePayloads = new ArrayList<>();
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                mIsDataSetChanged = true;
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount,
+                    @Nullable Object payload) {
+                mChangePayloads.add(payload);
+            }
+        });
+        mViewHolder = mAdapter.createViewHolder(new FrameLayout(context),
+                mAdapter.getItemViewType(0));
+        mAdapter.onBindViewHolder(mViewHolder, 0);
+    }
+
+    @Test
+    public void onStateChanged_notifiesChangeWithPayload() {
+        mAdapter.onStateChanged(mTile);
+
+        assertThat(mChangePayloads).hasSize(1);
+        assertThat(mChangePayloads.get(0)).isNotNull();
+    }
+
+    @Test
+    public void onStateChanged_tileNotShown_doesNotNotify() {
+        mAdapter.onStateChanged(new TestTile());
+
+        assertThat(mChangePayloads).isEmpty();
+    }
+
+    @Test
+    public void onBindViewHolder_statePayload_updatesIconStateAndText() {
+        mTile.mState = QuickSettingGridAdapter.Tile.State.ON;
+        mTile.mText = TEXT_ON;
+        mAdapter.onStateChanged(mTile);
+
+        mAdapter.onBindViewHolder(mViewHolder, 0, mChangePayloads);
+
+        ImageView icon = mViewHolder.itemView.findViewById(R.id.tile_icon);
+        assertThat(icon.getDrawable()).isSameAs(mTile.mIcon);
+        assertThat(icon.isEnabled()).isTrue();
+        assertThat(mViewHolder.itemView.findViewById(R.id.icon_background).isEnabled()).isTrue();
+        assertThat(((TextView) mViewHolder.itemView.findViewById(R.id.tile_text)).getText()
+                .toString()).isEqualTo(TEXT_ON);
+    }
+
+    @Test
+    public void onBindViewHolder_statePayload_doesNotRebindListeners() {
+        mAdapter.onStateChanged(mTile);
+        mViewHolder.itemView.setOnClickListener(null);
+
+        mAdapter.onBindViewHolder(mViewHolder, 0, mChangePayloads);
+
+        assertThat(mTile.mLongClickListenerRequestCount).isEqualTo(1);
+        assertThat(mViewHolder.itemView.hasOnClickListeners()).isFalse();
+    }
+
+    @Test
+    public void onBindViewHolder_noPayload_rebindsListeners() {
+        mViewHolder.itemView.setOnClickListener(null);
+
+        mAdapter.onBindViewHolder(mViewHolder, 0, Collections.emptyList());
+
+        assertThat(mTile.mLongClickListenerRequestCount).isEqualTo(2);
+        assertThat(mViewHolder.itemView.hasOnClickListeners()).isTrue();
+    }
+
+    @Test
+    public void stopAndStart_keepsTiles() {
+        mAdapter.stop();
+        mAdapter.start();
+
+        assertThat(mAdapter.getItemCount()).isEqualTo(1);
+        assertThat(mIsDataSetChanged).isFalse();
+    }
+
+    @Test
+    public void getItemId_followsTileWhenPositionShifts() {
+        long tileId = mAdapter.getItemId(0);
+
+        mAdapter.addSeekbarTile(mock(QuickSettingGridAdapter.SeekbarTile.class));
+
+        assertThat(mAdapter.getItemId(1)).isEqualTo(tileId);
+        assertThat(mAdapter.getItemId(0)).isNotEqualTo(tileId);
+    }
+
+    private static class TestTile implements QuickSettingGridAdapter.Tile {
+        private final Drawable mIcon = new ColorDrawable();
+        private State mState = State.OFF;
+        private String mText = TEXT_OFF;
+        private int mLongClickListenerRequestCount;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Drawable getIcon() {
+            return mIcon;
+        }
+
+        @Override
+        @Nullable
+        public String getText() {
+            return mText;
+        }
+
+        @Override
+        public State getState() {
+            return mState;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        @Nullable
+        public View.OnLongClickListener getOnLongClickListener() {
+            mLongClickListenerRequestCount++;
+            return null;
+        }
+
+        @Override
+        public void onClick(View v) {
+        }
+    }
+}
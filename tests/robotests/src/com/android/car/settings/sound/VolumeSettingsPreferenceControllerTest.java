@@ -18,6 +18,8 @@ package com.android.car.settings.sound;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,12 +29,17 @@ import android.car.drivingstate.CarUxRestrictions;
 import android.car.media.CarAudioManager;
 import android.content.Context;
 import android.media.Ringtone;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.SeekBar;
 
 import androidx.lifecycle.Lifecycle;
 import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceViewHolder;
 
 import com.android.car.settings.CarSettingsRobolectricTestRunner;
 import com.android.car.settings.R;
+import com.android.car.settings.common.CoalescingValueWriter;
 import com.android.car.settings.common.FragmentController;
 import com.android.car.settings.common.LogicalPreferenceGroup;
 import com.android.car.settings.common.PreferenceControllerTestHelper;
@@ -46,7 +53,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 
 @RunWith(CarSettingsRobolectricTestRunner.class)
@@ -56,6 +65,7 @@ public class VolumeSettingsPreferenceControllerTest {
     private static final int GROUP_ID = 0;
     private static final int TEST_MIN_VOLUME = 0;
     private static final int TEST_VOLUME = 40;
+    private static final int TEST_DRAG_VOLUME = 60;
     private static final int TEST_NEW_VOLUME = 80;
     private static final int TEST_MAX_VOLUME = 100;
 
@@ -67,6 +77,7 @@ public class VolumeSettingsPreferenceControllerTest {
     private CarAudioManager mCarAudioManager;
     @Mock
     private Ringtone mRingtone;
+    private SeekBar.OnSeekBarChangeListener mSeekBarListener;
 
     /** Extend class to provide test resource which doesn't require internal android resources. */
     public static class TestVolumeSettingsPreferenceController extends
@@ -117,6 +128,7 @@ public class VolumeSettingsPreferenceControllerTest {
     @Test
     public void testRefreshUi_serviceStarted() {
         mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
         mController.refreshUi();
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
     }
@@ -124,6 +136,7 @@ public class VolumeSettingsPreferenceControllerTest {
     @Test
     public void testRefreshUi_serviceStarted_multipleCalls() {
         mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
 
         // Calling this multiple times shouldn't increase the number of elements.
         mController.refreshUi();
@@ -134,6 +147,7 @@ public class VolumeSettingsPreferenceControllerTest {
     @Test
     public void testRefreshUi_createdPreferenceHasMinMax() {
         mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
         mController.refreshUi();
         SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
         assertThat(preference.getMin()).isEqualTo(TEST_MIN_VOLUME);
@@ -141,9 +155,55 @@ public class VolumeSettingsPreferenceControllerTest {
         assertThat(preference.getMax()).isEqualTo(TEST_MAX_VOLUME);
     }
 
+    @Test
+    public void testRefreshUi_serviceStarted_keepsPreferencesAttached() {
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
+        mController.refreshUi();
+        SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
+
+        mController.refreshUi();
+
+        assertThat(mPreferenceGroup.getPreference(0)).isSameAs(preference);
+    }
+
+    @Test
+    public void testOnServiceConnected_registersVolumeCallback() throws CarNotConnectedException {
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        verify(mCarAudioManager).registerVolumeCallback(
+                mController.getVolumeCallback().asBinder());
+    }
+
+    @Test
+    public void testOnGroupVolumeChanged_updatesPreference() throws Exception {
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
+        mController.refreshUi();
+        when(mCarAudioManager.getGroupVolume(GROUP_ID)).thenReturn(TEST_NEW_VOLUME);
+
+        mController.getVolumeCallback().onGroupVolumeChanged(GROUP_ID, /* flags= */ 0);
+
+        SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
+        assertThat(preference.getValue()).isEqualTo(TEST_NEW_VOLUME);
+    }
+
+    @Test
+    public void testOnDestroy_unregistersVolumeCallback() throws CarNotConnectedException {
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
+
+        mPreferenceControllerHelper.sendLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+
+        verify(mCarAudioManager).unregisterVolumeCallback(
+                mController.getVolumeCallback().asBinder());
+    }
+
     @Test
     public void testOnPreferenceChange_ringtonePlays() {
         mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
         mController.refreshUi();
         SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
         preference.getOnPreferenceChangeListener().onPreferenceChange(preference, TEST_NEW_VOLUME);
@@ -153,9 +213,84 @@ public class VolumeSettingsPreferenceControllerTest {
     @Test
     public void testOnPreferenceChange_audioManagerSet() throws CarNotConnectedException {
         mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
         mController.refreshUi();
         SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
         preference.getOnPreferenceChangeListener().onPreferenceChange(preference, TEST_NEW_VOLUME);
         verify(mCarAudioManager).setGroupVolume(GROUP_ID, TEST_NEW_VOLUME, 0);
     }
+
+    @Test
+    public void testDragAndRelease_audioManagerSetToFinalVolume() throws CarNotConnectedException {
+        SeekBar seekBar = bindSeekBar();
+
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, TEST_DRAG_VOLUME);
+        dragTo(seekBar, TEST_NEW_VOLUME);
+        mSeekBarListener.onStopTrackingTouch(seekBar);
+
+        verify(mCarAudioManager).setGroupVolume(GROUP_ID, TEST_NEW_VOLUME, 0);
+        assertThat(mController.getVolumeWriter(GROUP_ID).getIssuedWriteCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDrag_volumesCoalesced() throws CarNotConnectedException {
+        SeekBar seekBar = bindSeekBar();
+
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, TEST_DRAG_VOLUME);
+        dragTo(seekBar, TEST_DRAG_VOLUME + 1);
+        dragTo(seekBar, TEST_NEW_VOLUME);
+
+        verify(mCarAudioManager).setGroupVolume(GROUP_ID, TEST_DRAG_VOLUME, 0);
+        verify(mCarAudioManager, never()).setGroupVolume(GROUP_ID, TEST_NEW_VOLUME, 0);
+        CoalescingValueWriter volumeWriter = mController.getVolumeWriter(GROUP_ID);
+        assertThat(volumeWriter.getIssuedWriteCount()).isEqualTo(1);
+        assertThat(volumeWriter.getCoalescedWriteCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOnStop_pendingVolumeSet() throws CarNotConnectedException {
+        SeekBar seekBar = bindSeekBar();
+        mPreferenceControllerHelper.markState(Lifecycle.State.STARTED);
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, TEST_DRAG_VOLUME);
+        dragTo(seekBar, TEST_NEW_VOLUME);
+
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+
+        verify(mCarAudioManager).setGroupVolume(GROUP_ID, TEST_NEW_VOLUME, 0);
+    }
+
+    @Test
+    public void testDragAndRelease_finalVolumeDoesNotReplayRingtone() {
+        SeekBar seekBar = bindSeekBar();
+
+        mSeekBarListener.onStartTrackingTouch(seekBar);
+        dragTo(seekBar, TEST_NEW_VOLUME);
+        SystemClock.setCurrentTimeMillis(SystemClock.uptimeMillis()
+                + VolumeSettingsRingtoneManager.MIN_REPLAY_INTERVAL_MS);
+        mSeekBarListener.onStopTrackingTouch(seekBar);
+
+        verify(mRingtone, times(1)).play();
+    }
+
+    /** Loads the volume groups and binds the seek bar of the only group. */
+    private SeekBar bindSeekBar() {
+        mPreferenceControllerHelper.markState(Lifecycle.State.CREATED);
+        Robolectric.flushBackgroundThreadScheduler();
+        mController.refreshUi();
+        SeekBarPreference preference = (SeekBarPreference) mPreferenceGroup.getPreference(0);
+        View rootView = View.inflate(RuntimeEnvironment.application,
+                R.layout.seekbar_preference, /* root= */ null);
+        preference.onBindViewHolder(PreferenceViewHolder.createInstanceForTests(rootView));
+        SeekBar seekBar = rootView.findViewById(R.id.seekbar);
+        mSeekBarListener = Shadows.shadowOf(seekBar).getOnSeekBarChangeListener();
+        return seekBar;
+    }
+
+    private void dragTo(SeekBar seekBar, int volume) {
+        seekBar.setProgress(volume - TEST_MIN_VOLUME);
+        mSeekBarListener.onProgressChanged(seekBar, seekBar.getProgress(), /* fromUser= */ true);
+    }
 }
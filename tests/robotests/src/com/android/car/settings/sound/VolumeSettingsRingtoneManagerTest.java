@@ -16,7 +16,10 @@
 
 package com.android.car.settings.sound;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,7 +43,6 @@ import org.robolectric.shadows.ShadowLooper;
 @Config(shadows = {ShadowRingtoneManager.class})
 public class VolumeSettingsRingtoneManagerTest {
 
-    private static final int TEST_GROUP_ID = 1;
     private static final int TEST_USAGE_ID = 18;
 
     private Context mContext;
@@ -53,7 +55,7 @@ public class VolumeSettingsRingtoneManagerTest {
         MockitoAnnotations.initMocks(this);
         ShadowRingtoneManager.setRingtone(mRingtone);
         mContext = RuntimeEnvironment.application;
-        mRingtoneManager = new VolumeSettingsRingtoneManager(mContext);
+        mRingtoneManager = new VolumeSettingsRingtoneManager(mContext, Runnable::run);
     }
 
     @After
@@ -64,7 +66,7 @@ public class VolumeSettingsRingtoneManagerTest {
 
     @Test
     public void testPlayAudioFeedback_play_playUntilTimeout() {
-        mRingtoneManager.playAudioFeedback(TEST_GROUP_ID, TEST_USAGE_ID);
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
         verify(mRingtone).play();
         when(mRingtone.isPlaying()).thenReturn(true);
         ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
@@ -73,7 +75,7 @@ public class VolumeSettingsRingtoneManagerTest {
 
     @Test
     public void testPlayAudioFeedback_play_stoppedBeforeTimeout() {
-        mRingtoneManager.playAudioFeedback(TEST_GROUP_ID, TEST_USAGE_ID);
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
         verify(mRingtone).play();
         when(mRingtone.isPlaying()).thenReturn(false);
         ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
@@ -82,7 +84,7 @@ public class VolumeSettingsRingtoneManagerTest {
 
     @Test
     public void testStopCurrentRingtone_stop() {
-        mRingtoneManager.playAudioFeedback(TEST_GROUP_ID, TEST_USAGE_ID);
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
         mRingtoneManager.stopCurrentRingtone();
         verify(mRingtone).stop();
     }
@@ -92,4 +94,45 @@ public class VolumeSettingsRingtoneManagerTest {
         mRingtoneManager.stopCurrentRingtone();
         verify(mRingtone, never()).stop();
     }
+
+    @Test
+    public void testPlayAudioFeedback_alreadyPlaying_doesNotRestart() {
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+        when(mRingtone.isPlaying()).thenReturn(true);
+
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+
+        verify(mRingtone, times(1)).play();
+        verify(mRingtone, never()).stop();
+    }
+
+    @Test
+    public void testPlayAudioFeedback_replayWithinInterval_doesNotPlay() {
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+        when(mRingtone.isPlaying()).thenReturn(false);
+
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+
+        verify(mRingtone, times(1)).play();
+    }
+
+    @Test
+    public void testPlayAudioFeedback_recordsFirstFeedbackLatency() {
+        assertThat(mRingtoneManager.getFirstFeedbackLatencyMs()).isEqualTo(-1);
+
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+
+        assertThat(mRingtoneManager.getFirstFeedbackLatencyMs()).isAtLeast(0);
+    }
+
+    @Test
+    public void testPreloadRingtone_playUsesPreloadedRingtone() {
+        mRingtoneManager.preloadRingtone(TEST_USAGE_ID);
+        ShadowRingtoneManager.setRingtone(null);
+
+        mRingtoneManager.playAudioFeedback(TEST_USAGE_ID);
+
+        verify(mRingtone).play();
+    }
 }
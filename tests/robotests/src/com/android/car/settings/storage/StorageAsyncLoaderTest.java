@@ -22,6 +22,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.usage.StorageStats;
@@ -32,6 +34,7 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.pm.UserInfo;
 import android.net.TrafficStats;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.util.SparseArray;
 
@@ -93,6 +96,7 @@ public class StorageAsyncLoaderTest {
     @After
     public void tearDown() {
         ShadowApplicationPackageManager.reset();
+        StorageStatsSnapshot.delete(mContext);
     }
 
     @Test
@@ -228,8 +232,127 @@ public class StorageAsyncLoaderTest {
         assertThat(result.get(PRIMARY_USER_ID).getOtherAppsSize()).isEqualTo(DEFAULT_QUOTA + 11);
     }
 
+    @Test
+    public void incrementalLoad_noSnapshot_queriesAllPackages() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        addPackage(PACKAGE_NAME_2, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+
+        SparseArray<StorageAsyncLoader.AppsStorageResult> result =
+                createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        assertThat(result.get(PRIMARY_USER_ID).getOtherAppsSize()).isEqualTo(22L);
+        verify(mSource, times(2)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void incrementalLoad_packageUnchanged_reusesSnapshot() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        SparseArray<StorageAsyncLoader.AppsStorageResult> result =
+                createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        assertThat(result.get(PRIMARY_USER_ID).getOtherAppsSize()).isEqualTo(11L);
+        verify(mSource, times(1)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void incrementalLoad_packageUpdated_queriesPackage() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+        addPackage(PACKAGE_NAME_1, 0, 1, 20, ApplicationInfo.CATEGORY_UNDEFINED, 1);
+
+        SparseArray<StorageAsyncLoader.AppsStorageResult> result =
+                createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        assertThat(result.get(PRIMARY_USER_ID).getOtherAppsSize()).isEqualTo(21L);
+        verify(mSource, times(2)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void fullScan_packageUnchanged_queriesPackage() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        createLoader(StorageAsyncLoader.MODE_FULL_SCAN).loadInBackground();
+
+        verify(mSource, times(2)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void incrementalLoad_fullScanExpired_queriesUnchangedPackage() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+        long halfMaxAgeMs = StorageAsyncLoader.MAX_SNAPSHOT_AGE_MS / 2;
+        SystemClock.setCurrentTimeMillis(SystemClock.elapsedRealtime() + halfMaxAgeMs);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        // Expires relative to the full scan, not to the previous incremental load.
+        SystemClock.setCurrentTimeMillis(SystemClock.elapsedRealtime() + halfMaxAgeMs + 1);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        verify(mSource, times(2)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void snapshotOnlyLoad_noSnapshot_returnsNull() {
+        assertThat(createLoader(StorageAsyncLoader.MODE_SNAPSHOT_ONLY).loadInBackground())
+                .isNull();
+    }
+
+    @Test
+    public void snapshotOnlyLoad_returnsPersistedResultWithoutQuerying() throws Exception {
+        addPackage(PACKAGE_NAME_1, 0, 1, 10, ApplicationInfo.CATEGORY_GAME);
+        createLoader(StorageAsyncLoader.MODE_INCREMENTAL).loadInBackground();
+
+        SparseArray<StorageAsyncLoader.AppsStorageResult> result =
+                createLoader(StorageAsyncLoader.MODE_SNAPSHOT_ONLY).loadInBackground();
+
+        assertThat(result.get(PRIMARY_USER_ID).getGamesSize()).isEqualTo(11L);
+        verify(mSource, times(1)).getStatsForPackage(any(), anyString(), any(UserHandle.class));
+    }
+
+    @Test
+    public void testManyPackages_allBatchesCounted() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            addPackage(PACKAGE_NAME_1 + i, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        }
+
+        SparseArray<StorageAsyncLoader.AppsStorageResult> result = mLoader.loadInBackground();
+
+        assertThat(result.get(PRIMARY_USER_ID).getOtherAppsSize()).isEqualTo(440L);
+    }
+
+    @Test
+    public void testManyPackages_partialResultsPublished() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            addPackage(PACKAGE_NAME_1 + i, 0, 1, 10, ApplicationInfo.CATEGORY_UNDEFINED);
+        }
+        List<SparseArray<StorageAsyncLoader.AppsStorageResult>> partialResults =
+                new ArrayList<>();
+        mLoader.setPartialResultListener(partialResults::add);
+
+        mLoader.loadInBackground();
+
+        assertThat(partialResults).isNotEmpty();
+        for (SparseArray<StorageAsyncLoader.AppsStorageResult> partial : partialResults) {
+            assertThat(partial.get(PRIMARY_USER_ID).getOtherAppsSize()).isAtMost(440L);
+        }
+    }
+
+    private StorageAsyncLoader createLoader(int mode) {
+        return new StorageAsyncLoader(mContext, mCarUserManagerHelper, mSource,
+                StorageStatsSnapshot.getFile(mContext), mode);
+    }
+
     private ApplicationInfo addPackage(String packageName, long cacheSize, long codeSize,
             long dataSize, int category) throws Exception {
+        return addPackage(packageName, cacheSize, codeSize, dataSize, category,
+                /* lastUpdateTime= */ 0);
+    }
+
+    private ApplicationInfo addPackage(String packageName, long cacheSize, long codeSize,
+            long dataSize, int category, long lastUpdateTime) throws Exception {
         StorageStats stats = new StorageStats();
         stats.codeBytes = codeSize;
         stats.dataBytes = dataSize + cacheSize;
@@ -246,6 +369,7 @@ public class StorageAsyncLoaderTest {
         PackageInfo packageInfo = new PackageInfo();
         packageInfo.applicationInfo = info;
         packageInfo.packageName = packageName;
+        packageInfo.lastUpdateTime = lastUpdateTime;
         getShadowApplicationManager().addPackage(packageInfo);
         return info;
     }
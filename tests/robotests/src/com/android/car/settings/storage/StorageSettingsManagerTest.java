@@ -55,6 +55,9 @@ public class StorageSettingsManagerTest {
     private ArgumentCaptor<LoaderManager
             .LoaderCallbacks<SparseArray<StorageAsyncLoader.AppsStorageResult>>> mAppsStorageResult;
     @Captor
+    private ArgumentCaptor<LoaderManager
+            .LoaderCallbacks<SparseArray<StorageAsyncLoader.AppsStorageResult>>> mSnapshotResult;
+    @Captor
     private ArgumentCaptor<LoaderManager.LoaderCallbacks<PrivateStorageInfo>> mVolumeSizeCallback;
 
     @Mock
@@ -76,6 +79,40 @@ public class StorageSettingsManagerTest {
                 mAppsStorageResult.capture());
         verify(mLoaderManager, times(1)).restartLoader(eq(1), eq(Bundle.EMPTY),
                 mVolumeSizeCallback.capture());
+        verify(mLoaderManager, times(1)).restartLoader(eq(2), eq(Bundle.EMPTY),
+                mSnapshotResult.capture());
+    }
+
+    @Test
+    public void snapshotResult_onLoadFinished_listenerCalledWithSnapshot() throws Exception {
+        mStorageSettingsManager.registerListener(mVolumeListener1);
+        SparseArray<StorageAsyncLoader.AppsStorageResult> snapshot = new SparseArray<>();
+        mSnapshotResult.getValue().onLoadFinished(null, snapshot);
+
+        mVolumeSizeCallback.getValue().onLoadFinished(null, loadStorageInfo());
+
+        verify(mVolumeListener1, times(1)).onDataLoaded(snapshot, 9000L, 10000L);
+    }
+
+    @Test
+    public void snapshotResult_afterFreshResult_ignored() throws Exception {
+        mStorageSettingsManager.registerListener(mVolumeListener1);
+        SparseArray<StorageAsyncLoader.AppsStorageResult> data = new SparseArray<>();
+        SparseArray<StorageAsyncLoader.AppsStorageResult> snapshot = new SparseArray<>();
+        mAppsStorageResult.getValue().onLoadFinished(null, data);
+        mVolumeSizeCallback.getValue().onLoadFinished(null, loadStorageInfo());
+
+        mSnapshotResult.getValue().onLoadFinished(null, snapshot);
+
+        verify(mVolumeListener1, never()).onDataLoaded(snapshot, 9000L, 10000L);
+    }
+
+    @Test
+    public void refresh_doesNotLoadSnapshot() {
+        mStorageSettingsManager.refresh(mLoaderManager);
+
+        verify(mLoaderManager, times(2)).restartLoader(eq(0), eq(Bundle.EMPTY), any());
+        verify(mLoaderManager, times(1)).restartLoader(eq(2), eq(Bundle.EMPTY), any());
     }
 
     @Test
@@ -160,4 +197,12 @@ public class StorageSettingsManagerTest {
         verify(mVolumeListener1, never()).onDataLoaded(data, 9000L, 10000L);
         verify(mVolumeListener2, never()).onDataLoaded(data, 9000L, 10000L);
     }
+
+    private PrivateStorageInfo loadStorageInfo() throws Exception {
+        StorageVolumeProvider storageVolumeProvider = mock(StorageVolumeProvider.class);
+        when(storageVolumeProvider.getTotalBytes(any(), any())).thenReturn(10000L);
+        when(storageVolumeProvider.getFreeBytes(any(), any())).thenReturn(1000L);
+        return new VolumeSizesLoader(mContext, storageVolumeProvider, null, mVolumeInfo)
+                .loadInBackground();
+    }
 }
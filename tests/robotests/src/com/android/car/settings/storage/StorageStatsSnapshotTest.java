@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.storage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.applications.StorageStatsSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+/** Unit test for {@link StorageStatsSnapshot}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class StorageStatsSnapshotTest {
+
+    private static final String PACKAGE_NAME = "com.blah.test";
+
+    private Context mContext;
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mFile = StorageStatsSnapshot.getFile(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        StorageStatsSnapshot.delete(mContext);
+    }
+
+    @Test
+    public void read_noFile_returnsNull() {
+        assertThat(StorageStatsSnapshot.read(mFile)).isNull();
+    }
+
+    @Test
+    public void writeThenRead_restoresStats() {
+        StorageStatsSnapshot.PackageStats packageStats = new StorageStatsSnapshot.PackageStats(
+                PACKAGE_NAME, /* lastUpdateTime= */ 5, ApplicationInfo.CATEGORY_VIDEO,
+                ApplicationInfo.FLAG_IS_GAME, /* codeBytes= */ 1, /* dataBytes= */ 2,
+                /* cacheBytes= */ 3, /* cacheQuotaBytes= */ 4);
+        StorageStatsSnapshot.UserStats userStats = new StorageStatsSnapshot.UserStats(
+                /* userId= */ 10, Collections.singletonList(packageStats),
+                new StorageStatsSource.ExternalStorageStats(9, 2, 3, 4, 0));
+        new StorageStatsSnapshot(/* fullScanTimeMillis= */ 100, Arrays.asList(userStats))
+                .write(mFile);
+
+        StorageStatsSnapshot snapshot = StorageStatsSnapshot.read(mFile);
+
+        assertThat(snapshot.getFullScanTimeMillis()).isEqualTo(100);
+        StorageStatsSnapshot.UserStats readUser = snapshot.getUser(10);
+        assertThat(readUser.getExternalStats().totalBytes).isEqualTo(9);
+        StorageStatsSnapshot.PackageStats readPackage = readUser.getPackage(PACKAGE_NAME, 5);
+        assertThat(readPackage.getCategory()).isEqualTo(ApplicationInfo.CATEGORY_VIDEO);
+        assertThat(readPackage.getFlags()).isEqualTo(ApplicationInfo.FLAG_IS_GAME);
+        assertThat(readPackage.getCodeBytes()).isEqualTo(1);
+        assertThat(readPackage.getDataBytes()).isEqualTo(2);
+        assertThat(readPackage.getCacheBytes()).isEqualTo(3);
+        assertThat(readPackage.getCacheQuotaBytes()).isEqualTo(4);
+    }
+
+    @Test
+    public void getPackage_differentUpdateTime_returnsNull() {
+        StorageStatsSnapshot.PackageStats packageStats = new StorageStatsSnapshot.PackageStats(
+                PACKAGE_NAME, /* lastUpdateTime= */ 5, ApplicationInfo.CATEGORY_UNDEFINED,
+                /* flags= */ 0, 1, 2, 3, 4);
+        StorageStatsSnapshot.UserStats userStats = new StorageStatsSnapshot.UserStats(
+                /* userId= */ 0, Collections.singletonList(packageStats),
+                /* externalStats= */ null);
+
+        assertThat(userStats.getPackage(PACKAGE_NAME, 6)).isNull();
+    }
+
+    @Test
+    public void delete_removesSnapshot() {
+        new StorageStatsSnapshot(/* fullScanTimeMillis= */ 100, Collections.emptyList()).write(mFile);
+
+        StorageStatsSnapshot.delete(mContext);
+
+        assertThat(StorageStatsSnapshot.read(mFile)).isNull();
+    }
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.when;
 
 import android.car.userlib.CarUserManagerHelper;
 import android.content.Context;
+import android.content.Intent;
 import android.content.pm.UserInfo;
 
 import androidx.lifecycle.Lifecycle;
@@ -74,6 +75,7 @@ public class MasterClearOtherUsersPresentPreferenceControllerTest {
     @Test
     public void refreshUi_noSwitchableUsers_hidesPreference() {
         when(mCarUserManagerHelper.getAllSwitchableUsers()).thenReturn(Collections.emptyList());
+        RuntimeEnvironment.application.sendBroadcast(new Intent(Intent.ACTION_USER_ADDED));
 
         mController.refreshUi();
 
@@ -84,6 +86,7 @@ public class MasterClearOtherUsersPresentPreferenceControllerTest {
     public void refreshUi_switchableUsers_showsPreference() {
         when(mCarUserManagerHelper.getAllSwitchableUsers()).thenReturn(
                 Collections.singletonList(new UserInfo()));
+        RuntimeEnvironment.application.sendBroadcast(new Intent(Intent.ACTION_USER_ADDED));
 
         mController.refreshUi();
 
@@ -25,6 +25,7 @@ import android.content.IntentFilter;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.IPackageDataObserver;
 import android.content.pm.ModuleInfo;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ProviderInfo;
 import android.content.pm.ResolveInfo;
@@ -107,6 +108,11 @@ public class ShadowApplicationPackageManager extends
         return getInstalledApplications(flags);
     }
 
+    @Implementation
+    protected List<PackageInfo> getInstalledPackagesAsUser(int flags, int userId) {
+        return getInstalledPackages(flags);
+    }
+
     @Implementation
     protected ApplicationInfo getApplicationInfoAsUser(String packageName, int flags, int userId)
             throws PackageManager.NameNotFoundException {
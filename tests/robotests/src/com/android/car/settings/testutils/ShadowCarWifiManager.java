@@ -26,6 +26,8 @@ import com.android.settingslib.wifi.AccessPoint;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.Resetter;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
 import java.util.List;
 
@@ -61,6 +63,12 @@ public class ShadowCarWifiManager {
     public void __constructor__(Context context) {
     }
 
+    @Implementation
+    public static CarWifiManager acquire(Context context) {
+        return ReflectionHelpers.callConstructor(CarWifiManager.class,
+                ClassParameter.from(Context.class, context));
+    }
+
     @Implementation
     public void start() {
         if (sInstance != null) {
@@ -78,9 +86,9 @@ public class ShadowCarWifiManager {
     }
 
     @Implementation
-    public void destroy() {
+    public void release() {
         if (sInstance != null) {
-            sInstance.destroy();
+            sInstance.release();
         }
         sCurrentState = STATE_DESTROYED;
     }
@@ -30,6 +30,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
 
 @RunWith(CarSettingsRobolectricTestRunner.class)
 public class AddNewUserTaskTest {
@@ -43,7 +44,8 @@ public class AddNewUserTaskTest {
     @Before
     public void createAsyncTask() {
         MockitoAnnotations.initMocks(this);
-        mTask = new AddNewUserTask(mCarUserManagerHelper, mAddNewUserListener);
+        mTask = new AddNewUserTask(RuntimeEnvironment.application, mCarUserManagerHelper,
+                mAddNewUserListener);
     }
 
     @Test
@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertThrows;
@@ -38,6 +39,7 @@ import com.android.car.settings.common.ConfirmationDialogFragment;
 import com.android.car.settings.common.ErrorDialog;
 import com.android.car.settings.common.LogicalPreferenceGroup;
 import com.android.car.settings.common.PreferenceControllerTestHelper;
+import com.android.car.settings.common.UserStateCache;
 import com.android.car.settings.testutils.ShadowCarUserManagerHelper;
 import com.android.car.settings.testutils.ShadowUserIconProvider;
 
@@ -124,6 +126,17 @@ public class ChooseNewAdminPreferenceControllerTest {
         verify(mCarUserManagerHelper).removeUser(eq(TEST_ADMIN_USER), anyString());
     }
 
+    @Test
+    public void testAssignNewAdminAndRemoveOldAdmin_invalidatesUserStateCache() {
+        UserStateCache userStateCache = UserStateCache.getInstance(mContext);
+        userStateCache.getAllUsers();
+
+        mController.assignNewAdminAndRemoveOldAdmin(TEST_OTHER_USER);
+        userStateCache.getAllUsers();
+
+        verify(mCarUserManagerHelper, times(2)).getAllUsers();
+    }
+
     @Test
     public void testAssignNewAdminAndRemoveOldAdmin_success_noErrorDialog() {
         when(mCarUserManagerHelper.removeUser(TEST_ADMIN_USER,
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Unit test for {@link UserAvatarCache}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class UserAvatarCacheTest {
+
+    private static final int USER_ID = 10;
+    private static final int AVATAR_SIZE = 8;
+
+    private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+    private final List<Bitmap> mLoaded = new ArrayList<>();
+    private int mLoaderCallCount;
+    private UserAvatarCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new UserAvatarCache(UserAvatarCache.MAX_SIZE_BYTES, mBackgroundTasks::add);
+    }
+
+    @Test
+    public void load_deliversCroppedAvatarAndCachesIt() {
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+
+        runBackgroundTasks();
+
+        assertThat(mLoaded).hasSize(1);
+        assertThat(mLoaded.get(0).getWidth()).isEqualTo(AVATAR_SIZE);
+        assertThat(mLoaded.get(0).getHeight()).isEqualTo(AVATAR_SIZE);
+        assertThat(mCache.get(USER_ID)).isSameAs(mLoaded.get(0));
+    }
+
+    @Test
+    public void load_cached_deliversWithoutLoading() {
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+        runBackgroundTasks();
+
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+
+        assertThat(mBackgroundTasks).isEmpty();
+        assertThat(mLoaded).hasSize(2);
+        assertThat(mLoaderCallCount).isEqualTo(1);
+    }
+
+    @Test
+    public void load_whileLoading_sharesRunningLoad() {
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+
+        runBackgroundTasks();
+
+        assertThat(mLoaderCallCount).isEqualTo(1);
+        assertThat(mLoaded).hasSize(2);
+    }
+
+    @Test
+    public void invalidate_dropsCachedAvatar() {
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+        runBackgroundTasks();
+
+        mCache.invalidate(USER_ID);
+
+        assertThat(mCache.get(USER_ID)).isNull();
+        assertThat(mCache.getSizeBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidate_whileLoading_resultDropped() {
+        mCache.load(USER_ID, AVATAR_SIZE, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+
+        mCache.invalidate(USER_ID);
+        runBackgroundTasks();
+
+        assertThat(mLoaded).isEmpty();
+        assertThat(mCache.get(USER_ID)).isNull();
+    }
+
+    @Test
+    public void load_overMaxSize_evictsLeastRecentlyUsed() {
+        // Each avatar takes a quarter of the cache.
+        int avatarSize = (int) Math.sqrt(UserAvatarCache.MAX_SIZE_BYTES / 4 / 4);
+        for (int userId = 0; userId < 5; userId++) {
+            mCache.load(userId, avatarSize, this::createIcon, (key, avatar) -> mLoaded.add(avatar));
+        }
+
+        runBackgroundTasks();
+
+        assertThat(mLoaded).hasSize(5);
+        assertThat(mCache.get(0)).isNull();
+        assertThat(mCache.get(4)).isNotNull();
+        assertThat(mCache.getSizeBytes()).isAtMost(UserAvatarCache.MAX_SIZE_BYTES);
+    }
+
+    private Bitmap createIcon() {
+        mLoaderCallCount++;
+        return Bitmap.createBitmap(AVATAR_SIZE * 2, AVATAR_SIZE, Bitmap.Config.ARGB_8888);
+    }
+
+    private void runBackgroundTasks() {
+        while (!mBackgroundTasks.isEmpty()) {
+            mBackgroundTasks.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.car.userlib.CarUserManagerHelper;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.UserInfo;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.car.settings.testutils.ShadowCarUserManagerHelper;
+import com.android.car.settings.users.UserGridRecyclerView.UserRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Unit test for {@link UserGridRecyclerView}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+@Config(shadows = {ShadowCarUserManagerHelper.class})
+public class UserGridRecyclerViewTest {
+
+    private static final UserRecord USER_1 = createUserRecord(10, "User 1");
+    private static final UserRecord USER_2 = createUserRecord(11, "User 2");
+    private static final UserRecord ADD_USER = new UserRecord(new UserInfo(),
+            /* isStartGuestSession= */ false, /* isAddUser= */ true, /* isForeground= */ false);
+
+    @Mock
+    private CarUserManagerHelper mCarUserManagerHelper;
+    private Context mContext;
+    private UserGridRecyclerView mUserGridView;
+    private UserGridRecyclerView.UserAdapter mAdapter;
+    private TestAdapterDataObserver mObserver;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ShadowCarUserManagerHelper.setMockInstance(mCarUserManagerHelper);
+        mContext = RuntimeEnvironment.application;
+        mUserGridView = new UserGridRecyclerView(mContext, /* attrs= */ null);
+        mAdapter = mUserGridView.new UserAdapter(mContext,
+                new ArrayList<>(Arrays.asList(USER_1, USER_2, ADD_USER)));
+        mObserver = new TestAdapterDataObserver();
+        mAdapter.registerAdapterDataObserver(mObserver);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowCarUserManagerHelper.reset();
+    }
+
+    @Test
+    public void attachAndDetachTwice_registrationsBalanced() {
+        mUserGridView.onAttachedToWindow();
+        mUserGridView.onDetachedFromWindow();
+        mUserGridView.onAttachedToWindow();
+        mUserGridView.onDetachedFromWindow();
+
+        verify(mCarUserManagerHelper, times(2)).registerOnUsersUpdateListener(mUserGridView);
+        verify(mCarUserManagerHelper, times(2)).unregisterOnUsersUpdateListener(mUserGridView);
+        assertThat(ShadowApplication.getInstance().getReceiversForIntent(
+                new Intent(Intent.ACTION_USER_INFO_CHANGED))).isEmpty();
+    }
+
+    @Test
+    public void onAttachedToWindow_registersUserInfoChangedReceiver() {
+        mUserGridView.onAttachedToWindow();
+
+        assertThat(ShadowApplication.getInstance().getReceiversForIntent(
+                new Intent(Intent.ACTION_USER_INFO_CHANGED))).hasSize(1);
+
+        mUserGridView.onDetachedFromWindow();
+    }
+
+    @Test
+    public void updateUsers_sameUsers_noChangeDispatched() {
+        mAdapter.updateUsers(Arrays.asList(createUserRecord(10, "User 1"),
+                createUserRecord(11, "User 2"), ADD_USER));
+
+        assertThat(mObserver.mChangedPositions).isEmpty();
+        assertThat(mObserver.mInsertedCount).isEqualTo(0);
+        assertThat(mObserver.mRemovedCount).isEqualTo(0);
+    }
+
+    @Test
+    public void updateUsers_userRenamed_onlyRenamedUserChanged() {
+        mAdapter.updateUsers(Arrays.asList(USER_1, createUserRecord(11, "Renamed"), ADD_USER));
+
+        assertThat(mObserver.mChangedPositions).containsExactly(1);
+        assertThat(mObserver.mInsertedCount).isEqualTo(0);
+        assertThat(mObserver.mRemovedCount).isEqualTo(0);
+    }
+
+    @Test
+    public void updateUsers_userAdded_onlyInsertionDispatched() {
+        mAdapter.updateUsers(Arrays.asList(USER_1, USER_2, createUserRecord(12, "User 3"),
+                ADD_USER));
+
+        assertThat(mObserver.mInsertedCount).isEqualTo(1);
+        assertThat(mObserver.mChangedPositions).isEmpty();
+        assertThat(mObserver.mRemovedCount).isEqualTo(0);
+        assertThat(mAdapter.getItemCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void updateUsers_userRemoved_onlyRemovalDispatched() {
+        mAdapter.updateUsers(Arrays.asList(USER_1, ADD_USER));
+
+        assertThat(mObserver.mRemovedCount).isEqualTo(1);
+        assertThat(mObserver.mChangedPositions).isEmpty();
+        assertThat(mObserver.mInsertedCount).isEqualTo(0);
+    }
+
+    @Test
+    public void setAddUserRestricted_rebindsOnlyAddUserPod() {
+        mAdapter.setAddUserRestricted(true);
+
+        assertThat(mObserver.mChangedPositions).containsExactly(2);
+    }
+
+    @Test
+    public void setAddUserRestricted_unchanged_noRebind() {
+        mAdapter.setAddUserRestricted(false);
+
+        assertThat(mObserver.mChangedPositions).isEmpty();
+    }
+
+    private static UserRecord createUserRecord(int id, String name) {
+        return new UserRecord(new UserInfo(id, name, /* flags= */ 0),
+                /* isStartGuestSession= */ false, /* isAddUser= */ false,
+                /* isForeground= */ false);
+    }
+
+    private static class TestAdapterDataObserver extends RecyclerView.AdapterDataObserver {
+        private final List<Integer> mChangedPositions = new ArrayList<>();
+        private int mInsertedCount;
+        private int mRemovedCount;
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount,
+                @Nullable Object payload) {
+            for (int i = 0; i < itemCount; i++) {
+                mChangedPositions.add(positionStart + i);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mInsertedCount += itemCount;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mRemovedCount += itemCount;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import android.net.wifi.WifiManager;
 import android.util.Pair;
 
 import androidx.lifecycle.Lifecycle;
+import androidx.preference.Preference;
 import androidx.preference.PreferenceGroup;
 
 import com.android.car.settings.CarSettingsRobolectricTestRunner;
@@ -143,6 +144,64 @@ public class AccessPointListPreferenceControllerTest {
         assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(savedAccessPointList.size());
     }
 
+    @Test
+    public void refreshUi_sameAccessPoints_preferencesReused() {
+        when(mMockAccessPoint1.getKey()).thenReturn("key1");
+        when(mMockAccessPoint2.getKey()).thenReturn("key2");
+        when(mMockCarWifiManager.getAllAccessPoints()).thenReturn(
+                Arrays.asList(mMockAccessPoint1, mMockAccessPoint2));
+        mController.refreshUi();
+        Preference preference1 = mPreferenceGroup.getPreference(0);
+
+        when(mMockAccessPoint1.getSummary()).thenReturn("Connected");
+        mController.refreshUi();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(2);
+        assertThat(mPreferenceGroup.getPreference(0)).isSameAs(preference1);
+        assertThat(preference1.getSummary()).isEqualTo("Connected");
+        assertThat(mController.getCreatedPreferenceCount()).isEqualTo(2);
+        assertThat(mController.getReusedPreferenceCount()).isEqualTo(2);
+        assertThat(mController.getRemovedPreferenceCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void refreshUi_accessPointsReordered_preferencesMoved() {
+        when(mMockAccessPoint1.getKey()).thenReturn("key1");
+        when(mMockAccessPoint2.getKey()).thenReturn("key2");
+        when(mMockCarWifiManager.getAllAccessPoints()).thenReturn(
+                Arrays.asList(mMockAccessPoint1, mMockAccessPoint2));
+        mController.refreshUi();
+        Preference preference1 = mPreferenceGroup.getPreference(0);
+
+        when(mMockCarWifiManager.getAllAccessPoints()).thenReturn(
+                Arrays.asList(mMockAccessPoint2, mMockAccessPoint1));
+        mController.refreshUi();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(2);
+        assertThat(mPreferenceGroup.findPreference("key1")).isSameAs(preference1);
+        assertThat(preference1.getOrder()).isEqualTo(1);
+        assertThat(mController.getCreatedPreferenceCount()).isEqualTo(2);
+        assertThat(mController.getReusedPreferenceCount()).isEqualTo(2);
+        assertThat(mController.getRemovedPreferenceCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void refreshUi_accessPointGone_preferenceRemoved() {
+        when(mMockAccessPoint1.getKey()).thenReturn("key1");
+        when(mMockAccessPoint2.getKey()).thenReturn("key2");
+        when(mMockCarWifiManager.getAllAccessPoints()).thenReturn(
+                Arrays.asList(mMockAccessPoint1, mMockAccessPoint2));
+        mController.refreshUi();
+
+        when(mMockCarWifiManager.getAllAccessPoints()).thenReturn(
+                Arrays.asList(mMockAccessPoint2));
+        mController.refreshUi();
+
+        assertThat(mPreferenceGroup.getPreferenceCount()).isEqualTo(1);
+        assertThat(mPreferenceGroup.getPreference(0).getKey()).isEqualTo("key2");
+        assertThat(mController.getRemovedPreferenceCount()).isEqualTo(1);
+    }
+
     @Test
     public void performClick_noSecurityNotConnectedAccessPoint_connect() {
         when(mMockAccessPoint1.getSecurity()).thenReturn(AccessPoint.SECURITY_NONE);
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.wifi;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.when;
+
+import android.net.NetworkInfo;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.wifi.AccessPoint;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+/** Unit test for {@link AccessPointSnapshot}. */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class AccessPointSnapshotTest {
+
+    @Mock
+    private AccessPoint mReachableAccessPoint;
+    @Mock
+    private AccessPoint mSavedAccessPoint;
+    @Mock
+    private AccessPoint mUnreachableAccessPoint;
+
+    private AccessPointSnapshot mSnapshot;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mReachableAccessPoint.isReachable()).thenReturn(true);
+        when(mSavedAccessPoint.isReachable()).thenReturn(true);
+        when(mSavedAccessPoint.isSaved()).thenReturn(true);
+        when(mSavedAccessPoint.getDetailedState()).thenReturn(
+                NetworkInfo.DetailedState.CONNECTED);
+        when(mUnreachableAccessPoint.isSaved()).thenReturn(true);
+
+        mSnapshot = new AccessPointSnapshot(/* version= */ 3, Arrays.asList(
+                mReachableAccessPoint, mSavedAccessPoint, mUnreachableAccessPoint));
+    }
+
+    @Test
+    public void getAllAccessPoints_onlyReachable() {
+        assertThat(mSnapshot.getAllAccessPoints()).containsExactly(mReachableAccessPoint,
+                mSavedAccessPoint).inOrder();
+    }
+
+    @Test
+    public void getSavedAccessPoints_onlyReachableAndSaved() {
+        assertThat(mSnapshot.getSavedAccessPoints()).containsExactly(mSavedAccessPoint);
+    }
+
+    @Test
+    public void getConnectedAccessPoint_returnsConnected() {
+        assertThat(mSnapshot.getConnectedAccessPoint()).isSameAs(mSavedAccessPoint);
+    }
+
+    @Test
+    public void getConnectedAccessPoint_noneConnected_returnsNull() {
+        AccessPointSnapshot snapshot = new AccessPointSnapshot(/* version= */ 0,
+                Arrays.asList(mReachableAccessPoint));
+
+        assertThat(snapshot.getConnectedAccessPoint()).isNull();
+    }
+
+    @Test
+    public void getVersion() {
+        assertThat(mSnapshot.getVersion()).isEqualTo(3);
+    }
+}
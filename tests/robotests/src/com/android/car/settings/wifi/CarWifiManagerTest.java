@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.car.settings.wifi;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+
+import com.android.car.settings.CarSettingsRobolectricTestRunner;
+import com.android.settingslib.wifi.WifiTracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit test for {@link CarWifiManager}. Uses the real class rather than {@code
+ * ShadowCarWifiManager}, which returns a new instance from every acquire.
+ */
+@RunWith(CarSettingsRobolectricTestRunner.class)
+public class CarWifiManagerTest {
+
+    @Mock
+    private WifiTracker mWifiTracker;
+    private Context mContext;
+    private CarWifiManager mCarWifiManager;
+    private final List<CarWifiManager> mAcquired = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = RuntimeEnvironment.application;
+        mCarWifiManager = new CarWifiManager(mContext, mWifiTracker);
+    }
+
+    @After
+    public void tearDown() {
+        // The shared instance is static, so drop any reference a test leaves behind.
+        for (CarWifiManager carWifiManager : mAcquired) {
+            carWifiManager.release();
+        }
+    }
+
+    @Test
+    public void acquire_twice_returnsSameInstance() {
+        CarWifiManager first = acquire();
+
+        assertThat(acquire()).isSameAs(first);
+    }
+
+    @Test
+    public void release_otherReferenceHeld_keepsInstance() {
+        CarWifiManager first = acquire();
+        acquire();
+
+        release(first);
+
+        assertThat(acquire()).isSameAs(first);
+    }
+
+    @Test
+    public void release_lastReference_dropsInstance() {
+        CarWifiManager first = acquire();
+        CarWifiManager second = acquire();
+
+        release(first);
+        release(second);
+
+        assertThat(acquire()).isNotSameAs(first);
+    }
+
+    @Test
+    public void release_unbalanced_doesNotDropHeldInstance() {
+        CarWifiManager first = acquire();
+        CarWifiManager stale = new CarWifiManager(mContext, mWifiTracker);
+
+        stale.release();
+
+        assertThat(acquire()).isSameAs(first);
+    }
+
+    @Test
+    public void start_startsTracker() {
+        mCarWifiManager.start();
+
+        verify(mWifiTracker).onStart();
+    }
+
+    @Test
+    public void stop_trackerStoppedAfterDelay() {
+        mCarWifiManager.start();
+        mCarWifiManager.stop();
+
+        verify(mWifiTracker, never()).onStop();
+
+        ShadowLooper.idleMainLooper(CarWifiManager.TRACKER_STOP_DELAY_MS);
+
+        verify(mWifiTracker).onStop();
+    }
+
+    @Test
+    public void startWithinStopDelay_keepsTrackerRunning() {
+        mCarWifiManager.start();
+        mCarWifiManager.stop();
+        ShadowLooper.idleMainLooper(CarWifiManager.TRACKER_STOP_DELAY_MS / 2);
+
+        mCarWifiManager.start();
+        ShadowLooper.idleMainLooper(CarWifiManager.TRACKER_STOP_DELAY_MS);
+
+        verify(mWifiTracker).onStart();
+        verify(mWifiTracker, never()).onStop();
+    }
+
+    @Test
+    public void stop_otherCallerStarted_keepsTrackerRunning() {
+        mCarWifiManager.start();
+        mCarWifiManager.start();
+
+        mCarWifiManager.stop();
+        ShadowLooper.idleMainLooper(CarWifiManager.TRACKER_STOP_DELAY_MS);
+
+        verify(mWifiTracker, never()).onStop();
+    }
+
+    @Test
+    public void stop_unbalanced_doesNotStopTracker() {
+        mCarWifiManager.stop();
+        ShadowLooper.idleMainLooper(CarWifiManager.TRACKER_STOP_DELAY_MS);
+
+        verify(mWifiTracker, never()).onStop();
+    }
+
+    private CarWifiManager acquire() {
+        CarWifiManager carWifiManager = CarWifiManager.acquire(mContext);
+        mAcquired.add(carWifiManager);
+        return carWifiManager;
+    }
+
+    private void release(CarWifiManager carWifiManager) {
+        mAcquired.remove(carWifiManager);
+        carWifiManager.release();
+    }
+}
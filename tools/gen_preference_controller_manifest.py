@@ -0,0 +1,170 @@
+#!/usr/bin/env python
+#
+# Copyright (C) 2018 The Android Open Source Project
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""Generates PreferenceControllerManifest.java from the preference screen XML.
+
+Usage: gen_preference_controller_manifest.py <res/xml directory> <java source root> <output java file>
+
+For every screen which declares settings:controller attributes, the generated manifest maps the
+screen's R.xml id to the ordered list of (preference key, controller constructor reference) pairs
+that PreferenceControllerListHelper would otherwise discover by parsing the XML and reflecting on
+the controller class names at runtime. Screens which cannot be represented statically (e.g. a
+controller without a key or a controller class which is not part of the
+source root) are left out so that the runtime fallback reports the error as before.
+"""
+
+import os
+import re
+import sys
+import xml.etree.ElementTree as ElementTree
+
+ANDROID_NS = '{http://schemas.android.com/apk/res/android}'
+SETTINGS_NS = '{http://schemas.android.com/apk/res-auto}'
+
+# Mirrors the element filter in PreferenceXmlParser#extractMetadata.
+SUPPORTED_PREF_TYPES = ('Preference', 'PreferenceCategory', 'PreferenceScreen')
+PREF_TAG_ENDS_WITH = 'Preference'
+PREF_GROUP_TAG_ENDS_WITH = 'PreferenceGroup'
+
+STRING_REF = re.compile(r'^@string/([A-Za-z0-9_]+)$')
+JAVA_NAME = re.compile(r'^[A-Za-z_$][A-Za-z0-9_$]*(\.[A-Za-z_$][A-Za-z0-9_$]*)+$')
+RESOURCE_NAME = re.compile(r'^[a-z0-9_]+$')
+
+HEADER = '''/*
+ * Copyright (C) 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// Generated by tools/gen_preference_controller_manifest.py. DO NOT EDIT.
+
+package com.android.car.settings.common;
+
+import android.annotation.Nullable;
+import android.annotation.XmlRes;
+
+import com.android.car.settings.R;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Build time manifest of the {@link PreferenceController} instances declared by each preference
+ * screen XML resource. See {@link PreferenceControllerListHelper}.
+ */
+final class PreferenceControllerManifest {
+
+    private PreferenceControllerManifest() {
+    }
+
+    /**
+     * Returns the controller entries declared by {@code xmlResId} in document order, or {@code
+     * null} if the screen is not part of the manifest.
+     */
+    @Nullable
+    static List<PreferenceControllerEntry> getEntries(@XmlRes int xmlResId) {
+        switch (xmlResId) {
+'''
+
+FOOTER = '''            default:
+                return null;
+        }
+    }
+}
+'''
+
+
+def is_preference_tag(tag):
+    return (tag in SUPPORTED_PREF_TYPES or tag.endswith(PREF_TAG_ENDS_WITH)
+            or tag.endswith(PREF_GROUP_TAG_ENDS_WITH))
+
+
+def java_string(value):
+    return '"%s"' % value.replace('\\', '\\\\').replace('"', '\\"')
+
+
+def has_source(src_dir, controller):
+    top_level_class = controller.split('$')[0]
+    return os.path.isfile(os.path.join(src_dir, *top_level_class.split('.')) + '.java')
+
+
+def parse_screen(path, src_dir):
+    """Returns the list of entry expressions for the screen, or None if it must be skipped."""
+    entries = []
+    for element in ElementTree.parse(path).getroot().iter():
+        if not is_preference_tag(element.tag):
+            continue
+        controller = element.get(SETTINGS_NS + 'controller')
+        if not controller:
+            continue
+        if not JAVA_NAME.match(controller) or not has_source(src_dir, controller):
+            return None
+        key = element.get(ANDROID_NS + 'key')
+        if not key:
+            return None
+        string_ref = STRING_REF.match(key)
+        if string_ref:
+            key_expr = 'PreferenceControllerEntry.forKeyRes(R.string.%s' % string_ref.group(1)
+        elif key.startswith('@') or key.startswith('?'):
+            return None
+        else:
+            key_expr = 'PreferenceControllerEntry.forKey(%s' % java_string(key)
+        entries.append('%s,\n                            %s,\n                            %s::new)' % (
+            key_expr, java_string(controller), controller.replace('$', '.')))
+    return entries
+
+
+def main(argv):
+    if len(argv) != 4:
+        sys.stderr.write(__doc__)
+        return 1
+    xml_dir, src_dir, output = argv[1], argv[2], argv[3]
+
+    cases = []
+    for filename in sorted(os.listdir(xml_dir)):
+        name, ext = os.path.splitext(filename)
+        if ext != '.xml' or not RESOURCE_NAME.match(name):
+            continue
+        entries = parse_screen(os.path.join(xml_dir, filename), src_dir)
+        if not entries:
+            continue
+        case = '            case R.xml.%s:\n                return Arrays.asList(\n' % name
+        case += ',\n'.join('                    ' + entry for entry in entries)
+        case += ');\n'
+        cases.append(case)
+
+    out_dir = os.path.dirname(output)
+    if out_dir and not os.path.isdir(out_dir):
+        os.makedirs(out_dir)
+    with open(output, 'w') as f:
+        f.write(HEADER)
+        f.write(''.join(cases))
+        f.write(FOOTER)
+    return 0
+
+
+if __name__ == '__main__':
+    sys.exit(main(sys.argv))